@@ -0,0 +1,169 @@
+package com.redhat.schema.pusher;
+
+import com.redhat.schema.pusher.avro.SchemaCorpus;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Startup benchmark for the time from launching the application until its first registration
+ * reaches a fake registry, for the plain JVM, the JVM with the class data sharing archive, and the
+ * native executable. Run after building the launchers, the paths default to the build directory and
+ * can be set with the {@code startup.jar}, {@code startup.archive}, and {@code startup.native}
+ * system properties.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(3)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+public class StartingUpBenchmark {
+  private static final String REGISTER_RESPONSE = "{\"id\": 1}";
+
+  /** The launchers of the application. */
+  public enum Launcher {
+    /** The jar with dependencies on the JVM. */
+    JVM,
+    /** The jar with dependencies on the JVM, with the class data sharing archive. */
+    APPCDS,
+    /** The native executable. */
+    NATIVE
+  }
+
+  @Param({"JVM", "APPCDS", "NATIVE"})
+  private Launcher launcher;
+
+  private HttpServer registry;
+  private volatile CountDownLatch registered;
+  private Path schemaDir;
+  private List<String> command;
+  private Process process;
+
+  /**
+   * Start the fake registry, write the schema to push, and resolve the launch command.
+   *
+   * @throws IOException when failed to start the registry or to write the schema.
+   */
+  @Setup
+  public void prepare() throws IOException {
+    registry = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    registry.createContext("/", this::respond);
+    registry.start();
+    schemaDir = Files.createTempDirectory("schema-pusher-startup");
+    var schema = SchemaCorpus.write(schemaDir, SchemaCorpus.Shape.SMALL, 1).get(0);
+    command = new ArrayList<>();
+    var jar = launcherPath("startup.jar", "target/schema-pusher-jar-with-dependencies.jar");
+    var java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    switch (launcher) {
+      case JVM -> command.addAll(List.of(java, "-jar", jar));
+      case APPCDS -> command.addAll(
+          List.of(
+              java,
+              "-XX:SharedArchiveFile="
+                  + launcherPath("startup.archive", "target/schema-pusher.jsa"),
+              "-Xshare:on",
+              "-jar",
+              jar));
+      case NATIVE -> command.add(launcherPath("startup.native", "target/schema-pusher"));
+    }
+    command.addAll(
+        List.of(
+            "--bootstrap-url=http://localhost:1",
+            String.format("--registry-url=http://localhost:%d", registry.getAddress().getPort()),
+            "--topic=" + schema.topic(),
+            "--schema-path=" + schema.schema(),
+            "--max-retries=0"));
+  }
+
+  /**
+   * Stop the fake registry and delete the schema.
+   *
+   * @throws IOException when failed to delete the schema.
+   */
+  @TearDown
+  public void cleanup() throws IOException {
+    registry.stop(0);
+    try (var paths = Files.walk(schemaDir)) {
+      for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  /**
+   * Wait for the launched application to exit, so it does not overlap the next launch.
+   *
+   * @throws InterruptedException when interrupted while waiting.
+   */
+  @TearDown(Level.Invocation)
+  public void awaitExit() throws InterruptedException {
+    process.waitFor();
+  }
+
+  /**
+   * Launch the application and wait for its first registration.
+   *
+   * @throws Exception when failed to launch, or the application exited without registering.
+   */
+  @Benchmark
+  public void firstRegistration() throws Exception {
+    registered = new CountDownLatch(1);
+    process =
+        new ProcessBuilder(command)
+            .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+            .redirectError(ProcessBuilder.Redirect.DISCARD)
+            .start();
+    while (!registered.await(10, TimeUnit.MILLISECONDS)) {
+      if (!process.isAlive()) {
+        throw new IllegalStateException(
+            String.format("%s exited with %d before registering", launcher, process.exitValue()));
+      }
+    }
+  }
+
+  private void respond(final HttpExchange exchange) throws IOException {
+    exchange.getRequestBody().readAllBytes();
+    if ("POST".equals(exchange.getRequestMethod())
+        && exchange.getRequestURI().getPath().endsWith("/versions")) {
+      registered.countDown();
+    }
+    var bytes = REGISTER_RESPONSE.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/vnd.schemaregistry.v1+json");
+    exchange.sendResponseHeaders(200, bytes.length);
+    try (var os = exchange.getResponseBody()) {
+      os.write(bytes);
+    }
+  }
+
+  private static String launcherPath(final String property, final String defaultPath) {
+    var path = Path.of(System.getProperty(property, defaultPath));
+    if (!Files.exists(path)) {
+      throw new IllegalStateException(
+          String.format("'%s' not found, build it first or set '%s'", path, property));
+    }
+    return path.toAbsolutePath().toString();
+  }
+}
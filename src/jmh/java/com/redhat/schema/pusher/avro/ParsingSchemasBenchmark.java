@@ -0,0 +1,45 @@
+package com.redhat.schema.pusher.avro;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Benchmark for parsing a schema file's content, once per distinct schema in a push. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(3)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+public class ParsingSchemasBenchmark {
+  @Param({"SMALL", "LARGE", "NESTED"})
+  private SchemaCorpus.Shape shape;
+
+  private String schemaString;
+
+  /** Generate the schema to parse. */
+  @Setup
+  public void generate() {
+    schemaString = SchemaCorpus.generate(shape, 0);
+  }
+
+  /**
+   * Parse the schema with a fresh parser, as each schema file is parsed on its own.
+   *
+   * @return the parsed {@link Schema}.
+   */
+  @Benchmark
+  public Schema parse() {
+    return new Schema.Parser().parse(schemaString);
+  }
+}
@@ -0,0 +1,131 @@
+package com.redhat.schema.pusher.avro;
+
+import com.redhat.schema.pusher.PushCli;
+import com.redhat.schema.pusher.ReturnCode;
+import com.redhat.schema.pusher.TopicAndSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.apache.avro.generic.IndexedRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import picocli.CommandLine;
+
+/**
+ * End to end benchmark for pushing a corpus of small schema files, reading, parsing, resolving, and
+ * registering each with an in-memory registry emptied before every push. Divide the score by the
+ * number of records for the per-schema cost.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(3)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+public class PushingSchemasBenchmark {
+  @Param({"10", "1000", "10000"})
+  private int records;
+
+  private Path corpusDir;
+  private List<TopicAndSchema> corpus;
+  private MockSchemaRegistryClient registry;
+  private AvroComponents components;
+  private PushCli cli;
+
+  /**
+   * Write the corpus and wire the components handing over the in-memory registry.
+   *
+   * @throws IOException when failed to write the corpus.
+   */
+  @Setup
+  public void prepare() throws IOException {
+    // the pusher logs every registration, keep the measurements clean
+    Logger.getLogger("com.redhat.schema.pusher").setLevel(Level.OFF);
+    corpusDir = Files.createTempDirectory("schema-pusher-corpus");
+    corpus = SchemaCorpus.write(corpusDir, SchemaCorpus.Shape.SMALL, records);
+    registry = new MockSchemaRegistryClient();
+    components = new BenchmarkComponents(registry);
+    cli =
+        new PushCli() {
+          public Integer call() {
+            // not needed for benchmarking
+            return 0;
+          }
+        };
+    new CommandLine(cli)
+        .parseArgs(
+            "-b=http://benchmark-kafka",
+            "-r=http://benchmark-registry",
+            "-t=" + corpus.get(0).topic(),
+            "-s=" + corpus.get(0).schema());
+  }
+
+  /**
+   * Delete the corpus.
+   *
+   * @throws IOException when failed to delete the corpus.
+   */
+  @TearDown
+  public void cleanup() throws IOException {
+    try (var paths = Files.walk(corpusDir)) {
+      for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  /**
+   * Push the whole corpus with a fresh pusher, as a single run would.
+   *
+   * @return the {@link ReturnCode} of the push.
+   */
+  @Benchmark
+  public ReturnCode push() {
+    registry.reset();
+    var pusher = new AvroSchemaPusher(cli, components);
+    var retCode = pusher.push(corpus);
+    if (retCode != ReturnCode.SUCCESS) {
+      throw new IllegalStateException(String.format("push failed with %s", retCode));
+    }
+    return retCode;
+  }
+
+  /** Components handing over the in-memory registry to the serializer. */
+  static final class BenchmarkComponents extends AvroComponents {
+    private final MockSchemaRegistryClient registry;
+
+    /**
+     * Constructor takes the in-memory registry to hand over.
+     *
+     * @param setRegistry the {@link MockSchemaRegistryClient} instance.
+     */
+    BenchmarkComponents(final MockSchemaRegistryClient setRegistry) {
+      this.registry = setRegistry;
+    }
+
+    @Override
+    public SchemaProducer<String, IndexedRecord> createProducer(final Properties producerProps) {
+      var props = new Properties();
+      props.putAll(producerProps);
+      props.put(AvroCustomSerializer.SCHEMA_REGISTRY_CLIENT_CONFIG, registry);
+      return new SchemaProducer<>(props);
+    }
+  }
+}
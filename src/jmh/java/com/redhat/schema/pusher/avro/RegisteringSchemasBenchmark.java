@@ -0,0 +1,130 @@
+package com.redhat.schema.pusher.avro;
+
+import com.redhat.schema.pusher.NamingStrategy;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
+import io.confluent.kafka.serializers.subject.strategy.SubjectNameStrategy;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the per-record overhead of registering a schema the registry already knows, through
+ * the serializer, through the striped registry client with the strategy class naming the subject,
+ * and through the direct registration engine. Run it with {@code -prof gc} for the allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(3)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+public class RegisteringSchemasBenchmark {
+  private static final String TOPIC = "benchmark";
+
+  @Param({"SMALL", "LARGE", "NESTED"})
+  private SchemaCorpus.Shape shape;
+
+  private AvroSchema avroSchema;
+  private AvroSchemaRecord schemaRecord;
+  private AvroCustomSerializer serializer;
+  private SchemaRegistryClient registry;
+  private SubjectNameStrategy subjectNameStrategy;
+  private AvroRegistrationEngine engine;
+
+  /**
+   * Configure the serializer and the registry client with in-memory registries, and register the
+   * schema once through each path.
+   *
+   * @throws Exception when failed to register the schema.
+   */
+  @Setup
+  public void configure() throws Exception {
+    avroSchema = new AvroSchema(SchemaCorpus.generate(shape, 0));
+    schemaRecord = new AvroSchemaRecord(avroSchema);
+    serializer = new AvroCustomSerializer();
+    serializer.configure(
+        Map.of(
+            AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://benchmark-registry",
+            AbstractKafkaSchemaSerDeConfig.VALUE_SUBJECT_NAME_STRATEGY,
+            NamingStrategy.TOPIC_RECORD.getStrategy(),
+            AvroCustomSerializer.SCHEMA_REGISTRY_CLIENT_CONFIG,
+            new MockSchemaRegistryClient()),
+        false);
+    serializer.serialize(TOPIC, schemaRecord);
+    registry =
+        new StripedRegistryClient(
+            new KafkaAvroSerializerConfig(
+                Map.of(
+                    AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG,
+                    "http://benchmark-registry")),
+            List.of(
+                new MockSchemaRegistryClient(),
+                new MockSchemaRegistryClient(),
+                new MockSchemaRegistryClient(),
+                new MockSchemaRegistryClient()));
+    subjectNameStrategy = NamingStrategy.TOPIC_RECORD.createStrategy();
+    engine = new AvroRegistrationEngine(NamingStrategy.TOPIC_RECORD, false);
+    registerWithClient();
+    registerWithEngine();
+  }
+
+  /** Close the serializer. */
+  @TearDown
+  public void close() {
+    serializer.close();
+  }
+
+  /**
+   * Register through the serializer, as the producer does.
+   *
+   * @return the serialized bytes.
+   */
+  @Benchmark
+  public byte[] registerWithSerializer() {
+    return serializer.serialize(TOPIC, schemaRecord);
+  }
+
+  /**
+   * Register with the registry client, as the pusher did without a producer.
+   *
+   * @return the registry id.
+   * @throws IOException when failed to communicate with the registry.
+   * @throws RestClientException when the registry rejected the schema.
+   */
+  @Benchmark
+  public int registerWithClient() throws IOException, RestClientException {
+    return registry.register(
+        subjectNameStrategy.subjectName(TOPIC, false, avroSchema), avroSchema, false);
+  }
+
+  /**
+   * Register with the direct registration engine, as the pusher does without a producer.
+   *
+   * @return the registry id.
+   * @throws IOException when failed to communicate with the registry.
+   * @throws RestClientException when the registry rejected the schema.
+   */
+  @Benchmark
+  public int registerWithEngine() throws IOException, RestClientException {
+    return engine.register(registry, engine.subjectOf(TOPIC, avroSchema.rawSchema()), avroSchema);
+  }
+}
@@ -0,0 +1,141 @@
+package com.redhat.schema.pusher.avro;
+
+import com.redhat.schema.pusher.TopicAndSchema;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+
+/**
+ * Synthetic AVRO schema corpus for the benchmarks. Each schema is named after its index, so a
+ * corpus registers one subject per schema, and its shape decides its parsing cost.
+ */
+public final class SchemaCorpus {
+  private static final String NAMESPACE = "com.redhat.schema.pusher.corpus";
+  private static final int LARGE_FIELDS = 200;
+  private static final int NESTED_DEPTH = 32;
+
+  /** The shapes of the generated schemas. */
+  public enum Shape {
+    /** A flat record with a handful of primitive fields. */
+    SMALL,
+    /** A flat record with hundreds of fields, mixing enums, arrays, maps, and unions. */
+    LARGE,
+    /** A chain of records, each nesting the next one. */
+    NESTED
+  }
+
+  private SchemaCorpus() {
+    //
+  }
+
+  /**
+   * Generate a schema.
+   *
+   * @param shape the {@link Shape} of the schema.
+   * @param index the index of the schema in the corpus, making its name unique.
+   * @return the {@link String} AVRO schema.
+   */
+  public static String generate(final Shape shape, final int index) {
+    var name = String.format("%s%d", capitalize(shape), index);
+    return switch (shape) {
+      case SMALL -> small(name).toString();
+      case LARGE -> large(name).toString();
+      case NESTED -> nested(name, 0).toString();
+    };
+  }
+
+  /**
+   * Write a corpus of schema files, one topic per file.
+   *
+   * @param directory the {@link Path} of the directory to write the files into.
+   * @param shape the {@link Shape} of the schemas.
+   * @param count the number of schemas to write.
+   * @return a {@link List} of {@link TopicAndSchema} records for the written files.
+   * @throws IOException when failed to write the files.
+   */
+  public static List<TopicAndSchema> write(final Path directory, final Shape shape, final int count)
+      throws IOException {
+    Files.createDirectories(directory);
+    var records = new ArrayList<TopicAndSchema>(count);
+    for (var i = 0; i < count; i++) {
+      var file =
+          directory.resolve(String.format("%s_%d.avsc", shape.name().toLowerCase(Locale.ROOT), i));
+      Files.writeString(file, generate(shape, i), StandardCharsets.UTF_8);
+      records.add(new TopicAndSchema(String.format("topic%d", i), file));
+    }
+    return records;
+  }
+
+  /**
+   * Write a corpus of schema files for pushing manually, i.e. {@code SchemaCorpus /tmp/corpus 1000
+   * LARGE}.
+   *
+   * @param args the target directory, the number of schemas, and optionally the {@link Shape}.
+   * @throws IOException when failed to write the files.
+   */
+  public static void main(final String... args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("usage: SchemaCorpus <directory> <count> [SMALL|LARGE|NESTED]");
+      System.exit(1);
+    }
+    var shape = args.length > 2 ? Shape.valueOf(args[2]) : Shape.SMALL;
+    var records = write(Path.of(args[0]), shape, Integer.parseInt(args[1]));
+    System.out.printf("wrote %d %s schemas to %s%n", records.size(), shape, args[0]);
+  }
+
+  private static Schema small(final String name) {
+    return SchemaBuilder.record(name)
+        .namespace(NAMESPACE)
+        .fields()
+        .requiredString("id")
+        .requiredLong("timestamp")
+        .optionalString("description")
+        .requiredInt("count")
+        .requiredBoolean("active")
+        .endRecord();
+  }
+
+  private static Schema large(final String name) {
+    var fields = SchemaBuilder.record(name).namespace(NAMESPACE).doc("a large record").fields();
+    for (var i = 0; i < LARGE_FIELDS; i++) {
+      var field = fields.name(String.format("field%d", i)).doc(String.format("field number %d", i));
+      fields =
+          switch (i % 6) {
+            case 0 -> field.type().stringType().noDefault();
+            case 1 -> field.type().longType().longDefault(i);
+            case 2 -> field.type().optional().doubleType();
+            case 3 -> field
+                .type()
+                .enumeration(String.format("%sEnum%d", name, i))
+                .symbols("FIRST", "SECOND", "THIRD")
+                .noDefault();
+            case 4 -> field.type().array().items().stringType().noDefault();
+            default -> field.type().map().values().intType().noDefault();
+          };
+    }
+    return fields.endRecord();
+  }
+
+  private static Schema nested(final String name, final int depth) {
+    var fields =
+        SchemaBuilder.record(String.format("%sLevel%d", name, depth))
+            .namespace(NAMESPACE)
+            .fields()
+            .requiredLong("value");
+    if (depth < NESTED_DEPTH) {
+      fields = fields.name("child").type(nested(name, depth + 1)).noDefault();
+    }
+    return fields.endRecord();
+  }
+
+  private static String capitalize(final Shape shape) {
+    var name = shape.name();
+    return name.charAt(0) + name.substring(1).toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,87 @@
+package com.redhat.schema.pusher.avro;
+
+import com.redhat.schema.pusher.NamingStrategy;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.avro.generic.GenericData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for serializing a schema record, resolving its subject and looking up its id with a
+ * registry already knowing it, isolating the serializer's own cost from the registry round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(3)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+public class SerializingSchemasBenchmark {
+  private static final String TOPIC = "benchmark";
+
+  @Param({"SMALL", "LARGE", "NESTED"})
+  private SchemaCorpus.Shape shape;
+
+  private AvroCustomSerializer serializer;
+  private AvroSchemaRecord schemaRecord;
+  private GenericData.Record plainRecord;
+
+  /** Configure the serializer with an in-memory registry, and register the schema once. */
+  @Setup
+  public void configure() {
+    var avroSchema = new AvroSchema(SchemaCorpus.generate(shape, 0));
+    schemaRecord = new AvroSchemaRecord(avroSchema);
+    plainRecord = new GenericData.Record(avroSchema.rawSchema());
+    serializer = new AvroCustomSerializer();
+    serializer.configure(
+        Map.of(
+            AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://benchmark-registry",
+            AbstractKafkaSchemaSerDeConfig.VALUE_SUBJECT_NAME_STRATEGY,
+            NamingStrategy.TOPIC_RECORD.getStrategy(),
+            AvroCustomSerializer.SCHEMA_REGISTRY_CLIENT_CONFIG,
+            new MockSchemaRegistryClient()),
+        false);
+    serializer.serialize(TOPIC, schemaRecord);
+  }
+
+  /** Close the serializer. */
+  @TearDown
+  public void close() {
+    serializer.close();
+  }
+
+  /**
+   * Serialize a record carrying its schema, as produced by the pusher.
+   *
+   * @return the serialized bytes.
+   */
+  @Benchmark
+  public byte[] serializeSchemaRecord() {
+    return serializer.serialize(TOPIC, schemaRecord);
+  }
+
+  /**
+   * Serialize a plain record, rebuilding its schema and canonical string on every call.
+   *
+   * @return the serialized bytes.
+   */
+  @Benchmark
+  public byte[] serializePlainRecord() {
+    return serializer.serialize(TOPIC, plainRecord);
+  }
+}
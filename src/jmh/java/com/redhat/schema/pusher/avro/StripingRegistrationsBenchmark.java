@@ -0,0 +1,131 @@
+package com.redhat.schema.pusher.avro;
+
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Contention benchmark for registering distinct subjects from a number of threads, through a single
+ * fake registry client guarded by a single monitor like the Confluent client, and through the
+ * striped client spreading the subjects over such clients. Each fake client waits on the network
+ * while holding its monitor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(3)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+public class StripingRegistrationsBenchmark {
+  private static final String SCHEMA_FMT =
+      "{\"type\": \"record\", \"name\": \"Record%d\", \"fields\": [{\"name\": \"id\", \"type\":"
+          + " \"long\"}]}";
+  private static final int STRIPES = 16;
+  private static final int REGISTRATIONS = 64;
+  private static final long FAKE_LATENCY_MILLIS = 5;
+
+  /** The client registering the schemas. */
+  public enum Client {
+    SINGLE,
+    STRIPED
+  }
+
+  @Param({"SINGLE", "STRIPED"})
+  private Client client;
+
+  @Param({"1", "4", "16"})
+  private int threads;
+
+  private List<AvroSchema> schemas;
+  private ExecutorService pool;
+  private SchemaRegistryClient registry;
+
+  /** Create the schemas and the registering threads. */
+  @Setup
+  public void configure() {
+    schemas =
+        IntStream.range(0, REGISTRATIONS)
+            .mapToObj(i -> new AvroSchema(String.format(SCHEMA_FMT, i)))
+            .toList();
+    pool = Executors.newFixedThreadPool(threads);
+  }
+
+  /** Create a fresh client per invocation, so no registration is served from its cache. */
+  @Setup(Level.Invocation)
+  public void createClient() {
+    registry =
+        client == Client.SINGLE
+            ? new SlowRegistryClient()
+            : new StripedRegistryClient(
+                new KafkaAvroSerializerConfig(
+                    Map.of(
+                        AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG,
+                        "http://benchmark-registry")),
+                IntStream.range(0, STRIPES).mapToObj(i -> new SlowRegistryClient()).toList());
+  }
+
+  /** Stop the registering threads. */
+  @TearDown
+  public void close() {
+    pool.shutdownNow();
+  }
+
+  /**
+   * Register the distinct subjects from the threads.
+   *
+   * @return the sum of the registry ids.
+   * @throws Exception when failed to register a schema.
+   */
+  @Benchmark
+  public int register() throws Exception {
+    var futures =
+        IntStream.range(0, REGISTRATIONS)
+            .mapToObj(i -> pool.submit(() -> registry.register("subject-" + i, schemas.get(i))))
+            .toList();
+    var sum = 0;
+    for (Future<Integer> future : futures) {
+      sum += future.get();
+    }
+    return sum;
+  }
+
+  /* Fake registry client waiting on the network while holding its monitor. */
+  private static final class SlowRegistryClient extends MockSchemaRegistryClient {
+    @Override
+    public synchronized int register(
+        final String subject, final ParsedSchema schema, final boolean normalize)
+        throws IOException, RestClientException {
+      try {
+        TimeUnit.MILLISECONDS.sleep(FAKE_LATENCY_MILLIS);
+      } catch (final InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      }
+      return super.register(subject, schema, normalize);
+    }
+  }
+}
@@ -0,0 +1,301 @@
+package com.redhat.schema.pusher;
+
+import static java.util.Objects.nonNull;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * An AIMD limiter for the number of calls in flight to a remote service. The limit grows by one for
+ * each limit's worth of successful calls while their latency stays close to the lowest latency
+ * observed, and is cut in half when the service signals overload, at most once per latency window,
+ * so a burst of rejections counts as a single congestion event. A latency drifting well above the
+ * baseline trims the limit gently, before the service starts rejecting.
+ *
+ * <p>An overload signal carrying a retry after delay pauses all the calls until it elapses. The
+ * current limit is exposed as a metric, via the platform MBean server, see {@link
+ * #registerMBean(String)}.
+ */
+public final class AdaptiveLimiter implements AdaptiveLimiterMXBean {
+  private static final Logger LOGGER = Logger.getLogger(AdaptiveLimiter.class.getName());
+
+  private static final double BACKOFF_RATIO = 0.5;
+  private static final double DRIFT_RATIO = 0.9;
+  private static final double LATENCY_TOLERANCE = 2.0;
+  private static final double SMOOTHING = 0.1;
+  private static final double BASELINE_DECAY = 0.01;
+
+  private final int maxLimit;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition permits = lock.newCondition();
+  private double limit;
+  private int inFlight;
+  private double smoothedLatency;
+  private double baselineLatency;
+  private long lastDecrease;
+  private long pausedUntil;
+  private long overloads;
+  private ObjectName mbeanName;
+
+  /**
+   * Constructor takes the initial and the maximum limits.
+   *
+   * @param initialLimit the limit to start with.
+   * @param setMaxLimit the limit the growth stops at.
+   */
+  public AdaptiveLimiter(final int initialLimit, final int setMaxLimit) {
+    this.maxLimit = Math.max(setMaxLimit, 1);
+    this.limit = Math.min(Math.max(initialLimit, 1), maxLimit);
+  }
+
+  /**
+   * Wrap the registering stages so each call waits for a permit and reports its outcome.
+   *
+   * @param <T> the type of the items flowing through the stages.
+   * @param stages the {@link List} of {@link PushExecutor.Stage} records, in order.
+   * @param overload the {@link Function} telling the failures signaling overload, returning the
+   *     retry after {@link Duration}, zero if not specified, or empty for other failures.
+   * @return a {@link List} of {@link PushExecutor.Stage} records with the registering stage
+   *     wrapped.
+   */
+  public <T> List<PushExecutor.Stage<T>> wrap(
+      final List<PushExecutor.Stage<T>> stages,
+      final Function<Exception, Optional<Duration>> overload) {
+    return stages.stream()
+        .map(
+            s ->
+                s.stage() == PipelineStage.REGISTER
+                    ? new PushExecutor.Stage<T>(
+                        s.stage(),
+                        s.width(),
+                        item -> {
+                          acquire();
+                          var start = System.nanoTime();
+                          try {
+                            s.action().apply(item);
+                          } catch (final Exception exc) {
+                            overload.apply(exc).ifPresentOrElse(this::onOverload, this::onIgnore);
+                            throw exc;
+                          }
+                          onSuccess(System.nanoTime() - start);
+                        })
+                    : s)
+        .toList();
+  }
+
+  /**
+   * Wait for a permit, while the calls in flight reach the limit or the calls are paused. Each
+   * permit should be released by reporting the call's outcome.
+   *
+   * @throws InterruptedException when interrupted while waiting.
+   */
+  public void acquire() throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      while (true) {
+        var pause = pausedUntil - System.nanoTime();
+        if (pause > 0) {
+          permits.awaitNanos(pause);
+        } else if (inFlight >= (int) limit) {
+          permits.await();
+        } else {
+          break;
+        }
+      }
+      inFlight++;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Take a permit without waiting, if the calls in flight are below the limit and the calls are not
+   * paused. A taken permit should be released by reporting the call's outcome.
+   *
+   * @return true if the permit was taken.
+   */
+  public boolean tryAcquire() {
+    lock.lock();
+    try {
+      if (pausedUntil - System.nanoTime() > 0 || inFlight >= (int) limit) {
+        return false;
+      }
+      inFlight++;
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Get the time left before the paused calls resume.
+   *
+   * @return the remaining {@link Duration}, zero if the calls are not paused.
+   */
+  public Duration remainingPause() {
+    lock.lock();
+    try {
+      return Duration.ofNanos(Math.max(pausedUntil - System.nanoTime(), 0));
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Report a successful call, releasing its permit.
+   *
+   * @param latencyNanos the latency of the call in nanoseconds.
+   */
+  public void onSuccess(final long latencyNanos) {
+    lock.lock();
+    try {
+      release();
+      if (baselineLatency == 0) {
+        baselineLatency = latencyNanos;
+        smoothedLatency = latencyNanos;
+      } else {
+        smoothedLatency += (latencyNanos - smoothedLatency) * SMOOTHING;
+        // the baseline follows the lowest latency, and slowly the current one
+        baselineLatency =
+            Math.min(
+                latencyNanos,
+                baselineLatency + (smoothedLatency - baselineLatency) * BASELINE_DECAY);
+      }
+      if (smoothedLatency > baselineLatency * LATENCY_TOLERANCE) {
+        decrease(DRIFT_RATIO);
+      } else if (limit < maxLimit) {
+        setLimit(Math.min(limit + 1 / limit, maxLimit));
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Report a call rejected for overload, releasing its permit and backing off.
+   *
+   * @param retryAfter the {@link Duration} the service asked to wait, zero if not specified.
+   */
+  public void onOverload(final Duration retryAfter) {
+    lock.lock();
+    try {
+      release();
+      overloads++;
+      decrease(BACKOFF_RATIO);
+      if (!retryAfter.isZero() && !retryAfter.isNegative()) {
+        pausedUntil = Math.max(pausedUntil, System.nanoTime() + retryAfter.toNanos());
+        LOGGER.info(
+            () -> String.format("pausing the registry calls for %d ms", retryAfter.toMillis()));
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Report a call failing for reasons other than overload, releasing its permit. */
+  public void onIgnore() {
+    lock.lock();
+    try {
+      release();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int getLimit() {
+    lock.lock();
+    try {
+      return (int) limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int getInFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public long getOverloads() {
+    lock.lock();
+    try {
+      return overloads;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Register the limiter with the platform MBean server, so the current limit can be monitored,
+   * replacing a limiter previously registered with the same name.
+   *
+   * @param name the {@link String} name of the limiter, used as the MBean name key.
+   */
+  public void registerMBean(final String name) {
+    try {
+      var server = ManagementFactory.getPlatformMBeanServer();
+      var objectName =
+          new ObjectName(
+              String.format("com.redhat.schema.pusher:type=AdaptiveLimiter,name=%s", name));
+      if (server.isRegistered(objectName)) {
+        server.unregisterMBean(objectName);
+      }
+      server.registerMBean(this, objectName);
+      mbeanName = objectName;
+    } catch (final JMException exc) {
+      LOGGER.log(Level.WARNING, exc, () -> "failed to register the limiter metric");
+    }
+  }
+
+  /** Unregister the limiter from the platform MBean server, if registered. */
+  public void unregisterMBean() {
+    if (nonNull(mbeanName)) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(mbeanName);
+      } catch (final JMException exc) {
+        LOGGER.log(Level.FINE, exc, () -> "failed to unregister the limiter metric");
+      }
+      mbeanName = null;
+    }
+  }
+
+  private void release() {
+    inFlight--;
+    permits.signalAll();
+  }
+
+  private void decrease(final double ratio) {
+    // a single decrease per latency window, the calls in flight saw the same congestion
+    var now = System.nanoTime();
+    if (now - lastDecrease < Math.max(smoothedLatency, TimeUnit.MILLISECONDS.toNanos(1))) {
+      return;
+    }
+    lastDecrease = now;
+    setLimit(Math.max(limit * ratio, 1));
+  }
+
+  private void setLimit(final double newLimit) {
+    var previous = (int) limit;
+    limit = newLimit;
+    if ((int) newLimit != previous) {
+      LOGGER.fine(() -> String.format("registry concurrency limit set to %d", (int) newLimit));
+    }
+  }
+}
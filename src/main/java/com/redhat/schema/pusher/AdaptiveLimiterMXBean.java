@@ -0,0 +1,25 @@
+package com.redhat.schema.pusher;
+
+/** Management interface exposing the {@link AdaptiveLimiter} metrics. */
+public interface AdaptiveLimiterMXBean {
+  /**
+   * Get the current limit of calls in flight.
+   *
+   * @return the current limit.
+   */
+  int getLimit();
+
+  /**
+   * Get the number of calls in flight.
+   *
+   * @return the calls in flight.
+   */
+  int getInFlight();
+
+  /**
+   * Get the number of calls rejected for overload.
+   *
+   * @return the number of overloads.
+   */
+  long getOverloads();
+}
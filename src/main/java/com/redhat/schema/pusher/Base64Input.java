@@ -0,0 +1,104 @@
+package com.redhat.schema.pusher;
+
+import static java.util.Objects.isNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Helper class for decoding a base64 encoded input specified inline, as the argument value itself,
+ * as {@value #ENV_PREFIX}NAME for an environment variable holding it, or as {@value
+ * #FILE_PREFIX}PATH for a file holding it. The input is decoded while it is read, straight into
+ * memory, nothing decoded is written to the file system. Line breaks and padding are tolerated, so
+ * the output of {@code base64} works wrapped or not.
+ */
+public final class Base64Input {
+  /** The prefix designating an environment variable holding the encoded input. */
+  public static final String ENV_PREFIX = "env:";
+
+  /** The prefix designating a file holding the encoded input. */
+  public static final String FILE_PREFIX = "file:";
+
+  private final String input;
+  private final Map<String, String> env;
+
+  /**
+   * Constructor takes the input specification.
+   *
+   * @param setInput the {@link String} encoded value, environment variable, or file.
+   */
+  public Base64Input(final String setInput) {
+    this(setInput, System.getenv());
+  }
+
+  /**
+   * Constructor takes the input specification and the environment to look variables up in.
+   *
+   * @param setInput the {@link String} encoded value, environment variable, or file.
+   * @param setEnv the {@link Map} of environment variables.
+   */
+  Base64Input(final String setInput, final Map<String, String> setEnv) {
+    this.input = setInput;
+    this.env = setEnv;
+  }
+
+  /**
+   * Open a stream decoding the input while it is read. The stream should be closed when done.
+   *
+   * @return the decoded {@link InputStream}.
+   * @throws IOException when the environment variable is not set or failed to open the file.
+   */
+  public InputStream open() throws IOException {
+    return Base64.getMimeDecoder().wrap(openEncoded());
+  }
+
+  /**
+   * Decode the whole input into a read-only buffer.
+   *
+   * @return the decoded {@link ByteBuffer}.
+   * @throws IOException when failed to read the input, or its encoding is malformed.
+   */
+  public ByteBuffer decode() throws IOException {
+    try (var decoded = open()) {
+      return ByteBuffer.wrap(decoded.readAllBytes()).asReadOnlyBuffer();
+    }
+  }
+
+  /**
+   * Describe where the input is read from, without disclosing it.
+   *
+   * @return the {@link String} description.
+   */
+  public String describe() {
+    if (input.startsWith(ENV_PREFIX)) {
+      return String.format("environment variable '%s'", input.substring(ENV_PREFIX.length()));
+    }
+    if (input.startsWith(FILE_PREFIX)) {
+      return String.format("file '%s'", input.substring(FILE_PREFIX.length()));
+    }
+    return "inline argument";
+  }
+
+  private InputStream openEncoded() throws IOException {
+    // the prefixes can not be mistaken for encoded content, colons are not in the base64 alphabet
+    if (input.startsWith(ENV_PREFIX)) {
+      var name = input.substring(ENV_PREFIX.length());
+      var value = env.get(name);
+      if (isNull(value)) {
+        throw new IOException(String.format("environment variable '%s' is not set", name));
+      }
+      return new ByteArrayInputStream(value.getBytes(StandardCharsets.US_ASCII));
+    }
+    if (input.startsWith(FILE_PREFIX)) {
+      return Files.newInputStream(Paths.get(input.substring(FILE_PREFIX.length())));
+    }
+    return new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII));
+  }
+}
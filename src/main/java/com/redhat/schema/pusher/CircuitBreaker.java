@@ -0,0 +1,102 @@
+package com.redhat.schema.pusher;
+
+import java.time.Duration;
+
+/**
+ * A circuit breaker guarding calls to a remote service. After a number of consecutive failures the
+ * circuit opens and calls are rejected without reaching the service, once the open duration
+ * elapses, a single probing call is let through, closing the circuit if it succeeds or opening it
+ * again if it fails.
+ */
+public final class CircuitBreaker {
+  /** The states of the circuit. */
+  public enum State {
+    /** Calls go through. */
+    CLOSED,
+    /** Calls are rejected. */
+    OPEN,
+    /** A single probing call is in flight, the rest are rejected. */
+    HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final long openNanos;
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAt;
+  private int timesOpened;
+
+  /**
+   * Constructor takes the failure threshold and the open duration.
+   *
+   * @param setFailureThreshold the number of consecutive failures opening the circuit.
+   * @param openDuration the {@link Duration} the circuit stays open before probing.
+   */
+  public CircuitBreaker(final int setFailureThreshold, final Duration openDuration) {
+    if (setFailureThreshold < 1) {
+      throw new IllegalArgumentException("the failure threshold should be positive");
+    }
+    this.failureThreshold = setFailureThreshold;
+    this.openNanos = openDuration.toNanos();
+  }
+
+  /**
+   * Ask for permission to make a call, a permitted call should be followed by reporting its result.
+   *
+   * @return true if the call may go through.
+   */
+  public synchronized boolean tryAcquire() {
+    if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+      state = State.HALF_OPEN;
+      return true;
+    }
+    return state == State.CLOSED;
+  }
+
+  /** Report a permitted call reached the service, closing the circuit. */
+  public synchronized void recordSuccess() {
+    consecutiveFailures = 0;
+    state = State.CLOSED;
+  }
+
+  /** Report a permitted call failed to reach the service, may open the circuit. */
+  public synchronized void recordFailure() {
+    consecutiveFailures++;
+    // calls started before the circuit opened do not extend the open duration
+    if (state == State.HALF_OPEN
+        || state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+      timesOpened++;
+      state = State.OPEN;
+      openedAt = System.nanoTime();
+    }
+  }
+
+  /**
+   * Get the time left before the open circuit lets a probing call through.
+   *
+   * @return the remaining {@link Duration}, zero if the circuit is not open.
+   */
+  public synchronized Duration remainingOpen() {
+    return state == State.OPEN
+        ? Duration.ofNanos(Math.max(openNanos - (System.nanoTime() - openedAt), 0))
+        : Duration.ZERO;
+  }
+
+  /**
+   * Get the current state of the circuit.
+   *
+   * @return the {@link State} member.
+   */
+  public synchronized State state() {
+    return state;
+  }
+
+  /**
+   * Get the number of times the circuit opened.
+   *
+   * @return the number of times opened.
+   */
+  public synchronized int timesOpened() {
+    return timesOpened;
+  }
+}
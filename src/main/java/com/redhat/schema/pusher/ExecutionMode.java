@@ -0,0 +1,12 @@
+package com.redhat.schema.pusher;
+
+/** Enum for relaying the execution mode used for pushing the schemas. */
+public enum ExecutionMode {
+  /** Use {@link StagedPipeline}, a bounded worker pool and queue per stage. */
+  PIPELINE,
+  /**
+   * Use {@link VirtualThreadExecutor}, a virtual thread per record gated by the maximum number of
+   * records in flight, requires Java 21 or falls back to platform threads.
+   */
+  VIRTUAL_THREADS
+}
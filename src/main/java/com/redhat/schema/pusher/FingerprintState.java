@@ -0,0 +1,181 @@
+package com.redhat.schema.pusher;
+
+import static java.util.Objects.isNull;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Helper class for keeping track of the schemas already registered by previous runs. Each entry
+ * maps a subject and a schema fingerprint to the registry id, a schema whose subject and
+ * fingerprint are recorded can skip the registry.
+ *
+ * <p>The state file is a compact binary file, memory mapped when loaded. It starts with a magic
+ * number and the number of entries, followed by the entries, each made of the fingerprint, the
+ * registry id, the subject length, and the UTF-8 subject. The ids are longs, as the native API's
+ * global ids are, the files of previous versions holding int ids are still read. The subject length
+ * is an unsigned short, subjects longer than {@value #MAX_SUBJECT_BYTES} bytes are left out of the
+ * file, and pushed again by the next run. The file is replaced atomically when saved.
+ */
+public final class FingerprintState {
+  private static final Logger LOGGER = Logger.getLogger(FingerprintState.class.getName());
+
+  private static final int MAGIC = 0x53505332; // SPS2
+  private static final int MAGIC_INT_IDS = 0x53505331; // SPS1
+  private static final int MAX_SUBJECT_BYTES = 0xFFFF;
+
+  private final Path file;
+  private final Map<Entry, Long> entries = new ConcurrentHashMap<>();
+  private volatile boolean modified;
+
+  private FingerprintState(final Path setFile) {
+    this.file = setFile;
+  }
+
+  /**
+   * Load the state from a file, a missing or corrupted file results in an empty state.
+   *
+   * @param file the {@link Path} of the state file.
+   * @return a {@link FingerprintState} instance.
+   * @throws IOException when failed to read an existing state file.
+   */
+  public static FingerprintState load(final Path file) throws IOException {
+    var state = new FingerprintState(file);
+    if (!Files.exists(file)) {
+      LOGGER.info(() -> String.format("state file '%s' not found, starting fresh", file));
+      return state;
+    }
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      var magic = buffer.remaining() < Integer.BYTES * 2 ? 0 : buffer.getInt();
+      if (magic != MAGIC && magic != MAGIC_INT_IDS) {
+        LOGGER.warning(() -> String.format("ignoring unrecognized state file '%s'", file));
+        return state;
+      }
+      var count = buffer.getInt();
+      for (var i = 0; i < count; i++) {
+        var fingerprint = buffer.getLong();
+        long id = magic == MAGIC ? buffer.getLong() : buffer.getInt();
+        var subject = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(subject);
+        state.entries.put(new Entry(new String(subject, StandardCharsets.UTF_8), fingerprint), id);
+      }
+    } catch (final BufferUnderflowException exc) {
+      LOGGER.warning(() -> String.format("ignoring truncated state file '%s'", file));
+      state.entries.clear();
+    }
+    LOGGER.info(() -> String.format("loaded %d entries from '%s'", state.size(), file));
+    return state;
+  }
+
+  /**
+   * Check if a schema was already registered.
+   *
+   * @param subject the {@link String} subject of the schema.
+   * @param fingerprint the fingerprint of the schema.
+   * @return true if the subject and fingerprint are recorded.
+   */
+  public boolean contains(final String subject, final long fingerprint) {
+    return entries.containsKey(new Entry(subject, fingerprint));
+  }
+
+  /**
+   * Record a schema registration, safe for concurrent use.
+   *
+   * @param subject the {@link String} subject of the schema.
+   * @param fingerprint the fingerprint of the schema.
+   * @param id the registry id of the schema.
+   */
+  public void record(final String subject, final long fingerprint, final long id) {
+    var prev = entries.put(new Entry(subject, fingerprint), id);
+    if (isNull(prev) || prev != id) {
+      modified = true;
+    }
+  }
+
+  /**
+   * Forget the schemas recorded for a subject, for when it was deleted from the registry, safe for
+   * concurrent use.
+   *
+   * @param subject the {@link String} subject to forget.
+   */
+  public void forget(final String subject) {
+    if (entries.keySet().removeIf(e -> e.subject().equals(subject))) {
+      modified = true;
+    }
+  }
+
+  /**
+   * Get the number of recorded entries.
+   *
+   * @return the number of entries.
+   */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Save the state if modified, writing a temporary file and moving it over the state file.
+   *
+   * @throws IOException when failed to write or move the state file.
+   */
+  public void save() throws IOException {
+    if (!modified) {
+      return;
+    }
+    var snapshot = new ArrayList<Encoded>(entries.size());
+    entries.forEach(
+        (key, id) -> {
+          var subject = key.subject().getBytes(StandardCharsets.UTF_8);
+          if (subject.length > MAX_SUBJECT_BYTES) {
+            LOGGER.warning(
+                () ->
+                    String.format(
+                        "not saving the state of a subject longer than %d bytes, '%.64s...'",
+                        MAX_SUBJECT_BYTES, key.subject()));
+          } else {
+            snapshot.add(new Encoded(subject, key.fingerprint(), id));
+          }
+        });
+    var absFile = file.toAbsolutePath();
+    var tmpFile =
+        Files.createTempFile(absFile.getParent(), absFile.getFileName().toString(), ".tmp");
+    try {
+      try (var out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(snapshot.size());
+        for (var entry : snapshot) {
+          out.writeLong(entry.fingerprint());
+          out.writeLong(entry.id());
+          out.writeShort(entry.subject().length);
+          out.write(entry.subject());
+        }
+      }
+      Files.move(
+          tmpFile, absFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      modified = false;
+      LOGGER.info(() -> String.format("saved %d entries to '%s'", snapshot.size(), absFile));
+    } finally {
+      Files.deleteIfExists(tmpFile);
+    }
+  }
+
+  /* The state key, a subject and a schema fingerprint. */
+  private record Entry(String subject, long fingerprint) {}
+
+  /* An entry as saved, the subject encoded. */
+  private record Encoded(byte[] subject, long fingerprint, long id) {}
+}
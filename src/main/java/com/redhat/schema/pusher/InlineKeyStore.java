@@ -0,0 +1,107 @@
+package com.redhat.schema.pusher;
+
+import static java.util.Objects.isNull;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nullable;
+
+/**
+ * Helper class for loading a base64 encoded PKCS12 store in memory and exposing its content as PEM
+ * text, the form the Kafka client takes inline, so the store is never written to the file system.
+ * The private key is exposed unencrypted, as it never leaves the process memory.
+ */
+public final class InlineKeyStore {
+  private static final String STORE_TYPE_PKCS12 = "PKCS12";
+  private static final Base64.Encoder PEM_ENCODER = Base64.getMimeEncoder(64, new byte[] {'\n'});
+
+  private final String certificates;
+  private final String certificateChain;
+  @Nullable private final String privateKey;
+
+  /**
+   * Constructor decodes and loads the store.
+   *
+   * @param setInput the {@link Base64Input} holding the encoded store.
+   * @param setPassword the {@link String} password for the store and its key.
+   * @throws IOException when failed to decode the store, or it is not a PKCS12 store the password
+   *     opens.
+   */
+  public InlineKeyStore(final Base64Input setInput, final String setPassword) throws IOException {
+    var password = setPassword.toCharArray();
+    var allCerts = new ArrayList<Certificate>();
+    var chain = new ArrayList<Certificate>();
+    PrivateKey key = null;
+    try (var decoded = setInput.open()) {
+      var store = KeyStore.getInstance(STORE_TYPE_PKCS12);
+      store.load(decoded, password);
+      for (var alias : Collections.list(store.aliases())) {
+        if (store.isKeyEntry(alias)) {
+          // the first key entry identifies the client, as the file based store would
+          if (isNull(key) && store.getKey(alias, password) instanceof PrivateKey entryKey) {
+            key = entryKey;
+            chain.addAll(List.of(store.getCertificateChain(alias)));
+          }
+          allCerts.addAll(List.of(store.getCertificateChain(alias)));
+        } else {
+          allCerts.add(store.getCertificate(alias));
+        }
+      }
+      this.certificates = toPem(allCerts);
+      this.certificateChain = toPem(chain);
+      this.privateKey = isNull(key) ? null : pem("PRIVATE KEY", key.getEncoded());
+    } catch (final GeneralSecurityException exc) {
+      throw new IOException(
+          String.format("failed loading the store from %s", setInput.describe()), exc);
+    }
+  }
+
+  /**
+   * Returns all the certificates of the store, for trusting them.
+   *
+   * @return the {@link String} PEM certificates.
+   */
+  public String getCertificates() {
+    return this.certificates;
+  }
+
+  /**
+   * Returns the certificate chain of the store's key.
+   *
+   * @return the {@link String} PEM certificates, empty if the store has no key.
+   */
+  public String getCertificateChain() {
+    return this.certificateChain;
+  }
+
+  /**
+   * Returns the store's key, unencrypted.
+   *
+   * @return the {@link String} PEM PKCS8 private key, {@code null} if the store has no key.
+   */
+  @Nullable
+  public String getPrivateKey() {
+    return this.privateKey;
+  }
+
+  private static String toPem(final List<Certificate> certs) throws GeneralSecurityException {
+    var builder = new StringBuilder();
+    for (var cert : certs) {
+      builder.append(pem("CERTIFICATE", cert.getEncoded()));
+    }
+    return builder.toString();
+  }
+
+  private static String pem(final String type, final byte[] encoded) {
+    return String.format(
+        "-----BEGIN %s-----\n%s\n-----END %s-----\n",
+        type, PEM_ENCODER.encodeToString(encoded), type);
+  }
+}
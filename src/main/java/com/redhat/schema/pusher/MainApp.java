@@ -2,10 +2,9 @@
 
 import static java.util.Objects.isNull;
 
-import com.redhat.schema.pusher.avro.AvroBeansConfig;
+import com.redhat.schema.pusher.avro.AvroComponents;
 import java.io.IOException;
 import java.util.logging.LogManager;
-import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import picocli.CommandLine;
 
 /** The main starting point of the application. */
@@ -18,8 +17,8 @@ private MainApp() {
   }
 
   /**
-   * Creates a DI context, grabs the {@link PushCli} implementation and loads a {@code
-   * picocli.CommandLine} instance.
+   * Wires the {@link PushCli} implementation by hand and loads a {@code picocli.CommandLine}
+   * instance.
    *
    * @param args the CLI argument pairs for parsing.
    */
@@ -32,12 +31,9 @@ public static void main(final String... args) {
         LogManager.getLogManager().reset();
       }
     }
-    // start di context, load the command line and execute it
-    try (var context = new AnnotationConfigApplicationContext(AvroBeansConfig.class)) {
-      var cliImpl = context.getBean(PushCli.class);
-      var cli = new CommandLine(cliImpl);
-      cli.setCaseInsensitiveEnumValuesAllowed(true);
-      System.exit(cli.execute(args));
-    }
+    // wire the components, load the command line and execute it
+    var cli = new CommandLine(new AvroComponents().createPushCli());
+    cli.setCaseInsensitiveEnumValuesAllowed(true);
+    System.exit(cli.execute(args));
   }
 }
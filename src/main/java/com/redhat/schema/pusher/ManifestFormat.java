@@ -0,0 +1,9 @@
+package com.redhat.schema.pusher;
+
+/** Enum for relaying the format of a topic and schema mapping manifest. */
+public enum ManifestFormat {
+  /** JSON Lines, one object per line, e.g. {@code {"topic": "sometopic", "schema": "a.avsc"}}. */
+  JSONL,
+  /** Comma separated values, one pair per line, e.g. {@code sometopic,a.avsc}. */
+  CSV
+}
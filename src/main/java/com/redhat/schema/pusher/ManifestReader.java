@@ -0,0 +1,229 @@
+package com.redhat.schema.pusher;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.annotation.Nullable;
+
+/**
+ * Helper class for reading topic and schema mappings from a manifest file or the standard input.
+ * The manifest is read one line at a time while the returned stream is consumed, so the memory
+ * footprint does not depend on the manifest size. Blank lines and lines starting with {@code #} are
+ * ignored, as is a {@code topic,schema} CSV header. Relative schema paths are resolved against the
+ * manifest's directory. Malformed lines are logged and skipped, and counted, so the run can be
+ * failed once the rest of the records are pushed.
+ */
+public final class ManifestReader {
+  private static final Logger LOGGER = Logger.getLogger(ManifestReader.class.getName());
+
+  /** The manifest value designating the standard input. */
+  public static final String STDIN = "-";
+
+  private static final ObjectReader JSON_READER = new ObjectMapper().readerFor(JsonNode.class);
+  private static final String CSV_HEADER = "topic,schema";
+  private static final String COMMENT_PREFIX = "#";
+
+  private final String manifest;
+  private final ManifestFormat format;
+  private final AtomicLong malformedLines = new AtomicLong();
+
+  /**
+   * Constructor takes the manifest source and format.
+   *
+   * @param setManifest the {@link String} manifest file path, or {@value #STDIN} for stdin.
+   * @param setFormat the {@link ManifestFormat} of the manifest, if {@code null} it will be
+   *     detected by the file extension, defaulting to {@link ManifestFormat#JSONL}.
+   */
+  public ManifestReader(final String setManifest, @Nullable final ManifestFormat setFormat) {
+    this.manifest = setManifest;
+    this.format = nonNull(setFormat) ? setFormat : detectFormat(setManifest);
+  }
+
+  /**
+   * Open the manifest and return a lazy stream of its records. The stream should be closed when
+   * done to release the underlying reader.
+   *
+   * @return a {@link Stream} of {@link TopicAndSchema} records.
+   * @throws IOException when failed to open the manifest file.
+   */
+  public Stream<TopicAndSchema> read() throws IOException {
+    if (STDIN.equals(manifest)) {
+      return read(System.in);
+    }
+    var manifestPath = Paths.get(manifest);
+    return read(
+        Files.newBufferedReader(manifestPath, StandardCharsets.UTF_8),
+        manifestPath.toAbsolutePath().getParent());
+  }
+
+  /**
+   * Return a lazy stream of the records of a manifest read from an input stream, such as the
+   * standard input or a request body. Relative schema paths are resolved against the working
+   * directory. The stream should be closed when done to release the input stream.
+   *
+   * @param input the {@link InputStream} to read the manifest from.
+   * @return a {@link Stream} of {@link TopicAndSchema} records.
+   */
+  public Stream<TopicAndSchema> read(final InputStream input) {
+    return read(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)), null);
+  }
+
+  private Stream<TopicAndSchema> read(final BufferedReader reader, @Nullable final Path baseDir) {
+    var iterator = new LineIterator(reader, baseDir);
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(
+            () -> {
+              try {
+                reader.close();
+              } catch (final IOException exc) {
+                throw new UncheckedIOException(exc);
+              }
+            });
+  }
+
+  /**
+   * Get the format used for reading the manifest.
+   *
+   * @return a {@link ManifestFormat} member.
+   */
+  public ManifestFormat getFormat() {
+    return this.format;
+  }
+
+  /**
+   * Get the number of malformed lines skipped so far while reading the manifest.
+   *
+   * @return the number of skipped lines.
+   */
+  public long getMalformedLines() {
+    return this.malformedLines.get();
+  }
+
+  private static ManifestFormat detectFormat(final String manifest) {
+    return manifest.toLowerCase(Locale.ROOT).endsWith(".csv")
+        ? ManifestFormat.CSV
+        : ManifestFormat.JSONL;
+  }
+
+  @Nullable
+  private TopicAndSchema parseLine(final String line, @Nullable final Path baseDir)
+      throws JsonProcessingException {
+    String topic;
+    String schema;
+    if (format == ManifestFormat.CSV) {
+      var sepIdx = line.indexOf(',');
+      if (sepIdx < 0) {
+        return null;
+      }
+      topic = unquote(line.substring(0, sepIdx));
+      schema = unquote(line.substring(sepIdx + 1));
+    } else {
+      var node = JSON_READER.<JsonNode>readValue(line);
+      topic = node.path("topic").asText("");
+      schema = node.path("schema").asText("");
+    }
+    if (topic.isEmpty() || schema.isEmpty()) {
+      return null;
+    }
+    var schemaPath = Paths.get(schema);
+    if (nonNull(baseDir) && !schemaPath.isAbsolute()) {
+      schemaPath = baseDir.resolve(schemaPath);
+    }
+    return new TopicAndSchema(topic, schemaPath);
+  }
+
+  private boolean isCsvHeader(final String line) {
+    return format == ManifestFormat.CSV && CSV_HEADER.equalsIgnoreCase(line.replace(" ", ""));
+  }
+
+  private static String unquote(final String value) {
+    var trimmed = value.trim();
+    return trimmed.length() > 1 && trimmed.startsWith("\"") && trimmed.endsWith("\"")
+        ? trimmed.substring(1, trimmed.length() - 1)
+        : trimmed;
+  }
+
+  /* ************************************************************ *
+   * Iterator reading and parsing the manifest one line at a time *
+   * ************************************************************ */
+  private final class LineIterator implements Iterator<TopicAndSchema> {
+    private final BufferedReader reader;
+    private final Path baseDir;
+    private long lineNumber;
+    private TopicAndSchema next;
+    private boolean done;
+
+    LineIterator(final BufferedReader setReader, @Nullable final Path setBaseDir) {
+      this.reader = setReader;
+      this.baseDir = setBaseDir;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (isNull(next) && !done) {
+        String line;
+        try {
+          line = reader.readLine();
+        } catch (final IOException exc) {
+          throw new UncheckedIOException(exc);
+        }
+        if (isNull(line)) {
+          done = true;
+          break;
+        }
+        lineNumber++;
+        var trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith(COMMENT_PREFIX) || isCsvHeader(trimmed)) {
+          continue;
+        }
+        try {
+          next = parseLine(trimmed, baseDir);
+        } catch (final JsonProcessingException | InvalidPathException exc) {
+          next = null;
+        }
+        if (isNull(next)) {
+          var badLine = lineNumber;
+          malformedLines.incrementAndGet();
+          LOGGER.severe(() -> String.format("skipping malformed manifest line %d", badLine));
+        }
+      }
+      return nonNull(next);
+    }
+
+    @Override
+    public TopicAndSchema next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      var ret = next;
+      next = null;
+      return ret;
+    }
+  }
+}
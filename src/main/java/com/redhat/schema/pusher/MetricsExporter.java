@@ -0,0 +1,279 @@
+package com.redhat.schema.pusher;
+
+import static java.util.Objects.nonNull;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+
+/**
+ * Exporter for the run's metrics, writing them as JSON and as Prometheus text when the run ends,
+ * and optionally serving both while it runs. For Prometheus, the first segment of a metric name is
+ * its family and the following segments are its labels, see {@link PushMetrics}. The timers are
+ * exported as summaries in seconds, with their sum derived from the sampled mean.
+ */
+public final class MetricsExporter implements AutoCloseable {
+  private static final Logger LOGGER = Logger.getLogger(MetricsExporter.class.getName());
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static final String PREFIX = "schema_pusher_";
+  private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+  private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+  private static final Map<String, List<String>> LABELS =
+      Map.of(
+          "phase", List.of("phase"),
+          "registry", List.of("endpoint", "status"),
+          "schemas", List.of("outcome"),
+          "limiter", List.of("limiter"));
+
+  private final MetricRegistry registry;
+  private final Path jsonFile;
+  private final Path prometheusFile;
+  private final HttpServer server;
+
+  /**
+   * Constructor takes the registry and the export targets, and starts serving the metrics if a port
+   * was specified.
+   *
+   * @param setRegistry the {@link MetricRegistry} to export.
+   * @param setJsonFile the {@link Path} to write the JSON metrics to, {@code null} if not used.
+   * @param setPrometheusFile the {@link Path} to write the Prometheus metrics to, {@code null} if
+   *     not used.
+   * @param port the port to serve the metrics on, zero if not served.
+   */
+  public MetricsExporter(
+      final MetricRegistry setRegistry,
+      @Nullable final Path setJsonFile,
+      @Nullable final Path setPrometheusFile,
+      final int port) {
+    this.registry = setRegistry;
+    this.jsonFile = setJsonFile;
+    this.prometheusFile = setPrometheusFile;
+    this.server = port > 0 ? serve(port) : null;
+  }
+
+  /**
+   * Create an exporter per the user specified options.
+   *
+   * @param cli the {@link PushCli} instance for fetching the metrics options.
+   * @return the {@link MetricsExporter} instance.
+   */
+  public static MetricsExporter of(final PushCli cli) {
+    return new MetricsExporter(
+        PushMetrics.registry(),
+        cli.getMetricsJson(),
+        cli.getMetricsPrometheus(),
+        Math.max(cli.getMetricsPort(), 0));
+  }
+
+  /** Stop serving the metrics, and write them to the specified files. */
+  @Override
+  public void close() {
+    if (nonNull(server)) {
+      server.stop(0);
+    }
+    write(jsonFile, this::toJson);
+    write(prometheusFile, this::toPrometheus);
+  }
+
+  /**
+   * Render the metrics as JSON, the timers in milliseconds.
+   *
+   * @return the {@link String} JSON document.
+   */
+  public String toJson() {
+    var root = MAPPER.createObjectNode();
+    var timers = root.putObject("timers");
+    registry
+        .getTimers()
+        .forEach(
+            (name, timer) -> {
+              var snapshot = timer.getSnapshot();
+              timers
+                  .putObject(name)
+                  .put("count", timer.getCount())
+                  .put("mean_ms", millis(snapshot.getMean()))
+                  .put("p50_ms", millis(snapshot.getMedian()))
+                  .put("p95_ms", millis(snapshot.get95thPercentile()))
+                  .put("p99_ms", millis(snapshot.get99thPercentile()))
+                  .put("max_ms", millis(snapshot.getMax()));
+            });
+    var counters = root.putObject("counters");
+    registry.getCounters().forEach((name, counter) -> counters.put(name, counter.getCount()));
+    var gauges = root.putObject("gauges");
+    registry.getGauges().forEach((name, gauge) -> gauges.putPOJO(name, gauge.getValue()));
+    try {
+      return MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(root);
+    } catch (final JsonProcessingException exc) {
+      throw new UncheckedIOException(exc);
+    }
+  }
+
+  /**
+   * Render the metrics in the Prometheus text exposition format.
+   *
+   * @return the {@link String} exposition.
+   */
+  public String toPrometheus() {
+    var families = new LinkedHashMap<String, List<String>>();
+    var types = new LinkedHashMap<String, String>();
+    registry
+        .getTimers()
+        .forEach(
+            (name, timer) -> {
+              var family = familyOf(name) + "_seconds";
+              types.put(family, "summary");
+              families.computeIfAbsent(family, k -> new ArrayList<>()).addAll(summary(name, timer));
+            });
+    registry
+        .getCounters()
+        .forEach(
+            (name, counter) -> {
+              var family = familyOf(name) + "_total";
+              types.put(family, "counter");
+              families
+                  .computeIfAbsent(family, k -> new ArrayList<>())
+                  .add(sample(family, labelsOf(name, null), counter.getCount()));
+            });
+    registry
+        .getGauges()
+        .forEach(
+            (name, gauge) -> {
+              if (gauge.getValue() instanceof Number value) {
+                var family = familyOf(name);
+                types.put(family, "gauge");
+                families
+                    .computeIfAbsent(family, k -> new ArrayList<>())
+                    .add(sample(family, labelsOf(name, null), value.doubleValue()));
+              }
+            });
+    var text = new StringBuilder();
+    families.forEach(
+        (family, samples) -> {
+          text.append(String.format("# TYPE %s %s\n", family, types.get(family)));
+          samples.forEach(s -> text.append(s).append('\n'));
+        });
+    return text.toString();
+  }
+
+  @Nullable
+  private HttpServer serve(final int port) {
+    try {
+      var httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+      httpServer.createContext(
+          "/metrics", exchange -> respond(exchange, PROMETHEUS_CONTENT_TYPE, this::toPrometheus));
+      httpServer.createContext(
+          "/metrics.json", exchange -> respond(exchange, "application/json", this::toJson));
+      httpServer.start();
+      LOGGER.info(() -> String.format("serving metrics on port %d", port));
+      return httpServer;
+    } catch (final IOException exc) {
+      // the push goes on without the endpoint, the metrics are still written at the end
+      LOGGER.log(
+          Level.WARNING, exc, () -> String.format("failed to serve metrics on port %d", port));
+      return null;
+    }
+  }
+
+  private static List<String> summary(final String name, final Timer timer) {
+    var family = familyOf(name) + "_seconds";
+    var snapshot = timer.getSnapshot();
+    var samples = new ArrayList<String>();
+    for (var quantile : QUANTILES) {
+      samples.add(
+          sample(
+              family,
+              labelsOf(name, String.format("quantile=\"%s\"", quantile)),
+              seconds(snapshot, quantile)));
+    }
+    samples.add(
+        sample(
+            family + "_sum",
+            labelsOf(name, null),
+            snapshot.getMean() * timer.getCount() / TimeUnit.SECONDS.toNanos(1)));
+    samples.add(sample(family + "_count", labelsOf(name, null), timer.getCount()));
+    return samples;
+  }
+
+  private static String familyOf(final String name) {
+    var segments = name.split("\\.");
+    var labelCount = LABELS.getOrDefault(segments[0], List.of()).size();
+    // the segments following the labels are part of the family name
+    var family = new StringBuilder(PREFIX).append(segments[0]);
+    Arrays.stream(segments, Math.min(labelCount + 1, segments.length), segments.length)
+        .forEach(s -> family.append('_').append(s));
+    return family.toString().replaceAll("[^a-zA-Z0-9_]", "_");
+  }
+
+  private static String labelsOf(final String name, @Nullable final String extra) {
+    var segments = name.split("\\.");
+    var keys = LABELS.getOrDefault(segments[0], List.of());
+    var labels = new ArrayList<String>();
+    for (var i = 0; i < keys.size() && i + 1 < segments.length; i++) {
+      labels.add(
+          String.format(
+              "%s=\"%s\"",
+              keys.get(i), segments[i + 1].replace("\\", "\\\\").replace("\"", "\\\"")));
+    }
+    if (nonNull(extra)) {
+      labels.add(extra);
+    }
+    return labels.isEmpty() ? "" : String.format("{%s}", String.join(",", labels));
+  }
+
+  private static String sample(final String family, final String labels, final double value) {
+    return value == Math.rint(value) && !Double.isInfinite(value)
+        ? String.format("%s%s %d", family, labels, (long) value)
+        : String.format("%s%s %s", family, labels, value);
+  }
+
+  private static double seconds(final Snapshot snapshot, final double quantile) {
+    return snapshot.getValue(quantile) / TimeUnit.SECONDS.toNanos(1);
+  }
+
+  private static double millis(final double nanos) {
+    return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  private static void respond(
+      final HttpExchange exchange, final String contentType, final Supplier<String> body)
+      throws IOException {
+    var bytes = body.get().getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", contentType);
+    exchange.sendResponseHeaders(200, bytes.length);
+    try (var os = exchange.getResponseBody()) {
+      os.write(bytes);
+    }
+  }
+
+  private static void write(@Nullable final Path file, final Supplier<String> body) {
+    if (nonNull(file)) {
+      try {
+        Files.writeString(file, body.get(), StandardCharsets.UTF_8);
+        LOGGER.info(() -> String.format("wrote metrics to '%s'", file));
+      } catch (final IOException exc) {
+        LOGGER.log(Level.SEVERE, exc, () -> String.format("failed to write metrics to '%s'", file));
+      }
+    }
+  }
+}
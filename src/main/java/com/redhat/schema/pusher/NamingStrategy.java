@@ -4,6 +4,7 @@
 import io.confluent.kafka.serializers.subject.TopicNameStrategy;
 import io.confluent.kafka.serializers.subject.TopicRecordNameStrategy;
 import io.confluent.kafka.serializers.subject.strategy.SubjectNameStrategy;
+import java.util.Map;
 
 /** Enum for relaying the subject naming strategy. */
 public enum NamingStrategy {
@@ -38,4 +39,35 @@ public enum NamingStrategy {
   public Class<?> getStrategy() {
     return this.strategy;
   }
+
+  /**
+   * Create a new configured instance of the relayed strategy.
+   *
+   * @return a new {@code io.confluent.kafka.serializers.subject.strategy.SubjectNameStrategy}.
+   */
+  public SubjectNameStrategy createStrategy() {
+    try {
+      var instance = (SubjectNameStrategy) this.strategy.getDeclaredConstructor().newInstance();
+      instance.configure(Map.of());
+      return instance;
+    } catch (final ReflectiveOperationException exc) {
+      throw new IllegalStateException("failed to instantiate " + this.strategy.getName(), exc);
+    }
+  }
+
+  /**
+   * Compute the value subject the relayed strategy would name, without instantiating it or wrapping
+   * the schema.
+   *
+   * @param topic the {@link String} topic name.
+   * @param recordName the {@link String} fully qualified record name of the schema.
+   * @return the {@link String} subject name.
+   */
+  public String subjectName(final String topic, final String recordName) {
+    return switch (this) {
+      case TOPIC -> topic + "-value";
+      case RECORD -> recordName;
+      case TOPIC_RECORD -> topic + "-" + recordName;
+    };
+  }
 }
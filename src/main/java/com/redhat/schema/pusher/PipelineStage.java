@@ -0,0 +1,28 @@
+package com.redhat.schema.pusher;
+
+/** Enum for relaying the stages of the push pipeline and their default widths. */
+public enum PipelineStage {
+  /** Reading the schema files, blocking file I/O. */
+  READ(4),
+  /** Parsing the schemas, CPU bound. */
+  PARSE(Runtime.getRuntime().availableProcessors()),
+  /** Fingerprinting the schemas and resolving their subjects, CPU bound. */
+  RESOLVE(Runtime.getRuntime().availableProcessors()),
+  /** Registering the schemas with the registry, blocking network I/O. */
+  REGISTER(32);
+
+  private final int defWidth;
+
+  PipelineStage(final int setDefWidth) {
+    this.defWidth = setDefWidth;
+  }
+
+  /**
+   * Get the default number of workers for the stage.
+   *
+   * @return the default stage width.
+   */
+  public int defaultWidth() {
+    return this.defWidth;
+  }
+}
@@ -1,7 +1,10 @@
 package com.redhat.schema.pusher;
 
+import static java.util.Objects.isNull;
+
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import javax.annotation.Nullable;
 import picocli.CommandLine.ArgGroup;
@@ -14,8 +17,9 @@ public abstract class PushCli implements Callable<Integer> {
    * ******************** */
   @Option(
       names = {"-b", "--bootstrap-url"},
-      description = "The url for Kafka's bootstrap server.",
-      required = true)
+      description =
+          "The url for Kafka's bootstrap server, the schemas are registered via the Kafka"
+              + " serializer if specified, or directly with the registry client if not.")
   private String kafkaBootstrap;
 
   @Option(
@@ -30,8 +34,192 @@ public abstract class PushCli implements Callable<Integer> {
       defaultValue = "TOPIC_RECORD")
   private NamingStrategy namingStrategy;
 
-  @ArgGroup(exclusive = false, multiplicity = "1..*")
-  private List<TopicSchemaAggregator> topicSchemaAggregators;
+  @Option(
+      names = {"--execution-mode"},
+      description =
+          "The execution mode for pushing the schemas, [${COMPLETION-CANDIDATES}] (default:"
+              + " ${DEFAULT-VALUE}).",
+      defaultValue = "PIPELINE")
+  private ExecutionMode executionMode;
+
+  @Option(
+      names = {"--max-in-flight"},
+      description =
+          "The maximum number of schemas in flight with the VIRTUAL_THREADS execution mode"
+              + " (default: ${DEFAULT-VALUE}).",
+      defaultValue = "512")
+  private int maxInFlight;
+
+  @Option(
+      names = {"-w", "--stage-width"},
+      description =
+          "The number of workers for a push pipeline stage, repeatable, e.g. REGISTER=64, stages:"
+              + " [${COMPLETION-CANDIDATES}].")
+  private Map<PipelineStage, Integer> stageWidths;
+
+  @Option(
+      names = {"--stage-queue-size"},
+      description = "The capacity of each push pipeline stage queue (default: ${DEFAULT-VALUE}).",
+      defaultValue = "256")
+  private int stageQueueSize;
+
+  @Option(
+      names = {"--resolve-references"},
+      description =
+          "Resolve named types shared across the schema files, registering them in dependency"
+              + " order as schema references.")
+  private boolean resolveReferences;
+
+  @Option(
+      names = {"--reconcile"},
+      description =
+          "Fetch the registry's current view first and register only the new and changed schemas,"
+              + " not applicable with --resolve-references.")
+  private boolean reconcile;
+
+  @Option(
+      names = {"--prune"},
+      description =
+          "With --reconcile, soft delete the registry subjects not in the input, use with care,"
+              + " not applicable with --watch or --serve-port.")
+  private boolean prune;
+
+  @Option(
+      names = {"--check-compatibility"},
+      description =
+          "Check all the schemas locally against the registered versions of their subjects per"
+              + " each subject's compatibility level before registering any, an incompatible"
+              + " schema fails the push with nothing registered, not applicable with"
+              + " --resolve-references.")
+  private boolean checkCompatibility;
+
+  @Option(
+      names = {"--state-file"},
+      description =
+          "The file keeping the schemas registered by previous runs, unchanged schemas skip the"
+              + " registry.")
+  private Path stateFile;
+
+  @Option(
+      names = {"--max-open-files"},
+      description = "The maximum number of schema files open at once (default: ${DEFAULT-VALUE}).",
+      defaultValue = "64")
+  private int maxOpenFiles;
+
+  @Option(
+      names = {"--mmap-threshold"},
+      description =
+          "The size in bytes above which schema files are memory mapped instead of read into"
+              + " buffers, pooled up to 64 KiB (default: ${DEFAULT-VALUE}).",
+      defaultValue = "65536")
+  private int mmapThreshold;
+
+  @Option(
+      names = {"--registry-api"},
+      description =
+          "The registry API to push with, one of [${COMPLETION-CANDIDATES}] (default:"
+              + " ${DEFAULT-VALUE}), NATIVE ignores the kafka bootstrap.",
+      defaultValue = "CCOMPAT")
+  private RegistryApi registryApi;
+
+  @Option(
+      names = {"--bulk-threshold"},
+      description =
+          "With the NATIVE registry API, the number of new artifacts from which they are registered"
+              + " with a single bulk import (default: ${DEFAULT-VALUE}).",
+      defaultValue = "100")
+  private int bulkThreshold;
+
+  @Option(
+      names = {"--async-registry"},
+      description =
+          "Register the schemas ahead of producing, with a non-blocking client multiplexing the"
+              + " registrations over HTTP/2 connections.")
+  private boolean asyncRegistry;
+
+  @Option(
+      names = {"--gzip-threshold"},
+      description =
+          "With --async-registry, the request size in bytes above which registrations are"
+              + " compressed, 0 to never compress (default: ${DEFAULT-VALUE}).",
+      defaultValue = "0")
+  private int gzipThreshold;
+
+  @Option(
+      names = {"--registry-stripes"},
+      description =
+          "The number of registry clients subjects are spread over, so unrelated subjects register"
+              + " in parallel (default: ${DEFAULT-VALUE}).",
+      defaultValue = "16")
+  private int registryStripes;
+
+  @Option(
+      names = {"--max-retries"},
+      description =
+          "The number of times a schema failing to register transiently is retried, 0 to never"
+              + " retry (default: ${DEFAULT-VALUE}).",
+      defaultValue = "3")
+  private int maxRetries;
+
+  @Option(
+      names = {"--retry-backoff"},
+      description =
+          "The backoff in milliseconds before the first retry, doubled for each retry, with a"
+              + " random jitter (default: ${DEFAULT-VALUE}).",
+      defaultValue = "200")
+  private int retryBackoff;
+
+  @Option(
+      names = {"--breaker-threshold"},
+      description =
+          "The number of consecutive transient failures after which the registry is considered"
+              + " down and calls pause for a while (default: ${DEFAULT-VALUE}).",
+      defaultValue = "5")
+  private int breakerThreshold;
+
+  @Option(
+      names = {"--adaptive-concurrency"},
+      description =
+          "Adapt the number of registrations in flight to the registry, growing it while the"
+              + " latency is stable and backing off on overload, up to the REGISTER stage width.")
+  private boolean adaptiveConcurrency;
+
+  @Option(
+      names = {"--metrics-json"},
+      description = "A file to write the run's metrics to as JSON when the run ends.")
+  private Path metricsJson;
+
+  @Option(
+      names = {"--metrics-prometheus"},
+      description = "A file to write the run's metrics to as Prometheus text when the run ends.")
+  private Path metricsPrometheus;
+
+  @Option(
+      names = {"--metrics-port"},
+      description =
+          "A port to serve the metrics on while running, as Prometheus text on /metrics and as"
+              + " JSON on /metrics.json (default: not served).",
+      defaultValue = "0")
+  private int metricsPort;
+
+  @Option(
+      names = {"--report-json"},
+      description = "A file to write the run report to as JSON when the run ends.")
+  private Path reportJson;
+
+  @Option(
+      names = {"--report-junit"},
+      description = "A file to write the run report to as JUnit XML when the run ends.")
+  private Path reportJunit;
+
+  @Option(
+      names = {"--report-top"},
+      description = "The number of slowest schemas listed at the end of the report (default: 10).",
+      defaultValue = "10")
+  private int reportTop;
+
+  @ArgGroup(exclusive = true, multiplicity = "1")
+  private SchemaSource schemaSource;
 
   @ArgGroup(exclusive = false, multiplicity = "0..*")
   private List<PropertyAggregator> propertyAggregators;
@@ -42,6 +230,27 @@ public abstract class PushCli implements Callable<Integer> {
   @ArgGroup(exclusive = false, multiplicity = "0..1")
   private KeystoreInfo keystoreInfo;
 
+  /**
+   * Use for selecting the schemas source, either topics-schema_path pairs, directories, a manifest,
+   * an archive, or push jobs served over HTTP.
+   */
+  public static final class SchemaSource {
+    @ArgGroup(exclusive = false, multiplicity = "1..*")
+    private List<TopicSchemaAggregator> topicSchemaAggregators;
+
+    @ArgGroup(exclusive = false, multiplicity = "1")
+    private DirectoryInfo directoryInfo;
+
+    @ArgGroup(exclusive = false, multiplicity = "1")
+    private ManifestInfo manifestInfo;
+
+    @ArgGroup(exclusive = false, multiplicity = "1")
+    private ArchiveInfo archiveInfo;
+
+    @ArgGroup(exclusive = false, multiplicity = "1")
+    private ServeInfo serveInfo;
+  }
+
   /** Use for aggregating topics-schema_path pairs specified by the user. */
   public static final class TopicSchemaAggregator {
     @Option(
@@ -50,11 +259,8 @@ public static final class TopicSchemaAggregator {
         required = true)
     private String topic;
 
-    @Option(
-        names = {"-s", "--schema-path"},
-        description = "The schema path for the topic, correlated with a topic.",
-        required = true)
-    private Path schemaPath;
+    @ArgGroup(exclusive = true, multiplicity = "1")
+    private SchemaInput schemaInput;
 
     /**
      * Returns the topic.
@@ -68,10 +274,288 @@ public String getTopic() {
     /**
      * Returns the schema path.
      *
-     * @return the schema file {@link Path}.
+     * @return the schema file {@link Path}, {@code null} if specified base64 encoded.
      */
+    @Nullable
     public Path getSchemaPath() {
-      return this.schemaPath;
+      return isNull(this.schemaInput) ? null : this.schemaInput.schemaPath;
+    }
+
+    /**
+     * Returns the base64 encoded schema.
+     *
+     * @return the {@link String} encoded schema, environment variable, or file, {@code null} if
+     *     specified by path.
+     */
+    @Nullable
+    public String getSchemaBase64() {
+      return isNull(this.schemaInput) ? null : this.schemaInput.schemaBase64;
+    }
+  }
+
+  /** Use for selecting the schema of a topic, either a path or a base64 encoded schema. */
+  public static final class SchemaInput {
+    @Option(
+        names = {"-s", "--schema-path"},
+        description = "The schema path for the topic, correlated with a topic.",
+        required = true)
+    private Path schemaPath;
+
+    @Option(
+        names = {"--sb", "--schema-base64"},
+        description =
+            "The base64 encoded schema for the topic, correlated with a topic, decoded in memory,"
+                + " use 'env:NAME' or 'file:PATH' for reading it from an environment variable or a"
+                + " file.",
+        required = true)
+    private String schemaBase64;
+  }
+
+  /** Use for binding the directories walking specification. */
+  public static final class DirectoryInfo {
+    @Option(
+        names = {"-d", "--schema-dir"},
+        description = "A root directory to walk for schema files, repeatable.",
+        required = true)
+    private List<Path> schemaDirs;
+
+    @Option(
+        names = {"--include"},
+        description =
+            "A glob for schema files to include, relative to the root, repeatable (default:"
+                + " ${DEFAULT-VALUE}).",
+        defaultValue = "**.avsc")
+    private List<String> includeGlobs;
+
+    @Option(
+        names = {"--exclude"},
+        description =
+            "A glob for files and directories to exclude, relative to the root, repeatable.")
+    private List<String> excludeGlobs;
+
+    @Option(
+        names = {"--topic-template"},
+        description =
+            "The template for deriving the topic from the schema file, supports {name}, {file},"
+                + " {parent}, and {path} (default: ${DEFAULT-VALUE}).",
+        defaultValue = "{name}")
+    private String topicTemplate;
+
+    @Option(
+        names = {"--watch"},
+        description =
+            "Keep watching the root directories after pushing, and push the schema files created"
+                + " or modified, the caches and the registry connections are kept warm between"
+                + " changes.")
+    private boolean watch;
+
+    @Option(
+        names = {"--watch-debounce"},
+        description =
+            "The milliseconds the directories should be quiet before pushing the changed files"
+                + " (default: ${DEFAULT-VALUE}).",
+        defaultValue = "500")
+    private long watchDebounce;
+
+    /**
+     * Returns the root directories.
+     *
+     * @return a {@link List} of directory {@link Path} instances.
+     */
+    public List<Path> getSchemaDirs() {
+      return this.schemaDirs;
+    }
+
+    /**
+     * Returns the include globs.
+     *
+     * @return a {@link List} of {@link String} glob patterns.
+     */
+    public List<String> getIncludeGlobs() {
+      return this.includeGlobs;
+    }
+
+    /**
+     * Returns the exclude globs.
+     *
+     * @return a {@link List} of {@link String} glob patterns.
+     */
+    @Nullable
+    public List<String> getExcludeGlobs() {
+      return this.excludeGlobs;
+    }
+
+    /**
+     * Returns the topic template.
+     *
+     * @return the {@link String} topic template.
+     */
+    public String getTopicTemplate() {
+      return this.topicTemplate;
+    }
+
+    /**
+     * Returns true if the root directories should be watched after pushing.
+     *
+     * @return true for watching.
+     */
+    public boolean isWatch() {
+      return this.watch;
+    }
+
+    /**
+     * Returns the milliseconds the directories should be quiet before pushing the changed files.
+     *
+     * @return the debounce milliseconds.
+     */
+    public long getWatchDebounce() {
+      return this.watchDebounce;
+    }
+  }
+
+  /** Use for binding the topic and schema mapping manifest. */
+  public static final class ManifestInfo {
+    @Option(
+        names = {"-m", "--manifest"},
+        description =
+            "A manifest file mapping topics to schema paths, one mapping per line, use '-' for"
+                + " the standard input.",
+        required = true)
+    private String manifest;
+
+    @Option(
+        names = {"--manifest-format"},
+        description =
+            "The manifest format, [${COMPLETION-CANDIDATES}] (default: by the file extension,"
+                + " JSONL for the standard input).")
+    private ManifestFormat manifestFormat;
+
+    /**
+     * Returns the manifest file path or '-' for the standard input.
+     *
+     * @return the {@link String} manifest.
+     */
+    public String getManifest() {
+      return this.manifest;
+    }
+
+    /**
+     * Returns the manifest format.
+     *
+     * @return a {@link ManifestFormat} member.
+     */
+    @Nullable
+    public ManifestFormat getManifestFormat() {
+      return this.manifestFormat;
+    }
+  }
+
+  /** Use for binding the schemas archive specification. */
+  public static final class ArchiveInfo {
+    @Option(
+        names = {"-a", "--archive"},
+        description =
+            "A tar, tar.gz, or zip archive of schema files, streamed without extracting it, use"
+                + " '-' for the standard input.",
+        required = true)
+    private String archive;
+
+    @Option(
+        names = {"--archive-include"},
+        description =
+            "A glob for archive entries to include, relative to the archive root, repeatable"
+                + " (default: ${DEFAULT-VALUE}).",
+        defaultValue = "**.avsc")
+    private List<String> includeGlobs;
+
+    @Option(
+        names = {"--archive-topic-template"},
+        description =
+            "The template for deriving the topic from the entry name, supports {name}, {file},"
+                + " {parent}, and {path} (default: ${DEFAULT-VALUE}).",
+        defaultValue = "{name}")
+    private String topicTemplate;
+
+    /**
+     * Returns the archive file path or '-' for the standard input.
+     *
+     * @return the {@link String} archive.
+     */
+    public String getArchive() {
+      return this.archive;
+    }
+
+    /**
+     * Returns the include globs.
+     *
+     * @return a {@link List} of {@link String} globs.
+     */
+    public List<String> getIncludeGlobs() {
+      return this.includeGlobs;
+    }
+
+    /**
+     * Returns the topic template.
+     *
+     * @return the {@link String} template.
+     */
+    public String getTopicTemplate() {
+      return this.topicTemplate;
+    }
+  }
+
+  /** Use for binding the push jobs server specification. */
+  public static final class ServeInfo {
+    @Option(
+        names = {"--serve-port"},
+        description =
+            "Serve push jobs over HTTP on this port instead of pushing once, a job is a manifest"
+                + " posted to /jobs, the process, its caches, and its registry connections are"
+                + " kept warm between jobs.",
+        required = true)
+    private int servePort;
+
+    @Option(
+        names = {"--serve-address"},
+        description =
+            "The address to serve push jobs on, the jobs are not authenticated, serve beyond the"
+                + " loopback on trusted networks only (default: ${DEFAULT-VALUE}).",
+        defaultValue = "127.0.0.1")
+    private String serveAddress;
+
+    @Option(
+        names = {"--max-jobs"},
+        description =
+            "The maximum number of push jobs running at once when serving, more are rejected"
+                + " until one ends (default: ${DEFAULT-VALUE}).",
+        defaultValue = "2")
+    private int maxJobs;
+
+    /**
+     * Returns the port to serve push jobs on.
+     *
+     * @return the serve port.
+     */
+    public int getServePort() {
+      return this.servePort;
+    }
+
+    /**
+     * Returns the address to serve push jobs on.
+     *
+     * @return the serve address.
+     */
+    public String getServeAddress() {
+      return this.serveAddress;
+    }
+
+    /**
+     * Returns the maximum number of push jobs running at once.
+     *
+     * @return the maximum number of jobs.
+     */
+    public int getMaxJobs() {
+      return this.maxJobs;
     }
   }
 
@@ -108,13 +592,10 @@ public String getPropertyValue() {
     }
   }
 
-  /** Use for binding the truststore pkcs12 path and password keys. */
+  /** Use for binding the truststore pkcs12 path or base64 content and password keys. */
   public static final class TruststoreInfo {
-    @Option(
-        names = {"--tf", "--truststore-file"},
-        description = "The path for the truststore pkcs12 file for use with the Kafka producer",
-        required = true)
-    private String truststoreFile;
+    @ArgGroup(exclusive = true, multiplicity = "1")
+    private TruststoreInput truststoreInput;
 
     @Option(
         names = {"--tp", "--truststore-password"},
@@ -125,10 +606,22 @@ public static final class TruststoreInfo {
     /**
      * Returns the truststore file path.
      *
-     * @return the truststore file path.
+     * @return the truststore file path, {@code null} if specified base64 encoded.
      */
+    @Nullable
     public String getTruststoreFile() {
-      return this.truststoreFile;
+      return isNull(this.truststoreInput) ? null : this.truststoreInput.truststoreFile;
+    }
+
+    /**
+     * Returns the base64 encoded truststore.
+     *
+     * @return the encoded truststore, environment variable, or file, {@code null} if specified by
+     *     path.
+     */
+    @Nullable
+    public String getTruststoreBase64() {
+      return isNull(this.truststoreInput) ? null : this.truststoreInput.truststoreBase64;
     }
 
     /**
@@ -141,13 +634,28 @@ public String getTruststorePassword() {
     }
   }
 
-  /** Use for binding the keystore pkcs12 path and password keys. */
-  public static final class KeystoreInfo {
+  /** Use for selecting the truststore, either a pkcs12 file or its base64 encoded content. */
+  public static final class TruststoreInput {
     @Option(
-        names = {"--kf", "--keystore-file"},
-        description = "The path for the keystore pkcs12 file for use with the Kafka producer",
+        names = {"--tf", "--truststore-file"},
+        description = "The path for the truststore pkcs12 file for use with the Kafka producer",
         required = true)
-    private String keystoreFile;
+    private String truststoreFile;
+
+    @Option(
+        names = {"--tb", "--truststore-base64"},
+        description =
+            "The base64 encoded truststore pkcs12 file for use with the Kafka producer, loaded in"
+                + " memory, use 'env:NAME' or 'file:PATH' for reading it from an environment"
+                + " variable or a file",
+        required = true)
+    private String truststoreBase64;
+  }
+
+  /** Use for binding the keystore pkcs12 path or base64 content and password keys. */
+  public static final class KeystoreInfo {
+    @ArgGroup(exclusive = true, multiplicity = "1")
+    private KeystoreInput keystoreInput;
 
     @Option(
         names = {"--kp", "--keystore-password"},
@@ -158,10 +666,22 @@ public static final class KeystoreInfo {
     /**
      * Returns the keystore file path.
      *
-     * @return the keystore file path.
+     * @return the keystore file path, {@code null} if specified base64 encoded.
      */
+    @Nullable
     public String getKeystoreFile() {
-      return this.keystoreFile;
+      return isNull(this.keystoreInput) ? null : this.keystoreInput.keystoreFile;
+    }
+
+    /**
+     * Returns the base64 encoded keystore.
+     *
+     * @return the encoded keystore, environment variable, or file, {@code null} if specified by
+     *     path.
+     */
+    @Nullable
+    public String getKeystoreBase64() {
+      return isNull(this.keystoreInput) ? null : this.keystoreInput.keystoreBase64;
     }
 
     /**
@@ -174,14 +694,33 @@ public String getKeystorePassword() {
     }
   }
 
+  /** Use for selecting the keystore, either a pkcs12 file or its base64 encoded content. */
+  public static final class KeystoreInput {
+    @Option(
+        names = {"--kf", "--keystore-file"},
+        description = "The path for the keystore pkcs12 file for use with the Kafka producer",
+        required = true)
+    private String keystoreFile;
+
+    @Option(
+        names = {"--kb", "--keystore-base64"},
+        description =
+            "The base64 encoded keystore pkcs12 file for use with the Kafka producer, loaded in"
+                + " memory, use 'env:NAME' or 'file:PATH' for reading it from an environment"
+                + " variable or a file",
+        required = true)
+    private String keystoreBase64;
+  }
+
   /* ************* *
    * Field Getters *
    * ************* */
   /**
    * Get Kafka's bootstrap url as specified by the user.
    *
-   * @return a {@link String} url.
+   * @return a {@link String} url, {@code null} if not specified.
    */
+  @Nullable
   public String getKafkaBootstrap() {
     return this.kafkaBootstrap;
   }
@@ -204,13 +743,296 @@ public NamingStrategy getNamingStrategy() {
     return this.namingStrategy;
   }
 
+  /**
+   * Get the execution mode as specified by the user.
+   *
+   * @return an {@link ExecutionMode} member.
+   */
+  public ExecutionMode getExecutionMode() {
+    return this.executionMode;
+  }
+
+  /**
+   * Get the maximum number of schemas in flight as specified by the user.
+   *
+   * @return the maximum number of schemas in flight.
+   */
+  public int getMaxInFlight() {
+    return this.maxInFlight;
+  }
+
+  /**
+   * Get the push pipeline stage widths as specified by the user.
+   *
+   * @return a {@link Map} of {@link PipelineStage} members to widths.
+   */
+  @Nullable
+  public Map<PipelineStage, Integer> getStageWidths() {
+    return this.stageWidths;
+  }
+
+  /**
+   * Get the capacity of each push pipeline stage queue as specified by the user.
+   *
+   * @return the stage queue capacity.
+   */
+  public int getStageQueueSize() {
+    return this.stageQueueSize;
+  }
+
+  /**
+   * Get whether to resolve named types shared across the schema files as specified by the user.
+   *
+   * @return true if the shared named types should be registered as schema references.
+   */
+  public boolean isResolveReferences() {
+    return this.resolveReferences;
+  }
+
+  /**
+   * Get whether to reconcile with the registry's current view as specified by the user.
+   *
+   * @return true if only the new and changed schemas should be registered.
+   */
+  public boolean isReconcile() {
+    return this.reconcile;
+  }
+
+  /**
+   * Get whether to prune the registry subjects not in the input as specified by the user.
+   *
+   * @return true if the subjects not in the input should be deleted when reconciling.
+   */
+  public boolean isPrune() {
+    return this.prune;
+  }
+
+  /**
+   * Get whether to check the schemas compatibility before registering as specified by the user.
+   *
+   * @return true if the schemas should be checked locally before registering any of them.
+   */
+  public boolean isCheckCompatibility() {
+    return this.checkCompatibility;
+  }
+
+  /**
+   * Get the fingerprint state file as specified by the user.
+   *
+   * @return a {@link Path} of the state file.
+   */
+  @Nullable
+  public Path getStateFile() {
+    return this.stateFile;
+  }
+
+  /**
+   * Get the maximum number of schema files open at once as specified by the user.
+   *
+   * @return the maximum number of open files.
+   */
+  public int getMaxOpenFiles() {
+    return this.maxOpenFiles;
+  }
+
+  /**
+   * Get the size above which schema files are memory mapped as specified by the user.
+   *
+   * @return the memory mapping threshold in bytes.
+   */
+  public int getMmapThreshold() {
+    return this.mmapThreshold;
+  }
+
+  /**
+   * Get the registry API to push with as specified by the user.
+   *
+   * @return a {@link RegistryApi} member.
+   */
+  public RegistryApi getRegistryApi() {
+    return this.registryApi;
+  }
+
+  /**
+   * Get the number of new artifacts from which a bulk import is used as specified by the user.
+   *
+   * @return the bulk import threshold.
+   */
+  public int getBulkThreshold() {
+    return this.bulkThreshold;
+  }
+
+  /**
+   * Get whether to register the schemas ahead with the non-blocking client as specified by the
+   * user.
+   *
+   * @return true if the schemas should be registered with the non-blocking client.
+   */
+  public boolean isAsyncRegistry() {
+    return this.asyncRegistry;
+  }
+
+  /**
+   * Get the request size above which registrations are compressed as specified by the user.
+   *
+   * @return the gzip threshold in bytes, 0 for never.
+   */
+  public int getGzipThreshold() {
+    return this.gzipThreshold;
+  }
+
+  /**
+   * Get the number of registry clients subjects are spread over as specified by the user.
+   *
+   * @return the number of registry stripes.
+   */
+  public int getRegistryStripes() {
+    return this.registryStripes;
+  }
+
+  /**
+   * Get the number of retries for schemas failing to register transiently as specified by the user.
+   *
+   * @return the maximum number of retries, 0 for never.
+   */
+  public int getMaxRetries() {
+    return this.maxRetries;
+  }
+
+  /**
+   * Get the backoff before the first retry as specified by the user.
+   *
+   * @return the retry backoff in milliseconds.
+   */
+  public int getRetryBackoff() {
+    return this.retryBackoff;
+  }
+
+  /**
+   * Get the number of consecutive transient failures opening the circuit breaker as specified by
+   * the user.
+   *
+   * @return the circuit breaker threshold.
+   */
+  public int getBreakerThreshold() {
+    return this.breakerThreshold;
+  }
+
+  /**
+   * Check if the registrations in flight should adapt to the registry as specified by the user.
+   *
+   * @return true if the concurrency should be adaptive.
+   */
+  public boolean isAdaptiveConcurrency() {
+    return this.adaptiveConcurrency;
+  }
+
+  /**
+   * Get the file to write the metrics to as JSON as specified by the user.
+   *
+   * @return the metrics JSON file {@link Path}, {@code null} if not specified.
+   */
+  @Nullable
+  public Path getMetricsJson() {
+    return this.metricsJson;
+  }
+
+  /**
+   * Get the file to write the metrics to as Prometheus text as specified by the user.
+   *
+   * @return the metrics Prometheus file {@link Path}, {@code null} if not specified.
+   */
+  @Nullable
+  public Path getMetricsPrometheus() {
+    return this.metricsPrometheus;
+  }
+
+  /**
+   * Get the port to serve the metrics on as specified by the user.
+   *
+   * @return the metrics port, zero if not served.
+   */
+  public int getMetricsPort() {
+    return this.metricsPort;
+  }
+
+  /**
+   * Get the file to write the run report to as JSON as specified by the user.
+   *
+   * @return the report JSON file {@link Path}, {@code null} if not specified.
+   */
+  @Nullable
+  public Path getReportJson() {
+    return this.reportJson;
+  }
+
+  /**
+   * Get the file to write the run report to as JUnit XML as specified by the user.
+   *
+   * @return the report JUnit XML file {@link Path}, {@code null} if not specified.
+   */
+  @Nullable
+  public Path getReportJunit() {
+    return this.reportJunit;
+  }
+
+  /**
+   * Get the number of slowest schemas listed in the report as specified by the user.
+   *
+   * @return the number of slowest schemas listed.
+   */
+  public int getReportTop() {
+    return this.reportTop;
+  }
+
   /**
    * Get the list of topics-schema_path pairs as specified by the user.
    *
    * @return a {@link List} of {@link TopicSchemaAggregator} instances.
    */
+  @Nullable
   public List<TopicSchemaAggregator> getTopicSchemaAggregators() {
-    return this.topicSchemaAggregators;
+    return isNull(this.schemaSource) ? null : this.schemaSource.topicSchemaAggregators;
+  }
+
+  /**
+   * Get the directories walking specification as specified by the user.
+   *
+   * @return a {@link DirectoryInfo} instance.
+   */
+  @Nullable
+  public DirectoryInfo getDirectoryInfo() {
+    return isNull(this.schemaSource) ? null : this.schemaSource.directoryInfo;
+  }
+
+  /**
+   * Get the topic and schema mapping manifest as specified by the user.
+   *
+   * @return a {@link ManifestInfo} instance.
+   */
+  @Nullable
+  public ManifestInfo getManifestInfo() {
+    return isNull(this.schemaSource) ? null : this.schemaSource.manifestInfo;
+  }
+
+  /**
+   * Get the schemas archive specification as specified by the user.
+   *
+   * @return a {@link ArchiveInfo} instance.
+   */
+  @Nullable
+  public ArchiveInfo getArchiveInfo() {
+    return isNull(this.schemaSource) ? null : this.schemaSource.archiveInfo;
+  }
+
+  /**
+   * Get the push jobs server specification as specified by the user.
+   *
+   * @return a {@link ServeInfo} instance.
+   */
+  @Nullable
+  public ServeInfo getServeInfo() {
+    return isNull(this.schemaSource) ? null : this.schemaSource.serveInfo;
   }
 
   /**
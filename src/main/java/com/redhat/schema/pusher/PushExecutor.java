@@ -0,0 +1,45 @@
+package com.redhat.schema.pusher;
+
+/**
+ * Interface for contracting the executors running the push stages for each record.
+ *
+ * @param <T> the type of the items pushed through the stages.
+ */
+public interface PushExecutor<T> extends AutoCloseable {
+  /**
+   * A stage action, applied to each item flowing through the stage.
+   *
+   * @param <T> the type of the items pushed through the stages.
+   */
+  @FunctionalInterface
+  interface StageAction<T> {
+    /**
+     * Apply the stage on an item.
+     *
+     * @param item the item to apply the stage on.
+     * @throws Exception when the stage fails for the item, the item will not proceed.
+     */
+    void apply(T item) throws Exception;
+  }
+
+  /**
+   * A record for specifying a push stage.
+   *
+   * @param <T> the type of the items pushed through the stages.
+   * @param stage the {@link PipelineStage} member identifying the stage.
+   * @param width the number of workers for the stage, executors may ignore it.
+   * @param action the {@link StageAction} to apply.
+   */
+  record Stage<T>(PipelineStage stage, int width, StageAction<T> action) {}
+
+  /**
+   * Submit an item for going through the stages, may block until there is room for it.
+   *
+   * @param item the item to process.
+   */
+  void submit(T item);
+
+  /** Wait for all the submitted items to go through the stages and release the workers. */
+  @Override
+  void close();
+}
@@ -0,0 +1,146 @@
+package com.redhat.schema.pusher;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricFilter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SharedMetricRegistries;
+import com.codahale.metrics.Timer;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The metrics of a run, kept in a shared {@link MetricRegistry} so the registry clients created by
+ * the serializer can record to it as well. The metric names are dot separated, the first segment
+ * names the family and the rest are its labels, see {@link MetricsExporter}:
+ *
+ * <ul>
+ *   <li>{@code phase.<phase>} timers, for the startup, the whole push, and each pipeline stage.
+ *   <li>{@code registry.<endpoint>.<status>} timers, for the calls to the registry.
+ *   <li>{@code schemas.<outcome>} counters, for the schemas registered, skipped, and failed.
+ *   <li>{@code limiter.<name>.<attribute>} gauges, for the adaptive concurrency limiters.
+ * </ul>
+ */
+public final class PushMetrics {
+  /** The name of the shared {@link MetricRegistry}. */
+  public static final String REGISTRY_NAME = "schema-pusher";
+
+  /** The status recorded for a registry call failing without a response. */
+  public static final int STATUS_NO_RESPONSE = 0;
+
+  private PushMetrics() {
+    // a utility class needs no constructor
+  }
+
+  /**
+   * Get the shared registry holding the metrics.
+   *
+   * @return the {@link MetricRegistry} instance.
+   */
+  public static MetricRegistry registry() {
+    return SharedMetricRegistries.getOrCreate(REGISTRY_NAME);
+  }
+
+  /**
+   * Get the timer of a phase of the run.
+   *
+   * @param phase the {@link String} name of the phase.
+   * @return the {@link Timer} instance.
+   */
+  public static Timer phase(final String phase) {
+    return registry().timer(MetricRegistry.name("phase", phase));
+  }
+
+  /**
+   * Wrap the stages so the time each item spends in each stage is recorded, waiting for a limiter
+   * or a retry not included.
+   *
+   * @param <T> the type of the items flowing through the stages.
+   * @param stages the {@link List} of {@link PushExecutor.Stage} records, in order.
+   * @return a {@link List} of timed {@link PushExecutor.Stage} records.
+   */
+  public static <T> List<PushExecutor.Stage<T>> wrap(final List<PushExecutor.Stage<T>> stages) {
+    return stages.stream()
+        .map(
+            s -> {
+              var timer = phase(s.stage().name().toLowerCase(Locale.ROOT));
+              return new PushExecutor.Stage<T>(
+                  s.stage(),
+                  s.width(),
+                  item -> {
+                    var context = timer.time();
+                    try {
+                      s.action().apply(item);
+                    } finally {
+                      context.stop();
+                    }
+                  });
+            })
+        .toList();
+  }
+
+  /**
+   * Record a call to the registry.
+   *
+   * @param endpoint the {@link String} name of the endpoint called.
+   * @param status the response status, {@link #STATUS_NO_RESPONSE} if none.
+   * @param latencyNanos the latency of the call in nanoseconds.
+   */
+  public static void recordRegistryCall(
+      final String endpoint, final int status, final long latencyNanos) {
+    registry()
+        .timer(MetricRegistry.name("registry", endpoint, String.valueOf(status)))
+        .update(latencyNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /** Count a schema registered. */
+  public static void schemaRegistered() {
+    countSchemas("registered", 1);
+  }
+
+  /**
+   * Count schemas registered together.
+   *
+   * @param count the number of schemas registered.
+   */
+  public static void schemasRegistered(final int count) {
+    countSchemas("registered", count);
+  }
+
+  /** Count a schema skipped for not changing. */
+  public static void schemaSkipped() {
+    countSchemas("skipped", 1);
+  }
+
+  /** Count a schema failing to push. */
+  public static void schemaFailed() {
+    countSchemas("failed", 1);
+  }
+
+  /**
+   * Expose the current state of an adaptive limiter, replacing a limiter previously exposed with
+   * the same name.
+   *
+   * @param name the {@link String} name of the limiter.
+   * @param limiter the {@link AdaptiveLimiter} to expose.
+   */
+  public static void registerLimiter(final String name, final AdaptiveLimiter limiter) {
+    var registry = registry();
+    registry.removeMatching((n, m) -> n.startsWith(MetricRegistry.name("limiter", name) + "."));
+    registry.register(
+        MetricRegistry.name("limiter", name, "limit"), (Gauge<Integer>) limiter::getLimit);
+    registry.register(
+        MetricRegistry.name("limiter", name, "in_flight"), (Gauge<Integer>) limiter::getInFlight);
+    registry.register(
+        MetricRegistry.name("limiter", name, "overloads"), (Gauge<Long>) limiter::getOverloads);
+  }
+
+  /** Remove all the metrics, for starting a fresh run in the same JVM. */
+  public static void reset() {
+    registry().removeMatching(MetricFilter.ALL);
+  }
+
+  private static void countSchemas(final String outcome, final int count) {
+    registry().counter(MetricRegistry.name("schemas", outcome)).inc(count);
+  }
+}
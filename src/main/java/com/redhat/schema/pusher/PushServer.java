@@ -0,0 +1,256 @@
+package com.redhat.schema.pusher;
+
+import static java.util.Objects.isNull;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Server taking push jobs over HTTP and pushing them all with the same {@link SchemaPusher}, so the
+ * process startup, the class loading, the JIT compilation, the registry connections, and the parsed
+ * schemas are paid once instead of per push. A job is a manifest posted as the request body, see
+ * {@link ManifestReader}, streamed to the pusher as it is read.
+ *
+ * <ul>
+ *   <li>{@code POST /jobs} pushes the manifest, JSONL by default or per the {@code format} query
+ *       parameter, and responds with the job outcome when done. When the maximum number of jobs are
+ *       running, the job is rejected right away with 429, to be retried by the caller.
+ *   <li>{@code GET /health/live} responds with 200 while the server runs.
+ *   <li>{@code GET /health/ready} responds with 200 while a job would be accepted, and with 503
+ *       while all the job slots are busy or the server is stopping.
+ * </ul>
+ */
+public final class PushServer implements AutoCloseable {
+  private static final Logger LOGGER = Logger.getLogger(PushServer.class.getName());
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static final String JSON_CONTENT_TYPE = "application/json";
+  private static final String FORMAT_PARAM = "format=";
+  private static final long DRAIN_TIMEOUT_SECONDS = 30;
+  private static final int HTTP_OK = 200;
+  private static final int HTTP_BAD_REQUEST = 400;
+  private static final int HTTP_BAD_METHOD = 405;
+  private static final int HTTP_TOO_MANY_REQUESTS = 429;
+  private static final int HTTP_INTERNAL_ERROR = 500;
+  private static final int HTTP_UNAVAILABLE = 503;
+
+  private final SchemaPusher pusher;
+  private final int maxJobs;
+  private final Semaphore jobSlots;
+  private final AtomicLong jobIds = new AtomicLong();
+  private final AtomicBoolean stopping = new AtomicBoolean();
+  private final CountDownLatch stopped = new CountDownLatch(1);
+  private final ExecutorService executor;
+  private final HttpServer server;
+
+  /**
+   * Constructor takes the pusher for the jobs, and starts serving.
+   *
+   * @param setPusher the {@link SchemaPusher} pushing all the jobs, closed with the server.
+   * @param address the {@link InetSocketAddress} to serve on, port zero for any free port.
+   * @param setMaxJobs the maximum number of jobs running at once.
+   * @throws IOException when failed to bind the address.
+   */
+  public PushServer(
+      final SchemaPusher setPusher, final InetSocketAddress address, final int setMaxJobs)
+      throws IOException {
+    this.pusher = setPusher;
+    this.maxJobs = Math.max(setMaxJobs, 1);
+    this.jobSlots = new Semaphore(maxJobs);
+    this.server = HttpServer.create(address, 0);
+    // the jobs are bounded by the slots, the health checks should never wait for a job
+    this.executor = Executors.newCachedThreadPool();
+    server.setExecutor(executor);
+    server.createContext("/jobs", this::handleJob);
+    server.createContext("/health/live", this::handleLive);
+    server.createContext("/health/ready", this::handleReady);
+    server.start();
+    LOGGER.info(
+        () ->
+            String.format(
+                "serving push jobs on %s, %d jobs at once", server.getAddress(), this.maxJobs));
+  }
+
+  /**
+   * Get the port the server is bound to.
+   *
+   * @return the port.
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Wait until the server is closed.
+   *
+   * @throws InterruptedException when interrupted while waiting.
+   */
+  public void await() throws InterruptedException {
+    stopped.await();
+  }
+
+  /** Stop taking jobs, wait for the running ones to end, then stop serving and close the pusher. */
+  @Override
+  public void close() {
+    if (!stopping.compareAndSet(false, true)) {
+      return;
+    }
+    LOGGER.info("stopping, waiting for the running jobs");
+    try {
+      if (!jobSlots.tryAcquire(maxJobs, DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        LOGGER.warning("stopping with jobs still running");
+      }
+    } catch (final InterruptedException exc) {
+      Thread.currentThread().interrupt();
+    }
+    server.stop(0);
+    executor.shutdownNow();
+    pusher.close();
+    stopped.countDown();
+    LOGGER.info("stopped");
+  }
+
+  private void handleJob(final HttpExchange exchange) throws IOException {
+    if (!"POST".equals(exchange.getRequestMethod())) {
+      respond(exchange, HTTP_BAD_METHOD, message("jobs should be posted"));
+      return;
+    }
+    ManifestFormat format;
+    try {
+      format = formatOf(exchange.getRequestURI());
+    } catch (final IllegalArgumentException exc) {
+      respond(exchange, HTTP_BAD_REQUEST, message("unknown manifest format"));
+      return;
+    }
+    if (stopping.get()) {
+      respond(exchange, HTTP_UNAVAILABLE, message("stopping"));
+      return;
+    }
+    if (!jobSlots.tryAcquire()) {
+      exchange.getResponseHeaders().add("Retry-After", "1");
+      respond(exchange, HTTP_TOO_MANY_REQUESTS, message("all the job slots are busy"));
+      return;
+    }
+    try {
+      runJob(exchange, format);
+    } finally {
+      jobSlots.release();
+    }
+  }
+
+  private void runJob(final HttpExchange exchange, final ManifestFormat format) throws IOException {
+    var job = jobIds.incrementAndGet();
+    var schemas = new AtomicLong();
+    var start = System.nanoTime();
+    LOGGER.info(() -> String.format("starting job %d", job));
+    ReturnCode retCode;
+    var reader = new ManifestReader(ManifestReader.STDIN, format);
+    try (var topicsAndSchemaRecords = reader.read(exchange.getRequestBody())) {
+      retCode = pusher.push(topicsAndSchemaRecords.peek(r -> schemas.incrementAndGet()));
+      var malformedLines = reader.getMalformedLines();
+      if (malformedLines > 0 && retCode == ReturnCode.SUCCESS) {
+        LOGGER.severe(
+            () ->
+                String.format(
+                    "skipped %d malformed lines of the job %d manifest", malformedLines, job));
+        retCode = ReturnCode.MANIFEST_ERROR;
+      }
+    } catch (final UncheckedIOException exc) {
+      LOGGER.log(Level.SEVERE, exc, () -> String.format("failed reading the job %d manifest", job));
+      retCode = ReturnCode.MANIFEST_ERROR;
+    } catch (final RuntimeException exc) {
+      // the client still gets the job's outcome, rather than the connection dropped
+      LOGGER.log(Level.SEVERE, exc, () -> String.format("job %d failed unexpectedly", job));
+      retCode = ReturnCode.SERVER_ERROR;
+    }
+    var millis = (double) (System.nanoTime() - start) / TimeUnit.MILLISECONDS.toNanos(1);
+    var status = retCode;
+    LOGGER.info(
+        () ->
+            String.format(
+                "job %d pushed %d schemas in %.1f ms, %s", job, schemas.get(), millis, status));
+    var body =
+        MAPPER
+            .createObjectNode()
+            .put("job", job)
+            .put("status", retCode.name())
+            .put("code", retCode.code())
+            .put("schemas", schemas.get())
+            .put("took_ms", millis);
+    respond(exchange, retCode == ReturnCode.SUCCESS ? HTTP_OK : HTTP_INTERNAL_ERROR, body);
+  }
+
+  private void handleLive(final HttpExchange exchange) throws IOException {
+    respond(exchange, HTTP_OK, MAPPER.createObjectNode().put("status", "UP"));
+  }
+
+  private void handleReady(final HttpExchange exchange) throws IOException {
+    var freeSlots = jobSlots.availablePermits();
+    String status;
+    if (stopping.get()) {
+      status = "STOPPING";
+    } else {
+      status = freeSlots > 0 ? "READY" : "BUSY";
+    }
+    respond(
+        exchange,
+        "READY".equals(status) ? HTTP_OK : HTTP_UNAVAILABLE,
+        MAPPER
+            .createObjectNode()
+            .put("status", status)
+            .put("running_jobs", Math.max(maxJobs - freeSlots, 0)));
+  }
+
+  private static ManifestFormat formatOf(final URI uri) {
+    var query = uri.getRawQuery();
+    if (isNull(query)) {
+      return ManifestFormat.JSONL;
+    }
+    for (var param : query.split("&")) {
+      if (param.startsWith(FORMAT_PARAM)) {
+        var value =
+            URLDecoder.decode(param.substring(FORMAT_PARAM.length()), StandardCharsets.UTF_8);
+        return ManifestFormat.valueOf(value.toUpperCase(Locale.ROOT));
+      }
+    }
+    return ManifestFormat.JSONL;
+  }
+
+  private static ObjectNode message(final String message) {
+    return MAPPER.createObjectNode().put("message", message);
+  }
+
+  private static void respond(final HttpExchange exchange, final int status, final ObjectNode body)
+      throws IOException {
+    byte[] bytes;
+    try {
+      bytes = MAPPER.writeValueAsBytes(body);
+    } catch (final JsonProcessingException exc) {
+      throw new UncheckedIOException(exc);
+    }
+    exchange.getResponseHeaders().add("Content-Type", JSON_CONTENT_TYPE);
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (var os = exchange.getResponseBody()) {
+      os.write(bytes);
+    }
+  }
+}
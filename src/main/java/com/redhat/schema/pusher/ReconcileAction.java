@@ -0,0 +1,11 @@
+package com.redhat.schema.pusher;
+
+/** Enum for relaying the action planned for a schema when reconciling with the registry. */
+public enum ReconcileAction {
+  /** The subject does not exist in the registry, register it. */
+  NEW,
+  /** The subject's latest version is the same schema, skip it. */
+  UNCHANGED,
+  /** The subject's latest version is a different schema, register a new version. */
+  NEW_VERSION
+}
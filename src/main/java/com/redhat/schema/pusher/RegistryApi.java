@@ -0,0 +1,12 @@
+package com.redhat.schema.pusher;
+
+/** Enum for relaying the registry API used for pushing the schemas. */
+public enum RegistryApi {
+  /** Use the Confluent compatibility API, registering the schemas via the kafka serializer. */
+  CCOMPAT,
+  /**
+   * Use the native Apicurio Registry v2 API, registering the schemas directly, large batches of new
+   * artifacts are registered with a single bulk import.
+   */
+  NATIVE
+}
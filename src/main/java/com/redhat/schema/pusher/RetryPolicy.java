@@ -0,0 +1,40 @@
+package com.redhat.schema.pusher;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A record for specifying how failed attempts are retried, with an exponential backoff capped by a
+ * maximum, and a full jitter, each delay is drawn uniformly between zero and the backoff, so the
+ * records failing together do not retry together.
+ *
+ * @param maxAttempts the maximum number of attempts per item, the first one included.
+ * @param initialBackoff the {@link Duration} of the backoff after the first failed attempt.
+ * @param maxBackoff the {@link Duration} capping the backoff.
+ */
+public record RetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+  /** Compact constructor validating the policy. */
+  public RetryPolicy {
+    if (maxAttempts < 1) {
+      throw new IllegalArgumentException("at least one attempt is required");
+    }
+    if (initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0) {
+      throw new IllegalArgumentException("the backoff should be positive and capped above itself");
+    }
+  }
+
+  /**
+   * Get the delay before the next attempt.
+   *
+   * @param failedAttempt the number of the attempt that failed, starting at 1.
+   * @return the {@link Duration} to wait before the next attempt.
+   */
+  public Duration delay(final int failedAttempt) {
+    var backoff = initialBackoff.toNanos();
+    var cap = maxBackoff.toNanos();
+    for (var i = 1; i < failedAttempt && backoff < cap; i++) {
+      backoff *= 2;
+    }
+    return Duration.ofNanos(ThreadLocalRandom.current().nextLong(Math.min(backoff, cap) + 1));
+  }
+}
@@ -0,0 +1,230 @@
+package com.redhat.schema.pusher;
+
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Helper class for retrying the items failing the registering stage. A failed item is not retried
+ * on the stage worker, it is handed to a scheduler and retried there after the policy's backoff, so
+ * the worker moves on to the healthy items. Calls are guarded by a circuit breaker, while the
+ * circuit is open the items wait for it to close instead of reaching the registry, and each
+ * rejection counts as an attempt, so a registry staying down fails the items instead of blocking
+ * the run.
+ *
+ * <p>Only failures the predicate deems transient are retried, an item failing for good, or running
+ * out of attempts, is reported to the failure handler.
+ *
+ * @param <T> the type of the items flowing through the stages.
+ */
+public final class RetryQueue<T> implements AutoCloseable {
+  private static final Logger LOGGER = Logger.getLogger(RetryQueue.class.getName());
+
+  private final RetryPolicy policy;
+  private final CircuitBreaker breaker;
+  private final Predicate<Exception> retryable;
+  private final BiConsumer<T, Exception> failureHandler;
+  private final Consumer<T> retryListener;
+  private final ScheduledThreadPoolExecutor scheduler;
+  private final AtomicInteger retried = new AtomicInteger();
+  private final AtomicInteger recovered = new AtomicInteger();
+  private int pending;
+
+  /**
+   * Constructor takes the retry specification and starts the scheduler workers.
+   *
+   * @param setPolicy the {@link RetryPolicy} for the attempts and their backoff.
+   * @param setBreaker the {@link CircuitBreaker} guarding the calls, can be shared across queues.
+   * @param setRetryable the {@link Predicate} telling transient failures worth retrying.
+   * @param setFailureHandler the {@link BiConsumer} invoked with an item failing for good.
+   * @param workers the number of workers retrying the items.
+   */
+  public RetryQueue(
+      final RetryPolicy setPolicy,
+      final CircuitBreaker setBreaker,
+      final Predicate<Exception> setRetryable,
+      final BiConsumer<T, Exception> setFailureHandler,
+      final int workers) {
+    this(setPolicy, setBreaker, setRetryable, setFailureHandler, item -> {}, workers);
+  }
+
+  /**
+   * Constructor takes the retry specification and a listener for the retries, and starts the
+   * scheduler workers.
+   *
+   * @param setPolicy the {@link RetryPolicy} for the attempts and their backoff.
+   * @param setBreaker the {@link CircuitBreaker} guarding the calls, can be shared across queues.
+   * @param setRetryable the {@link Predicate} telling transient failures worth retrying.
+   * @param setFailureHandler the {@link BiConsumer} invoked with an item failing for good.
+   * @param setRetryListener the {@link Consumer} invoked with an item scheduled for a retry.
+   * @param workers the number of workers retrying the items.
+   */
+  public RetryQueue(
+      final RetryPolicy setPolicy,
+      final CircuitBreaker setBreaker,
+      final Predicate<Exception> setRetryable,
+      final BiConsumer<T, Exception> setFailureHandler,
+      final Consumer<T> setRetryListener,
+      final int workers) {
+    this.policy = setPolicy;
+    this.breaker = setBreaker;
+    this.retryable = setRetryable;
+    this.failureHandler = setFailureHandler;
+    this.retryListener = setRetryListener;
+    var threadCounter = new AtomicInteger();
+    this.scheduler =
+        new ScheduledThreadPoolExecutor(
+            Math.max(workers, 1),
+            r -> {
+              var thread =
+                  new Thread(r, "pipeline-retry-%d".formatted(threadCounter.incrementAndGet()));
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.scheduler.setRemoveOnCancelPolicy(true);
+  }
+
+  /**
+   * Wrap the registering stages so their failed items are retried by this queue, the registering
+   * stage must be the last one, as the retried items do not continue to the following stages.
+   *
+   * @param stages the {@link List} of {@link PushExecutor.Stage} records, in order.
+   * @return a {@link List} of {@link PushExecutor.Stage} records with the registering stage
+   *     wrapped.
+   */
+  public List<PushExecutor.Stage<T>> wrap(final List<PushExecutor.Stage<T>> stages) {
+    return stages.stream()
+        .map(
+            s ->
+                s.stage() == PipelineStage.REGISTER
+                    ? new PushExecutor.Stage<T>(
+                        s.stage(), s.width(), item -> attempt(s.action(), item, 1))
+                    : s)
+        .toList();
+  }
+
+  /**
+   * Get the number of items retried at least once.
+   *
+   * @return the number of retried items.
+   */
+  public int retriedCount() {
+    return retried.get();
+  }
+
+  /**
+   * Get the number of items that succeeded after being retried.
+   *
+   * @return the number of recovered items.
+   */
+  public int recoveredCount() {
+    return recovered.get();
+  }
+
+  /** Wait for all the scheduled retries to complete and stop the scheduler workers. */
+  @Override
+  public void close() {
+    try {
+      synchronized (this) {
+        while (pending > 0) {
+          wait();
+        }
+      }
+    } catch (final InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      scheduler.shutdownNow();
+      return;
+    }
+    scheduler.shutdown();
+  }
+
+  /**
+   * Make an attempt for an item, scheduling the next one on a transient failure.
+   *
+   * @throws Exception when the item failed for good or ran out of attempts.
+   */
+  private void attempt(final PushExecutor.StageAction<T> action, final T item, final int attempt)
+      throws Exception {
+    Exception failure;
+    if (breaker.tryAcquire()) {
+      var reported = false;
+      try {
+        action.apply(item);
+        breaker.recordSuccess();
+        reported = true;
+        if (attempt > 1) {
+          recovered.incrementAndGet();
+        }
+        return;
+      } catch (final InterruptedException ie) {
+        throw ie;
+      } catch (final Exception exc) {
+        if (!retryable.test(exc)) {
+          // the registry answered, it is up
+          breaker.recordSuccess();
+          reported = true;
+          throw exc;
+        }
+        breaker.recordFailure();
+        reported = true;
+        failure = exc;
+      } finally {
+        // an interrupted or erroring call still releases the permit, or a probe would never end
+        if (!reported) {
+          breaker.recordFailure();
+        }
+      }
+    } else {
+      failure = new IllegalStateException("the circuit breaker is open, the registry is down");
+    }
+    if (attempt >= policy.maxAttempts()) {
+      throw failure;
+    }
+    if (attempt == 1) {
+      retried.incrementAndGet();
+    }
+    retryListener.accept(item);
+    var delay = Math.max(policy.delay(attempt).toNanos(), breaker.remainingOpen().toNanos());
+    LOGGER.log(
+        Level.WARNING,
+        () ->
+            String.format(
+                "attempt %d for %s failed with '%s', retrying in %d ms",
+                attempt, item, failure.getMessage(), TimeUnit.NANOSECONDS.toMillis(delay)));
+    schedule(action, item, attempt + 1, delay);
+  }
+
+  private void schedule(
+      final PushExecutor.StageAction<T> action,
+      final T item,
+      final int attempt,
+      final long delayNanos) {
+    synchronized (this) {
+      pending++;
+    }
+    scheduler.schedule(
+        () -> {
+          try {
+            attempt(action, item, attempt);
+          } catch (final Exception exc) {
+            if (exc instanceof InterruptedException) {
+              Thread.currentThread().interrupt();
+            }
+            failureHandler.accept(item, exc);
+          } finally {
+            synchronized (this) {
+              pending--;
+              notifyAll();
+            }
+          }
+        },
+        delayNanos,
+        TimeUnit.NANOSECONDS);
+  }
+}
@@ -7,7 +7,17 @@ public enum ReturnCode {
   /** Operation failed due to an error related to the directory containing the schema files. */
   DIRECTORY_ERROR(999),
   /** Operation failed due to an error related to the Kafka producer. */
-  PRODUCER_ERROR(998);
+  PRODUCER_ERROR(998),
+  /** Operation failed due to an error related to the topic and schema mapping manifest. */
+  MANIFEST_ERROR(997),
+  /** Operation failed due to an error related to the schema registry. */
+  REGISTRY_ERROR(996),
+  /** Operation failed due to an error related to the push jobs server. */
+  SERVER_ERROR(995),
+  /** Operation failed due to an error related to the schemas archive. */
+  ARCHIVE_ERROR(994),
+  /** Operation failed due to an error related to a base64 encoded input. */
+  INPUT_ERROR(993);
 
   private final int privCode;
 
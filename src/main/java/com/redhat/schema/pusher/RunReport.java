@@ -0,0 +1,261 @@
+package com.redhat.schema.pusher;
+
+import static java.util.Objects.nonNull;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+
+/**
+ * The report of a run, one entry per {@link TopicAndSchema} record with its outcome, its registry
+ * id, the retries it took, and the time it spent in each pipeline stage, waiting in between not
+ * included. The report ends with the slowest schemas, for finding the few dominating a run.
+ *
+ * <p>The report is rendered as JSON, or as JUnit XML for CI systems, a testsuite with a testcase
+ * per entry, failed entries as failures and skipped entries as skipped.
+ */
+public final class RunReport {
+  private static final Logger LOGGER = Logger.getLogger(RunReport.class.getName());
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static final String SUITE_NAME = "schema-pusher";
+
+  /** Enum for relaying the outcome of a schema. */
+  public enum Outcome {
+    /** The schema was registered. */
+    REGISTERED,
+    /** The schema was skipped, as it was already registered. */
+    SKIPPED,
+    /** The schema failed to push. */
+    FAILED
+  }
+
+  /**
+   * A record for a single schema of the run.
+   *
+   * @param topic the topic of the schema.
+   * @param schema the path of the schema file.
+   * @param subject the subject the schema was resolved to, {@code null} if not resolved.
+   * @param id the registry id of the schema, the global id with the native API, -1 if not known.
+   * @param outcome the {@link Outcome} of the schema.
+   * @param retries the number of times the schema was retried.
+   * @param phaseNanos the {@link Map} of {@link PipelineStage} members to the nanoseconds spent.
+   * @param error the error failing the schema, {@code null} if not failed.
+   */
+  public record Entry(
+      String topic,
+      Path schema,
+      @Nullable String subject,
+      long id,
+      Outcome outcome,
+      int retries,
+      Map<PipelineStage, Long> phaseNanos,
+      @Nullable String error) {
+    /**
+     * Get the total time spent on the schema.
+     *
+     * @return the total nanoseconds spent in all the stages.
+     */
+    public long totalNanos() {
+      return phaseNanos.values().stream().mapToLong(Long::longValue).sum();
+    }
+  }
+
+  private final List<Entry> entries;
+  private final int top;
+
+  /**
+   * Constructor takes the entries and the number of slowest ones to list.
+   *
+   * @param setEntries the {@link List} of {@link Entry} records, in the order of the run.
+   * @param setTop the number of slowest entries to list.
+   */
+  public RunReport(final List<Entry> setEntries, final int setTop) {
+    this.entries = List.copyOf(setEntries);
+    this.top = Math.max(setTop, 0);
+  }
+
+  /**
+   * Get the entries of the report.
+   *
+   * @return the {@link List} of {@link Entry} records, in the order of the run.
+   */
+  public List<Entry> entries() {
+    return entries;
+  }
+
+  /**
+   * Get the slowest entries of the report.
+   *
+   * @return the {@link List} of the slowest {@link Entry} records, slowest first.
+   */
+  public List<Entry> slowest() {
+    return entries.stream()
+        .sorted(Comparator.comparingLong(Entry::totalNanos).reversed())
+        .limit(top)
+        .toList();
+  }
+
+  /**
+   * Write the report to the specified files.
+   *
+   * @param jsonFile the {@link Path} to write the JSON report to, {@code null} if not used.
+   * @param junitFile the {@link Path} to write the JUnit XML report to, {@code null} if not used.
+   */
+  public void write(@Nullable final Path jsonFile, @Nullable final Path junitFile) {
+    write(jsonFile, this::toJson);
+    write(junitFile, this::toJunit);
+  }
+
+  /**
+   * Render the report as JSON, the times in milliseconds.
+   *
+   * @return the {@link String} JSON document.
+   */
+  public String toJson() {
+    var root = MAPPER.createObjectNode();
+    root.put("schemas", entries.size());
+    for (var outcome : Outcome.values()) {
+      root.put(lowerCase(outcome), count(outcome));
+    }
+    root.put("total_ms", millis(entries.stream().mapToLong(Entry::totalNanos).sum()));
+    var entriesNode = root.putArray("entries");
+    entries.forEach(e -> putEntry(entriesNode.addObject(), e));
+    var slowestNode = root.putArray("slowest");
+    slowest().forEach(e -> putEntry(slowestNode.addObject(), e));
+    try {
+      return MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(root);
+    } catch (final JsonProcessingException exc) {
+      throw new UncheckedIOException(exc);
+    }
+  }
+
+  /**
+   * Render the report as JUnit XML, a testcase per entry named after its subject, classified by its
+   * topic, the phases of each entry and the slowest entries as the system output.
+   *
+   * @return the {@link String} XML document.
+   */
+  public String toJunit() {
+    var text = new StringWriter();
+    try {
+      var xml = XMLOutputFactory.newInstance().createXMLStreamWriter(text);
+      xml.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+      xml.writeStartElement("testsuite");
+      xml.writeAttribute("name", SUITE_NAME);
+      xml.writeAttribute("tests", String.valueOf(entries.size()));
+      xml.writeAttribute("failures", String.valueOf(count(Outcome.FAILED)));
+      xml.writeAttribute("errors", "0");
+      xml.writeAttribute("skipped", String.valueOf(count(Outcome.SKIPPED)));
+      xml.writeAttribute("time", seconds(entries.stream().mapToLong(Entry::totalNanos).sum()));
+      for (var entry : entries) {
+        xml.writeStartElement("testcase");
+        xml.writeAttribute("classname", entry.topic());
+        xml.writeAttribute("name", nameOf(entry));
+        xml.writeAttribute("time", seconds(entry.totalNanos()));
+        if (entry.outcome() == Outcome.FAILED) {
+          xml.writeStartElement("failure");
+          xml.writeAttribute("message", String.valueOf(entry.error()));
+          xml.writeEndElement();
+        } else if (entry.outcome() == Outcome.SKIPPED) {
+          xml.writeEmptyElement("skipped");
+        }
+        xml.writeStartElement("system-out");
+        xml.writeCharacters(describe(entry));
+        xml.writeEndElement();
+        xml.writeEndElement();
+      }
+      var slowest = slowest();
+      xml.writeStartElement("system-out");
+      xml.writeCharacters(
+          slowest.stream()
+              .map(e -> String.format("%s %s ms", nameOf(e), millis(e.totalNanos())))
+              .collect(
+                  Collectors.joining(
+                      "\n", String.format("slowest %d schemas:\n", slowest.size()), "")));
+      xml.writeEndElement();
+      xml.writeEndElement();
+      xml.writeEndDocument();
+      xml.close();
+    } catch (final XMLStreamException exc) {
+      throw new IllegalStateException("failed to render the junit report", exc);
+    }
+    return text.toString();
+  }
+
+  private long count(final Outcome outcome) {
+    return entries.stream().filter(e -> e.outcome() == outcome).count();
+  }
+
+  private static void putEntry(final ObjectNode node, final Entry entry) {
+    node.put("topic", entry.topic())
+        .put("schema", entry.schema().toString())
+        .put("subject", entry.subject())
+        .put("id", entry.id())
+        .put("outcome", lowerCase(entry.outcome()))
+        .put("retries", entry.retries());
+    var phases = node.putObject("phases_ms");
+    new EnumMap<>(entry.phaseNanos()).forEach((s, n) -> phases.put(lowerCase(s), millis(n)));
+    node.put("total_ms", millis(entry.totalNanos()));
+    if (nonNull(entry.error())) {
+      node.put("error", entry.error());
+    }
+  }
+
+  private static String nameOf(final Entry entry) {
+    return nonNull(entry.subject()) ? entry.subject() : entry.schema().toString();
+  }
+
+  private static String describe(final Entry entry) {
+    var phases =
+        new EnumMap<>(entry.phaseNanos())
+            .entrySet().stream()
+                .map(e -> String.format("%s %s ms", lowerCase(e.getKey()), millis(e.getValue())))
+                .collect(Collectors.joining(", "));
+    return String.format(
+        "schema '%s', id %d, %d retries, %s", entry.schema(), entry.id(), entry.retries(), phases);
+  }
+
+  private static String lowerCase(final Enum<?> member) {
+    return member.name().toLowerCase(Locale.ROOT);
+  }
+
+  private static double millis(final long nanos) {
+    return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  private static String seconds(final long nanos) {
+    return String.format(Locale.ROOT, "%.3f", (double) nanos / TimeUnit.SECONDS.toNanos(1));
+  }
+
+  private static void write(@Nullable final Path file, final Supplier<String> body) {
+    if (nonNull(file)) {
+      try {
+        Files.writeString(file, body.get(), StandardCharsets.UTF_8);
+        LOGGER.info(() -> String.format("wrote run report to '%s'", file));
+      } catch (final IOException exc) {
+        LOGGER.log(
+            Level.SEVERE, exc, () -> String.format("failed to write run report to '%s'", file));
+      }
+    }
+  }
+}
@@ -0,0 +1,244 @@
+package com.redhat.schema.pusher;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.annotation.Nullable;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+
+/**
+ * Helper class for reading schemas from a {@code tar}, {@code tar.gz}, or {@code zip} archive file
+ * or from the standard input. The format is detected by the archive's leading bytes, not by its
+ * name. The entries are read one at a time while the returned stream is consumed, each matching
+ * entry is handed over with its content in memory, so nothing is extracted to the file system and
+ * the memory footprint does not depend on the archive size. Entries larger than the entry size
+ * limit, 16 MiB unless specified, are skipped with a warning, so neither does it depend on the
+ * largest entry.
+ *
+ * <p>The entries are matched and their topics derived from their names as a {@link
+ * SchemaDirectoryWalker} does with the files of a root directory, the entry names are relative to
+ * the archive root.
+ */
+public final class SchemaArchiveReader {
+  private static final Logger LOGGER = Logger.getLogger(SchemaArchiveReader.class.getName());
+
+  /** The archive value designating the standard input. */
+  public static final String STDIN = "-";
+
+  /** The default size limit in bytes of an entry's content. */
+  public static final int DEFAULT_MAX_ENTRY_SIZE = 16 * 1024 * 1024;
+
+  // a tar header block is the longest signature to detect
+  private static final int SIGNATURE_SIZE = 512;
+
+  private final String archive;
+  private final List<String> includeGlobs;
+  private final String topicTemplate;
+  private final int maxEntrySize;
+
+  /**
+   * Constructor takes the archive source and the entries specification.
+   *
+   * @param setArchive the {@link String} archive file path, or {@value #STDIN} for stdin.
+   * @param setIncludeGlobs the {@link List} of glob patterns an entry name must match one of.
+   * @param setTopicTemplate the {@link String} template for deriving the topic from the entry name.
+   */
+  public SchemaArchiveReader(
+      final String setArchive, final List<String> setIncludeGlobs, final String setTopicTemplate) {
+    this(setArchive, setIncludeGlobs, setTopicTemplate, DEFAULT_MAX_ENTRY_SIZE);
+  }
+
+  /**
+   * Constructor takes the archive source, the entries specification, and the entry size limit.
+   *
+   * @param setArchive the {@link String} archive file path, or {@value #STDIN} for stdin.
+   * @param setIncludeGlobs the {@link List} of glob patterns an entry name must match one of.
+   * @param setTopicTemplate the {@link String} template for deriving the topic from the entry name.
+   * @param setMaxEntrySize the size limit in bytes of an entry's content, larger entries are
+   *     skipped.
+   */
+  public SchemaArchiveReader(
+      final String setArchive,
+      final List<String> setIncludeGlobs,
+      final String setTopicTemplate,
+      final int setMaxEntrySize) {
+    this.archive = setArchive;
+    this.includeGlobs = List.copyOf(setIncludeGlobs);
+    this.topicTemplate = setTopicTemplate;
+    this.maxEntrySize = setMaxEntrySize;
+  }
+
+  /**
+   * Open the archive and return a lazy stream of the records of its matching entries. The stream
+   * should be closed when done to release the underlying input stream.
+   *
+   * @return a {@link Stream} of {@link TopicAndSchema} records carrying their content.
+   * @throws IOException when failed to open the archive or it is not a supported archive.
+   */
+  public Stream<TopicAndSchema> read() throws IOException {
+    return read(STDIN.equals(archive) ? System.in : Files.newInputStream(Paths.get(archive)));
+  }
+
+  /**
+   * Return a lazy stream of the records of the matching entries of an archive read from an input
+   * stream. The stream should be closed when done to release the input stream.
+   *
+   * @param input the {@link InputStream} to read the archive from.
+   * @return a {@link Stream} of {@link TopicAndSchema} records carrying their content.
+   * @throws IOException when failed to read the archive or it is not a supported archive.
+   */
+  public Stream<TopicAndSchema> read(final InputStream input) throws IOException {
+    ArchiveInputStream entries;
+    try {
+      entries = open(input);
+    } catch (final IOException exc) {
+      input.close();
+      throw exc;
+    }
+    var iterator = new EntryIterator(entries);
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                iterator, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(
+            () -> {
+              try {
+                entries.close();
+              } catch (final IOException exc) {
+                throw new UncheckedIOException(exc);
+              }
+            });
+  }
+
+  private static ArchiveInputStream open(final InputStream input) throws IOException {
+    var buffered = new BufferedInputStream(input);
+    var signature = peek(buffered);
+    if (GzipCompressorInputStream.matches(signature, signature.length)) {
+      // a compressed tar, the concatenated members are read as one stream
+      LOGGER.info("reading a tar.gz archive");
+      return new TarArchiveInputStream(
+          new BufferedInputStream(new GzipCompressorInputStream(buffered, true)));
+    }
+    if (ZipArchiveInputStream.matches(signature, signature.length)) {
+      LOGGER.info("reading a zip archive");
+      return new ZipArchiveInputStream(buffered);
+    }
+    if (TarArchiveInputStream.matches(signature, signature.length)) {
+      LOGGER.info("reading a tar archive");
+      return new TarArchiveInputStream(buffered);
+    }
+    throw new IOException("not a tar, tar.gz, or zip archive");
+  }
+
+  private static byte[] peek(final BufferedInputStream input) throws IOException {
+    input.mark(SIGNATURE_SIZE);
+    var signature = input.readNBytes(SIGNATURE_SIZE);
+    input.reset();
+    return signature;
+  }
+
+  @Nullable
+  private static Path entryPath(final String entryName) {
+    try {
+      var path = Paths.get(entryName).normalize();
+      // entries are relative to the archive root, even if archived with an absolute name
+      return path.isAbsolute() ? path.getRoot().relativize(path) : path;
+    } catch (final InvalidPathException exc) {
+      LOGGER.warning(() -> String.format("skipping entry '%s', not a valid path", entryName));
+      return null;
+    }
+  }
+
+  /* ******************************************************************* *
+   * Iterator reading the archive entries one at a time and matching them *
+   * ******************************************************************* */
+  private final class EntryIterator implements Iterator<TopicAndSchema> {
+    private final ArchiveInputStream entries;
+    private final List<PathMatcher> includes;
+    private final Path root = Paths.get("");
+    private TopicAndSchema next;
+    private boolean done;
+
+    EntryIterator(final ArchiveInputStream setEntries) {
+      this.entries = setEntries;
+      this.includes = SchemaDirectoryWalker.matchers(root.getFileSystem(), includeGlobs);
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (isNull(next) && !done) {
+        try {
+          var entry = entries.getNextEntry();
+          if (isNull(entry)) {
+            done = true;
+            break;
+          }
+          if (entry.isDirectory()) {
+            continue;
+          }
+          var name = entryPath(entry.getName());
+          if (nonNull(name) && includes.stream().anyMatch(m -> m.matches(name))) {
+            if (!entries.canReadEntryData(entry)) {
+              LOGGER.warning(
+                  () ->
+                      String.format(
+                          "skipping archive entry '%s', encrypted or compressed with an"
+                              + " unsupported method",
+                          name));
+              continue;
+            }
+            // the entry stream ends with the entry, the content is read before moving on, the
+            // declared size can be unknown, so no more than one byte over the limit is read
+            var bytes =
+                entry.getSize() > maxEntrySize ? null : entries.readNBytes(maxEntrySize + 1);
+            if (isNull(bytes) || bytes.length > maxEntrySize) {
+              LOGGER.warning(
+                  () ->
+                      String.format(
+                          "skipping archive entry '%s', larger than %d bytes", name, maxEntrySize));
+              continue;
+            }
+            var content = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+            next =
+                new TopicAndSchema(
+                    SchemaDirectoryWalker.topicFor(topicTemplate, root, name), name, content);
+          }
+        } catch (final IOException exc) {
+          throw new UncheckedIOException(exc);
+        }
+      }
+      return nonNull(next);
+    }
+
+    @Override
+    public TopicAndSchema next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      var ret = next;
+      next = null;
+      return ret;
+    }
+  }
+}
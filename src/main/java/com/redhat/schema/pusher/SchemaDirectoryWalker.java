@@ -0,0 +1,341 @@
+package com.redhat.schema.pusher;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.annotation.Nullable;
+
+/**
+ * Helper class for discovering schema files in one or more root directories. Each root is walked on
+ * its own thread, and matching files are handed over as {@link TopicAndSchema} records through a
+ * bounded queue as soon as they are found, so the full list of files is never collected.
+ *
+ * <p>The topic for each file is derived from a template supporting the following placeholders:
+ *
+ * <ul>
+ *   <li>{@value #NAME_PLACEHOLDER} the file name without its extension, e.g. {@code my_schema}.
+ *   <li>{@value #FILE_PLACEHOLDER} the file name, e.g. {@code my_schema.avsc}.
+ *   <li>{@value #PARENT_PLACEHOLDER} the name of the directory containing the file.
+ *   <li>{@value #PATH_PLACEHOLDER} the path relative to the root without the extension, with the
+ *       separators replaced by dots, e.g. {@code some.dir.my_schema}.
+ * </ul>
+ */
+public final class SchemaDirectoryWalker {
+  private static final Logger LOGGER = Logger.getLogger(SchemaDirectoryWalker.class.getName());
+
+  private static final String NAME_PLACEHOLDER = "{name}";
+  private static final String FILE_PLACEHOLDER = "{file}";
+  private static final String PARENT_PLACEHOLDER = "{parent}";
+  private static final String PATH_PLACEHOLDER = "{path}";
+  private static final int QUEUE_CAPACITY = 1024;
+  private static final Object END_OF_WALK = new Object();
+
+  private final List<Path> roots;
+  private final List<String> includeGlobs;
+  private final List<String> excludeGlobs;
+  private final String topicTemplate;
+
+  /**
+   * Constructor takes the walking specification.
+   *
+   * @param setRoots the {@link List} of root directories to walk.
+   * @param setIncludeGlobs the {@link List} of glob patterns a file must match one of, relative to
+   *     its root.
+   * @param setExcludeGlobs the {@link List} of glob patterns for skipping files and directories,
+   *     relative to their root, can be {@code null}.
+   * @param setTopicTemplate the {@link String} template for deriving the topic from the file path.
+   */
+  public SchemaDirectoryWalker(
+      final List<Path> setRoots,
+      final List<String> setIncludeGlobs,
+      final List<String> setExcludeGlobs,
+      final String setTopicTemplate) {
+    this.roots = List.copyOf(setRoots);
+    this.includeGlobs = List.copyOf(setIncludeGlobs);
+    this.excludeGlobs = isNull(setExcludeGlobs) ? List.of() : List.copyOf(setExcludeGlobs);
+    this.topicTemplate = setTopicTemplate;
+  }
+
+  /**
+   * Start walking the root directories and return a lazy stream of the discovered records. The
+   * stream should be closed when done to release the walking threads.
+   *
+   * @return a {@link Stream} of {@link TopicAndSchema} records.
+   * @throws IOException when one of the roots is not an existing directory, or one of the glob
+   *     patterns is invalid.
+   */
+  public Stream<TopicAndSchema> walk() throws IOException {
+    for (var root : roots) {
+      if (!Files.isDirectory(root)) {
+        throw new NotDirectoryException(root.toString());
+      }
+    }
+    // check the patterns before starting the threads, an invalid one fails the walk right away
+    checkGlobs();
+    var queue = new ArrayBlockingQueue<Object>(QUEUE_CAPACITY);
+    var visitors = roots.stream().map(root -> new RootVisitor(root, queue)).toList();
+    var remaining = new AtomicInteger(roots.size());
+    var executor =
+        Executors.newFixedThreadPool(
+            roots.size(),
+            r -> {
+              var thread = new Thread(r, "schema-dir-walker");
+              thread.setDaemon(true);
+              return thread;
+            });
+    visitors.forEach(
+        visitor ->
+            executor.execute(
+                () -> {
+                  var root = visitor.root;
+                  try {
+                    Files.walkFileTree(root, visitor);
+                  } catch (final IOException exc) {
+                    LOGGER.log(Level.SEVERE, exc, () -> String.format("failed to walk '%s'", root));
+                  } catch (final InterruptedWalkException iwe) {
+                    Thread.currentThread().interrupt();
+                  } catch (final RuntimeException exc) {
+                    // hand the failure over, the consumer would otherwise wait for the walk forever
+                    put(queue, new WalkFailure(root, exc));
+                  } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                      put(queue, END_OF_WALK);
+                    }
+                  }
+                }));
+    executor.shutdown();
+    var iterator = new QueueIterator(queue);
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), false)
+        .onClose(executor::shutdownNow);
+  }
+
+  /**
+   * Check the glob patterns are valid for the file systems of the roots.
+   *
+   * @throws IOException when one of the glob patterns is invalid.
+   */
+  public void checkGlobs() throws IOException {
+    for (var root : roots) {
+      try {
+        matchers(root.getFileSystem(), includeGlobs);
+        matchers(root.getFileSystem(), excludeGlobs);
+      } catch (final IllegalArgumentException exc) {
+        throw new IOException(String.format("invalid glob pattern, %s", exc.getMessage()), exc);
+      }
+    }
+  }
+
+  /**
+   * Get the root directories.
+   *
+   * @return the {@link List} of root directory {@link Path} instances.
+   */
+  public List<Path> getRoots() {
+    return this.roots;
+  }
+
+  /**
+   * Match a file of a root outside of a walk, i.e. a file created or modified since.
+   *
+   * @param root the root {@link Path} the file is under.
+   * @param file the file {@link Path}.
+   * @return the {@link TopicAndSchema} record for the file, {@code null} if it is not a regular
+   *     file, not included, or excluded along with any of its directories.
+   */
+  @Nullable
+  public TopicAndSchema match(final Path root, final Path file) {
+    if (!Files.isRegularFile(file) || isExcluded(root, file.getParent())) {
+      return null;
+    }
+    var relative = root.relativize(file);
+    var fs = root.getFileSystem();
+    return matchers(fs, includeGlobs).stream().anyMatch(m -> m.matches(relative))
+            && matchers(fs, excludeGlobs).stream().noneMatch(m -> m.matches(relative))
+        ? new TopicAndSchema(topicFor(root, file), file)
+        : null;
+  }
+
+  /**
+   * Tell whether a directory of a root is excluded, along with any of its parent directories.
+   *
+   * @param root the root {@link Path} the directory is under.
+   * @param dir the directory {@link Path}.
+   * @return true if the directory or any of its parents up to the root is excluded.
+   */
+  public boolean isExcluded(final Path root, final Path dir) {
+    var excludes = matchers(root.getFileSystem(), excludeGlobs);
+    for (var current = dir;
+        nonNull(current) && current.startsWith(root) && !current.equals(root);
+        current = current.getParent()) {
+      var relative = root.relativize(current);
+      if (excludes.stream().anyMatch(m -> m.matches(relative))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  static List<PathMatcher> matchers(final FileSystem fs, final List<String> globs) {
+    return globs.stream().map(g -> fs.getPathMatcher("glob:" + g)).toList();
+  }
+
+  private String topicFor(final Path root, final Path file) {
+    return topicFor(topicTemplate, root, file);
+  }
+
+  /**
+   * Derive the topic of a file from a template supporting the placeholders listed for the class.
+   *
+   * @param topicTemplate the {@link String} template for deriving the topic.
+   * @param root the root {@link Path} the file is under, an empty path for relative files.
+   * @param file the file {@link Path}.
+   * @return the {@link String} topic.
+   */
+  static String topicFor(final String topicTemplate, final Path root, final Path file) {
+    var fileName = file.getFileName().toString();
+    var extIdx = fileName.lastIndexOf('.');
+    var name = extIdx > 0 ? fileName.substring(0, extIdx) : fileName;
+    var dir = file.getParent();
+    var parent = isNull(dir) ? null : dir.getFileName();
+    var relative = root.relativize(file).toString();
+    var relativeName =
+        extIdx > 0
+            ? relative.substring(0, relative.length() - fileName.length() + extIdx)
+            : relative;
+    return topicTemplate
+        .replace(NAME_PLACEHOLDER, name)
+        .replace(FILE_PLACEHOLDER, fileName)
+        .replace(PARENT_PLACEHOLDER, isNull(parent) ? "" : parent.toString())
+        .replace(PATH_PLACEHOLDER, relativeName.replace(file.getFileSystem().getSeparator(), "."));
+  }
+
+  private static void put(final BlockingQueue<Object> queue, final Object item) {
+    try {
+      queue.put(item);
+    } catch (final InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /* ************************************************************** *
+   * File visitor matching the files of a root and feeding the queue *
+   * ************************************************************** */
+  private final class RootVisitor extends SimpleFileVisitor<Path> {
+    private final Path root;
+    private final BlockingQueue<Object> queue;
+    private final List<PathMatcher> includes;
+    private final List<PathMatcher> excludes;
+
+    RootVisitor(final Path setRoot, final BlockingQueue<Object> setQueue) {
+      this.root = setRoot;
+      this.queue = setQueue;
+      this.includes = matchers(setRoot.getFileSystem(), includeGlobs);
+      this.excludes = matchers(setRoot.getFileSystem(), excludeGlobs);
+    }
+
+    @Override
+    public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+      return !dir.equals(root) && isExcluded(root.relativize(dir))
+          ? FileVisitResult.SKIP_SUBTREE
+          : FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+      var relative = root.relativize(file);
+      if (attrs.isRegularFile()
+          && includes.stream().anyMatch(m -> m.matches(relative))
+          && !isExcluded(relative)) {
+        try {
+          queue.put(new TopicAndSchema(topicFor(root, file), file));
+        } catch (final InterruptedException ie) {
+          throw new InterruptedWalkException();
+        }
+      }
+      return FileVisitResult.CONTINUE;
+    }
+
+    @Override
+    public FileVisitResult visitFileFailed(final Path file, final IOException exc) {
+      LOGGER.log(Level.WARNING, exc, () -> String.format("skipping unreadable '%s'", file));
+      return FileVisitResult.CONTINUE;
+    }
+
+    private boolean isExcluded(final Path relative) {
+      return excludes.stream().anyMatch(m -> m.matches(relative));
+    }
+  }
+
+  /* ******************************************************* *
+   * Iterator draining the queue until all the roots are done *
+   * ******************************************************* */
+  private static final class QueueIterator implements Iterator<TopicAndSchema> {
+    private final BlockingQueue<Object> queue;
+    private Object next;
+
+    QueueIterator(final BlockingQueue<Object> setQueue) {
+      this.queue = setQueue;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (isNull(next)) {
+        try {
+          next = queue.take();
+        } catch (final InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          throw new UncheckedIOException(new IOException("interrupted while walking", ie));
+        }
+        if (next instanceof WalkFailure failure) {
+          next = END_OF_WALK;
+          throw new UncheckedIOException(
+              new IOException(
+                  String.format("failed to walk '%s'", failure.root()), failure.cause()));
+        }
+      }
+      return next != END_OF_WALK;
+    }
+
+    @Override
+    public TopicAndSchema next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      var ret = (TopicAndSchema) next;
+      next = null;
+      return ret;
+    }
+  }
+
+  /* Used for handing a failed walk of a root over to the consumer. */
+  private record WalkFailure(Path root, RuntimeException cause) {}
+
+  /* Used for breaking out of a file walk when the walking thread is interrupted. */
+  private static final class InterruptedWalkException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+  }
+}
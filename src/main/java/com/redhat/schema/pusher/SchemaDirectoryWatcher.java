@@ -0,0 +1,209 @@
+package com.redhat.schema.pusher;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+
+/**
+ * Helper class for watching the root directories of a {@link SchemaDirectoryWalker}, handing over
+ * the schema files created or modified as {@link TopicAndSchema} records. The changes are
+ * debounced, the files changed in a burst of edits are handed over together once the directories
+ * were quiet for the debounce time, each file once however many times it changed.
+ *
+ * <p>Directories created under the roots are watched as well, and their files handed over. Deleted
+ * files are ignored, as the registry keeps their schemas. When the file system drops events, all
+ * the files of the roots are handed over again.
+ */
+public final class SchemaDirectoryWatcher implements AutoCloseable {
+  private static final Logger LOGGER = Logger.getLogger(SchemaDirectoryWatcher.class.getName());
+
+  private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+  /* A watched directory and the root it is under. */
+  private record WatchedDir(Path root, Path dir) {}
+
+  private final SchemaDirectoryWalker walker;
+  private final Duration debounce;
+  private final WatchService watchService;
+  private final Map<WatchKey, WatchedDir> watchedDirs = new ConcurrentHashMap<>();
+  private final CountDownLatch done = new CountDownLatch(1);
+  private volatile boolean watching;
+
+  /**
+   * Constructor takes the walker specifying the directories and the files, and starts watching the
+   * directories, the changes made from now on are handed over once {@link #watch(Consumer)} is
+   * invoked.
+   *
+   * @param setWalker the {@link SchemaDirectoryWalker} specifying the roots, the files included,
+   *     and their topics.
+   * @param setDebounce the {@link Duration} the directories should be quiet before handing over.
+   * @throws IOException when failed to watch the roots, or one of the glob patterns is invalid.
+   */
+  public SchemaDirectoryWatcher(final SchemaDirectoryWalker setWalker, final Duration setDebounce)
+      throws IOException {
+    setWalker.checkGlobs();
+    this.walker = setWalker;
+    this.debounce = setDebounce;
+    this.watchService = setWalker.getRoots().get(0).getFileSystem().newWatchService();
+    for (var root : setWalker.getRoots()) {
+      registerTree(root, root, null);
+    }
+  }
+
+  /**
+   * Hand over the changes until closed, blocking the calling thread.
+   *
+   * @param consumer the {@link Consumer} taking each debounced {@link List} of {@link
+   *     TopicAndSchema} records.
+   * @throws IOException when failed walking the roots again after dropped events, or watching a
+   *     created directory, the changes would otherwise be missed.
+   */
+  public void watch(final Consumer<List<TopicAndSchema>> consumer) throws IOException {
+    watching = true;
+    try {
+      while (true) {
+        var changed = new LinkedHashMap<Path, TopicAndSchema>();
+        var overflowed = false;
+        // collect until the directories were quiet for the debounce time
+        for (var key = watchService.take();
+            nonNull(key);
+            key = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS)) {
+          overflowed |= collect(key, changed);
+        }
+        if (overflowed) {
+          LOGGER.warning("file system events were dropped, walking all the schema files again");
+          try (var records = walker.walk()) {
+            records.forEach(r -> changed.put(r.schema(), r));
+          } catch (final UncheckedIOException exc) {
+            throw exc.getCause();
+          }
+        }
+        if (!changed.isEmpty()) {
+          consumer.accept(List.copyOf(changed.values()));
+        }
+      }
+    } catch (final ClosedWatchServiceException exc) {
+      LOGGER.info("stopped watching");
+    } catch (final InterruptedException exc) {
+      Thread.currentThread().interrupt();
+    } finally {
+      done.countDown();
+    }
+  }
+
+  /** Stop watching, waiting for the records handed over to be consumed. */
+  @Override
+  public void close() {
+    try {
+      watchService.close();
+    } catch (final IOException exc) {
+      throw new UncheckedIOException(exc);
+    }
+    if (watching) {
+      try {
+        if (!done.await(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          LOGGER.warning("stopped watching while still consuming changes");
+        }
+      } catch (final InterruptedException exc) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Collect the changed files of a watched directory.
+   *
+   * @param key the signalled {@link WatchKey}.
+   * @param changed the {@link Map} of the changed file {@link Path} instances to their records.
+   * @return true if events were dropped.
+   * @throws IOException when failed to watch a created directory.
+   */
+  private boolean collect(final WatchKey key, final Map<Path, TopicAndSchema> changed)
+      throws IOException {
+    var watched = watchedDirs.get(key);
+    var overflowed = false;
+    for (var event : key.pollEvents()) {
+      if (event.kind() == OVERFLOW) {
+        overflowed = true;
+        continue;
+      }
+      var path = watched.dir().resolve((Path) event.context());
+      if (Files.isDirectory(path)) {
+        if (event.kind() == ENTRY_CREATE && !walker.isExcluded(watched.root(), path)) {
+          registerTree(watched.root(), path, changed);
+        }
+        continue;
+      }
+      var rec = walker.match(watched.root(), path);
+      if (nonNull(rec)) {
+        changed.put(path, rec);
+      }
+    }
+    // a deleted directory can no longer be watched
+    if (!key.reset()) {
+      watchedDirs.remove(key);
+    }
+    return overflowed;
+  }
+
+  /**
+   * Watch a directory and its subdirectories, skipping the excluded ones.
+   *
+   * @param root the root {@link Path} the directory is under.
+   * @param dir the directory {@link Path} to watch.
+   * @param changed the {@link Map} for collecting the files found in the directory, {@code null}
+   *     for not collecting them.
+   * @throws IOException when failed to watch the directory.
+   */
+  private void registerTree(
+      final Path root, final Path dir, @Nullable final Map<Path, TopicAndSchema> changed)
+      throws IOException {
+    Files.walkFileTree(
+        dir,
+        new SimpleFileVisitor<>() {
+          @Override
+          public FileVisitResult preVisitDirectory(
+              final Path subDir, final BasicFileAttributes attrs) throws IOException {
+            if (walker.isExcluded(root, subDir)) {
+              return FileVisitResult.SKIP_SUBTREE;
+            }
+            watchedDirs.put(
+                subDir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY),
+                new WatchedDir(root, subDir));
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+            var rec = isNull(changed) ? null : walker.match(root, file);
+            if (nonNull(rec)) {
+              changed.put(file, rec);
+            }
+            return FileVisitResult.CONTINUE;
+          }
+        });
+  }
+}
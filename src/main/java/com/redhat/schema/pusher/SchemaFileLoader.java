@@ -0,0 +1,265 @@
+package com.redhat.schema.pusher;
+
+import static java.util.Objects.isNull;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Helper class for loading schema files with a bounded I/O footprint. Files up to the buffer size
+ * are read into direct buffers taken from a bounded pool and returned to it once released, files
+ * above the memory mapping threshold are memory mapped, and the files in between are read into a
+ * heap buffer of their own. A semaphore caps the number of files open at once, and every file is
+ * closed as soon as it was read. The bytes read and the time spent in I/O are accumulated for
+ * reporting.
+ */
+public final class SchemaFileLoader {
+  /** The default buffer size, and memory mapping threshold. */
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  /** The default maximum number of files open at once. */
+  public static final int DEFAULT_MAX_OPEN_FILES = 64;
+
+  private final int bufferSize;
+  private final int mmapThreshold;
+  private final int poolSize;
+  private final BlockingQueue<ByteBuffer> pool = new LinkedBlockingQueue<>();
+  private final AtomicInteger allocated = new AtomicInteger();
+  private final Semaphore openFiles;
+  private final LongAdder filesRead = new LongAdder();
+  private final LongAdder filesMapped = new LongAdder();
+  private final LongAdder bytesRead = new LongAdder();
+  private final LongAdder ioNanos = new LongAdder();
+
+  /**
+   * Constructor takes the buffer size and the open files cap, the pool holds up to twice as many
+   * buffers as open files, as buffers are held until their content is consumed.
+   *
+   * @param setBufferSize the size of the pooled buffers, files above it are memory mapped.
+   * @param setMaxOpenFiles the maximum number of files open at once.
+   */
+  public SchemaFileLoader(final int setBufferSize, final int setMaxOpenFiles) {
+    this(setBufferSize, setBufferSize, setMaxOpenFiles);
+  }
+
+  /**
+   * Constructor takes the buffer size, the memory mapping threshold, and the open files cap, so a
+   * large threshold does not grow the pooled buffers.
+   *
+   * @param setBufferSize the size of the pooled buffers.
+   * @param setMmapThreshold the file size above which files are memory mapped, files above the
+   *     buffer size and up to it are read into a heap buffer of their own.
+   * @param setMaxOpenFiles the maximum number of files open at once.
+   */
+  public SchemaFileLoader(
+      final int setBufferSize, final int setMmapThreshold, final int setMaxOpenFiles) {
+    this.bufferSize = setBufferSize;
+    this.mmapThreshold = setMmapThreshold;
+    this.poolSize = setMaxOpenFiles * 2;
+    this.openFiles = new Semaphore(setMaxOpenFiles);
+  }
+
+  /**
+   * The I/O statistics of a run.
+   *
+   * @param filesRead the number of files read.
+   * @param filesMapped the number of files memory mapped, included in the files read.
+   * @param bytesRead the number of bytes read.
+   * @param ioNanos the accumulated time spent in I/O, across all threads.
+   */
+  public record IoStats(long filesRead, long filesMapped, long bytesRead, long ioNanos) {}
+
+  /** A loaded file, should be released once its content was consumed. */
+  public final class LoadedFile implements AutoCloseable {
+    private final ByteBuffer content;
+    private final ByteBuffer pooled;
+    private boolean released;
+
+    private LoadedFile(final ByteBuffer setContent, final ByteBuffer setPooled) {
+      this.content = setContent;
+      this.pooled = setPooled;
+    }
+
+    /**
+     * Get the content of the file.
+     *
+     * @return a read-only {@link ByteBuffer} positioned at the start of the content.
+     */
+    public ByteBuffer content() {
+      return content.asReadOnlyBuffer();
+    }
+
+    /** Release the file, returning its buffer to the pool, invoking more than once is a no-op. */
+    @Override
+    public synchronized void close() {
+      if (!released) {
+        released = true;
+        if (!isNull(pooled)) {
+          pool.offer(pooled.clear());
+        }
+      }
+    }
+  }
+
+  /**
+   * Load a file into a pooled buffer, memory map it if larger than the memory mapping threshold, or
+   * read it into a heap buffer if in between. Blocks while the maximum number of files are open or
+   * all the pooled buffers are in use.
+   *
+   * @param path the {@link Path} of the file.
+   * @return the {@link LoadedFile}, should be released once consumed.
+   * @throws IOException when failed to read the file, or interrupted while waiting.
+   */
+  public LoadedFile load(final Path path) throws IOException {
+    acquire(openFiles);
+    var start = System.nanoTime();
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      var size = channel.size();
+      LoadedFile loaded;
+      if (size > mmapThreshold) {
+        loaded = new LoadedFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), null);
+        filesMapped.increment();
+      } else if (size > bufferSize) {
+        // too large for the pool, not worth mapping
+        var buffer = ByteBuffer.allocate((int) size);
+        readFully(channel, buffer, size);
+        loaded = new LoadedFile(buffer.flip(), null);
+      } else {
+        var buffer = takeBuffer();
+        try {
+          readFully(channel, buffer, size);
+        } catch (final IOException exc) {
+          pool.offer(buffer.clear());
+          throw exc;
+        }
+        loaded = new LoadedFile(buffer.flip(), buffer);
+      }
+      filesRead.increment();
+      bytesRead.add(size);
+      return loaded;
+    } finally {
+      ioNanos.add(System.nanoTime() - start);
+      openFiles.release();
+    }
+  }
+
+  /**
+   * Load the schema of a record, from the content it carries if streamed, otherwise from its path,
+   * see {@link #load(Path)}.
+   *
+   * @param topicAndSchema the {@link TopicAndSchema} record.
+   * @return the {@link LoadedFile}, should be released once consumed.
+   * @throws IOException when failed to read the file, or interrupted while waiting.
+   */
+  public LoadedFile load(final TopicAndSchema topicAndSchema) throws IOException {
+    var content = topicAndSchema.content();
+    if (isNull(content)) {
+      return load(topicAndSchema.schema());
+    }
+    // streamed content is already in memory, there is nothing to open and no buffer to release
+    filesRead.increment();
+    bytesRead.add(content.remaining());
+    return new LoadedFile(content.duplicate(), null);
+  }
+
+  /**
+   * Read the schema of a record into a byte array, from the content it carries if streamed,
+   * otherwise from its path, see {@link #readAllBytes(Path)}.
+   *
+   * @param topicAndSchema the {@link TopicAndSchema} record.
+   * @return the content of the schema.
+   * @throws IOException when failed to read the file, or interrupted while waiting.
+   */
+  public byte[] readAllBytes(final TopicAndSchema topicAndSchema) throws IOException {
+    var content = topicAndSchema.content();
+    if (isNull(content)) {
+      return readAllBytes(topicAndSchema.schema());
+    }
+    var bytes = new byte[content.remaining()];
+    content.duplicate().get(bytes);
+    filesRead.increment();
+    bytesRead.add(bytes.length);
+    return bytes;
+  }
+
+  /**
+   * Read a whole file into a byte array, for content held beyond a pooled buffer lifetime. Blocks
+   * while the maximum number of files are open.
+   *
+   * @param path the {@link Path} of the file.
+   * @return the content of the file.
+   * @throws IOException when failed to read the file, or interrupted while waiting.
+   */
+  public byte[] readAllBytes(final Path path) throws IOException {
+    acquire(openFiles);
+    var start = System.nanoTime();
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      var size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException(String.format("'%s' is too large", path));
+      }
+      var content = ByteBuffer.allocate((int) size);
+      readFully(channel, content, size);
+      filesRead.increment();
+      bytesRead.add(size);
+      return content.array();
+    } finally {
+      ioNanos.add(System.nanoTime() - start);
+      openFiles.release();
+    }
+  }
+
+  /**
+   * Get the I/O statistics accumulated so far.
+   *
+   * @return an {@link IoStats} record.
+   */
+  public IoStats stats() {
+    return new IoStats(filesRead.sum(), filesMapped.sum(), bytesRead.sum(), ioNanos.sum());
+  }
+
+  private ByteBuffer takeBuffer() throws IOException {
+    var buffer = pool.poll();
+    if (isNull(buffer)) {
+      // allocate lazily up to the pool size, then wait for a released buffer
+      if (allocated.getAndUpdate(a -> a < poolSize ? a + 1 : a) < poolSize) {
+        return ByteBuffer.allocateDirect(bufferSize);
+      }
+      try {
+        buffer = pool.take();
+      } catch (final InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("interrupted while waiting for a buffer");
+      }
+    }
+    return buffer;
+  }
+
+  private static void acquire(final Semaphore semaphore) throws IOException {
+    try {
+      semaphore.acquire();
+    } catch (final InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("interrupted while waiting for an open file slot");
+    }
+  }
+
+  private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long size)
+      throws IOException {
+    while (buffer.position() < size) {
+      if (channel.read(buffer) < 0) {
+        throw new EOFException("file truncated while reading");
+      }
+    }
+  }
+}
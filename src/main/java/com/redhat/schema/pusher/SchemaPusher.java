@@ -1,14 +1,35 @@
 package com.redhat.schema.pusher;
 
 import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Interface for contracting the schema pusher implementations. A pusher can be used for many
+ * pushes, keeping its clients and caches warm between them, and releases them when closed.
+ */
+public interface SchemaPusher extends AutoCloseable {
+  /**
+   * Push a stream of schemas to push to for topic in a stream of topics. The stream is consumed as
+   * it is produced, implementations should not collect it before pushing.
+   *
+   * @param topicSchemaRecords a {@link Stream} of {@link TopicAndSchema} records.
+   * @return a {@link ReturnCode} instance.
+   */
+  ReturnCode push(Stream<TopicAndSchema> topicSchemaRecords);
 
-/** Interface for contracting the schema pusher implementations. */
-public interface SchemaPusher {
   /**
    * Push a list of schemas to push to for topic in a list of topics.
    *
    * @param topicSchemaRecords a {@link List} of {@link TopicAndSchema} records.
    * @return a {@link ReturnCode} instance.
    */
-  ReturnCode push(List<TopicAndSchema> topicSchemaRecords);
+  default ReturnCode push(final List<TopicAndSchema> topicSchemaRecords) {
+    return push(topicSchemaRecords.stream());
+  }
+
+  /** Release the clients kept between the pushes, the default keeps none. */
+  @Override
+  default void close() {
+    //
+  }
 }
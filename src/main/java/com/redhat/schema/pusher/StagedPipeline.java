@@ -0,0 +1,124 @@
+package com.redhat.schema.pusher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Helper class for processing items through a chain of stages, each stage has its own fixed size
+ * worker pool and its own bounded queue. An item completing a stage is queued for the next one, and
+ * submitting to a full queue blocks, so a slow stage applies back pressure all the way to the
+ * submitter instead of letting the items pile up in memory.
+ *
+ * @param <T> the type of the items flowing through the pipeline.
+ */
+public final class StagedPipeline<T> implements PushExecutor<T> {
+  private final List<Stage<T>> stages;
+  private final List<ThreadPoolExecutor> executors;
+  private final BiConsumer<T, Exception> failureHandler;
+
+  /**
+   * Constructor takes the stages specification and starts the stage workers.
+   *
+   * @param setStages the {@link List} of {@link Stage} records, in order.
+   * @param queueCapacity the capacity of each stage queue.
+   * @param setFailureHandler the {@link BiConsumer} invoked with an item failing a stage.
+   */
+  public StagedPipeline(
+      final List<Stage<T>> setStages,
+      final int queueCapacity,
+      final BiConsumer<T, Exception> setFailureHandler) {
+    this.stages = List.copyOf(setStages);
+    this.failureHandler = setFailureHandler;
+    this.executors = new ArrayList<>(stages.size());
+    for (var stage : stages) {
+      var threadCounter = new AtomicInteger();
+      var executor =
+          new ThreadPoolExecutor(
+              stage.width(),
+              stage.width(),
+              0L,
+              TimeUnit.MILLISECONDS,
+              new ArrayBlockingQueue<>(queueCapacity),
+              r -> {
+                var name =
+                    "pipeline-%s-%d"
+                        .formatted(
+                            stage.stage().name().toLowerCase(Locale.ROOT),
+                            threadCounter.getAndIncrement());
+                var thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+              },
+              (r, ex) -> {
+                // block the submitting thread until the queue has room
+                if (ex.isShutdown()) {
+                  throw new RejectedExecutionException("pipeline stage is shut down");
+                }
+                try {
+                  ex.getQueue().put(r);
+                } catch (final InterruptedException ie) {
+                  Thread.currentThread().interrupt();
+                  throw new RejectedExecutionException("interrupted while queueing", ie);
+                }
+              });
+      executor.prestartAllCoreThreads();
+      executors.add(executor);
+    }
+  }
+
+  /**
+   * Submit an item to the first stage, blocks while the first stage queue is full.
+   *
+   * @param item the item to process.
+   */
+  @Override
+  public void submit(final T item) {
+    dispatch(0, item);
+  }
+
+  /** Wait for all the submitted items to go through the pipeline and stop the stage workers. */
+  @Override
+  public void close() {
+    // stages are drained in order, a drained stage can no longer feed the one after it
+    for (var executor : executors) {
+      executor.shutdown();
+      try {
+        while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+          // keep waiting, the registry might just be slow
+        }
+      } catch (final InterruptedException ie) {
+        Thread.currentThread().interrupt();
+        executors.forEach(ThreadPoolExecutor::shutdownNow);
+        return;
+      }
+    }
+  }
+
+  private void dispatch(final int stageIdx, final T item) {
+    var stage = stages.get(stageIdx);
+    executors
+        .get(stageIdx)
+        .execute(
+            () -> {
+              try {
+                stage.action().apply(item);
+              } catch (final Exception exc) {
+                if (exc instanceof InterruptedException) {
+                  Thread.currentThread().interrupt();
+                }
+                failureHandler.accept(item, exc);
+                return;
+              }
+              if (stageIdx + 1 < stages.size()) {
+                dispatch(stageIdx + 1, item);
+              }
+            });
+  }
+}
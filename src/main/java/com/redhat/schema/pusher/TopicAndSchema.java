@@ -1,11 +1,25 @@
 package com.redhat.schema.pusher;
 
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import javax.annotation.Nullable;
 
 /**
- * A record for aggregating topic {@link String} and schema {@link Path} pairs.
+ * A record for aggregating topic {@link String} and schema {@link Path} pairs. Schemas streamed
+ * from an archive carry their content, and their path is the archive entry name, never read.
  *
  * @param topic the topic for the record.
  * @param schema the path for the schema file.
+ * @param content the read-only content of the schema, {@code null} for reading it from the path.
  */
-public record TopicAndSchema(String topic, Path schema) {}
+public record TopicAndSchema(String topic, Path schema, @Nullable ByteBuffer content) {
+  /**
+   * Constructor for a schema read from its path.
+   *
+   * @param topic the topic for the record.
+   * @param schema the path for the schema file.
+   */
+  public TopicAndSchema(final String topic, final Path schema) {
+    this(topic, schema, null);
+  }
+}
@@ -0,0 +1,123 @@
+package com.redhat.schema.pusher;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.logging.Logger;
+
+/**
+ * Helper class for running all the stages of each item on a thread of its own, gated by a semaphore
+ * capping the number of items in flight. On Java 21 and above, every item gets a virtual thread, so
+ * thousands of items can wait on the network without holding a platform thread each. On older
+ * runtimes, it falls back to a platform thread per item, still gated by the semaphore.
+ *
+ * <p>Note that a virtual thread blocking inside a {@code synchronized} block pins its carrier
+ * thread, a registry client serializing its calls on a monitor will limit the gain.
+ *
+ * @param <T> the type of the items pushed through the stages.
+ */
+public final class VirtualThreadExecutor<T> implements PushExecutor<T> {
+  private static final Logger LOGGER = Logger.getLogger(VirtualThreadExecutor.class.getName());
+
+  private final List<Stage<T>> stages;
+  private final int maxInFlight;
+  private final Semaphore inFlight;
+  private final ExecutorService executor;
+  private final BiConsumer<T, Exception> failureHandler;
+
+  /**
+   * Constructor takes the stages specification and the concurrency cap.
+   *
+   * @param setStages the {@link List} of {@link Stage} records, in order, the widths are ignored.
+   * @param setMaxInFlight the maximum number of items in flight.
+   * @param setFailureHandler the {@link BiConsumer} invoked with an item failing a stage.
+   */
+  public VirtualThreadExecutor(
+      final List<Stage<T>> setStages,
+      final int setMaxInFlight,
+      final BiConsumer<T, Exception> setFailureHandler) {
+    this.stages = List.copyOf(setStages);
+    this.maxInFlight = setMaxInFlight;
+    this.inFlight = new Semaphore(setMaxInFlight);
+    this.failureHandler = setFailureHandler;
+    this.executor = createExecutor();
+  }
+
+  /**
+   * Check if the runtime supports virtual threads.
+   *
+   * @return true if virtual threads are supported.
+   */
+  public static boolean isVirtualThreadsSupported() {
+    try {
+      Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return true;
+    } catch (final NoSuchMethodException exc) {
+      return false;
+    }
+  }
+
+  /**
+   * Submit an item, blocks while the maximum number of items are in flight.
+   *
+   * @param item the item to process.
+   */
+  @Override
+  public void submit(final T item) {
+    try {
+      inFlight.acquire();
+    } catch (final InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      failureHandler.accept(item, ie);
+      return;
+    }
+    executor.execute(
+        () -> {
+          try {
+            for (var stage : stages) {
+              stage.action().apply(item);
+            }
+          } catch (final Exception exc) {
+            if (exc instanceof InterruptedException) {
+              Thread.currentThread().interrupt();
+            }
+            failureHandler.accept(item, exc);
+          } finally {
+            inFlight.release();
+          }
+        });
+  }
+
+  /** Wait for all the items in flight to complete and release the executor. */
+  @Override
+  public void close() {
+    try {
+      // all the permits are available only when there are no items in flight
+      inFlight.acquire(maxInFlight);
+      inFlight.release(maxInFlight);
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (final InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      executor.shutdownNow();
+    }
+  }
+
+  private static ExecutorService createExecutor() {
+    try {
+      return (ExecutorService)
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (final ReflectiveOperationException exc) {
+      LOGGER.warning("virtual threads are not supported, using a platform thread per item");
+      return Executors.newCachedThreadPool(
+          r -> {
+            var thread = new Thread(r, "schema-push-worker");
+            thread.setDaemon(true);
+            return thread;
+          });
+    }
+  }
+}
@@ -0,0 +1,135 @@
+package com.redhat.schema.pusher.avro;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Builder of an Apicurio Registry v2 import archive, a zip of the export layout: a manifest, a
+ * metadata entry and a data entry per distinct content, and an entry per artifact version pointing
+ * at its content. Versions of the same artifact are numbered in the order they were added, and
+ * identical contents are stored once.
+ */
+final class ApicurioImportArchive {
+  private static final String ARTIFACT_TYPE_AVRO = "AVRO";
+  private static final String SYSTEM_NAME = "schema-pusher";
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final Map<String, Content> contents = new LinkedHashMap<>();
+  private final List<Version> versions = new ArrayList<>();
+  private final Map<String, Integer> latestVersions = new HashMap<>();
+
+  private record Content(long contentId, String contentHash, String canonicalHash, byte[] data) {}
+
+  private record Version(String artifactId, int version, long contentId) {}
+
+  /**
+   * Add a new version of an AVRO artifact.
+   *
+   * @param artifactId the id of the artifact, the subject.
+   * @param content the {@link String} schema content.
+   * @param canonicalContent the {@link String} canonical form of the content.
+   */
+  void add(final String artifactId, final String content, final String canonicalContent) {
+    var data = content.getBytes(StandardCharsets.UTF_8);
+    var contentHash = sha256(data);
+    var stored =
+        contents.computeIfAbsent(
+            contentHash,
+            h ->
+                new Content(
+                    contents.size() + 1L,
+                    h,
+                    sha256(canonicalContent.getBytes(StandardCharsets.UTF_8)),
+                    data));
+    var version = latestVersions.merge(artifactId, 1, Integer::sum);
+    versions.add(new Version(artifactId, version, stored.contentId()));
+  }
+
+  /**
+   * Get the number of artifact versions added.
+   *
+   * @return the number of versions.
+   */
+  int size() {
+    return versions.size();
+  }
+
+  /**
+   * Write the archive, the contents are written before the versions referring to them.
+   *
+   * @return the zip archive bytes.
+   * @throws IOException when failed to write the archive.
+   */
+  byte[] toBytes() throws IOException {
+    var now = System.currentTimeMillis();
+    var out = new ByteArrayOutputStream();
+    try (var zip = new ZipOutputStream(out)) {
+      var manifest = MAPPER.createObjectNode();
+      manifest.put("exportedOn", now);
+      manifest.put("systemName", SYSTEM_NAME);
+      manifest.put("systemDescription", "Schemas pushed with " + SYSTEM_NAME);
+      writeJson(zip, "manifest.Manifest.json", manifest);
+      for (var content : contents.values()) {
+        var entity = MAPPER.createObjectNode();
+        entity.put("contentId", content.contentId());
+        entity.put("contentHash", content.contentHash());
+        entity.put("canonicalHash", content.canonicalHash());
+        entity.put("artifactType", ARTIFACT_TYPE_AVRO);
+        writeJson(zip, String.format("content/%d.Content.json", content.contentId()), entity);
+        zip.putNextEntry(
+            new ZipEntry(String.format("content/%d.Content.data", content.contentId())));
+        zip.write(content.data());
+        zip.closeEntry();
+      }
+      for (var version : versions) {
+        var entity = MAPPER.createObjectNode();
+        entity.put("groupId", ApicurioRegistryClient.DEFAULT_GROUP);
+        entity.put("artifactId", version.artifactId());
+        entity.put("version", Integer.toString(version.version()));
+        entity.put("versionId", version.version());
+        entity.put("artifactType", ARTIFACT_TYPE_AVRO);
+        entity.put("state", "ENABLED");
+        entity.put("createdBy", SYSTEM_NAME);
+        entity.put("createdOn", now);
+        entity.put(
+            "isLatest", version.version() == latestVersions.get(version.artifactId()).intValue());
+        entity.put("contentId", version.contentId());
+        writeJson(
+            zip,
+            String.format(
+                "groups/%s/artifacts/%s/versions/%d.ArtifactVersion.json",
+                ApicurioRegistryClient.DEFAULT_GROUP, version.artifactId(), version.version()),
+            entity);
+      }
+    }
+    return out.toByteArray();
+  }
+
+  private static void writeJson(final ZipOutputStream zip, final String name, final ObjectNode node)
+      throws IOException {
+    zip.putNextEntry(new ZipEntry(name));
+    zip.write(MAPPER.writeValueAsBytes(node));
+    zip.closeEntry();
+  }
+
+  private static String sha256(final byte[] data) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+    } catch (final NoSuchAlgorithmException exc) {
+      throw new IllegalStateException(exc);
+    }
+  }
+}
@@ -0,0 +1,215 @@
+package com.redhat.schema.pusher.avro;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.schema.pusher.PushMetrics;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Client for the native Apicurio Registry v2 API, creating artifacts one at a time, listing the
+ * artifacts of a group, and importing an archive of artifacts in a single request. Transport
+ * failures are thrown as {@link UncheckedIOException} and rejected requests as {@link
+ * RestClientException} carrying the http status, or {@link RegistryOverloadedException} carrying
+ * the retry after delay when throttled, so the retries, the limiter, and the circuit breaker treat
+ * them as they do the compatibility API's failures. Requests time out after 30 seconds, the import
+ * of an archive after 5 minutes, a timed out request is thrown as a transport failure.
+ */
+final class ApicurioRegistryClient {
+  /** The group the Confluent compatibility API maps subjects to. */
+  static final String DEFAULT_GROUP = "default";
+
+  private static final String API_FMT = "%s/apis/registry/v2";
+  private static final String ARTIFACT_TYPE_AVRO = "AVRO";
+  private static final int LIST_PAGE_SIZE = 1000;
+  private static final int HTTP_TOO_MANY_REQUESTS = 429;
+  private static final int HTTP_UNAVAILABLE = 503;
+  private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+  private static final Duration IMPORT_TIMEOUT = Duration.ofMinutes(5);
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final HttpClient httpClient;
+  private final String apiUrl;
+  private final Duration requestTimeout;
+  private final Duration importTimeout;
+
+  /**
+   * Constructor takes the http client and the registry url.
+   *
+   * @param setHttpClient the {@link HttpClient} for sending the requests.
+   * @param registryUrl the base url of the registry, with no trailing slash.
+   */
+  ApicurioRegistryClient(final HttpClient setHttpClient, final String registryUrl) {
+    this(setHttpClient, registryUrl, REQUEST_TIMEOUT, IMPORT_TIMEOUT);
+  }
+
+  /**
+   * Constructor takes the http client, the registry url, and the requests timeouts.
+   *
+   * @param setHttpClient the {@link HttpClient} for sending the requests.
+   * @param registryUrl the base url of the registry, with no trailing slash.
+   * @param setRequestTimeout the {@link Duration} after which a request times out.
+   * @param setImportTimeout the {@link Duration} after which the import of an archive times out.
+   */
+  ApicurioRegistryClient(
+      final HttpClient setHttpClient,
+      final String registryUrl,
+      final Duration setRequestTimeout,
+      final Duration setImportTimeout) {
+    this.httpClient = setHttpClient;
+    this.apiUrl = String.format(API_FMT, registryUrl);
+    this.requestTimeout = setRequestTimeout;
+    this.importTimeout = setImportTimeout;
+  }
+
+  /**
+   * The metadata of a registered artifact version.
+   *
+   * @param globalId the global id of the version.
+   * @param version the version of the artifact.
+   */
+  record ArtifactMetaData(long globalId, String version) {}
+
+  /**
+   * Create an AVRO artifact in the default group, or a new version of it if its content changed.
+   *
+   * @param artifactId the id of the artifact, the subject.
+   * @param content the {@link String} schema content.
+   * @return the {@link ArtifactMetaData} of the new or existing version.
+   * @throws InterruptedException when interrupted while waiting for the response.
+   * @throws RestClientException when the registry rejected the request.
+   */
+  ArtifactMetaData createOrUpdate(final String artifactId, final String content)
+      throws InterruptedException, RestClientException {
+    var request =
+        HttpRequest.newBuilder(
+                URI.create(
+                    String.format(
+                        "%s/groups/%s/artifacts?ifExists=RETURN_OR_UPDATE&canonical=true",
+                        apiUrl, DEFAULT_GROUP)))
+            .timeout(requestTimeout)
+            .header("Content-Type", "application/json")
+            .header("X-Registry-ArtifactId", artifactId)
+            .header("X-Registry-ArtifactType", ARTIFACT_TYPE_AVRO)
+            .POST(HttpRequest.BodyPublishers.ofString(content))
+            .build();
+    var node = readJson(send("artifacts", request));
+    return new ArtifactMetaData(node.path("globalId").asLong(-1), node.path("version").asText());
+  }
+
+  /**
+   * List the ids of the artifacts in the default group, paging through the listing.
+   *
+   * @return a {@link Set} of the artifact ids.
+   * @throws InterruptedException when interrupted while waiting for the response.
+   * @throws RestClientException when the registry rejected the request.
+   */
+  Set<String> listArtifactIds() throws InterruptedException, RestClientException {
+    var ids = new HashSet<String>();
+    var offset = 0;
+    long count;
+    do {
+      var request =
+          HttpRequest.newBuilder(
+                  URI.create(
+                      String.format(
+                          "%s/search/artifacts?group=%s&offset=%d&limit=%d",
+                          apiUrl,
+                          URLEncoder.encode(DEFAULT_GROUP, StandardCharsets.UTF_8),
+                          offset,
+                          LIST_PAGE_SIZE)))
+              .timeout(requestTimeout)
+              .GET()
+              .build();
+      var node = readJson(send("search", request));
+      var artifacts = node.path("artifacts");
+      artifacts.forEach(artifact -> ids.add(artifact.path("id").asText()));
+      count = node.path("count").asLong(0);
+      offset += LIST_PAGE_SIZE;
+      if (artifacts.isEmpty()) {
+        break;
+      }
+    } while (offset < count);
+    return ids;
+  }
+
+  /**
+   * Import an archive of artifacts in a single request, letting the registry assign the ids.
+   *
+   * @param archive the zip archive bytes, see {@link ApicurioImportArchive}.
+   * @throws InterruptedException when interrupted while waiting for the response.
+   * @throws RestClientException when the registry rejected the request.
+   */
+  void importArchive(final byte[] archive) throws InterruptedException, RestClientException {
+    var request =
+        HttpRequest.newBuilder(URI.create(String.format("%s/admin/import", apiUrl)))
+            .timeout(importTimeout)
+            .header("Content-Type", "application/zip")
+            .header("X-Registry-Preserve-GlobalId", "false")
+            .header("X-Registry-Preserve-ContentId", "false")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(archive))
+            .build();
+    send("import", request);
+  }
+
+  private String send(final String endpoint, final HttpRequest request)
+      throws InterruptedException, RestClientException {
+    HttpResponse<String> response;
+    var start = System.nanoTime();
+    try {
+      response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    } catch (final IOException exc) {
+      PushMetrics.recordRegistryCall(
+          endpoint, PushMetrics.STATUS_NO_RESPONSE, System.nanoTime() - start);
+      throw new UncheckedIOException(
+          String.format("failed sending %s %s", request.method(), request.uri()), exc);
+    }
+    PushMetrics.recordRegistryCall(endpoint, response.statusCode(), System.nanoTime() - start);
+    var status = response.statusCode();
+    if (status / 100 != 2) {
+      var node = readError(response.body());
+      var message =
+          String.format(
+              "registry responded %d to %s %s: %s",
+              status,
+              request.method(),
+              request.uri(),
+              node.path("message").asText(response.body()));
+      var errorCode = node.path("error_code").asInt(status);
+      throw status == HTTP_TOO_MANY_REQUESTS || status == HTTP_UNAVAILABLE
+          ? new RegistryOverloadedException(
+              message,
+              status,
+              errorCode,
+              AsyncRegistryClient.parseRetryAfter(response.headers().firstValue("Retry-After")))
+          : new RestClientException(message, status, errorCode);
+    }
+    return response.body();
+  }
+
+  private static JsonNode readError(final String body) {
+    try {
+      return MAPPER.readTree(body);
+    } catch (final IOException exc) {
+      return MAPPER.createObjectNode();
+    }
+  }
+
+  private static JsonNode readJson(final String body) {
+    try {
+      return MAPPER.readTree(body);
+    } catch (final IOException exc) {
+      throw new IllegalStateException("failed reading the registry response", exc);
+    }
+  }
+}
@@ -0,0 +1,265 @@
+package com.redhat.schema.pusher.avro;
+
+import static com.redhat.schema.pusher.UrlUtils.cleanUrlEnd;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.redhat.schema.pusher.FingerprintState;
+import com.redhat.schema.pusher.PipelineStage;
+import com.redhat.schema.pusher.PushCli;
+import com.redhat.schema.pusher.PushExecutor;
+import com.redhat.schema.pusher.PushMetrics;
+import com.redhat.schema.pusher.ReturnCode;
+import com.redhat.schema.pusher.SchemaFileLoader;
+import com.redhat.schema.pusher.SchemaPusher;
+import com.redhat.schema.pusher.TopicAndSchema;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.subject.strategy.SubjectNameStrategy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import org.apache.avro.SchemaNormalization;
+
+/**
+ * AVRO implementation of the {@link SchemaPusher} for the native Apicurio Registry v2 API. The
+ * schemas are resolved locally first, then registered as artifacts of the default group, the same
+ * group the Confluent compatibility API uses. When the batch is large enough, the artifacts new to
+ * the registry are registered with a single bulk import, and the rest one by one.
+ *
+ * <p>The registry client and the parsed schemas are created on first use and kept between pushes,
+ * so a long-running process pushes with warm caches and connections.
+ */
+public final class ApicurioSchemaPusher implements SchemaPusher {
+  private static final Logger LOGGER = Logger.getLogger(ApicurioSchemaPusher.class.getName());
+
+  private static final int DEFAULT_BULK_THRESHOLD = 100;
+  private static final int MAX_KEPT_CONTENTS = 10_000;
+
+  private final AvroComponents components;
+  private final String registryUrl;
+  private final SubjectNameStrategy subjectNameStrategy;
+  private final AvroPushSupport support;
+  private final int bulkThreshold;
+  private final ConcurrentMap<String, FutureTask<AvroSchemaCache.Parsed>> parsedContents =
+      AvroSchemaCache.newContents();
+  private ApicurioRegistryClient nativeClient;
+
+  /**
+   * Constructor that takes the CLI instance and use it to configure the registry client and the
+   * push execution.
+   *
+   * @param cli the {@link PushCli} instance for configuring the push with its fields.
+   * @param setComponents the {@link AvroComponents} instance for creating the HTTP client.
+   */
+  public ApicurioSchemaPusher(final PushCli cli, final AvroComponents setComponents) {
+    this.components = setComponents;
+    this.registryUrl = cleanUrlEnd.apply(cli.getServiceRegistry());
+    this.subjectNameStrategy = cli.getNamingStrategy().createStrategy();
+    this.support = new AvroPushSupport(cli);
+    this.bulkThreshold =
+        cli.getBulkThreshold() > 0 ? cli.getBulkThreshold() : DEFAULT_BULK_THRESHOLD;
+  }
+
+  @Override
+  public ReturnCode push(final Stream<TopicAndSchema> topicAndSchemaRecords) {
+    var state = support.loadState();
+    var loader = support.createLoader();
+    var retCode = pushNative(topicAndSchemaRecords, state, loader);
+    AvroPushSupport.logIoStats(loader.stats());
+    support.saveState(state);
+    support.writeReport();
+    return retCode;
+  }
+
+  /**
+   * Utility method for getting the native registry client, created on first use.
+   *
+   * @return the {@link ApicurioRegistryClient} instance.
+   */
+  private synchronized ApicurioRegistryClient registryClient() {
+    if (isNull(nativeClient)) {
+      LOGGER.info("loading the native registry client");
+      nativeClient = new ApicurioRegistryClient(components.createRegistryHttpClient(), registryUrl);
+    }
+    return nativeClient;
+  }
+
+  /**
+   * Utility method for creating the schema cache of a push, sharing the parsed contents kept
+   * between pushes, dropped once too many.
+   *
+   * @param loader the {@link SchemaFileLoader} for reading the schema files.
+   * @return the {@link AvroSchemaCache} instance.
+   */
+  private AvroSchemaCache createSchemaCache(final SchemaFileLoader loader) {
+    if (parsedContents.size() > MAX_KEPT_CONTENTS) {
+      parsedContents.clear();
+    }
+    return new AvroSchemaCache(loader, parsedContents);
+  }
+
+  /**
+   * Push the schemas via the native API, resolving them all first so the batch size is known.
+   *
+   * @param topicAndSchemaRecords the {@link Stream} of {@link TopicAndSchema} records to push.
+   * @param state the {@link FingerprintState} of previous runs, {@code null} if not used.
+   * @param loader the {@link SchemaFileLoader} for reading the schema files.
+   * @return a {@link ReturnCode} member.
+   */
+  private ReturnCode pushNative(
+      final Stream<TopicAndSchema> topicAndSchemaRecords,
+      @Nullable final FingerprintState state,
+      final SchemaFileLoader loader) {
+    try {
+      var client = registryClient();
+      var pushFailed = new AtomicBoolean();
+      var failureHandler = AvroPushSupport.createFailureHandler(pushFailed);
+      var tasks = new ArrayList<AvroPushTask>();
+      var cache = createSchemaCache(loader);
+      try (var executor =
+          support.createExecutor(createResolveStages(state, cache), failureHandler)) {
+        topicAndSchemaRecords.forEach(
+            rec -> {
+              var task = support.createTask(rec);
+              tasks.add(task);
+              executor.submit(task);
+            });
+      }
+      AvroPushSupport.logCacheStats(cache);
+      // a schema feeding many topics with the same subject is registered once
+      var registered = new HashSet<String>();
+      var pending =
+          tasks.stream()
+              .filter(t -> !t.failed && !t.skipped)
+              .filter(t -> registered.add(String.format("%s/%016x", t.subject, t.fingerprint)))
+              .toList();
+      var bulk = List.<AvroPushTask>of();
+      var single = pending;
+      if (pending.size() >= bulkThreshold) {
+        var existing = client.listArtifactIds();
+        var fresh = pending.stream().filter(t -> !existing.contains(t.subject)).toList();
+        if (fresh.size() >= bulkThreshold) {
+          bulk = fresh;
+          single = pending.stream().filter(t -> existing.contains(t.subject)).toList();
+        }
+      }
+      var bulkSize = bulk.size();
+      var singleSize = single.size();
+      LOGGER.info(
+          () ->
+              String.format(
+                  "registering %d artifacts with a bulk import and %d one by one",
+                  bulkSize, singleSize));
+      if (!bulk.isEmpty()) {
+        importArtifacts(client, bulk, failureHandler);
+      }
+      try (var executor =
+          support.createExecutor(createRegisterStages(client, state), failureHandler)) {
+        single.forEach(executor::submit);
+      }
+      return pushFailed.get() ? ReturnCode.REGISTRY_ERROR : ReturnCode.SUCCESS;
+    } catch (final Exception exc) {
+      LOGGER.log(Level.SEVERE, exc, () -> "pushing to the native registry api failed");
+      return ReturnCode.REGISTRY_ERROR;
+    }
+  }
+
+  /**
+   * Register the artifacts new to the registry with a single bulk import, a failed import fails all
+   * its artifacts.
+   *
+   * @param client the {@link ApicurioRegistryClient} to import with.
+   * @param tasks the {@link List} of {@link AvroPushTask} instances to import.
+   * @param failureHandler the {@link BiConsumer} invoked with the tasks of a failed import.
+   * @throws InterruptedException when interrupted while waiting for the registry.
+   */
+  private static void importArtifacts(
+      final ApicurioRegistryClient client,
+      final List<AvroPushTask> tasks,
+      final BiConsumer<AvroPushTask, Exception> failureHandler)
+      throws InterruptedException {
+    var archive = new ApicurioImportArchive();
+    tasks.forEach(
+        t ->
+            archive.add(
+                t.subject,
+                t.avroSchema.canonicalString(),
+                SchemaNormalization.toParsingForm(t.schema)));
+    try {
+      client.importArchive(archive.toBytes());
+    } catch (final IOException | RestClientException | RuntimeException exc) {
+      tasks.forEach(t -> failureHandler.accept(t, exc));
+      return;
+    }
+    // the import does not return the ids the registry assigned, so the imported artifacts are left
+    // out of the state, and recorded with their ids when pushed again
+    tasks.forEach(t -> t.registered = true);
+    PushMetrics.schemasRegistered(tasks.size());
+    LOGGER.info(() -> String.format("imported %d artifacts in a single request", archive.size()));
+  }
+
+  /**
+   * Utility method for creating the stages reading the schema files, parsing them, and resolving
+   * their fingerprints and subjects.
+   *
+   * @param state the {@link FingerprintState} for skipping unchanged schemas, can be {@code null}.
+   * @param cache the {@link AvroSchemaCache} for loading each distinct schema once.
+   * @return a {@link List} of {@link PushExecutor.Stage} records.
+   */
+  private List<PushExecutor.Stage<AvroPushTask>> createResolveStages(
+      @Nullable final FingerprintState state, final AvroSchemaCache cache) {
+    return List.of(
+        support.createCachedReadStage(cache),
+        support.createCachedParseStage(cache),
+        new PushExecutor.Stage<>(
+            PipelineStage.RESOLVE,
+            support.width(PipelineStage.RESOLVE),
+            task -> {
+              task.subject =
+                  subjectNameStrategy.subjectName(
+                      task.topicAndSchema.topic(), false, task.avroSchema);
+              task.skipped = nonNull(state) && state.contains(task.subject, task.fingerprint);
+              if (task.skipped) {
+                AvroPushSupport.logSkipped(task);
+              }
+            }));
+  }
+
+  /**
+   * Utility method for creating the stage registering the artifacts one by one.
+   *
+   * @param client the {@link ApicurioRegistryClient} to register with.
+   * @param state the {@link FingerprintState} for recording the registered schemas, can be {@code
+   *     null}.
+   * @return a {@link List} of {@link PushExecutor.Stage} records.
+   */
+  private List<PushExecutor.Stage<AvroPushTask>> createRegisterStages(
+      final ApicurioRegistryClient client, @Nullable final FingerprintState state) {
+    return List.of(
+        new PushExecutor.Stage<>(
+            PipelineStage.REGISTER,
+            support.width(PipelineStage.REGISTER),
+            task -> {
+              var metaData = client.createOrUpdate(task.subject, task.avroSchema.canonicalString());
+              task.id = metaData.globalId();
+              if (nonNull(state)) {
+                state.record(task.subject, task.fingerprint, task.id);
+              }
+              AvroPushSupport.recordRegistered(task);
+              LOGGER.info(
+                  () ->
+                      String.format(
+                          "registered artifact '%s' version '%s' with global id %d",
+                          task.subject, metaData.version(), metaData.globalId()));
+            }));
+  }
+}
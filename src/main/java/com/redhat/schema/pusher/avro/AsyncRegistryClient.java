@@ -0,0 +1,505 @@
+package com.redhat.schema.pusher.avro;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.schema.pusher.AdaptiveLimiter;
+import com.redhat.schema.pusher.PushMetrics;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchemaProvider;
+import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nullable;
+
+/**
+ * Non-blocking registry client for the Confluent compatibility API, built on a shared {@link
+ * HttpClient} multiplexing the registrations over HTTP/2 connections. Registrations return {@link
+ * CompletableFuture} instances, so a single thread can keep many of them in flight, and identical
+ * registrations in flight are coalesced into one request. The ids of completed registrations are
+ * kept for joining them later, dropped once too many. Request bodies above the gzip threshold are
+ * compressed. Each request times out after the registry client's read timeout, {@code
+ * http.read.timeout.ms} with or without the {@code schema.registry.} prefix, 30 seconds unless
+ * configured.
+ *
+ * <p>Requests authenticate with the basic auth user info, configured or taken from the registry url
+ * per {@code basic.auth.credentials.source}, or with a static bearer token. Other credential
+ * sources and the {@code schema.registry.ssl.} settings are not supported, and rejected when
+ * creating the client, https registries are trusted per the JVM default trust store.
+ *
+ * <p>The client is a drop-in {@link CachedSchemaRegistryClient} for the serializer, its blocking
+ * {@link #register(String, ParsedSchema, boolean)} joins the matching registration, already in
+ * flight if it was started ahead, the rest of the operations are left to the Confluent client.
+ *
+ * <p>With an {@link AdaptiveLimiter}, each request sent holds a permit until the response arrives,
+ * so the requests in flight never exceed the limit, started ahead or not. Registrations finding no
+ * permit are queued without blocking the caller, and sent as the responses release their permits,
+ * or once the registry's pause elapses.
+ */
+final class AsyncRegistryClient extends CachedSchemaRegistryClient {
+  private static final String CONTENT_TYPE = "application/vnd.schemaregistry.v1+json";
+  private static final String BASIC_AUTH_CREDENTIALS_SOURCE = "basic.auth.credentials.source";
+  private static final String BASIC_AUTH_USER_INFO = "basic.auth.user.info";
+  private static final String BEARER_AUTH_CREDENTIALS_SOURCE = "bearer.auth.credentials.source";
+  private static final String BEARER_AUTH_TOKEN = "bearer.auth.token";
+  private static final String SOURCE_USER_INFO = "USER_INFO";
+  private static final String SOURCE_URL = "URL";
+  private static final String SOURCE_STATIC_TOKEN = "STATIC_TOKEN";
+  private static final String SSL_CONFIG_PREFIX = "schema.registry.ssl.";
+  private static final String CLIENT_NAMESPACE = "schema.registry.";
+  private static final String REQUEST_TIMEOUT_CONFIG = "http.read.timeout.ms";
+  private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(30);
+  private static final int HTTP_TOO_MANY_REQUESTS = 429;
+  private static final int HTTP_UNAVAILABLE = 503;
+  private static final String REGISTER_ENDPOINT = "register";
+  private static final int MAX_KEPT_IDS = 10_000;
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final HttpClient httpClient;
+  private final String registryUrl;
+  private final int gzipThreshold;
+  private final boolean normalize;
+  private final Duration requestTimeout;
+  private final String authorization;
+  private final AdaptiveLimiter limiter;
+  private final ConcurrentMap<Registration, CompletableFuture<Integer>> registrations =
+      new ConcurrentHashMap<>();
+  private final ConcurrentMap<Registration, Integer> registeredIds = new ConcurrentHashMap<>();
+  private final Queue<Runnable> pendingSends = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger dispatchRequests = new AtomicInteger();
+
+  /* The key coalescing identical registrations. */
+  private record Registration(
+      String subject, String schema, List<SchemaReference> references, boolean normalize) {}
+
+  /**
+   * Constructor takes the http client and configures the client the same way the serializer
+   * configures its own.
+   *
+   * @param setHttpClient the shared {@link HttpClient} for sending the requests.
+   * @param producerProps the {@link Properties} instance used by the producer.
+   * @param setGzipThreshold the body size in bytes above which requests are compressed, 0 to never
+   *     compress.
+   * @param setLimiter the {@link AdaptiveLimiter} gating the requests, {@code null} if not used.
+   * @throws IllegalArgumentException when configured with settings the client does not support.
+   */
+  AsyncRegistryClient(
+      final HttpClient setHttpClient,
+      final Properties producerProps,
+      final int setGzipThreshold,
+      @Nullable final AdaptiveLimiter setLimiter) {
+    this(setHttpClient, new KafkaAvroSerializerConfig(producerProps), setGzipThreshold, setLimiter);
+  }
+
+  private AsyncRegistryClient(
+      final HttpClient setHttpClient,
+      final KafkaAvroSerializerConfig config,
+      final int setGzipThreshold,
+      @Nullable final AdaptiveLimiter setLimiter) {
+    super(
+        config.getSchemaRegistryUrls(),
+        AbstractKafkaSchemaSerDeConfig.MAX_SCHEMAS_PER_SUBJECT_DEFAULT,
+        List.of(new AvroSchemaProvider()),
+        config.originals(),
+        Map.of());
+    this.httpClient = setHttpClient;
+    var url = URI.create(config.getSchemaRegistryUrls().get(0));
+    this.registryUrl =
+        isNull(url.getRawUserInfo())
+            ? url.toString()
+            : url.toString().replace(url.getRawUserInfo() + "@", "");
+    this.gzipThreshold = setGzipThreshold;
+    this.normalize = config.normalizeSchema();
+    this.limiter = setLimiter;
+    var timeout = configValue(config, REQUEST_TIMEOUT_CONFIG);
+    this.requestTimeout =
+        isNull(timeout)
+            ? DEFAULT_REQUEST_TIMEOUT
+            : Duration.ofMillis(Long.parseLong(timeout.toString()));
+    this.authorization = createAuthorization(config, url);
+    config.originals().keySet().stream()
+        .filter(k -> k.startsWith(SSL_CONFIG_PREFIX))
+        .findFirst()
+        .ifPresent(
+            k -> {
+              throw new IllegalArgumentException(
+                  String.format("%s is not supported by the non-blocking registry client", k));
+            });
+  }
+
+  /**
+   * Register a schema without blocking, normalizing it as configured for the serializer, so the
+   * serializer joins this registration.
+   *
+   * @param subject the {@link String} subject to register the schema with.
+   * @param schema the {@link ParsedSchema} to register.
+   * @return a {@link CompletableFuture} completing with the registry id.
+   */
+  CompletableFuture<Integer> registerAsync(final String subject, final ParsedSchema schema) {
+    return registerAsync(subject, schema, normalize);
+  }
+
+  /**
+   * Register a schema without blocking, an identical registration already in flight or completed is
+   * shared, a failed registration is forgotten so it can be retried. A completed registration
+   * leaves the registrations in flight, its id is kept until too many are. A new registration
+   * finding no permit of the limiter, if used, is queued until a permit is released.
+   *
+   * @param subject the {@link String} subject to register the schema with.
+   * @param schema the {@link ParsedSchema} to register.
+   * @param normalizeSchema whether the registry should normalize the schema.
+   * @return a {@link CompletableFuture} completing with the registry id.
+   */
+  CompletableFuture<Integer> registerAsync(
+      final String subject, final ParsedSchema schema, final boolean normalizeSchema) {
+    var key =
+        new Registration(subject, schema.canonicalString(), schema.references(), normalizeSchema);
+    var id = registeredIds.get(key);
+    if (nonNull(id)) {
+      return CompletableFuture.completedFuture(id);
+    }
+    var registration = registrations.get(key);
+    if (nonNull(registration)) {
+      return registration;
+    }
+    var newRegistration = new CompletableFuture<Integer>();
+    registration = registrations.putIfAbsent(key, newRegistration);
+    if (nonNull(registration)) {
+      return registration;
+    }
+    Runnable sendRegistration = () -> sendRegistration(key, newRegistration, schema);
+    if (isNull(limiter)) {
+      sendRegistration.run();
+    } else {
+      pendingSends.add(sendRegistration);
+      dispatch();
+    }
+    return newRegistration;
+  }
+
+  /**
+   * Send a registration's request, completing the registration with the response, and releasing the
+   * permit of the limiter, if used.
+   *
+   * @param key the {@link Registration} key of the registration.
+   * @param newRegistration the {@link CompletableFuture} of the registration.
+   * @param schema the {@link ParsedSchema} to register.
+   */
+  private void sendRegistration(
+      final Registration key,
+      final CompletableFuture<Integer> newRegistration,
+      final ParsedSchema schema) {
+    var start = System.nanoTime();
+    CompletableFuture<Integer> sent;
+    try {
+      sent = send(key.subject(), schema, key.normalize());
+    } catch (final RuntimeException exc) {
+      sent = CompletableFuture.failedFuture(exc);
+    }
+    sent.whenComplete(
+        (registeredId, exc) -> {
+          var cause = exc instanceof CompletionException ? exc.getCause() : exc;
+          if (nonNull(limiter)) {
+            release(System.nanoTime() - start, cause);
+          }
+          if (isNull(cause)) {
+            // keep the id before leaving the registrations in flight, so no request is sent twice
+            if (registeredIds.size() >= MAX_KEPT_IDS) {
+              registeredIds.clear();
+            }
+            registeredIds.put(key, registeredId);
+            registrations.remove(key, newRegistration);
+            newRegistration.complete(registeredId);
+          } else {
+            registrations.remove(key, newRegistration);
+            newRegistration.completeExceptionally(cause);
+          }
+          if (nonNull(limiter)) {
+            dispatch();
+          }
+        });
+  }
+
+  /**
+   * Send the queued registrations while permits are available, a single thread at a time, the
+   * threads asking meanwhile have the queue drained again instead. Registrations left queued by a
+   * pause are dispatched once it elapses.
+   */
+  private void dispatch() {
+    if (dispatchRequests.getAndIncrement() != 0) {
+      return;
+    }
+    var missed = 1;
+    do {
+      while (!pendingSends.isEmpty() && limiter.tryAcquire()) {
+        var send = pendingSends.poll();
+        if (isNull(send)) {
+          limiter.onIgnore();
+        } else {
+          send.run();
+        }
+      }
+      var pause = limiter.remainingPause();
+      if (!pendingSends.isEmpty() && !pause.isZero()) {
+        CompletableFuture.delayedExecutor(pause.toNanos(), TimeUnit.NANOSECONDS)
+            .execute(this::dispatch);
+      }
+      missed = dispatchRequests.addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  /**
+   * Register a schema blocking until registered, joining an identical registration in flight.
+   *
+   * @param subject the {@link String} subject to register the schema with.
+   * @param schema the {@link ParsedSchema} to register.
+   * @param normalizeSchema whether the registry should normalize the schema.
+   * @return the registry id.
+   * @throws IOException when failed to communicate with the registry.
+   * @throws RestClientException when the registry rejected the schema.
+   */
+  @Override
+  public int register(
+      final String subject, final ParsedSchema schema, final boolean normalizeSchema)
+      throws IOException, RestClientException {
+    try {
+      return registerAsync(subject, schema, normalizeSchema).join();
+    } catch (final CompletionException exc) {
+      if (exc.getCause() instanceof RestClientException rce) {
+        throw rce;
+      }
+      if (exc.getCause() instanceof IOException ioe) {
+        throw ioe;
+      }
+      throw exc;
+    }
+  }
+
+  /**
+   * Get the number of distinct registrations in flight.
+   *
+   * @return the number of registrations.
+   */
+  int registrationsCount() {
+    return registrations.size();
+  }
+
+  /**
+   * Utility method for getting a registry client setting, the {@code schema.registry.} prefixed key
+   * taking precedence like with the Confluent client.
+   *
+   * @param config the {@link KafkaAvroSerializerConfig} holding the settings.
+   * @param key the {@link String} key of the setting, without the prefix.
+   * @return the value of the setting, {@code null} if not set.
+   */
+  @Nullable
+  private static Object configValue(final KafkaAvroSerializerConfig config, final String key) {
+    var originals = config.originals();
+    var value = originals.get(CLIENT_NAMESPACE + key);
+    return nonNull(value) ? value : originals.get(key);
+  }
+
+  /**
+   * Utility method for creating the authorization header value from the credentials settings.
+   *
+   * @param config the {@link KafkaAvroSerializerConfig} holding the settings.
+   * @param url the registry {@link URI}, holding the user info for the url credentials source.
+   * @return the {@link String} authorization header value, {@code null} if not authenticating.
+   * @throws IllegalArgumentException when configured with an unsupported credentials source.
+   */
+  @Nullable
+  private static String createAuthorization(final KafkaAvroSerializerConfig config, final URI url) {
+    var bearerSource = configValue(config, BEARER_AUTH_CREDENTIALS_SOURCE);
+    if (nonNull(bearerSource)) {
+      if (!SOURCE_STATIC_TOKEN.equals(bearerSource.toString())) {
+        throw new IllegalArgumentException(
+            String.format(
+                "bearer credentials source %s is not supported by the non-blocking registry client",
+                bearerSource));
+      }
+      var token = configValue(config, BEARER_AUTH_TOKEN);
+      return isNull(token) ? null : "Bearer " + token;
+    }
+    var basicSource = configValue(config, BASIC_AUTH_CREDENTIALS_SOURCE);
+    Object userInfo;
+    if (isNull(basicSource) || SOURCE_USER_INFO.equals(basicSource.toString())) {
+      userInfo = configValue(config, BASIC_AUTH_USER_INFO);
+    } else if (SOURCE_URL.equals(basicSource.toString())) {
+      userInfo = url.getUserInfo();
+    } else {
+      throw new IllegalArgumentException(
+          String.format(
+              "basic credentials source %s is not supported by the non-blocking registry client",
+              basicSource));
+    }
+    return isNull(userInfo)
+        ? null
+        : "Basic "
+            + Base64.getEncoder()
+                .encodeToString(userInfo.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private void release(final long latencyNanos, @Nullable final Throwable cause) {
+    if (isNull(cause)) {
+      limiter.onSuccess(latencyNanos);
+    } else {
+      (cause instanceof Exception exc
+              ? AvroPushSupport.overloadOf(exc)
+              : Optional.<Duration>empty())
+          .ifPresentOrElse(limiter::onOverload, limiter::onIgnore);
+    }
+  }
+
+  private CompletableFuture<Integer> send(
+      final String subject, final ParsedSchema schema, final boolean normalizeSchema) {
+    var request =
+        HttpRequest.newBuilder(
+                URI.create(
+                    String.format(
+                        "%s/subjects/%s/versions?normalize=%b",
+                        registryUrl,
+                        URLEncoder.encode(subject, StandardCharsets.UTF_8),
+                        normalizeSchema)))
+            .timeout(requestTimeout)
+            .header("Content-Type", CONTENT_TYPE)
+            .header("Accept", CONTENT_TYPE);
+    if (nonNull(authorization)) {
+      request.header("Authorization", authorization);
+    }
+    var body = createBody(schema);
+    if (gzipThreshold > 0 && body.length > gzipThreshold) {
+      request.header("Content-Encoding", "gzip");
+      body = gzip(body);
+    }
+    var start = System.nanoTime();
+    return httpClient
+        .sendAsync(
+            request.POST(HttpRequest.BodyPublishers.ofByteArray(body)).build(),
+            HttpResponse.BodyHandlers.ofString())
+        .whenComplete(
+            (response, exc) -> {
+              if (nonNull(exc)) {
+                PushMetrics.recordRegistryCall(
+                    REGISTER_ENDPOINT, PushMetrics.STATUS_NO_RESPONSE, System.nanoTime() - start);
+              }
+            })
+        .thenApply(
+            response -> {
+              var status = response.statusCode();
+              PushMetrics.recordRegistryCall(REGISTER_ENDPOINT, status, System.nanoTime() - start);
+              var node = readJson(response.body());
+              if (status / 100 != 2) {
+                var message = node.path("message").asText(response.body());
+                var errorCode = node.path("error_code").asInt(status);
+                throw new CompletionException(
+                    status == HTTP_TOO_MANY_REQUESTS || status == HTTP_UNAVAILABLE
+                        ? new RegistryOverloadedException(
+                            message,
+                            status,
+                            errorCode,
+                            parseRetryAfter(response.headers().firstValue("Retry-After")))
+                        : new RestClientException(message, status, errorCode));
+              }
+              return node.path("id").asInt();
+            });
+  }
+
+  private static byte[] createBody(final ParsedSchema schema) {
+    var node = MAPPER.createObjectNode();
+    node.put("schema", schema.canonicalString());
+    if (!AvroSchema.TYPE.equals(schema.schemaType())) {
+      node.put("schemaType", schema.schemaType());
+    }
+    if (!schema.references().isEmpty()) {
+      var references = node.putArray("references");
+      schema
+          .references()
+          .forEach(
+              ref ->
+                  references
+                      .addObject()
+                      .put("name", ref.getName())
+                      .put("subject", ref.getSubject())
+                      .put("version", ref.getVersion()));
+    }
+    try {
+      return MAPPER.writeValueAsBytes(node);
+    } catch (final IOException exc) {
+      throw new UncheckedIOException(exc);
+    }
+  }
+
+  private static byte[] gzip(final byte[] body) {
+    var out = new ByteArrayOutputStream(body.length / 2);
+    try (var gzip = new GZIPOutputStream(out)) {
+      gzip.write(body);
+    } catch (final IOException exc) {
+      throw new UncheckedIOException(exc);
+    }
+    return out.toByteArray();
+  }
+
+  /**
+   * Parse a Retry-After header, either a number of seconds or an http date.
+   *
+   * @param header the {@link Optional} header value.
+   * @return the {@link Duration} to wait, zero if not specified or not parsable.
+   */
+  static Duration parseRetryAfter(final Optional<String> header) {
+    if (header.isEmpty()) {
+      return Duration.ZERO;
+    }
+    var value = header.get().trim();
+    try {
+      return Duration.ofSeconds(Math.max(Long.parseLong(value), 0));
+    } catch (final NumberFormatException nfe) {
+      try {
+        var until = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+        var wait = Duration.between(ZonedDateTime.now(until.getZone()), until);
+        return wait.isNegative() ? Duration.ZERO : wait;
+      } catch (final DateTimeParseException dtpe) {
+        return Duration.ZERO;
+      }
+    }
+  }
+
+  private static JsonNode readJson(final String body) {
+    try {
+      return MAPPER.readTree(body);
+    } catch (final IOException exc) {
+      return MAPPER.createObjectNode();
+    }
+  }
+}
@@ -0,0 +1,175 @@
+package com.redhat.schema.pusher.avro;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaCompatibility;
+import org.apache.avro.SchemaCompatibility.SchemaCompatibilityType;
+
+/**
+ * Helper class for checking the schemas compatibility locally before registering any of them. The
+ * subjects list and the global compatibility level are fetched once in bulk, then each existing
+ * subject costs a read of its compatibility level and of the versions its level checks against, the
+ * latest version or, for the transitive levels, all of them. The schemas are checked the way the
+ * registry checks them, so an incompatible schema is rejected before anything is written.
+ */
+final class AvroCompatibilityChecker {
+  private static final Logger LOGGER = Logger.getLogger(AvroCompatibilityChecker.class.getName());
+
+  private static final int HTTP_NOT_FOUND = 404;
+  private static final int HTTP_CONFLICT = 409;
+
+  /* The registry compatibility levels, and the directions each checks. */
+  enum Level {
+    NONE(false, false, false),
+    BACKWARD(true, false, false),
+    BACKWARD_TRANSITIVE(true, false, true),
+    FORWARD(false, true, false),
+    FORWARD_TRANSITIVE(false, true, true),
+    FULL(true, true, false),
+    FULL_TRANSITIVE(true, true, true);
+
+    final boolean backward;
+    final boolean forward;
+    final boolean transitive;
+
+    Level(final boolean setBackward, final boolean setForward, final boolean setTransitive) {
+      this.backward = setBackward;
+      this.forward = setForward;
+      this.transitive = setTransitive;
+    }
+  }
+
+  private final SchemaRegistryClient registry;
+  private Set<String> existingSubjects = Set.of();
+  private Level globalLevel = Level.BACKWARD;
+
+  /**
+   * Constructor takes the registry client.
+   *
+   * @param setRegistry the {@link SchemaRegistryClient} to fetch the registered versions from.
+   */
+  AvroCompatibilityChecker(final SchemaRegistryClient setRegistry) {
+    this.registry = setRegistry;
+  }
+
+  /**
+   * Fetch the registry's subjects list and global compatibility level, should be invoked before
+   * checking.
+   *
+   * @throws IOException when failed to communicate with the registry.
+   * @throws RestClientException when the registry rejected the request.
+   */
+  void fetchSubjects() throws IOException, RestClientException {
+    this.existingSubjects = Set.copyOf(registry.getAllSubjects());
+    var level = fetchLevel(null);
+    if (nonNull(level)) {
+      this.globalLevel = level;
+    }
+    LOGGER.info(
+        () ->
+            String.format(
+                "checking compatibility against %d existing subjects, global level %s",
+                existingSubjects.size(), globalLevel));
+  }
+
+  /**
+   * Check a task's schema is compatible with the registered versions of its subject per the
+   * subject's compatibility level, a new subject is always compatible. The latest version already
+   * fetched when reconciling is used instead of fetching it again. Safe for concurrent use.
+   *
+   * @param task the {@link AvroPushTask} with its subject and schema resolved.
+   * @throws IOException when failed to communicate with the registry.
+   * @throws RestClientException when the registry rejected the request, or with a 409 status when
+   *     the schema is incompatible.
+   */
+  void check(final AvroPushTask task) throws IOException, RestClientException {
+    if (!existingSubjects.contains(task.subject)) {
+      return;
+    }
+    var subjectLevel = fetchLevel(task.subject);
+    var level = isNull(subjectLevel) ? globalLevel : subjectLevel;
+    if (level == Level.NONE) {
+      return;
+    }
+    var previous = new ArrayList<Schema>();
+    if (level.transitive) {
+      for (var version : registry.getAllVersions(task.subject)) {
+        previous.add(parse(registry.getSchemaMetadata(task.subject, version).getSchema()));
+      }
+    } else if (nonNull(task.latestSchema)) {
+      previous.add(task.latestSchema);
+    } else {
+      previous.add(parse(registry.getLatestSchemaMetadata(task.subject).getSchema()));
+    }
+    var schema = task.avroSchema.rawSchema();
+    var canonical = task.avroSchema.canonicalString();
+    // a schema already registered under the subject is not registered again, nothing to check
+    if (previous.stream().anyMatch(p -> new AvroSchema(p).canonicalString().equals(canonical))) {
+      return;
+    }
+    var incompatibilities = new ArrayList<String>();
+    for (var prev : previous) {
+      if (level.backward) {
+        incompatibilities.addAll(incompatibilities(schema, prev));
+      }
+      if (level.forward) {
+        incompatibilities.addAll(incompatibilities(prev, schema));
+      }
+    }
+    if (!incompatibilities.isEmpty()) {
+      throw new RestClientException(
+          String.format(
+              "schema is incompatible with subject '%s' per its %s level: %s",
+              task.subject, level, String.join("; ", incompatibilities)),
+          HTTP_CONFLICT,
+          HTTP_CONFLICT);
+    }
+  }
+
+  /**
+   * Fetch the compatibility level of a subject, or the global level.
+   *
+   * @param subject the {@link String} subject, {@code null} for the global level.
+   * @return the {@link Level}, {@code null} if not configured.
+   * @throws IOException when failed to communicate with the registry.
+   * @throws RestClientException when the registry rejected the request.
+   */
+  @Nullable
+  private Level fetchLevel(@Nullable final String subject) throws IOException, RestClientException {
+    try {
+      var level = registry.getCompatibility(subject);
+      return isNull(level) ? null : Level.valueOf(level.toUpperCase(Locale.ROOT));
+    } catch (final RestClientException exc) {
+      if (exc.getStatus() == HTTP_NOT_FOUND) {
+        return null;
+      }
+      throw exc;
+    }
+  }
+
+  private static Schema parse(final String schema) {
+    return new AvroSchema(schema).rawSchema();
+  }
+
+  private static List<String> incompatibilities(final Schema reader, final Schema writer) {
+    var result = SchemaCompatibility.checkReaderWriterCompatibility(reader, writer).getResult();
+    if (result.getCompatibility() == SchemaCompatibilityType.COMPATIBLE) {
+      return List.of();
+    }
+    return result.getIncompatibilities().stream()
+        .map(i -> String.format("%s at %s", i.getMessage(), i.getLocation()))
+        .toList();
+  }
+}
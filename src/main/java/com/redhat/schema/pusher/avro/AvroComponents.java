@@ -0,0 +1,79 @@
+package com.redhat.schema.pusher.avro;
+
+import com.redhat.schema.pusher.PushCli;
+import com.redhat.schema.pusher.SchemaPusher;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Properties;
+import org.apache.avro.generic.IndexedRecord;
+
+/**
+ * Factory wiring the components of the AVRO implementation of the schema pusher by hand, no DI
+ * container and no classpath scanning. Each component is created when first asked for, so a run
+ * loads only the classes of the components it uses, the Kafka producer and serializer classes are
+ * loaded only when pushing via the producer. Extend this class to hand over other components.
+ */
+public class AvroComponents {
+  /**
+   * Create the command line implementation.
+   *
+   * @return the {@link PushCli} instance.
+   */
+  public PushCli createPushCli() {
+    return new AvroPushCli(this);
+  }
+
+  /**
+   * Create the schema pusher for the Confluent compatibility API.
+   *
+   * @param cli the {@link PushCli} instance for configuring the pusher with its fields.
+   * @return the {@link SchemaPusher} instance.
+   */
+  public SchemaPusher createSchemaPusher(final PushCli cli) {
+    return new AvroSchemaPusher(cli, this);
+  }
+
+  /**
+   * Create the schema pusher for the native Apicurio Registry API.
+   *
+   * @param cli the {@link PushCli} instance for configuring the pusher with its fields.
+   * @return the {@link SchemaPusher} instance.
+   */
+  public SchemaPusher createApicurioSchemaPusher(final PushCli cli) {
+    return new ApicurioSchemaPusher(cli, this);
+  }
+
+  /**
+   * Create the producer registering the schemas via the serializer.
+   *
+   * @param producerProps the {@link Properties} instance to be used by the producer.
+   * @return the {@link SchemaProducer} instance.
+   */
+  public SchemaProducer<String, IndexedRecord> createProducer(final Properties producerProps) {
+    return new SchemaProducer<>(producerProps);
+  }
+
+  /**
+   * Create the registry client for registering schemas, configured the same way the serializer
+   * configures its own client, and spreading the subjects over stripes so unrelated subjects
+   * register in parallel.
+   *
+   * @param registryProps the {@link Properties} instance configuring the registry client.
+   * @return the {@link SchemaRegistryClient} instance.
+   */
+  public SchemaRegistryClient createRegistryClient(final Properties registryProps) {
+    return new StripedRegistryClient(new KafkaAvroSerializerConfig(registryProps));
+  }
+
+  /**
+   * Create the HTTP client for the native registry API and the non-blocking registry client, the
+   * clients set a timeout on each request they send.
+   *
+   * @return the {@link HttpClient} instance.
+   */
+  public HttpClient createRegistryHttpClient() {
+    return HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+  }
+}
@@ -1,10 +1,12 @@
 package com.redhat.schema.pusher.avro;
 
+import static java.util.Objects.isNull;
 import static java.util.Objects.requireNonNull;
 
 import io.confluent.kafka.schemaregistry.avro.AvroSchema;
 import io.confluent.kafka.schemaregistry.avro.AvroSchemaProvider;
 import io.confluent.kafka.schemaregistry.avro.AvroSchemaUtils;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
 import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
 import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDe;
 import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
@@ -26,6 +28,9 @@
  */
 public final class AvroCustomSerializer extends AbstractKafkaSchemaSerDe
     implements Serializer<Object> {
+  /** Config key for handing over a {@link SchemaRegistryClient} instance to the serializer. */
+  public static final String SCHEMA_REGISTRY_CLIENT_CONFIG = "schema.pusher.registry.client";
+
   private boolean isKey;
 
   private boolean normalizeSchema;
@@ -48,10 +53,13 @@ public AvroCustomSerializer() {
   @Override
   public byte[] serialize(final String topic, final Object object) {
     requireNonNull(object);
-    var parshedSchema =
-        AvroSchemaUtils.getSchema(
-            object, useSchemaReflection, avroReflectionAllowNull, removeJavaProperties);
-    var schema = new AvroSchema(parshedSchema);
+    // records carrying their schema skip rebuilding it and its canonical string
+    var schema =
+        object instanceof AvroSchemaRecord schemaRecord
+            ? schemaRecord.getAvroSchema()
+            : new AvroSchema(
+                AvroSchemaUtils.getSchema(
+                    object, useSchemaReflection, avroReflectionAllowNull, removeJavaProperties));
     var subjectName = getSubjectName(topic, isKey, object, schema);
     return serializeImpl(subjectName, schema);
   }
@@ -64,7 +72,15 @@ public void close() {
   @Override
   public void configure(final Map<String, ?> configs, final boolean setIsKey) {
     this.isKey = setIsKey;
-    configure(new KafkaAvroSerializerConfig(configs));
+    // a registry client handed over by the pusher replaces the one the serializer would create
+    var config = new KafkaAvroSerializerConfig(configs);
+    if (configs.get(SCHEMA_REGISTRY_CLIENT_CONFIG) instanceof SchemaRegistryClient client) {
+      schemaRegistry = client;
+    } else if (isNull(schemaRegistry)) {
+      // a single confluent client registers one schema at a time, spread the subjects instead
+      schemaRegistry = new StripedRegistryClient(config);
+    }
+    configure(config);
   }
 
   /* *********************************************************************************** *
@@ -1,53 +1,268 @@
 package com.redhat.schema.pusher.avro;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.redhat.schema.pusher.Base64Input;
+import com.redhat.schema.pusher.ManifestReader;
 import com.redhat.schema.pusher.ManifestVersionProvider;
+import com.redhat.schema.pusher.MetricsExporter;
 import com.redhat.schema.pusher.PushCli;
+import com.redhat.schema.pusher.PushMetrics;
+import com.redhat.schema.pusher.PushServer;
+import com.redhat.schema.pusher.RegistryApi;
+import com.redhat.schema.pusher.ReturnCode;
+import com.redhat.schema.pusher.SchemaArchiveReader;
+import com.redhat.schema.pusher.SchemaDirectoryWalker;
+import com.redhat.schema.pusher.SchemaDirectoryWatcher;
 import com.redhat.schema.pusher.SchemaPusher;
 import com.redhat.schema.pusher.TopicAndSchema;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
 import java.util.logging.Logger;
-import org.springframework.context.ApplicationContext;
-import org.springframework.stereotype.Component;
 import picocli.CommandLine.Command;
 
 /**
  * AVRO implementation of the {@link PushCli}, specifies the {@code picocli.CommandLine.Command}
  * configuration and provides the execution of the command.
  */
-@Component
 @Command(
     description = "Push schemas to Red Hat's Service Registry",
     mixinStandardHelpOptions = true,
     versionProvider = ManifestVersionProvider.class)
 public final class AvroPushCli extends PushCli {
   private static final Logger LOGGER = Logger.getLogger(AvroPushCli.class.getName());
-  private final ApplicationContext context;
+  private final AvroComponents components;
 
   /**
-   * Constructor that takes the injected DI context.
+   * Constructor that takes the components factory.
    *
-   * @param setContext an instance of {@code org.springframework.context.ApplicationContext}.
+   * @param setComponents the {@link AvroComponents} instance for creating the schema pusher.
    */
-  public AvroPushCli(final ApplicationContext setContext) {
-    this.context = setContext;
+  public AvroPushCli(final AvroComponents setComponents) {
+    this.components = setComponents;
   }
 
   /**
-   * Grabs the {@link SchemaPusher} implementation from the DI context, an invoke it using the
-   * user's specified schema files and topic list.
+   * Creates the {@link SchemaPusher} implementation with the components factory, an invoke it using
+   * the user's specified schema files and topic list, or with the jobs served over HTTP until the
+   * process is terminated. The run's metrics are exported when it ends.
    */
   @Override
   public Integer call() {
     LOGGER.info("starting");
+    // the time since the jvm started covers wiring the components and parsing the arguments
+    PushMetrics.phase("startup")
+        .update(ManagementFactory.getRuntimeMXBean().getUptime(), TimeUnit.MILLISECONDS);
+    var exporter = MetricsExporter.of(this);
+    var context = PushMetrics.phase("push").time();
+    try {
+      return push();
+    } finally {
+      context.stop();
+      exporter.close();
+    }
+  }
+
+  private Integer push() {
+    var serveInfo = getServeInfo();
+    if (nonNull(serveInfo)) {
+      return serve(serveInfo);
+    }
+    var directoryInfo = getDirectoryInfo();
+    if (nonNull(directoryInfo)) {
+      return pushDirectories(directoryInfo);
+    }
+    var manifestInfo = getManifestInfo();
+    if (nonNull(manifestInfo)) {
+      return pushManifest(manifestInfo);
+    }
+    var archiveInfo = getArchiveInfo();
+    if (nonNull(archiveInfo)) {
+      return pushArchive(archiveInfo);
+    }
     LOGGER.info("creating topic and schema pair records");
-    var topicsAndSchemaRecords =
-        getTopicSchemaAggregators().stream()
-            .map(a -> new TopicAndSchema(a.getTopic(), a.getSchemaPath()))
-            .toList();
-    LOGGER.info("loading schema pusher");
-    var schemaPusher = context.getBean(SchemaPusher.class, this);
-    LOGGER.info("starting push");
-    var retCode = schemaPusher.push(topicsAndSchemaRecords);
+    var topicsAndSchemaRecords = new ArrayList<TopicAndSchema>();
+    try {
+      for (var aggregator : getTopicSchemaAggregators()) {
+        topicsAndSchemaRecords.add(createRecord(aggregator));
+      }
+    } catch (final IOException exc) {
+      LOGGER.log(Level.SEVERE, exc, () -> "failed decoding the base64 encoded schemas");
+      return ReturnCode.INPUT_ERROR.code();
+    }
+    try (var schemaPusher = loadSchemaPusher()) {
+      LOGGER.info("starting push");
+      var retCode = schemaPusher.push(topicsAndSchemaRecords);
+      LOGGER.info("done");
+      return retCode.code();
+    }
+  }
+
+  private static TopicAndSchema createRecord(final TopicSchemaAggregator aggregator)
+      throws IOException {
+    var schemaBase64 = aggregator.getSchemaBase64();
+    if (isNull(schemaBase64)) {
+      return new TopicAndSchema(aggregator.getTopic(), aggregator.getSchemaPath());
+    }
+    // decoded in memory, named after the topic for the logs and the reports
+    var input = new Base64Input(schemaBase64);
+    try {
+      return new TopicAndSchema(
+          aggregator.getTopic(), Paths.get(aggregator.getTopic() + ".avsc"), input.decode());
+    } catch (final IOException exc) {
+      throw new IOException(
+          String.format(
+              "failed decoding the schema of topic '%s' from %s",
+              aggregator.getTopic(), input.describe()),
+          exc);
+    }
+  }
+
+  private SchemaPusher loadSchemaPusher() {
+    LOGGER.info(
+        () -> String.format("loading schema pusher for the %s registry api", getRegistryApi()));
+    return getRegistryApi() == RegistryApi.NATIVE
+        ? components.createApicurioSchemaPusher(this)
+        : components.createSchemaPusher(this);
+  }
+
+  private Integer serve(final ServeInfo serveInfo) {
+    if (isPrune()) {
+      // each job is pushed on its own, pruning would delete the subjects of all the other jobs
+      LOGGER.severe("pruning is not applicable with serving push jobs");
+      return ReturnCode.SERVER_ERROR.code();
+    }
+    var address = new InetSocketAddress(serveInfo.getServeAddress(), serveInfo.getServePort());
+    if (address.isUnresolved()) {
+      LOGGER.severe(
+          () -> String.format("failed to resolve address '%s'", serveInfo.getServeAddress()));
+      return ReturnCode.SERVER_ERROR.code();
+    }
+    var maxJobs = Math.max(serveInfo.getMaxJobs(), 1);
+    if (maxJobs > 1
+        && (nonNull(getStateFile()) || nonNull(getReportJson()) || nonNull(getReportJunit()))) {
+      // the jobs would overwrite each other's state file and run reports
+      LOGGER.warning(
+          "the state file and the run reports are shared by the jobs, one job at a time");
+      maxJobs = 1;
+    }
+    var schemaPusher = loadSchemaPusher();
+    PushServer server;
+    try {
+      server = new PushServer(schemaPusher, address, maxJobs);
+    } catch (final IOException exc) {
+      LOGGER.log(Level.SEVERE, exc, () -> String.format("failed to serve on %s", address));
+      schemaPusher.close();
+      return ReturnCode.SERVER_ERROR.code();
+    }
+    // stop taking jobs and let the running ones end when the process is terminated
+    Runtime.getRuntime().addShutdownHook(new Thread(server::close, "push-server-shutdown"));
+    try {
+      server.await();
+    } catch (final InterruptedException exc) {
+      Thread.currentThread().interrupt();
+      server.close();
+    }
     LOGGER.info("done");
-    return retCode.code();
+    return ReturnCode.SUCCESS.code();
+  }
+
+  private Integer pushDirectories(final DirectoryInfo directoryInfo) {
+    var walker =
+        new SchemaDirectoryWalker(
+            directoryInfo.getSchemaDirs(),
+            directoryInfo.getIncludeGlobs(),
+            directoryInfo.getExcludeGlobs(),
+            directoryInfo.getTopicTemplate());
+    if (directoryInfo.isWatch()) {
+      if (isPrune()) {
+        // each batch of changed files would prune the subjects of all the unchanged ones
+        LOGGER.severe("pruning is not applicable with watching the schema directories");
+        return ReturnCode.DIRECTORY_ERROR.code();
+      }
+      return watchDirectories(walker, Duration.ofMillis(directoryInfo.getWatchDebounce()));
+    }
+    LOGGER.info("starting push while walking schema directories");
+    try (var schemaPusher = loadSchemaPusher();
+        var topicsAndSchemaRecords = walker.walk()) {
+      var retCode = schemaPusher.push(topicsAndSchemaRecords);
+      LOGGER.info("done");
+      return retCode.code();
+    } catch (final IOException exc) {
+      LOGGER.log(Level.SEVERE, exc, () -> "failed walking the schema directories");
+      return ReturnCode.DIRECTORY_ERROR.code();
+    }
+  }
+
+  private Integer watchDirectories(final SchemaDirectoryWalker walker, final Duration debounce) {
+    var lastRetCode = new AtomicReference<ReturnCode>();
+    // start watching before walking, so no change made while pushing is missed
+    try (var watcher = new SchemaDirectoryWatcher(walker, debounce);
+        var schemaPusher = loadSchemaPusher()) {
+      LOGGER.info("starting push while walking schema directories");
+      try (var topicsAndSchemaRecords = walker.walk()) {
+        lastRetCode.set(schemaPusher.push(topicsAndSchemaRecords));
+      }
+      Runtime.getRuntime().addShutdownHook(new Thread(watcher::close));
+      LOGGER.info("watching the schema directories for changes");
+      // the same pusher keeps the parsed schemas and the registry clients warm between changes
+      watcher.watch(
+          records -> {
+            LOGGER.info(() -> String.format("pushing %d changed schema files", records.size()));
+            lastRetCode.set(schemaPusher.push(records));
+            LOGGER.info(() -> String.format("pushed changed schema files, %s", lastRetCode.get()));
+          });
+      LOGGER.info("done");
+      return lastRetCode.get().code();
+    } catch (final IOException exc) {
+      LOGGER.log(Level.SEVERE, exc, () -> "failed watching the schema directories");
+      return ReturnCode.DIRECTORY_ERROR.code();
+    }
+  }
+
+  private Integer pushManifest(final ManifestInfo manifestInfo) {
+    var reader = new ManifestReader(manifestInfo.getManifest(), manifestInfo.getManifestFormat());
+    LOGGER.info(() -> String.format("starting push while reading %s manifest", reader.getFormat()));
+    try (var schemaPusher = loadSchemaPusher();
+        var topicsAndSchemaRecords = reader.read()) {
+      var retCode = schemaPusher.push(topicsAndSchemaRecords);
+      var malformedLines = reader.getMalformedLines();
+      if (malformedLines > 0 && retCode == ReturnCode.SUCCESS) {
+        LOGGER.severe(() -> String.format("skipped %d malformed manifest lines", malformedLines));
+        retCode = ReturnCode.MANIFEST_ERROR;
+      }
+      LOGGER.info("done");
+      return retCode.code();
+    } catch (final IOException | UncheckedIOException exc) {
+      LOGGER.log(Level.SEVERE, exc, () -> "failed reading the manifest");
+      return ReturnCode.MANIFEST_ERROR.code();
+    }
+  }
+
+  private Integer pushArchive(final ArchiveInfo archiveInfo) {
+    var reader =
+        new SchemaArchiveReader(
+            archiveInfo.getArchive(),
+            archiveInfo.getIncludeGlobs(),
+            archiveInfo.getTopicTemplate());
+    LOGGER.info("starting push while streaming the schemas archive");
+    try (var schemaPusher = loadSchemaPusher();
+        var topicsAndSchemaRecords = reader.read()) {
+      var retCode = schemaPusher.push(topicsAndSchemaRecords);
+      LOGGER.info("done");
+      return retCode.code();
+    } catch (final IOException | UncheckedIOException exc) {
+      LOGGER.log(Level.SEVERE, exc, () -> "failed reading the schemas archive");
+      return ReturnCode.ARCHIVE_ERROR.code();
+    }
   }
 }
@@ -0,0 +1,543 @@
+package com.redhat.schema.pusher.avro;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.redhat.schema.pusher.AdaptiveLimiter;
+import com.redhat.schema.pusher.CircuitBreaker;
+import com.redhat.schema.pusher.ExecutionMode;
+import com.redhat.schema.pusher.FingerprintState;
+import com.redhat.schema.pusher.PipelineStage;
+import com.redhat.schema.pusher.PushCli;
+import com.redhat.schema.pusher.PushExecutor;
+import com.redhat.schema.pusher.PushMetrics;
+import com.redhat.schema.pusher.RetryPolicy;
+import com.redhat.schema.pusher.RetryQueue;
+import com.redhat.schema.pusher.RunReport;
+import com.redhat.schema.pusher.SchemaFileLoader;
+import com.redhat.schema.pusher.StagedPipeline;
+import com.redhat.schema.pusher.TopicAndSchema;
+import com.redhat.schema.pusher.VirtualThreadExecutor;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nullable;
+import org.apache.kafka.common.errors.RetriableException;
+
+/**
+ * Helper class for the parts of a push run shared by the AVRO {@link
+ * com.redhat.schema.pusher.SchemaPusher} implementations, the execution configuration, the
+ * fingerprint state, the schema loading, the run report, and the common pipeline stages.
+ */
+final class AvroPushSupport {
+  private static final Logger LOGGER = Logger.getLogger(AvroPushSupport.class.getName());
+
+  private static final int DEFAULT_STAGE_QUEUE_SIZE = 256;
+  private static final int DEFAULT_MAX_IN_FLIGHT = 512;
+  private static final int DEFAULT_RETRY_BACKOFF_MILLIS = 200;
+  private static final int DEFAULT_BREAKER_THRESHOLD = 5;
+  private static final Duration MAX_RETRY_BACKOFF = Duration.ofSeconds(30);
+  private static final int HTTP_TOO_MANY_REQUESTS = 429;
+  private static final int HTTP_UNAVAILABLE = 503;
+  private static final int HTTP_GATEWAY_TIMEOUT = 504;
+  private static final int INITIAL_CONCURRENCY_LIMIT = 4;
+
+  private final Map<PipelineStage, Integer> stageWidths;
+  private final int stageQueueSize;
+  private final ExecutionMode executionMode;
+  private final int maxInFlight;
+  private final Path stateFile;
+  private final int maxOpenFiles;
+  private final int mmapThreshold;
+  private final RetryPolicy retryPolicy;
+  private final CircuitBreaker breaker;
+  private final AdaptiveLimiter limiter;
+  private final Path reportJson;
+  private final Path reportJunit;
+  private final int reportTop;
+  private final Queue<AvroPushTask> reportedTasks;
+
+  /**
+   * Constructor takes the CLI instance and resolves the execution configuration, using the defaults
+   * for options not specified by the user.
+   *
+   * @param cli the {@link PushCli} instance for fetching the user specified options.
+   */
+  AvroPushSupport(final PushCli cli) {
+    this.stageWidths = resolveStageWidths(cli);
+    this.stageQueueSize =
+        cli.getStageQueueSize() > 0 ? cli.getStageQueueSize() : DEFAULT_STAGE_QUEUE_SIZE;
+    this.executionMode =
+        isNull(cli.getExecutionMode()) ? ExecutionMode.PIPELINE : cli.getExecutionMode();
+    this.maxInFlight = cli.getMaxInFlight() > 0 ? cli.getMaxInFlight() : DEFAULT_MAX_IN_FLIGHT;
+    this.stateFile = cli.getStateFile();
+    this.maxOpenFiles =
+        cli.getMaxOpenFiles() > 0 ? cli.getMaxOpenFiles() : SchemaFileLoader.DEFAULT_MAX_OPEN_FILES;
+    this.mmapThreshold =
+        cli.getMmapThreshold() > 0 ? cli.getMmapThreshold() : SchemaFileLoader.DEFAULT_BUFFER_SIZE;
+    this.retryPolicy =
+        new RetryPolicy(
+            Math.max(cli.getMaxRetries(), 0) + 1,
+            Duration.ofMillis(
+                cli.getRetryBackoff() > 0 ? cli.getRetryBackoff() : DEFAULT_RETRY_BACKOFF_MILLIS),
+            MAX_RETRY_BACKOFF);
+    // the breaker spans the whole run, the registry is down for all the stages
+    this.breaker =
+        new CircuitBreaker(
+            cli.getBreakerThreshold() > 0 ? cli.getBreakerThreshold() : DEFAULT_BREAKER_THRESHOLD,
+            MAX_RETRY_BACKOFF);
+    if (cli.isAdaptiveConcurrency()) {
+      this.limiter =
+          new AdaptiveLimiter(
+              INITIAL_CONCURRENCY_LIMIT,
+              executionMode == ExecutionMode.VIRTUAL_THREADS
+                  ? maxInFlight
+                  : width(PipelineStage.REGISTER));
+      this.limiter.registerMBean("registry");
+      PushMetrics.registerLimiter("registry", this.limiter);
+    } else {
+      this.limiter = null;
+    }
+    this.reportJson = cli.getReportJson();
+    this.reportJunit = cli.getReportJunit();
+    this.reportTop = cli.getReportTop();
+    // the tasks are kept until the run ends only if reported
+    this.reportedTasks =
+        nonNull(reportJson) || nonNull(reportJunit) ? new ConcurrentLinkedQueue<>() : null;
+  }
+
+  /**
+   * Get the number of workers for a pipeline stage.
+   *
+   * @param stage the {@link PipelineStage} member.
+   * @return the stage width.
+   */
+  int width(final PipelineStage stage) {
+    return stageWidths.get(stage);
+  }
+
+  /**
+   * Create the loader for reading the schema files of a run.
+   *
+   * @return a {@link SchemaFileLoader} instance.
+   */
+  SchemaFileLoader createLoader() {
+    return new SchemaFileLoader(SchemaFileLoader.DEFAULT_BUFFER_SIZE, mmapThreshold, maxOpenFiles);
+  }
+
+  /**
+   * Create the task for pushing a record, kept for the run report if one was specified.
+   *
+   * @param topicAndSchema the {@link TopicAndSchema} record to push.
+   * @return the {@link AvroPushTask} instance.
+   */
+  AvroPushTask createTask(final TopicAndSchema topicAndSchema) {
+    var task = new AvroPushTask(topicAndSchema);
+    if (nonNull(reportedTasks)) {
+      reportedTasks.add(task);
+    }
+    return task;
+  }
+
+  /**
+   * Write the run report with the tasks created for the run, if a report was specified. The tasks
+   * are drained, so the next run of a long-running process reports its own tasks.
+   */
+  void writeReport() {
+    if (isNull(reportedTasks)) {
+      return;
+    }
+    var entries = new ArrayList<RunReport.Entry>();
+    for (var task = reportedTasks.poll(); nonNull(task); task = reportedTasks.poll()) {
+      entries.add(toReportEntry(task));
+    }
+    new RunReport(entries, reportTop).write(reportJson, reportJunit);
+  }
+
+  /**
+   * Load the fingerprint state, if a state file was specified.
+   *
+   * @return the {@link FingerprintState} instance, {@code null} if not used or failed to load.
+   */
+  @Nullable
+  FingerprintState loadState() {
+    if (isNull(stateFile)) {
+      return null;
+    }
+    try {
+      return FingerprintState.load(stateFile);
+    } catch (final IOException exc) {
+      LOGGER.log(
+          Level.SEVERE, exc, () -> String.format("failed to load state file '%s'", stateFile));
+      return null;
+    }
+  }
+
+  /**
+   * Save the fingerprint state, if used.
+   *
+   * @param state the {@link FingerprintState} to save, {@code null} if not used.
+   */
+  void saveState(@Nullable final FingerprintState state) {
+    if (nonNull(state)) {
+      try {
+        state.save();
+      } catch (final IOException exc) {
+        LOGGER.log(
+            Level.SEVERE, exc, () -> String.format("failed to save state file '%s'", stateFile));
+      }
+    }
+  }
+
+  /**
+   * Create the handler invoked with a task failing a stage.
+   *
+   * @param pushFailed the {@link AtomicBoolean} to set when a failure should fail the push.
+   * @return a {@link BiConsumer} taking the failed {@link AvroPushTask} and its exception.
+   */
+  static BiConsumer<AvroPushTask, Exception> createFailureHandler(final AtomicBoolean pushFailed) {
+    return (task, exc) -> {
+      task.failed = true;
+      task.failure = exc;
+      PushMetrics.schemaFailed();
+      // the other records carry on, but the run should not report success
+      pushFailed.set(true);
+      LOGGER.log(
+          Level.SEVERE,
+          exc,
+          () ->
+              String.format(
+                  "failed to push '%s' to topic '%s'",
+                  task.fileName(), task.topicAndSchema.topic()));
+    };
+  }
+
+  /**
+   * Create the executor running the push stages per the execution mode, the tasks failing the
+   * registering stage transiently are retried without holding up the rest, closing the executor
+   * waits for the retries as well.
+   *
+   * @param stages the {@link List} of {@link PushExecutor.Stage} records to run.
+   * @param failureHandler the {@link BiConsumer} invoked with a task failing a stage.
+   * @return a {@link PushExecutor} instance.
+   */
+  PushExecutor<AvroPushTask> createExecutor(
+      final List<PushExecutor.Stage<AvroPushTask>> stages,
+      final BiConsumer<AvroPushTask, Exception> failureHandler) {
+    return createExecutor(stages, failureHandler, true);
+  }
+
+  /**
+   * Create the executor running the push stages per the execution mode, optionally leaving the
+   * registering stage ungated, for when the non-blocking registry client gates its own requests.
+   *
+   * @param stages the {@link List} of {@link PushExecutor.Stage} records to run.
+   * @param failureHandler the {@link BiConsumer} invoked with a task failing a stage.
+   * @param limited {@code false} for not gating the registering stage with the limiter.
+   * @return a {@link PushExecutor} instance.
+   */
+  PushExecutor<AvroPushTask> createExecutor(
+      final List<PushExecutor.Stage<AvroPushTask>> stages,
+      final BiConsumer<AvroPushTask, Exception> failureHandler,
+      final boolean limited) {
+    var retries =
+        new RetryQueue<>(
+            retryPolicy,
+            breaker,
+            AvroPushSupport::isTransient,
+            failureHandler,
+            task -> task.retries++,
+            Math.max(width(PipelineStage.REGISTER) / 4, 1));
+    // each attempt waits for a permit of the limiter, retries included, and only the work is timed
+    var timed = PushMetrics.wrap(timePerTask(stages));
+    var wrapped =
+        retries.wrap(
+            limited && nonNull(limiter) ? limiter.wrap(timed, AvroPushSupport::overloadOf) : timed);
+    PushExecutor<AvroPushTask> executor;
+    if (executionMode == ExecutionMode.VIRTUAL_THREADS) {
+      LOGGER.info(() -> String.format("using virtual threads, max in flight %d", maxInFlight));
+      executor = new VirtualThreadExecutor<>(wrapped, maxInFlight, failureHandler);
+    } else {
+      LOGGER.info(() -> String.format("using a staged pipeline, stage widths %s", stageWidths));
+      executor = new StagedPipeline<>(wrapped, stageQueueSize, failureHandler);
+    }
+    return new PushExecutor<>() {
+      @Override
+      public void submit(final AvroPushTask task) {
+        executor.submit(task);
+      }
+
+      @Override
+      public void close() {
+        executor.close();
+        retries.close();
+        if (nonNull(limiter)) {
+          LOGGER.info(
+              () ->
+                  String.format(
+                      "registry concurrency limit at %d after %d overloads",
+                      limiter.getLimit(), limiter.getOverloads()));
+        }
+        if (retries.retriedCount() > 0) {
+          LOGGER.info(
+              () ->
+                  String.format(
+                      "retried %d schemas, %d of them registered on a retry",
+                      retries.retriedCount(), retries.recoveredCount()));
+        }
+      }
+    };
+  }
+
+  /**
+   * Get the limiter for the registry calls.
+   *
+   * @return the {@link AdaptiveLimiter} instance, {@code null} if not used.
+   */
+  @Nullable
+  AdaptiveLimiter getLimiter() {
+    return limiter;
+  }
+
+  /**
+   * Tell whether the registry is available, the circuit breaker being closed.
+   *
+   * @return true if the registry calls should be made.
+   */
+  boolean isRegistryAvailable() {
+    return breaker.state() == CircuitBreaker.State.CLOSED;
+  }
+
+  /**
+   * Tell whether a failure signals the registry is overloaded, throttling, unavailable, or timing
+   * out, and the delay it asked to wait, if any.
+   *
+   * @param exc the {@link Exception} to check.
+   * @return the retry after {@link Duration}, zero if not specified, empty if not an overload.
+   */
+  static Optional<Duration> overloadOf(final Exception exc) {
+    for (Throwable cause = exc; nonNull(cause); cause = cause.getCause()) {
+      if (cause instanceof RegistryOverloadedException roe) {
+        return Optional.of(roe.getRetryAfter());
+      }
+      if (cause instanceof RestClientException rce) {
+        var status = rce.getStatus();
+        return status == HTTP_TOO_MANY_REQUESTS
+                || status == HTTP_UNAVAILABLE
+                || status == HTTP_GATEWAY_TIMEOUT
+            ? Optional.of(Duration.ZERO)
+            : Optional.empty();
+      }
+      if (cause instanceof HttpTimeoutException || cause instanceof SocketTimeoutException) {
+        return Optional.of(Duration.ZERO);
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Tell whether a failure is transient and worth retrying, the registry being unreachable, timing
+   * out, failing internally, or throttling. Failures such as an incompatible or invalid schema are
+   * not transient.
+   *
+   * @param exc the {@link Exception} to check.
+   * @return true if the failure is transient.
+   */
+  static boolean isTransient(final Exception exc) {
+    for (Throwable cause = exc; nonNull(cause); cause = cause.getCause()) {
+      if (cause instanceof RestClientException rce) {
+        return rce.getStatus() >= 500 || rce.getStatus() == HTTP_TOO_MANY_REQUESTS;
+      }
+      if (cause instanceof IOException || cause instanceof RetriableException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Create the stage reading the schema files via the cache, each path is read once.
+   *
+   * @param cache the {@link AvroSchemaCache} to read with.
+   * @return a {@link PushExecutor.Stage} record.
+   */
+  PushExecutor.Stage<AvroPushTask> createCachedReadStage(final AvroSchemaCache cache) {
+    return new PushExecutor.Stage<>(
+        PipelineStage.READ,
+        width(PipelineStage.READ),
+        task -> {
+          logReading(task);
+          task.source = cache.read(task.topicAndSchema);
+        });
+  }
+
+  /**
+   * Create the stage parsing the schema files via the cache, each distinct content is parsed,
+   * fingerprinted, and canonicalized once.
+   *
+   * @param cache the {@link AvroSchemaCache} to parse with.
+   * @return a {@link PushExecutor.Stage} record.
+   */
+  PushExecutor.Stage<AvroPushTask> createCachedParseStage(final AvroSchemaCache cache) {
+    return new PushExecutor.Stage<>(
+        PipelineStage.PARSE,
+        width(PipelineStage.PARSE),
+        task -> {
+          var parsed = cache.parse(task.source);
+          task.source = null;
+          task.schema = parsed.schema();
+          task.fingerprint = parsed.fingerprint();
+          task.avroSchema = parsed.avroSchema();
+          task.record = parsed.record();
+        });
+  }
+
+  /**
+   * Create the stage reading the schema files, the content is kept in the task beyond the pooled
+   * buffers lifetime.
+   *
+   * @param loader the {@link SchemaFileLoader} for reading the schema files.
+   * @return a {@link PushExecutor.Stage} record.
+   */
+  PushExecutor.Stage<AvroPushTask> createReadStage(final SchemaFileLoader loader) {
+    return new PushExecutor.Stage<>(
+        PipelineStage.READ,
+        width(PipelineStage.READ),
+        task -> {
+          logReading(task);
+          task.content = loader.readAllBytes(task.topicAndSchema);
+        });
+  }
+
+  static void logCacheStats(final AvroSchemaCache cache) {
+    LOGGER.info(
+        () ->
+            String.format(
+                "read %d distinct schema files, parsed %d distinct schemas",
+                cache.pathsCount(), cache.contentsCount()));
+  }
+
+  static void logIoStats(final SchemaFileLoader.IoStats stats) {
+    LOGGER.info(
+        () ->
+            String.format(
+                "read %d bytes from %d schema files, %d memory mapped, %d ms spent in I/O",
+                stats.bytesRead(),
+                stats.filesRead(),
+                stats.filesMapped(),
+                TimeUnit.NANOSECONDS.toMillis(stats.ioNanos())));
+  }
+
+  static void recordRegistered(final AvroPushTask task) {
+    task.registered = true;
+    PushMetrics.schemaRegistered();
+  }
+
+  static void logSkipped(final AvroPushTask task) {
+    PushMetrics.schemaSkipped();
+    LOGGER.info(
+        () ->
+            String.format(
+                "skipping unchanged subject '%s' with fingerprint '%016x'",
+                task.subject, task.fingerprint));
+  }
+
+  private static void logReading(final AvroPushTask task) {
+    LOGGER.info(
+        () ->
+            String.format(
+                "pipeline for topic '%s' and schema '%s' reading on thread '%s'",
+                task.topicAndSchema.topic(), task.fileName(), Thread.currentThread().getName()));
+  }
+
+  /**
+   * Utility method for wrapping the stages so the time each task spends in each stage adds up in
+   * the task, for the run report.
+   *
+   * @param stages the {@link List} of {@link PushExecutor.Stage} records, in order.
+   * @return a {@link List} of timed {@link PushExecutor.Stage} records.
+   */
+  private static List<PushExecutor.Stage<AvroPushTask>> timePerTask(
+      final List<PushExecutor.Stage<AvroPushTask>> stages) {
+    return stages.stream()
+        .map(
+            s ->
+                new PushExecutor.Stage<AvroPushTask>(
+                    s.stage(),
+                    s.width(),
+                    task -> {
+                      var start = System.nanoTime();
+                      try {
+                        s.action().apply(task);
+                      } finally {
+                        task.phaseNanos[s.stage().ordinal()] += System.nanoTime() - start;
+                      }
+                    }))
+        .toList();
+  }
+
+  /**
+   * Utility method for creating the report entry of a task.
+   *
+   * @param task the {@link AvroPushTask} to report.
+   * @return the {@link RunReport.Entry} record.
+   */
+  private static RunReport.Entry toReportEntry(final AvroPushTask task) {
+    RunReport.Outcome outcome;
+    if (task.failed) {
+      outcome = RunReport.Outcome.FAILED;
+    } else if (task.registered) {
+      outcome = RunReport.Outcome.REGISTERED;
+    } else {
+      // unchanged, or registered once for another topic with the same subject
+      outcome = RunReport.Outcome.SKIPPED;
+    }
+    var phaseNanos = new EnumMap<PipelineStage, Long>(PipelineStage.class);
+    for (var stage : PipelineStage.values()) {
+      if (task.phaseNanos[stage.ordinal()] > 0) {
+        phaseNanos.put(stage, task.phaseNanos[stage.ordinal()]);
+      }
+    }
+    return new RunReport.Entry(
+        task.topicAndSchema.topic(),
+        task.topicAndSchema.schema(),
+        task.subject,
+        task.id,
+        outcome,
+        task.retries,
+        phaseNanos,
+        nonNull(task.failure) ? task.failure.toString() : null);
+  }
+
+  /**
+   * Utility method for resolving the width of each pipeline stage, using the default width for
+   * stages not specified by the user.
+   *
+   * @param cli the {@link PushCli} instance for fetching the user specified widths.
+   * @return an {@link EnumMap} of {@link PipelineStage} members to widths.
+   */
+  private static Map<PipelineStage, Integer> resolveStageWidths(final PushCli cli) {
+    var widths = new EnumMap<PipelineStage, Integer>(PipelineStage.class);
+    var userWidths = cli.getStageWidths();
+    for (var stage : PipelineStage.values()) {
+      var width = isNull(userWidths) ? null : userWidths.get(stage);
+      widths.put(stage, nonNull(width) && width > 0 ? width : stage.defaultWidth());
+    }
+    return widths;
+  }
+}
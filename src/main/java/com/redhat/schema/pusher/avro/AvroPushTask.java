@@ -0,0 +1,56 @@
+package com.redhat.schema.pusher.avro;
+
+import com.redhat.schema.pusher.PipelineStage;
+import com.redhat.schema.pusher.ReconcileAction;
+import com.redhat.schema.pusher.TopicAndSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.avro.Schema;
+
+/**
+ * The state of a single {@link TopicAndSchema} record while it flows through the push pipeline,
+ * each stage fills in the fields the next stage needs and releases the ones no longer needed.
+ */
+final class AvroPushTask {
+  final TopicAndSchema topicAndSchema;
+  byte[] content;
+  AvroSchemaCache.Source source;
+  Schema schema;
+  long fingerprint;
+  String subject;
+  AvroSchemaRecord record;
+  boolean failed;
+  boolean skipped;
+  boolean registered;
+  // used for the run report
+  final long[] phaseNanos = new long[PipelineStage.values().length];
+  int retries;
+  Exception failure;
+  long id = -1;
+  ReconcileAction action;
+  Schema latestSchema;
+  // used when resolving named types shared across files
+  List<String> definedNames = List.of();
+  Set<String> usedNames = Set.of();
+  List<AvroPushTask> dependencies = List.of();
+  boolean referenced;
+  String schemaString;
+  Map<String, Schema> types = Map.of();
+  AvroSchema avroSchema;
+  int version;
+
+  AvroPushTask(final TopicAndSchema setTopicAndSchema) {
+    this.topicAndSchema = setTopicAndSchema;
+  }
+
+  String fileName() {
+    return topicAndSchema.schema().toFile().getName();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("'%s' to topic '%s'", fileName(), topicAndSchema.topic());
+  }
+}
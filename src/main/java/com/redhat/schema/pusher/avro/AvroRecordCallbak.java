@@ -6,13 +6,8 @@
 import java.util.logging.Logger;
 import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.RecordMetadata;
-import org.springframework.beans.factory.config.BeanDefinition;
-import org.springframework.context.annotation.Scope;
-import org.springframework.stereotype.Component;
 
 /** Custom procuder push record callback, used for loggin push operations. */
-@Component
-@Scope(BeanDefinition.SCOPE_PROTOTYPE)
 public class AvroRecordCallbak implements Callback {
   private final Logger pusherLogger;
   private final String fileName;
@@ -0,0 +1,178 @@
+package com.redhat.schema.pusher.avro;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.avro.SchemaParseException;
+
+/**
+ * Named types dependency graph across AVRO schema files. Each file is scanned for the named types
+ * it defines and the named types it uses, a file using a type it does not define depends on the
+ * file defining it. The graph is layered into waves, every file in a wave depends only on files
+ * from previous waves.
+ */
+final class AvroReferenceGraph {
+  private static final ObjectReader JSON_READER = new ObjectMapper().readerFor(JsonNode.class);
+  private static final Set<String> PRIMITIVES =
+      Set.of("null", "boolean", "int", "long", "float", "double", "bytes", "string");
+  private static final Set<String> NAMED_TYPES = Set.of("record", "error", "enum", "fixed");
+
+  private final List<List<AvroPushTask>> waves = new ArrayList<>();
+  private final List<AvroPushTask> unresolved = new ArrayList<>();
+
+  /**
+   * Constructor links the scanned tasks and layers them into waves.
+   *
+   * @param tasks the {@link Collection} of {@link AvroPushTask} instances, already scanned.
+   */
+  AvroReferenceGraph(final Collection<AvroPushTask> tasks) {
+    // map each named type to the task providing it, preferring the task whose top level it is
+    var providers = new HashMap<String, AvroPushTask>();
+    for (var task : tasks) {
+      for (var name : task.definedNames) {
+        providers.merge(
+            name, task, (cur, cand) -> cand.definedNames.get(0).equals(name) ? cand : cur);
+      }
+    }
+    // link each task with the tasks providing the types it uses and does not define
+    var dependents = new HashMap<AvroPushTask, List<AvroPushTask>>();
+    var pending = new HashMap<AvroPushTask, Integer>();
+    for (var task : tasks) {
+      var deps = new LinkedHashSet<AvroPushTask>();
+      for (var name : task.usedNames) {
+        var provider = providers.get(name);
+        if (!task.definedNames.contains(name) && nonNull(provider) && provider != task) {
+          deps.add(provider);
+        }
+      }
+      task.dependencies = List.copyOf(deps);
+      deps.forEach(dep -> dep.referenced = true);
+      deps.forEach(dep -> dependents.computeIfAbsent(dep, k -> new ArrayList<>()).add(task));
+      pending.put(task, deps.size());
+    }
+    // layer the tasks into waves, kahn's algorithm, one wave per iteration
+    var wave = tasks.stream().filter(t -> pending.get(t) == 0).toList();
+    var layered = new HashSet<AvroPushTask>();
+    while (!wave.isEmpty()) {
+      waves.add(wave);
+      layered.addAll(wave);
+      var next = new ArrayList<AvroPushTask>();
+      for (var task : wave) {
+        for (var dependent : dependents.getOrDefault(task, List.of())) {
+          if (pending.merge(dependent, -1, Integer::sum) == 0) {
+            next.add(dependent);
+          }
+        }
+      }
+      wave = next;
+    }
+    // tasks never layered are part of, or depend on, a cycle
+    tasks.stream().filter(t -> !layered.contains(t)).forEach(unresolved::add);
+  }
+
+  /**
+   * Get the dependency waves, in registration order.
+   *
+   * @return a {@link List} of waves, each a {@link List} of {@link AvroPushTask} instances.
+   */
+  List<List<AvroPushTask>> waves() {
+    return this.waves;
+  }
+
+  /**
+   * Get the tasks that could not be layered due to cyclic dependencies.
+   *
+   * @return a {@link List} of {@link AvroPushTask} instances.
+   */
+  List<AvroPushTask> unresolved() {
+    return this.unresolved;
+  }
+
+  /**
+   * Scan the content of a task for the named types it defines and uses, the top level type, if
+   * named, is the first defined name.
+   *
+   * @param task the {@link AvroPushTask} to scan, its content should already be read.
+   * @throws SchemaParseException when the content is not a valid JSON document.
+   */
+  static void scan(final AvroPushTask task) {
+    var defined = new ArrayList<String>();
+    var used = new LinkedHashSet<String>();
+    try {
+      scanNode(JSON_READER.readTree(task.content), "", defined, used);
+    } catch (final IOException exc) {
+      throw new SchemaParseException(exc);
+    }
+    task.definedNames = defined;
+    task.usedNames = used;
+  }
+
+  private static void scanNode(
+      final JsonNode node,
+      final String namespace,
+      final List<String> defined,
+      final Set<String> used) {
+    if (node.isTextual()) {
+      var name = node.asText();
+      if (!PRIMITIVES.contains(name)) {
+        used.add(fullName(name, namespace));
+      }
+    } else if (node.isArray()) {
+      node.forEach(member -> scanNode(member, namespace, defined, used));
+    } else if (node.isObject()) {
+      var type = node.path("type");
+      if (type.isTextual() && NAMED_TYPES.contains(type.asText())) {
+        var name = fullName(node.path("name").asText(), namespaceOf(node, namespace));
+        defined.add(name);
+        var lastDot = name.lastIndexOf('.');
+        var innerNamespace = lastDot > 0 ? name.substring(0, lastDot) : "";
+        node.path("fields").forEach(f -> scanNode(f.path("type"), innerNamespace, defined, used));
+      } else if (type.isTextual() && "array".equals(type.asText())) {
+        scanNode(node.path("items"), namespace, defined, used);
+      } else if (type.isTextual() && "map".equals(type.asText())) {
+        scanNode(node.path("values"), namespace, defined, used);
+      } else {
+        scanNode(type, namespace, defined, used);
+      }
+    }
+  }
+
+  private static String namespaceOf(final JsonNode node, final String enclosing) {
+    var namespace = node.get("namespace");
+    return isNull(namespace) || namespace.isNull() ? enclosing : namespace.asText();
+  }
+
+  private static String fullName(final String name, final String namespace) {
+    return name.contains(".") || namespace.isEmpty() ? name : namespace + "." + name;
+  }
+
+  /**
+   * Collect the transitive dependencies of a task, dependencies first.
+   *
+   * @param deps the {@link List} of {@link AvroPushTask} direct dependencies.
+   * @return a {@link List} of {@link AvroPushTask} instances, each following its dependencies.
+   */
+  static List<AvroPushTask> transitive(final List<AvroPushTask> deps) {
+    var ordered = new LinkedHashSet<AvroPushTask>();
+    deps.forEach(dep -> collect(dep, ordered));
+    return List.copyOf(ordered);
+  }
+
+  private static void collect(final AvroPushTask task, final Set<AvroPushTask> ordered) {
+    if (!ordered.contains(task)) {
+      task.dependencies.forEach(dep -> collect(dep, ordered));
+      ordered.add(task);
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package com.redhat.schema.pusher.avro;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.redhat.schema.pusher.NamingStrategy;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+import org.apache.avro.Schema;
+
+/**
+ * Engine registering parsed schemas directly with the registry client, without the Kafka
+ * serializer. The subjects are computed from the {@link NamingStrategy} and memoized per topic and
+ * record name, and the registered ids are memoized per subject and canonical string, so pushing an
+ * already registered schema again allocates nothing and never reaches the registry client. The
+ * canonical strings are the ones the {@link AvroSchema} memoizes, and the string hashes are cached
+ * by the strings themselves.
+ */
+final class AvroRegistrationEngine {
+  /* A registered canonical string and its id, chained to the other ones of the same subject. */
+  private record Registered(String canonical, int id, @Nullable Registered next) {}
+
+  private final NamingStrategy namingStrategy;
+  private final boolean normalize;
+  private final ConcurrentMap<String, ConcurrentMap<String, String>> subjects =
+      new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Registered> registered = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor takes the naming strategy and whether to normalize the registered schemas.
+   *
+   * @param setNamingStrategy the {@link NamingStrategy} for computing the subjects.
+   * @param setNormalize {@code true} for registering the schemas normalized, as the serializer
+   *     would.
+   */
+  AvroRegistrationEngine(final NamingStrategy setNamingStrategy, final boolean setNormalize) {
+    this.namingStrategy = setNamingStrategy;
+    this.normalize = setNormalize;
+  }
+
+  /**
+   * Get the subject of a schema pushed to a topic.
+   *
+   * @param topic the {@link String} topic name.
+   * @param schema the parsed {@link Schema}.
+   * @return the {@link String} subject name.
+   */
+  String subjectOf(final String topic, final Schema schema) {
+    var recordName = schema.getFullName();
+    if (namingStrategy == NamingStrategy.RECORD) {
+      return recordName;
+    }
+    // a lambda capturing nothing is not allocated per call, one naming the subject would capture
+    var byName = subjects.computeIfAbsent(topic, t -> new ConcurrentHashMap<>());
+    var subject = byName.get(recordName);
+    if (isNull(subject)) {
+      subject = namingStrategy.subjectName(topic, recordName);
+      var previous = byName.putIfAbsent(recordName, subject);
+      if (nonNull(previous)) {
+        subject = previous;
+      }
+    }
+    return subject;
+  }
+
+  /**
+   * Register a schema with a subject, unless it was already registered by this engine.
+   *
+   * @param registry the {@link SchemaRegistryClient} to register with.
+   * @param subject the {@link String} subject name.
+   * @param schema the {@link AvroSchema} to register.
+   * @return the registry id of the schema.
+   * @throws IOException when failed to communicate with the registry.
+   * @throws RestClientException when the registry rejected the schema.
+   */
+  int register(final SchemaRegistryClient registry, final String subject, final AvroSchema schema)
+      throws IOException, RestClientException {
+    var canonical = schema.canonicalString();
+    for (var known = registered.get(subject); nonNull(known); known = known.next()) {
+      if (known.canonical().equals(canonical)) {
+        return known.id();
+      }
+    }
+    var id = registry.register(subject, schema, normalize);
+    registered.compute(subject, (s, head) -> new Registered(canonical, id, head));
+    return id;
+  }
+
+  /**
+   * Forget the ids registered with a subject, for when it was deleted from the registry.
+   *
+   * @param subject the {@link String} subject name.
+   */
+  void forget(final String subject) {
+    registered.remove(subject);
+  }
+}
@@ -0,0 +1,108 @@
+package com.redhat.schema.pusher.avro;
+
+import com.redhat.schema.pusher.ReconcileAction;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Helper class for reconciling the schemas with the registry's current view. The subjects list is
+ * fetched once in bulk, and the latest version is fetched only for the input subjects already
+ * existing in the registry, so a mostly unchanged catalog costs reads instead of writes.
+ */
+final class AvroRegistryReconciler {
+  private final SchemaRegistryClient registry;
+  private Set<String> existingSubjects = Set.of();
+
+  /**
+   * Constructor takes the registry client.
+   *
+   * @param setRegistry the {@link SchemaRegistryClient} to reconcile with.
+   */
+  AvroRegistryReconciler(final SchemaRegistryClient setRegistry) {
+    this.registry = setRegistry;
+  }
+
+  /**
+   * Fetch the registry's subjects list, should be invoked before planning.
+   *
+   * @throws IOException when failed to communicate with the registry.
+   * @throws RestClientException when the registry rejected the request.
+   */
+  void fetchSubjects() throws IOException, RestClientException {
+    this.existingSubjects = Set.copyOf(registry.getAllSubjects());
+  }
+
+  /**
+   * Plan the action for a task, fetching the subject's latest version if the subject exists. The
+   * schemas are compared by their canonical string, as the registry does when looking up a schema
+   * under a subject. Safe for concurrent use.
+   *
+   * @param task the {@link AvroPushTask} with its subject and schema resolved.
+   * @throws IOException when failed to communicate with the registry.
+   * @throws RestClientException when the registry rejected the request.
+   */
+  void plan(final AvroPushTask task) throws IOException, RestClientException {
+    if (!existingSubjects.contains(task.subject)) {
+      task.action = ReconcileAction.NEW;
+      return;
+    }
+    var latest = registry.getLatestSchemaMetadata(task.subject);
+    var latestSchema = new AvroSchema(latest.getSchema());
+    // kept for checking the compatibility without fetching it again
+    task.latestSchema = latestSchema.rawSchema();
+    if (latestSchema.canonicalString().equals(task.avroSchema.canonicalString())) {
+      task.action = ReconcileAction.UNCHANGED;
+      task.id = latest.getId();
+    } else {
+      task.action = ReconcileAction.NEW_VERSION;
+    }
+  }
+
+  /**
+   * Check if a subject exists in the registry's subjects list, without fetching anything.
+   *
+   * @param subject the {@link String} subject to check.
+   * @return true if the subject exists.
+   */
+  boolean exists(final String subject) {
+    return existingSubjects.contains(subject);
+  }
+
+  /**
+   * Get the registry subjects not in the input.
+   *
+   * @param inputSubjects the {@link Collection} of the input subjects.
+   * @return a sorted {@link List} of {@link String} subjects.
+   */
+  List<String> prunable(final Collection<String> inputSubjects) {
+    var input = Set.copyOf(inputSubjects);
+    return existingSubjects.stream().filter(s -> !input.contains(s)).sorted().toList();
+  }
+
+  /**
+   * Register a task planned as new or as a new version.
+   *
+   * @param task the {@link AvroPushTask} to register.
+   * @throws IOException when failed to communicate with the registry.
+   * @throws RestClientException when the registry rejected the request.
+   */
+  void register(final AvroPushTask task) throws IOException, RestClientException {
+    task.id = registry.register(task.subject, task.avroSchema);
+  }
+
+  /**
+   * Soft delete a subject, it can still be recovered with the registry.
+   *
+   * @param subject the {@link String} subject to delete.
+   * @throws IOException when failed to communicate with the registry.
+   * @throws RestClientException when the registry rejected the request.
+   */
+  void prune(final String subject) throws IOException, RestClientException {
+    registry.deleteSubject(subject, false);
+  }
+}
@@ -0,0 +1,214 @@
+package com.redhat.schema.pusher.avro;
+
+import static java.util.Objects.isNull;
+
+import com.redhat.schema.pusher.SchemaFileLoader;
+import com.redhat.schema.pusher.SchemaFileLoader.LoadedFile;
+import com.redhat.schema.pusher.TopicAndSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import org.apache.avro.Schema;
+import org.apache.avro.Schema.Parser;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.util.ByteBufferInputStream;
+
+/**
+ * Cache of the parsed schemas, keyed by path and by content hash. A schema file feeding many topics
+ * is read once, and identical files at different paths are parsed and canonicalized once, the
+ * parsed schema, its fingerprint, its canonical form, and the record wrapping it are shared by all
+ * the topics. The paths are run scoped, as files change between runs, while the contents can be
+ * shared by the runs of a long-running process, see {@link #newContents()}.
+ *
+ * <p>Concurrent loads of the same key wait for the thread already loading it, a thread never waits
+ * for a load that did not start yet, so the cache is safe for use from bounded pipeline stages.
+ *
+ * <p>The files are loaded with a {@link SchemaFileLoader}, the loaded file of a source is released
+ * once parsed, returning its buffer to the loader pool.
+ */
+final class AvroSchemaCache {
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+
+  private final SchemaFileLoader loader;
+  private final ConcurrentMap<Path, FutureTask<Source>> byPath = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, FutureTask<Parsed>> byContent;
+
+  /**
+   * Constructor takes the loader for reading the schema files, the contents are run scoped.
+   *
+   * @param setLoader the {@link SchemaFileLoader} for reading the files.
+   */
+  AvroSchemaCache(final SchemaFileLoader setLoader) {
+    this(setLoader, newContents());
+  }
+
+  /**
+   * Constructor takes the loader for reading the schema files and the parsed contents to share.
+   *
+   * @param setLoader the {@link SchemaFileLoader} for reading the files.
+   * @param setContents the {@link ConcurrentMap} of parsed contents, from {@link #newContents()}.
+   */
+  AvroSchemaCache(
+      final SchemaFileLoader setLoader,
+      final ConcurrentMap<String, FutureTask<Parsed>> setContents) {
+    this.loader = setLoader;
+    this.byContent = setContents;
+  }
+
+  /**
+   * Create the map of parsed contents, for sharing between caches.
+   *
+   * @return an empty {@link ConcurrentMap} of content hashes to parsed schemas.
+   */
+  static ConcurrentMap<String, FutureTask<Parsed>> newContents() {
+    return new ConcurrentHashMap<>();
+  }
+
+  /** A read schema file, the loaded file is released once parsed. */
+  static final class Source {
+    final String contentHash;
+    volatile LoadedFile loaded;
+
+    private Source(final String setContentHash, final LoadedFile setLoaded) {
+      this.contentHash = setContentHash;
+      this.loaded = setLoaded;
+    }
+  }
+
+  /**
+   * A parsed schema shared by all the files with the same content.
+   *
+   * @param schema the parsed {@link Schema}.
+   * @param fingerprint the parsing canonical form fingerprint.
+   * @param avroSchema the {@link AvroSchema} with its canonical string computed.
+   * @param record the {@link AvroSchemaRecord} to produce for every topic.
+   */
+  record Parsed(Schema schema, long fingerprint, AvroSchema avroSchema, AvroSchemaRecord record) {}
+
+  /**
+   * Read a schema file, once per path.
+   *
+   * @param path the {@link Path} of the schema file.
+   * @return the {@link Source} read.
+   * @throws Exception when failed to read the file.
+   */
+  Source read(final Path path) throws Exception {
+    return memoize(
+        byPath,
+        path,
+        () -> {
+          var loaded = loader.load(path);
+          try {
+            return new Source(hash(loaded.content()), loaded);
+          } catch (final Exception exc) {
+            loaded.close();
+            throw exc;
+          }
+        });
+  }
+
+  /**
+   * Read the schema of a record, once per path, or from the content it carries if streamed, such
+   * content has no path to share and is hashed as is.
+   *
+   * @param topicAndSchema the {@link TopicAndSchema} record.
+   * @return the {@link Source} read.
+   * @throws Exception when failed to read the file.
+   */
+  Source read(final TopicAndSchema topicAndSchema) throws Exception {
+    if (isNull(topicAndSchema.content())) {
+      return read(topicAndSchema.schema());
+    }
+    var loaded = loader.load(topicAndSchema);
+    return new Source(hash(loaded.content()), loaded);
+  }
+
+  /**
+   * Parse a read schema file, once per content.
+   *
+   * @param source the {@link Source} to parse.
+   * @return the {@link Parsed} schema.
+   * @throws Exception when failed to parse the schema.
+   */
+  Parsed parse(final Source source) throws Exception {
+    try {
+      return memoize(
+          byContent,
+          source.contentHash,
+          () -> {
+            var content = new ByteBufferInputStream(List.of(source.loaded.content()));
+            var schema = new Parser().parse(content);
+            var avroSchema = new AvroSchema(schema);
+            avroSchema.canonicalString();
+            return new Parsed(
+                schema,
+                SchemaNormalization.parsingFingerprint64(schema),
+                avroSchema,
+                new AvroSchemaRecord(avroSchema));
+          });
+    } finally {
+      release(source);
+    }
+  }
+
+  /**
+   * Get the number of distinct paths read.
+   *
+   * @return the number of paths.
+   */
+  int pathsCount() {
+    return byPath.size();
+  }
+
+  /**
+   * Get the number of distinct contents parsed.
+   *
+   * @return the number of contents.
+   */
+  int contentsCount() {
+    return byContent.size();
+  }
+
+  private static <K, V> V memoize(
+      final ConcurrentMap<K, FutureTask<V>> cache, final K key, final Callable<V> loader)
+      throws Exception {
+    var task = cache.get(key);
+    if (isNull(task)) {
+      var newTask = new FutureTask<>(loader);
+      task = cache.putIfAbsent(key, newTask);
+      if (isNull(task)) {
+        // the loading thread is the one that registered the task
+        task = newTask;
+        newTask.run();
+      }
+    }
+    try {
+      return task.get();
+    } catch (final ExecutionException exc) {
+      throw exc.getCause() instanceof Exception cause ? cause : exc;
+    }
+  }
+
+  private static void release(final Source source) {
+    var loaded = source.loaded;
+    if (!isNull(loaded)) {
+      source.loaded = null;
+      loaded.close();
+    }
+  }
+
+  private static String hash(final ByteBuffer content) throws NoSuchAlgorithmException {
+    var digest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+    digest.update(content);
+    return HexFormat.of().formatHex(digest.digest());
+  }
+}
@@ -3,87 +3,192 @@
 import static com.redhat.schema.pusher.UrlUtils.cleanUrlEnd;
 import static com.redhat.schema.pusher.UrlUtils.concatConfluentMap;
 import static com.redhat.schema.pusher.UrlUtils.isSecured;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
+import com.redhat.schema.pusher.Base64Input;
+import com.redhat.schema.pusher.FingerprintState;
+import com.redhat.schema.pusher.InlineKeyStore;
+import com.redhat.schema.pusher.PipelineStage;
 import com.redhat.schema.pusher.PushCli;
+import com.redhat.schema.pusher.PushExecutor;
+import com.redhat.schema.pusher.ReconcileAction;
 import com.redhat.schema.pusher.ReturnCode;
+import com.redhat.schema.pusher.SchemaFileLoader;
 import com.redhat.schema.pusher.SchemaPusher;
 import com.redhat.schema.pusher.TopicAndSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
 import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import org.apache.avro.Schema;
 import org.apache.avro.Schema.Parser;
-import org.apache.avro.generic.GenericData;
+import org.apache.avro.SchemaNormalization;
 import org.apache.avro.generic.IndexedRecord;
 import org.apache.kafka.clients.CommonClientConfigs;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.config.SslConfigs;
+import org.apache.kafka.common.config.types.Password;
 import org.apache.kafka.common.serialization.StringSerializer;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.config.BeanDefinition;
-import org.springframework.context.ApplicationContext;
-import org.springframework.context.annotation.Scope;
-import org.springframework.stereotype.Component;
 
 /**
  * AVRO implementation of the {@link SchemaPusher}, provided the behavioural implementation for
- * pushing schemas to the registry.
+ * pushing schemas to the registry. The schemas are registered via the Kafka producer and its
+ * serializer when a Kafka bootstrap server is specified, otherwise directly with the registry
+ * client, and the producer classes are not loaded at all.
+ *
+ * <p>The registry clients, the producer, and the parsed schemas are created on first use and kept
+ * between pushes, so a long-running process pushes with warm caches and connections, closing the
+ * pusher releases them.
  */
-@Component
-@Scope(BeanDefinition.SCOPE_PROTOTYPE)
 public final class AvroSchemaPusher implements SchemaPusher {
   private static final Logger LOGGER = Logger.getLogger(AvroSchemaPusher.class.getName());
 
   private static final String STORE_TYPE_PKCS12 = "PKCS12";
+  private static final String STORE_TYPE_PEM = "PEM";
+  private static final int MAX_KEPT_CONTENTS = 10_000;
 
-  @Autowired private ApplicationContext context;
-  private final Properties producerProps;
+  /* Registers the schema of a task, returning its registry id. */
+  @FunctionalInterface
+  private interface Registration {
+    int register(AvroPushTask task) throws Exception;
+  }
+
+  private final AvroComponents components;
+  private final Properties registryProps;
+  private final String kafkaBootstrapUrl;
+  private final PushCli.TruststoreInfo truststoreInfo;
+  private final PushCli.KeystoreInfo keystoreInfo;
+  private final AvroRegistrationEngine engine;
+  private final AvroPushSupport support;
+  private final boolean asyncRegistry;
+  private final int gzipThreshold;
+  private final boolean resolveReferences;
+  private final boolean reconcile;
+  private final boolean prune;
+  private final boolean checkCompatibility;
+  private final ConcurrentMap<String, FutureTask<AvroSchemaCache.Parsed>> parsedContents =
+      AvroSchemaCache.newContents();
+  private SchemaRegistryClient registryClient;
+  private AsyncRegistryClient asyncRegistryClient;
+  private SchemaProducer<String, IndexedRecord> producer;
 
   /**
    * Constructor that takes the CLI instance and use it to create a {@link Properties} instance to
-   * be used by the producer.
+   * be used by the registry clients, the producer properties are created only if the producer is
+   * used.
    *
    * @param cli the {@link PushCli} instance for configuring the kafka producer with its fields.
+   * @param setComponents the {@link AvroComponents} instance for creating the producer and the
+   *     registry clients.
    */
-  public AvroSchemaPusher(final PushCli cli) {
-    this.producerProps = createProps(cli);
+  public AvroSchemaPusher(final PushCli cli, final AvroComponents setComponents) {
+    this.components = setComponents;
+    this.registryProps = createRegistryProps(cli);
+    this.kafkaBootstrapUrl =
+        isNull(cli.getKafkaBootstrap()) ? null : cleanUrlEnd.apply(cli.getKafkaBootstrap());
+    this.truststoreInfo = cli.getTruststoreInfo();
+    this.keystoreInfo = cli.getKeystoreInfo();
+    this.engine =
+        new AvroRegistrationEngine(
+            cli.getNamingStrategy(),
+            new KafkaAvroSerializerConfig(registryProps).normalizeSchema());
+    this.support = new AvroPushSupport(cli);
+    this.asyncRegistry = cli.isAsyncRegistry();
+    this.gzipThreshold = Math.max(cli.getGzipThreshold(), 0);
+    this.resolveReferences = cli.isResolveReferences();
+    this.reconcile = cli.isReconcile();
+    this.prune = cli.isPrune();
+    this.checkCompatibility = cli.isCheckCompatibility();
   }
 
   @Override
-  @SuppressWarnings("unchecked")
-  public ReturnCode push(final List<TopicAndSchema> topicAndSchemaRecords) {
-    LOGGER.info("loading the producer");
-    try (var producer = context.getBean(SchemaProducer.class, producerProps)) {
-      topicAndSchemaRecords.parallelStream()
-          .forEach(
-              rec -> {
-                var fileName = rec.schema().toFile().getName();
-                LOGGER.info(
-                    () ->
-                        String.format(
-                            "parallel stream for topic '%s' and schema '%s' running on thread '%s'",
-                            rec.topic(), fileName, Thread.currentThread().getName()));
-                try {
-                  var parser = new Parser();
-                  var schema = parser.parse(Files.newInputStream(rec.schema()));
-                  var avroRec = new GenericData.Record(schema);
-                  var prodRec = new ProducerRecord<String, IndexedRecord>(rec.topic(), avroRec);
-                  producer.send(prodRec);
-                } catch (final IOException exc) {
-                  LOGGER.log(
-                      Level.SEVERE,
-                      exc,
-                      () ->
-                          String.format(
-                              "failed to push '%s' to topic '%s'", fileName, rec.topic()));
-                }
-              });
-      return ReturnCode.SUCCESS;
+  public ReturnCode push(final Stream<TopicAndSchema> topicAndSchemaRecords) {
+    var state = support.loadState();
+    var loader = support.createLoader();
+    ReturnCode retCode;
+    if (resolveReferences) {
+      if (reconcile) {
+        LOGGER.warning("reconciling is not applicable with resolving references, ignoring");
+      }
+      if (checkCompatibility) {
+        LOGGER.warning(
+            "checking compatibility is not applicable with resolving references, ignoring");
+      }
+      retCode = pushWithReferences(topicAndSchemaRecords, state, loader);
+    } else if (reconcile) {
+      retCode = pushWithReconcile(topicAndSchemaRecords, state, loader);
+    } else if (nonNull(kafkaBootstrapUrl)) {
+      retCode = pushWithProducer(topicAndSchemaRecords, state, loader);
+    } else {
+      retCode = pushWithRegistry(topicAndSchemaRecords, state, loader);
+    }
+    AvroPushSupport.logIoStats(loader.stats());
+    support.saveState(state);
+    support.writeReport();
+    return retCode;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (nonNull(producer)) {
+      try {
+        producer.close();
+      } catch (final IOException exc) {
+        LOGGER.log(Level.WARNING, exc, () -> "failed to close the producer");
+      }
+      producer = null;
+    }
+  }
+
+  /**
+   * Push the schemas via the producer, the serializer registers each schema.
+   *
+   * @param topicAndSchemaRecords the {@link Stream} of {@link TopicAndSchema} records to push.
+   * @param state the {@link FingerprintState} of previous runs, {@code null} if not used.
+   * @param loader the {@link SchemaFileLoader} for reading the schema files.
+   * @return a {@link ReturnCode} member.
+   */
+  private ReturnCode pushWithProducer(
+      final Stream<TopicAndSchema> topicAndSchemaRecords,
+      @Nullable final FingerprintState state,
+      final SchemaFileLoader loader) {
+    try {
+      var registry = asyncRegistry();
+      var schemaProducer = producer(registry);
+      var pushFailed =
+          pushEach(
+              topicAndSchemaRecords,
+              task ->
+                  schemaIdOf(
+                      schemaProducer.send(
+                          new ProducerRecord<>(task.topicAndSchema.topic(), task.record))),
+              registry,
+              state,
+              loader);
+      return pushFailed ? ReturnCode.PRODUCER_ERROR : ReturnCode.SUCCESS;
     } catch (final Exception exc) {
       LOGGER.log(Level.SEVERE, exc, () -> "producing messages to failed");
       return ReturnCode.PRODUCER_ERROR;
@@ -91,40 +196,684 @@ public ReturnCode push(final List<TopicAndSchema> topicAndSchemaRecords) {
   }
 
   /**
-   * Utility method for creating the set of properties to be used by the producer.
+   * Push the schemas registering each directly with the registry client through the {@link
+   * AvroRegistrationEngine}, normalized as the serializer would, for when no Kafka bootstrap server
+   * was specified. Schemas the engine already registered are not registered again.
+   *
+   * @param topicAndSchemaRecords the {@link Stream} of {@link TopicAndSchema} records to push.
+   * @param state the {@link FingerprintState} of previous runs, {@code null} if not used.
+   * @param loader the {@link SchemaFileLoader} for reading the schema files.
+   * @return a {@link ReturnCode} member.
+   */
+  private ReturnCode pushWithRegistry(
+      final Stream<TopicAndSchema> topicAndSchemaRecords,
+      @Nullable final FingerprintState state,
+      final SchemaFileLoader loader) {
+    try {
+      var asyncRegistry = asyncRegistry();
+      var registry = nonNull(asyncRegistry) ? asyncRegistry : registryClient();
+      var pushFailed =
+          pushEach(
+              topicAndSchemaRecords,
+              task -> engine.register(registry, task.subject, task.avroSchema),
+              asyncRegistry,
+              state,
+              loader);
+      return pushFailed ? ReturnCode.REGISTRY_ERROR : ReturnCode.SUCCESS;
+    } catch (final Exception exc) {
+      LOGGER.log(Level.SEVERE, exc, () -> "registering schemas failed");
+      return ReturnCode.REGISTRY_ERROR;
+    }
+  }
+
+  /**
+   * Push each schema through the push pipeline as it is streamed.
+   *
+   * @param topicAndSchemaRecords the {@link Stream} of {@link TopicAndSchema} records to push.
+   * @param registration the {@link Registration} registering each schema.
+   * @param registry the {@link AsyncRegistryClient} for registering ahead, {@code null} if not
+   *     used.
+   * @param state the {@link FingerprintState} of previous runs, {@code null} if not used.
+   * @param loader the {@link SchemaFileLoader} for reading the schema files.
+   * @return true if any of the schemas failed to push.
+   * @throws Exception when failed to fetch the registry subjects for checking compatibility.
+   */
+  private boolean pushEach(
+      final Stream<TopicAndSchema> topicAndSchemaRecords,
+      final Registration registration,
+      @Nullable final AsyncRegistryClient registry,
+      @Nullable final FingerprintState state,
+      final SchemaFileLoader loader)
+      throws Exception {
+    var pushFailed = new AtomicBoolean();
+    var failureHandler = AvroPushSupport.createFailureHandler(pushFailed);
+    var cache = createSchemaCache(loader);
+    if (checkCompatibility) {
+      pushChecked(topicAndSchemaRecords, registration, registry, state, cache, failureHandler);
+    } else {
+      var stages = new ArrayList<>(createResolveStages(registry, state, cache));
+      stages.add(createRegisterStage(registration, state));
+      // the non-blocking client gates its own requests with the limiter
+      try (var executor = support.createExecutor(stages, failureHandler, isNull(registry))) {
+        topicAndSchemaRecords.forEach(rec -> executor.submit(support.createTask(rec)));
+      }
+    }
+    AvroPushSupport.logCacheStats(cache);
+    return pushFailed.get();
+  }
+
+  /**
+   * Push the schemas checking them all for compatibility first. All the schemas are resolved and
+   * checked locally against the registered versions of their subjects, fetched in parallel, and
+   * only if all of them are compatible they are registered, so an incompatible schema fails the
+   * push with nothing registered. The registrations are not started ahead, as they would register
+   * before the check.
+   *
+   * @param topicAndSchemaRecords the {@link Stream} of {@link TopicAndSchema} records to push.
+   * @param registration the {@link Registration} registering each schema.
+   * @param registry the {@link AsyncRegistryClient} the registration goes through, {@code null} if
+   *     not used.
+   * @param state the {@link FingerprintState} of previous runs, {@code null} if not used.
+   * @param cache the {@link AvroSchemaCache} for loading each distinct schema once.
+   * @param failureHandler the {@link BiConsumer} invoked with a task failing a stage.
+   * @throws Exception when failed to fetch the registry subjects.
+   */
+  private void pushChecked(
+      final Stream<TopicAndSchema> topicAndSchemaRecords,
+      final Registration registration,
+      @Nullable final AsyncRegistryClient registry,
+      @Nullable final FingerprintState state,
+      final AvroSchemaCache cache,
+      final BiConsumer<AvroPushTask, Exception> failureHandler)
+      throws Exception {
+    var checker = new AvroCompatibilityChecker(registryClient());
+    checker.fetchSubjects();
+    var stages = new ArrayList<>(createResolveStages(null, state, cache));
+    stages.add(createCheckStage(checker));
+    var tasks = new ArrayList<AvroPushTask>();
+    try (var executor = support.createExecutor(stages, failureHandler)) {
+      topicAndSchemaRecords.forEach(
+          rec -> {
+            var task = support.createTask(rec);
+            tasks.add(task);
+            executor.submit(task);
+          });
+    }
+    var failed = tasks.stream().filter(t -> t.failed).count();
+    if (failed > 0) {
+      LOGGER.severe(
+          () ->
+              String.format(
+                  "%d of %d schemas failed reading or checking compatibility, none registered",
+                  failed, tasks.size()));
+      return;
+    }
+    LOGGER.info(() -> String.format("all %d schemas are compatible, registering", tasks.size()));
+    try (var executor =
+        support.createExecutor(
+            List.of(createRegisterStage(registration, state)), failureHandler, isNull(registry))) {
+      tasks.forEach(executor::submit);
+    }
+  }
+
+  /**
+   * Push the schemas resolving the named types shared across the files. All the files are read and
+   * scanned first, then registered directly with the registry in dependency waves, each dependent
+   * referencing the subjects registered for its dependencies in previous waves.
+   *
+   * @param topicAndSchemaRecords the {@link Stream} of {@link TopicAndSchema} records to push.
+   * @param state the {@link FingerprintState} of previous runs, {@code null} if not used.
+   * @param loader the {@link SchemaFileLoader} for reading the schema files.
+   * @return a {@link ReturnCode} member.
+   */
+  private ReturnCode pushWithReferences(
+      final Stream<TopicAndSchema> topicAndSchemaRecords,
+      @Nullable final FingerprintState state,
+      final SchemaFileLoader loader) {
+    try {
+      var registry = registryClient();
+      var pushFailed = new AtomicBoolean();
+      var failureHandler = AvroPushSupport.createFailureHandler(pushFailed);
+      // the dependency graph spans all the files, read and scan them all first
+      var tasks = new ArrayList<AvroPushTask>();
+      try (var executor = support.createExecutor(createScanStages(loader), failureHandler)) {
+        topicAndSchemaRecords.forEach(
+            rec -> {
+              var task = support.createTask(rec);
+              tasks.add(task);
+              executor.submit(task);
+            });
+      }
+      var graph = new AvroReferenceGraph(tasks.stream().filter(t -> !t.failed).toList());
+      graph
+          .unresolved()
+          .forEach(
+              task ->
+                  failureHandler.accept(
+                      task, new IllegalStateException("cyclic named types dependency")));
+      LOGGER.info(
+          () -> String.format("registering schemas in %d dependency waves", graph.waves().size()));
+      var stages = createReferenceStages(registry, state);
+      for (var wave : graph.waves()) {
+        // a wave starts only after all the schemas of the previous wave were registered
+        try (var executor = support.createExecutor(stages, failureHandler)) {
+          wave.forEach(executor::submit);
+        }
+      }
+      return pushFailed.get() ? ReturnCode.REGISTRY_ERROR : ReturnCode.SUCCESS;
+    } catch (final Exception exc) {
+      LOGGER.log(Level.SEVERE, exc, () -> "registering schemas failed");
+      return ReturnCode.REGISTRY_ERROR;
+    }
+  }
+
+  /**
+   * Push the schemas reconciling with the registry's current view. The registry subjects are
+   * fetched in bulk, all the schemas are resolved locally and planned against the latest versions
+   * of their existing subjects, fetched in parallel, then only the delta is registered.
+   *
+   * @param topicAndSchemaRecords the {@link Stream} of {@link TopicAndSchema} records to push.
+   * @param state the {@link FingerprintState} of previous runs, {@code null} if not used.
+   * @param loader the {@link SchemaFileLoader} for reading the schema files.
+   * @return a {@link ReturnCode} member.
+   */
+  private ReturnCode pushWithReconcile(
+      final Stream<TopicAndSchema> topicAndSchemaRecords,
+      @Nullable final FingerprintState state,
+      final SchemaFileLoader loader) {
+    try {
+      var reconciler = new AvroRegistryReconciler(registryClient());
+      var pushFailed = new AtomicBoolean();
+      var failureHandler = AvroPushSupport.createFailureHandler(pushFailed);
+      reconciler.fetchSubjects();
+      AvroCompatibilityChecker checker = null;
+      if (checkCompatibility) {
+        checker = new AvroCompatibilityChecker(registryClient());
+        checker.fetchSubjects();
+      }
+      // resolve and plan all the schemas before sending anything
+      var tasks = new ArrayList<AvroPushTask>();
+      var cache = createSchemaCache(loader);
+      try (var executor =
+          support.createExecutor(
+              createPlanStages(reconciler, checker, state, cache), failureHandler)) {
+        topicAndSchemaRecords.forEach(
+            rec -> {
+              var task = support.createTask(rec);
+              tasks.add(task);
+              executor.submit(task);
+            });
+      }
+      AvroPushSupport.logCacheStats(cache);
+      var planned = tasks.stream().filter(t -> !t.failed).toList();
+      if (checkCompatibility && planned.size() < tasks.size()) {
+        LOGGER.severe(
+            () ->
+                String.format(
+                    "%d of %d schemas failed planning or the compatibility check, none registered",
+                    tasks.size() - planned.size(), tasks.size()));
+        return ReturnCode.REGISTRY_ERROR;
+      }
+      var delta =
+          planned.stream()
+              .filter(t -> !t.skipped && t.action != ReconcileAction.UNCHANGED)
+              .toList();
+      LOGGER.info(
+          () ->
+              String.format(
+                  "reconciled %d schemas, %d new, %d new versions, %d unchanged",
+                  planned.size(),
+                  delta.stream().filter(t -> t.action == ReconcileAction.NEW).count(),
+                  delta.stream().filter(t -> t.action == ReconcileAction.NEW_VERSION).count(),
+                  planned.size() - delta.size()));
+      // send only the delta
+      try (var executor =
+          support.createExecutor(createDeltaStages(reconciler, state), failureHandler)) {
+        delta.forEach(executor::submit);
+      }
+      if (prune) {
+        pruneSubjects(reconciler, tasks, state, pushFailed.get());
+      }
+      return pushFailed.get() ? ReturnCode.REGISTRY_ERROR : ReturnCode.SUCCESS;
+    } catch (final Exception exc) {
+      LOGGER.log(Level.SEVERE, exc, () -> "reconciling schemas failed");
+      return ReturnCode.REGISTRY_ERROR;
+    }
+  }
+
+  /**
+   * Utility method for pruning the registry subjects not in the input. Nothing is pruned when the
+   * input is empty or any of its schemas failed, as the subject of a failed schema might not be
+   * known, and would be pruned with the rest.
+   *
+   * @param reconciler the {@link AvroRegistryReconciler} holding the registry subjects.
+   * @param tasks the {@link List} of all the {@link AvroPushTask} instances, failed ones included.
+   * @param state the {@link FingerprintState} for forgetting the pruned subjects, can be {@code
+   *     null}.
+   * @param pushFailed true if any of the schemas failed planning or registering.
+   * @throws IOException when failed to communicate with the registry.
+   * @throws RestClientException when the registry rejected deleting a subject.
+   */
+  private void pruneSubjects(
+      final AvroRegistryReconciler reconciler,
+      final List<AvroPushTask> tasks,
+      @Nullable final FingerprintState state,
+      final boolean pushFailed)
+      throws IOException, RestClientException {
+    if (pushFailed || tasks.isEmpty()) {
+      LOGGER.warning(
+          () ->
+              String.format(
+                  "not pruning, %s",
+                  pushFailed ? "some of the schemas failed" : "the input has no schemas"));
+      return;
+    }
+    var inputSubjects = tasks.stream().map(t -> t.subject).filter(Objects::nonNull).toList();
+    for (var subject : reconciler.prunable(inputSubjects)) {
+      reconciler.prune(subject);
+      engine.forget(subject);
+      if (nonNull(state)) {
+        state.forget(subject);
+      }
+      LOGGER.info(() -> String.format("pruned subject '%s'", subject));
+    }
+  }
+
+  /**
+   * Utility method for creating the push pipeline stages preceding the registration, reading the
+   * schema files, parsing them, and resolving their fingerprints and subjects.
+   *
+   * @param registry the {@link AsyncRegistryClient} for registering ahead, {@code null} if not
+   *     used.
+   * @param state the {@link FingerprintState} for skipping unchanged schemas, can be {@code null}.
+   * @param cache the {@link AvroSchemaCache} for loading each distinct schema once.
+   * @return a {@link List} of {@link PushExecutor.Stage} records.
+   */
+  private List<PushExecutor.Stage<AvroPushTask>> createResolveStages(
+      @Nullable final AsyncRegistryClient registry,
+      @Nullable final FingerprintState state,
+      final AvroSchemaCache cache) {
+    return List.of(
+        support.createCachedReadStage(cache),
+        support.createCachedParseStage(cache),
+        new PushExecutor.Stage<>(
+            PipelineStage.RESOLVE,
+            support.width(PipelineStage.RESOLVE),
+            task -> {
+              task.subject =
+                  engine.subjectOf(task.topicAndSchema.topic(), task.avroSchema.rawSchema());
+              task.skipped = nonNull(state) && state.contains(task.subject, task.fingerprint);
+              if (!task.skipped && nonNull(registry) && support.isRegistryAvailable()) {
+                // start the registration without blocking, the registering stage joins it, or
+                // registers it through the breaker if the registry was found down
+                registry.registerAsync(task.subject, task.avroSchema);
+              }
+            }));
+  }
+
+  /**
+   * Utility method for creating the push pipeline stage registering the schemas.
+   *
+   * @param registration the {@link Registration} registering each schema.
+   * @param state the {@link FingerprintState} for recording the registered schemas, can be {@code
+   *     null}.
+   * @return a {@link PushExecutor.Stage} record.
+   */
+  private PushExecutor.Stage<AvroPushTask> createRegisterStage(
+      final Registration registration, @Nullable final FingerprintState state) {
+    return new PushExecutor.Stage<>(
+        PipelineStage.REGISTER,
+        support.width(PipelineStage.REGISTER),
+        task -> {
+          if (task.skipped) {
+            AvroPushSupport.logSkipped(task);
+            return;
+          }
+          task.id = registration.register(task);
+          if (nonNull(state)) {
+            state.record(task.subject, task.fingerprint, task.id);
+          }
+          AvroPushSupport.recordRegistered(task);
+          LOGGER.info(
+              () ->
+                  String.format(
+                      "registered subject '%s' with fingerprint '%016x' on thread '%s'",
+                      task.subject, task.fingerprint, Thread.currentThread().getName()));
+        });
+  }
+
+  /**
+   * Utility method for creating the stage checking the schemas compatibility. The stage uses the
+   * registering stage width, as it mostly waits on the registry as well.
+   *
+   * @param checker the {@link AvroCompatibilityChecker} to check with.
+   * @return a {@link PushExecutor.Stage} record.
+   */
+  private PushExecutor.Stage<AvroPushTask> createCheckStage(
+      final AvroCompatibilityChecker checker) {
+    return new PushExecutor.Stage<>(
+        PipelineStage.REGISTER,
+        support.width(PipelineStage.REGISTER),
+        task -> {
+          // schemas known to the state file are not registered, no need to check them
+          if (!task.skipped) {
+            checker.check(task);
+          }
+        });
+  }
+
+  /**
+   * Utility method for creating the stages planning the reconciliation, reading and parsing the
+   * schema files, resolving their fingerprints and subjects, and fetching the latest versions of
+   * the existing subjects. The fetching stage uses the registering stage width, as it mostly waits
+   * on the registry as well.
+   *
+   * @param reconciler the {@link AvroRegistryReconciler} to plan with.
+   * @param checker the {@link AvroCompatibilityChecker} for checking the new versions, {@code null}
+   *     if not checking.
+   * @param state the {@link FingerprintState} for skipping unchanged schemas, can be {@code null}.
+   * @param cache the {@link AvroSchemaCache} for loading each distinct schema once.
+   * @return a {@link List} of {@link PushExecutor.Stage} records.
+   */
+  private List<PushExecutor.Stage<AvroPushTask>> createPlanStages(
+      final AvroRegistryReconciler reconciler,
+      @Nullable final AvroCompatibilityChecker checker,
+      @Nullable final FingerprintState state,
+      final AvroSchemaCache cache) {
+    return List.of(
+        support.createCachedReadStage(cache),
+        support.createCachedParseStage(cache),
+        new PushExecutor.Stage<>(
+            PipelineStage.RESOLVE,
+            support.width(PipelineStage.RESOLVE),
+            task -> {
+              task.subject =
+                  engine.subjectOf(task.topicAndSchema.topic(), task.avroSchema.rawSchema());
+              task.skipped = nonNull(state) && state.contains(task.subject, task.fingerprint);
+            }),
+        new PushExecutor.Stage<>(
+            PipelineStage.REGISTER,
+            support.width(PipelineStage.REGISTER),
+            task -> {
+              // schemas known to the state file need no fetching, unless their subject is gone
+              // from the registry, its view wins over the state file
+              if (task.skipped && reconciler.exists(task.subject)) {
+                AvroPushSupport.logSkipped(task);
+                return;
+              }
+              task.skipped = false;
+              reconciler.plan(task);
+              if (task.action == ReconcileAction.UNCHANGED) {
+                if (nonNull(state)) {
+                  state.record(task.subject, task.fingerprint, task.id);
+                }
+                AvroPushSupport.logSkipped(task);
+              } else if (task.action == ReconcileAction.NEW_VERSION && nonNull(checker)) {
+                // checked against the latest version the planning just fetched
+                checker.check(task);
+              }
+            }));
+  }
+
+  /**
+   * Utility method for creating the stage registering the reconciliation delta.
+   *
+   * @param reconciler the {@link AvroRegistryReconciler} to register with.
+   * @param state the {@link FingerprintState} for recording the registered schemas, can be {@code
+   *     null}.
+   * @return a {@link List} of {@link PushExecutor.Stage} records.
+   */
+  private List<PushExecutor.Stage<AvroPushTask>> createDeltaStages(
+      final AvroRegistryReconciler reconciler, @Nullable final FingerprintState state) {
+    return List.of(
+        new PushExecutor.Stage<>(
+            PipelineStage.REGISTER,
+            support.width(PipelineStage.REGISTER),
+            task -> {
+              reconciler.register(task);
+              if (nonNull(state)) {
+                state.record(task.subject, task.fingerprint, task.id);
+              }
+              AvroPushSupport.recordRegistered(task);
+              LOGGER.info(
+                  () ->
+                      String.format(
+                          "registered %s subject '%s' with fingerprint '%016x'",
+                          task.action == ReconcileAction.NEW ? "new" : "a new version of",
+                          task.subject,
+                          task.fingerprint));
+            }));
+  }
+
+  /**
+   * Utility method for creating the stages reading the schema files and scanning them for the named
+   * types they define and use.
+   *
+   * @param loader the {@link SchemaFileLoader} for reading the schema files.
+   * @return a {@link List} of {@link PushExecutor.Stage} records.
+   */
+  private List<PushExecutor.Stage<AvroPushTask>> createScanStages(final SchemaFileLoader loader) {
+    return List.of(
+        support.createReadStage(loader),
+        new PushExecutor.Stage<>(
+            PipelineStage.PARSE, support.width(PipelineStage.PARSE), AvroReferenceGraph::scan));
+  }
+
+  /**
+   * Utility method for creating the stages registering a dependency wave, parsing each schema with
+   * the types already parsed for its dependencies, resolving its references, and registering it
+   * directly with the registry, as the serializer can not carry schema references.
+   *
+   * @param registry the {@link SchemaRegistryClient} to register the schemas with.
+   * @param state the {@link FingerprintState} for skipping unchanged schemas, can be {@code null}.
+   * @return a {@link List} of {@link PushExecutor.Stage} records.
+   */
+  private List<PushExecutor.Stage<AvroPushTask>> createReferenceStages(
+      final SchemaRegistryClient registry, @Nullable final FingerprintState state) {
+    return List.of(
+        new PushExecutor.Stage<>(
+            PipelineStage.PARSE,
+            support.width(PipelineStage.PARSE),
+            task -> {
+              var depTypes = new HashMap<String, Schema>();
+              for (var dep : task.dependencies) {
+                if (dep.failed) {
+                  throw new IllegalStateException(
+                      String.format("dependency '%s' failed", dep.fileName()));
+                }
+                depTypes.putAll(dep.types);
+              }
+              // a type inlined by the file itself takes precedence over a shared one
+              depTypes.keySet().removeAll(task.definedNames);
+              var parser = new Parser();
+              parser.addTypes(depTypes);
+              task.schemaString = new String(task.content, StandardCharsets.UTF_8);
+              task.content = null;
+              task.schema = parser.parse(task.schemaString);
+              task.types = Map.copyOf(parser.getTypes());
+            }),
+        new PushExecutor.Stage<>(
+            PipelineStage.RESOLVE,
+            support.width(PipelineStage.RESOLVE),
+            task -> {
+              var references = new ArrayList<SchemaReference>();
+              for (var dep : task.dependencies) {
+                references.add(
+                    new SchemaReference(dep.schema.getFullName(), dep.subject, dep.version));
+              }
+              var resolvedReferences = new LinkedHashMap<String, String>();
+              for (var dep : AvroReferenceGraph.transitive(task.dependencies)) {
+                resolvedReferences.put(dep.schema.getFullName(), dep.schemaString);
+              }
+              task.avroSchema =
+                  new AvroSchema(task.schemaString, references, resolvedReferences, null);
+              task.fingerprint = SchemaNormalization.parsingFingerprint64(task.schema);
+              task.subject =
+                  engine.subjectOf(task.topicAndSchema.topic(), task.avroSchema.rawSchema());
+              task.skipped = nonNull(state) && state.contains(task.subject, task.fingerprint);
+            }),
+        new PushExecutor.Stage<>(
+            PipelineStage.REGISTER,
+            support.width(PipelineStage.REGISTER),
+            task -> {
+              if (task.skipped) {
+                AvroPushSupport.logSkipped(task);
+              } else {
+                task.id = registry.register(task.subject, task.avroSchema);
+                if (nonNull(state)) {
+                  state.record(task.subject, task.fingerprint, task.id);
+                }
+                AvroPushSupport.recordRegistered(task);
+              }
+              // only the versions of referenced subjects are needed, skipped ones included
+              if (task.referenced) {
+                task.version = registry.getVersion(task.subject, task.avroSchema);
+              }
+              if (task.skipped) {
+                return;
+              }
+              LOGGER.info(
+                  () ->
+                      String.format(
+                          "registered subject '%s' with fingerprint '%016x' and %d references",
+                          task.subject, task.fingerprint, task.dependencies.size()));
+            }));
+  }
+
+  /**
+   * Utility method for getting the registry client, created on first use.
+   *
+   * @return the {@link SchemaRegistryClient} instance.
+   */
+  private synchronized SchemaRegistryClient registryClient() {
+    if (isNull(registryClient)) {
+      LOGGER.info("loading the registry client");
+      registryClient = components.createRegistryClient(registryProps);
+    }
+    return registryClient;
+  }
+
+  /**
+   * Utility method for getting the non-blocking registry client, if specified by the user, created
+   * on first use.
+   *
+   * @return the {@link AsyncRegistryClient} instance, {@code null} if not used.
+   */
+  @Nullable
+  private synchronized AsyncRegistryClient asyncRegistry() {
+    if (asyncRegistry && isNull(asyncRegistryClient)) {
+      LOGGER.info("loading the non-blocking registry client");
+      asyncRegistryClient =
+          new AsyncRegistryClient(
+              components.createRegistryHttpClient(),
+              registryProps,
+              gzipThreshold,
+              support.getLimiter());
+    }
+    return asyncRegistryClient;
+  }
+
+  /**
+   * Utility method for getting the producer, created on first use.
+   *
+   * @param registry the {@link AsyncRegistryClient} to hand over to the serializer, {@code null} if
+   *     not used.
+   * @return the {@link SchemaProducer} instance.
+   */
+  private synchronized SchemaProducer<String, IndexedRecord> producer(
+      @Nullable final AsyncRegistryClient registry) {
+    if (isNull(producer)) {
+      LOGGER.info("loading the producer");
+      producer = components.createProducer(createProducerProps(registry));
+    }
+    return producer;
+  }
+
+  /**
+   * Utility method for creating the schema cache of a push, sharing the parsed contents kept
+   * between pushes. The kept contents are dropped once too many, so a long-running process does not
+   * grow without bounds.
+   *
+   * @param loader the {@link SchemaFileLoader} for reading the schema files.
+   * @return the {@link AvroSchemaCache} instance.
+   */
+  private AvroSchemaCache createSchemaCache(final SchemaFileLoader loader) {
+    if (parsedContents.size() > MAX_KEPT_CONTENTS) {
+      parsedContents.clear();
+    }
+    return new AvroSchemaCache(loader, parsedContents);
+  }
+
+  /**
+   * Utility method for extracting the registry id from a serialized value, the id follows the magic
+   * byte.
+   *
+   * @param serialized the serialized value, can be {@code null}.
+   * @return the registry id, or -1 if not available.
+   */
+  private static int schemaIdOf(@Nullable final byte[] serialized) {
+    return nonNull(serialized) && serialized.length > Integer.BYTES
+        ? ByteBuffer.wrap(serialized, 1, Integer.BYTES).getInt()
+        : -1;
+  }
+
+  /**
+   * Utility method for creating the set of properties to be used by the registry clients.
    *
    * @param cli the {@link PushCli} instance for creating the {@link Properties} instance with.
    * @return an instance of {@link Properties}.
    */
-  private Properties createProps(final PushCli cli) {
+  private static Properties createRegistryProps(final PushCli cli) {
     // get info from the cli
-    var kafkaBootstrapUrl = cleanUrlEnd.apply(cli.getKafkaBootstrap());
     var registryUrl = cleanUrlEnd.andThen(concatConfluentMap).apply(cli.getServiceRegistry());
     var namingStrategy = cli.getNamingStrategy();
     var propertyAggregators = cli.getPropertyAggregators();
-    var truststoreInfo = cli.getTruststoreInfo();
-    var keystoreInfo = cli.getKeystoreInfo();
     // create, populate, and return the properties instance
     var props = new Properties();
-    // standard configuration (can be replaced with custom properties by the user)
-    props.put(ProducerConfig.ACKS_CONFIG, "all");
-    props.put(ProducerConfig.RETRIES_CONFIG, 0);
     // if supplied properties info
     if (nonNull(propertyAggregators)) {
-      // add custom producer properties set by the user
+      // add custom properties set by the user
       propertyAggregators.forEach(agg -> props.put(agg.getPropertyKey(), agg.getPropertyValue()));
     }
     // the rest of the values will overwrite custom properties set by the user
-    // set the kafka bootstrap and rh service registry urls
-    props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapUrl);
+    // set the rh service registry url
     props.put(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, registryUrl);
+    // set the number of stripes the registry client spreads the subjects over
+    props.put(
+        StripedRegistryClient.STRIPES_CONFIG,
+        cli.getRegistryStripes() > 0
+            ? cli.getRegistryStripes()
+            : StripedRegistryClient.DEFAULT_STRIPES);
+    // set selected naming strategy
+    props.put(
+        AbstractKafkaSchemaSerDeConfig.VALUE_SUBJECT_NAME_STRATEGY, namingStrategy.getStrategy());
+    return props;
+  }
+
+  /**
+   * Utility method for creating the set of properties to be used by the producer, the registry
+   * properties with the Kafka configuration on top.
+   *
+   * @param registry the {@link AsyncRegistryClient} to hand over to the serializer, {@code null} if
+   *     not used.
+   * @return an instance of {@link Properties}.
+   */
+  private Properties createProducerProps(@Nullable final AsyncRegistryClient registry) {
+    var props = new Properties();
+    // standard configuration (can be replaced with custom properties by the user)
+    props.put(ProducerConfig.ACKS_CONFIG, "all");
+    props.put(ProducerConfig.RETRIES_CONFIG, 0);
+    props.putAll(registryProps);
+    // set the kafka bootstrap url
+    props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaBootstrapUrl);
     // use the string serializer for the keys
     props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
     // use custom serializer for only serializing the schema and not the object
     props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, AvroCustomSerializer.class);
-    // set selected naming strategy
-    props.put(
-        AbstractKafkaSchemaSerDeConfig.VALUE_SUBJECT_NAME_STRATEGY, namingStrategy.getStrategy());
+    // hand over the non-blocking registry client to the serializer
+    if (nonNull(registry)) {
+      props.put(AvroCustomSerializer.SCHEMA_REGISTRY_CLIENT_CONFIG, registry);
+    }
     // if the bootstrap server is secured
     if (isSecured(kafkaBootstrapUrl)) {
       // set SSL as the protocol
@@ -132,26 +881,62 @@ private Properties createProps(final PushCli cli) {
       // if supplied truststore info
       if (nonNull(truststoreInfo)) {
         var truststoreFile = truststoreInfo.getTruststoreFile();
+        var truststoreBase64 = truststoreInfo.getTruststoreBase64();
         var truststorePassword = truststoreInfo.getTruststorePassword();
         if (nonNull(truststoreFile) && nonNull(truststorePassword)) {
           // set truststore configuration
           props.put(SslConfigs.SSL_TRUSTSTORE_LOCATION_CONFIG, truststoreFile);
           props.put(SslConfigs.SSL_TRUSTSTORE_PASSWORD_CONFIG, truststorePassword);
           props.put(SslConfigs.SSL_TRUSTSTORE_TYPE_CONFIG, STORE_TYPE_PKCS12);
+        } else if (nonNull(truststoreBase64) && nonNull(truststorePassword)) {
+          // set the truststore certificates inline, the store is only decoded in memory
+          var truststore = loadInlineStore(truststoreBase64, truststorePassword);
+          props.put(
+              SslConfigs.SSL_TRUSTSTORE_CERTIFICATES_CONFIG,
+              new Password(truststore.getCertificates()));
+          props.put(SslConfigs.SSL_TRUSTSTORE_TYPE_CONFIG, STORE_TYPE_PEM);
         }
       }
       // if supplied keystore info
       if (nonNull(keystoreInfo)) {
         var keystoreFile = keystoreInfo.getKeystoreFile();
+        var keystoreBase64 = keystoreInfo.getKeystoreBase64();
         var keystorePassword = keystoreInfo.getKeystorePassword();
         if (nonNull(keystoreFile) && nonNull(keystorePassword)) {
           // set keystore configuration
           props.put(SslConfigs.SSL_KEYSTORE_LOCATION_CONFIG, keystoreFile);
           props.put(SslConfigs.SSL_KEYSTORE_PASSWORD_CONFIG, keystorePassword);
           props.put(SslConfigs.SSL_KEYSTORE_TYPE_CONFIG, STORE_TYPE_PKCS12);
+        } else if (nonNull(keystoreBase64) && nonNull(keystorePassword)) {
+          // set the keystore key and chain inline, the store is only decoded in memory
+          var keystore = loadInlineStore(keystoreBase64, keystorePassword);
+          if (isNull(keystore.getPrivateKey())) {
+            throw new UncheckedIOException(new IOException("the keystore has no private key"));
+          }
+          props.put(
+              SslConfigs.SSL_KEYSTORE_CERTIFICATE_CHAIN_CONFIG,
+              new Password(keystore.getCertificateChain()));
+          props.put(SslConfigs.SSL_KEYSTORE_KEY_CONFIG, new Password(keystore.getPrivateKey()));
+          props.put(SslConfigs.SSL_KEYSTORE_TYPE_CONFIG, STORE_TYPE_PEM);
         }
       }
     }
     return props;
   }
+
+  /**
+   * Utility method for loading a base64 encoded pkcs12 store in memory.
+   *
+   * @param base64 the {@link String} encoded store, environment variable, or file.
+   * @param password the {@link String} password for the store.
+   * @return the loaded {@link InlineKeyStore}.
+   * @throws UncheckedIOException when failed to decode or load the store.
+   */
+  private static InlineKeyStore loadInlineStore(final String base64, final String password) {
+    try {
+      return new InlineKeyStore(new Base64Input(base64), password);
+    } catch (final IOException exc) {
+      throw new UncheckedIOException(exc);
+    }
+  }
 }
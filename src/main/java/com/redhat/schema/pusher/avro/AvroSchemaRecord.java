@@ -0,0 +1,31 @@
+package com.redhat.schema.pusher.avro;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import org.apache.avro.generic.GenericData;
+
+/**
+ * A schema record carrying its {@link AvroSchema}, so the serializer can reuse the schema and its
+ * canonical string instead of rebuilding them for every topic the record is produced to.
+ */
+final class AvroSchemaRecord extends GenericData.Record {
+  private final AvroSchema avroSchema;
+
+  /**
+   * Constructor takes the schema of the record.
+   *
+   * @param setAvroSchema the {@link AvroSchema} of the record.
+   */
+  AvroSchemaRecord(final AvroSchema setAvroSchema) {
+    super(setAvroSchema.rawSchema());
+    this.avroSchema = setAvroSchema;
+  }
+
+  /**
+   * Get the schema of the record.
+   *
+   * @return the {@link AvroSchema} of the record.
+   */
+  AvroSchema getAvroSchema() {
+    return this.avroSchema;
+  }
+}
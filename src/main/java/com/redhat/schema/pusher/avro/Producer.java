@@ -4,5 +4,5 @@
 import org.apache.kafka.clients.producer.ProducerRecord;
 
 public interface Producer<K, V> extends Closeable {
-  void send(ProducerRecord<K, V> record);
+  byte[] send(ProducerRecord<K, V> record);
 }
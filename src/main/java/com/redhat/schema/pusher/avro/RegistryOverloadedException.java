@@ -0,0 +1,37 @@
+package com.redhat.schema.pusher.avro;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import java.time.Duration;
+
+/**
+ * A {@link RestClientException} for the registry rejecting a request for overload, carrying the
+ * delay the registry asked to wait before retrying.
+ */
+final class RegistryOverloadedException extends RestClientException {
+  private static final long serialVersionUID = 1L;
+
+  private final Duration retryAfter;
+
+  /**
+   * Constructor takes the registry error and the delay to wait.
+   *
+   * @param message the {@link String} error message.
+   * @param status the http status code.
+   * @param errorCode the registry error code.
+   * @param setRetryAfter the {@link Duration} to wait before retrying, zero if not specified.
+   */
+  RegistryOverloadedException(
+      final String message, final int status, final int errorCode, final Duration setRetryAfter) {
+    super(message, status, errorCode);
+    this.retryAfter = setRetryAfter;
+  }
+
+  /**
+   * Get the delay the registry asked to wait before retrying.
+   *
+   * @return the retry after {@link Duration}, zero if not specified.
+   */
+  Duration getRetryAfter() {
+    return retryAfter;
+  }
+}
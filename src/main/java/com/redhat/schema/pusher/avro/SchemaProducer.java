@@ -13,9 +13,7 @@
 import org.apache.kafka.common.utils.LogContext;
 import org.apache.kafka.common.utils.Utils;
 import org.slf4j.Logger;
-import org.springframework.stereotype.Component;
 
-@Component
 public class SchemaProducer<K, V> implements Producer<K, V> {
 
   private ProducerConfig producerConfig;
@@ -110,7 +108,7 @@ else if (newConfigs.get(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG) == null)
     return newConfigs;
   }
 
-  public void send(ProducerRecord<K, V> record) {
+  public byte[] send(ProducerRecord<K, V> record) {
     try {
       keySerializer.serialize(record.topic(), record.headers(), record.key());
     } catch (ClassCastException cce) {
@@ -123,7 +121,7 @@ public void send(ProducerRecord<K, V> record) {
           cce);
     }
     try {
-      valueSerializer.serialize(record.topic(), record.headers(), record.value());
+      return valueSerializer.serialize(record.topic(), record.headers(), record.value());
     } catch (ClassCastException cce) {
       throw new SerializationException(
           "Can't convert value of class "
@@ -0,0 +1,242 @@
+package com.redhat.schema.pusher.avro;
+
+import static java.util.Objects.isNull;
+
+import com.redhat.schema.pusher.PushMetrics;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchemaProvider;
+import io.confluent.kafka.schemaregistry.client.CachedSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.IntStream;
+
+/**
+ * Registry client spreading the subjects over a fixed set of Confluent clients, the stripes. The
+ * Confluent client guards its registering and lookup paths with a single monitor, so a shared
+ * instance registers one schema at a time; with each subject bound to a stripe, unrelated subjects
+ * register in parallel while the registrations of a subject stay ordered on its stripe.
+ *
+ * <p>The ids and versions are cached in concurrent maps in front of the stripes, a cache hit takes
+ * no lock, and identical requests in flight are coalesced into one, the callers joining the thread
+ * sending it. A failed request is not cached. The rest of the operations are left to the Confluent
+ * client.
+ */
+final class StripedRegistryClient extends CachedSchemaRegistryClient {
+  /** Config key for the number of stripes, read from the producer properties. */
+  static final String STRIPES_CONFIG = "schema.pusher.registry.stripes";
+
+  static final int DEFAULT_STRIPES = 16;
+
+  // the confluent client throws for any other status, successful calls are recorded as ok
+  private static final int HTTP_OK = 200;
+
+  private final List<? extends SchemaRegistryClient> stripes;
+  private final ConcurrentMap<Request, CompletableFuture<Integer>> ids = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Request, CompletableFuture<Integer>> lookups =
+      new ConcurrentHashMap<>();
+  private final ConcurrentMap<Request, CompletableFuture<Integer>> versions =
+      new ConcurrentHashMap<>();
+  private final ConcurrentMap<Integer, CompletableFuture<ParsedSchema>> schemas =
+      new ConcurrentHashMap<>();
+
+  /* The key coalescing identical requests. */
+  private record Request(
+      String subject, String schema, List<SchemaReference> references, boolean normalize) {
+    Request(final String subject, final ParsedSchema schema, final boolean normalize) {
+      this(subject, schema.canonicalString(), schema.references(), normalize);
+    }
+  }
+
+  /* A blocking call to a stripe. */
+  @FunctionalInterface
+  private interface StripeCall<T> {
+    T call() throws IOException, RestClientException;
+  }
+
+  /**
+   * Constructor configures the client and its stripes the same way the serializer configures its
+   * own client, the number of stripes is read from the {@value #STRIPES_CONFIG} key.
+   *
+   * @param config the {@link KafkaAvroSerializerConfig} created from the producer properties.
+   */
+  StripedRegistryClient(final KafkaAvroSerializerConfig config) {
+    this(
+        config,
+        IntStream.range(0, stripesOf(config.originals()))
+            .mapToObj(i -> createClient(config))
+            .toList());
+  }
+
+  /**
+   * Constructor configures the client the same way the serializer configures its own client, and
+   * takes the stripes.
+   *
+   * @param config the {@link KafkaAvroSerializerConfig} created from the producer properties.
+   * @param setStripes the {@link List} of {@link SchemaRegistryClient} stripes, at least one.
+   */
+  StripedRegistryClient(
+      final KafkaAvroSerializerConfig config,
+      final List<? extends SchemaRegistryClient> setStripes) {
+    super(
+        config.getSchemaRegistryUrls(),
+        AbstractKafkaSchemaSerDeConfig.MAX_SCHEMAS_PER_SUBJECT_DEFAULT,
+        List.of(new AvroSchemaProvider()),
+        config.originals(),
+        Map.of());
+    if (setStripes.isEmpty()) {
+      throw new IllegalArgumentException("at least one stripe is required");
+    }
+    this.stripes = List.copyOf(setStripes);
+  }
+
+  @Override
+  public int register(
+      final String subject, final ParsedSchema schema, final boolean normalizeSchema)
+      throws IOException, RestClientException {
+    return coalesce(
+        ids,
+        new Request(subject, schema, normalizeSchema),
+        "register",
+        () -> stripeOf(subject).register(subject, schema, normalizeSchema));
+  }
+
+  @Override
+  public int getId(final String subject, final ParsedSchema schema, final boolean normalizeSchema)
+      throws IOException, RestClientException {
+    return coalesce(
+        lookups,
+        new Request(subject, schema, normalizeSchema),
+        "lookup",
+        () -> stripeOf(subject).getId(subject, schema, normalizeSchema));
+  }
+
+  @Override
+  public int getVersion(
+      final String subject, final ParsedSchema schema, final boolean normalizeSchema)
+      throws IOException, RestClientException {
+    return coalesce(
+        versions,
+        new Request(subject, schema, normalizeSchema),
+        "version",
+        () -> stripeOf(subject).getVersion(subject, schema, normalizeSchema));
+  }
+
+  @Override
+  public ParsedSchema getSchemaById(final int id) throws IOException, RestClientException {
+    return coalesce(
+        schemas,
+        id,
+        "schema",
+        () -> stripes.get(Math.floorMod(id, stripes.size())).getSchemaById(id));
+  }
+
+  @Override
+  public List<Integer> deleteSubject(final String subject) throws IOException, RestClientException {
+    // the confluent client's one-arg form would bypass the two-arg form and its invalidation
+    return deleteSubject(subject, false);
+  }
+
+  @Override
+  public List<Integer> deleteSubject(final String subject, final boolean isPermanent)
+      throws IOException, RestClientException {
+    ids.keySet().removeIf(r -> r.subject().equals(subject));
+    lookups.keySet().removeIf(r -> r.subject().equals(subject));
+    versions.keySet().removeIf(r -> r.subject().equals(subject));
+    return stripeOf(subject).deleteSubject(subject, isPermanent);
+  }
+
+  @Override
+  public synchronized void reset() {
+    ids.clear();
+    lookups.clear();
+    versions.clear();
+    schemas.clear();
+    stripes.forEach(SchemaRegistryClient::reset);
+    super.reset();
+  }
+
+  /**
+   * Get the number of stripes the subjects are spread over.
+   *
+   * @return the number of stripes.
+   */
+  int stripesCount() {
+    return stripes.size();
+  }
+
+  private SchemaRegistryClient stripeOf(final String subject) {
+    return stripes.get(Math.floorMod(subject.hashCode(), stripes.size()));
+  }
+
+  /**
+   * Get the cached value for a request, or send the request if not cached nor in flight, an
+   * identical request in flight is joined. Only the requests sent are recorded in the metrics.
+   */
+  private static <K, T> T coalesce(
+      final ConcurrentMap<K, CompletableFuture<T>> cache,
+      final K key,
+      final String endpoint,
+      final StripeCall<T> call)
+      throws IOException, RestClientException {
+    var cached = cache.get(key);
+    if (isNull(cached)) {
+      var sent = new CompletableFuture<T>();
+      cached = cache.putIfAbsent(key, sent);
+      if (isNull(cached)) {
+        var start = System.nanoTime();
+        try {
+          var value = call.call();
+          PushMetrics.recordRegistryCall(endpoint, HTTP_OK, System.nanoTime() - start);
+          sent.complete(value);
+          return value;
+        } catch (final Exception exc) {
+          PushMetrics.recordRegistryCall(
+              endpoint,
+              exc instanceof RestClientException rce
+                  ? rce.getStatus()
+                  : PushMetrics.STATUS_NO_RESPONSE,
+              System.nanoTime() - start);
+          cache.remove(key, sent);
+          sent.completeExceptionally(exc);
+          throw exc;
+        }
+      }
+    }
+    try {
+      return cached.join();
+    } catch (final CompletionException exc) {
+      if (exc.getCause() instanceof RestClientException rce) {
+        throw rce;
+      }
+      if (exc.getCause() instanceof IOException ioe) {
+        throw ioe;
+      }
+      throw exc;
+    }
+  }
+
+  private static CachedSchemaRegistryClient createClient(final KafkaAvroSerializerConfig config) {
+    return new CachedSchemaRegistryClient(
+        config.getSchemaRegistryUrls(),
+        AbstractKafkaSchemaSerDeConfig.MAX_SCHEMAS_PER_SUBJECT_DEFAULT,
+        List.of(new AvroSchemaProvider()),
+        config.originals(),
+        Map.of());
+  }
+
+  private static int stripesOf(final Map<String, ?> originals) {
+    var stripes = originals.get(STRIPES_CONFIG);
+    var count = isNull(stripes) ? DEFAULT_STRIPES : Integer.parseInt(stripes.toString());
+    return Math.max(count, 1);
+  }
+}
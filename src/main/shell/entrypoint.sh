@@ -5,23 +5,23 @@ declare -a naming_strategies=("topic" "record" "topic_record")
 
 show_usage() {
   echo ""
-  echo "Tool for decoding base64 schema files and producing Kafka messages for the specified topics."
+  echo "Tool for pushing base64 encoded schema files and producing Kafka messages for the specified topics."
   echo "The schema files will be pushed to Red Hat's service registry via the attached Java application."
   echo "------------------------------------------------------------------------------------------------"
   echo "Usage: -h/--help"
   echo "Usage: [options]"
   echo ""
   echo "Options:"
-  echo "--bootstrap, (mandatory) kafka bootstrap url."
+  echo "--bootstrap, (optional) kafka bootstrap url, registering via the kafka serializer if set."
   echo "--registry, (mandatory) service registry url."
   echo "--strategy, (optional) subject naming strategy, [${naming_strategies[*]}] (default: topic_record)."
   echo "--topic (mandatory), topic/s to push the schemas to (repeatable in correlation with schema)."
-  echo "--schema, (mandatory) base64 encoded schema file (repeatable in correlation with topic)."
+  echo "--schema, (mandatory) base64 encoded schema file, or env:NAME/file:PATH holding it (repeatable in correlation with topic)."
   echo "--propkey, (optional) a string key to set for the producer (repeatable in correlation with propvalue)."
   echo "--propvalue, (optional) a string value to set for the producer (repeatable in correlation with propkey)."
-  echo "--truststore, (optional) base64 encoded pkcs12 truststore for identifying the bootstrap (inclusive with truststorePassword)."
+  echo "--truststore, (optional) base64 encoded pkcs12 truststore, or env:NAME/file:PATH holding it, for identifying the bootstrap (inclusive with truststorePassword)."
   echo "--truststorePassword (optional) password for accessing the pkcs12 truststore (inclusive with truststore)."
-  echo "--keystore, (optional) base64 encoded pkcs12 keystore for identifying to the bootstrap (inclusive with keystorePassword)."
+  echo "--keystore, (optional) base64 encoded pkcs12 keystore, or env:NAME/file:PATH holding it, for identifying to the bootstrap (inclusive with keystorePassword)."
   echo "--keystorePassword (optional) password for accessing the pkcs12 keystore (inclusive with keystore)."
   echo ""
   echo "Example:"
@@ -37,6 +37,8 @@ show_usage() {
   echo "--keystorePassword secretKeystorePassword"
   echo ""
   echo "This should result in each schema file being produced to its respective topic using the specified naming strategy."
+  echo "The values are decoded in memory by the Java application, nothing decoded is written to disk."
+  echo "Any other option is passed to the Java application as is, see its --help for the options."
   echo ""
 }
 
@@ -45,131 +47,39 @@ if [[ ($1 == "--help") || $1 == "-h" ]]; then
   exit 0
 fi
 
-# create a lists for aggregating options
-declare -a topics=() # aggregate topics
-declare -a schemas=() # aggregate schemas
-declare -a propkeys=() # aggregate consumer custom property keys
-declare -a propvalues=() # aggregate consumer custom property values
-
-# iterate over arguments and create named parameters
+# translate the options to the java app's, the base64 values are decoded in memory by the app
+declare -a java_args=()
 while [ $# -gt 0 ]; do
-  if [[ $1 == *"--"* ]]; then
-    param="${1/--/}"
-    if [ "$param" = "topic" ]; then
-      # if argument is topic, add to list
-      topics+=("$2")
-    elif [ "$param" = "schema" ]; then
-      # if argument is schema, add to list
-      schemas+=("$2")
-    elif [ "$param" = "propkey" ]; then
-      # if argument is propkey, add to list
-      propkeys+=("$2")
-    elif [ "$param" = "propvalue" ]; then
-      # if argument is propvalue, add to list
-      propvalues+=("$2")
-    else
-      # else declare it
-      declare "$param"="$2"
-    fi
+  case "$1" in
+    --bootstrap) java_opt="--bootstrap-url" ;;
+    --registry) java_opt="--registry-url" ;;
+    --strategy) java_opt="--naming-strategy" ;;
+    --topic) java_opt="--topic" ;;
+    --schema) java_opt="--schema-base64" ;;
+    --propkey) java_opt="--property-key" ;;
+    --propvalue) java_opt="--property-value" ;;
+    --truststore) java_opt="--truststore-base64" ;;
+    --truststorePassword) java_opt="--truststore-password" ;;
+    --keystore) java_opt="--keystore-base64" ;;
+    --keystorePassword) java_opt="--keystore-password" ;;
+    # pass any other option of the java app as is
+    *) java_args+=("$1"); shift; continue ;;
+  esac
+  # verify the option has a value
+  if [ $# -lt 2 ]; then
+    echo "the ${1/--/} parameter requires a value."
+    show_usage
+    exit 1
   fi
-  shift
+  java_args+=("$java_opt=$2")
+  shift 2
 done
 
-# default named parameters
-strategy=${strategy:-topic_record}
-
-# verify bootstrap
-if [ -z "$bootstrap" ]; then
-  echo "the bootstrap parameter is mandatory."
-  show_usage
-  exit 1
-fi
-
-# verify registry
-if [ -z "$registry" ]; then
-  echo "the registry parameter is mandatory."
-  show_usage
-  exit 1
-fi
-
-# verify supported strategy
-if ! [[ ${naming_strategies[*]} =~ $strategy ]]; then
-  echo "unknown subject naming strategy $strategy."
-  show_usage
-  exit 1
+# use the class data sharing archive created with the image, if any
+declare -a java_opts=()
+if [ -f /app/schema-pusher.jsa ]; then
+  java_opts+=("-XX:SharedArchiveFile=/app/schema-pusher.jsa")
 fi
 
-# verify minimum of 1 topic
-if [ -z "$topics" ]; then
-  echo "at least one topic is required"
-  show_usage
-  exit 1
-fi
-
-# verify minimum of 1 schema
-if [ -z "$schemas" ]; then
-  echo "at least one schema is required"
-  show_usage
-  exit 1
-fi
-
-# verify topics and schema counts are correlated
-if [ "${#topics[@]}" -ne "${#schemas[@]}" ]; then
-  echo "topics and schemas specified doesn't correlate"
-  show_usage
-  exit 1
-fi
-
-# verify property keys and values counts are correlated
-if [ "${#propkeys[@]}" -ne "${#propvalues[@]}" ]; then
-  echo "property keys and values specified doesn't correlate"
-  show_usage
-  exit 1
-fi
-
-# create directory structure
-dest_dir=tmp_schemas
-certs_dir=certs
-mkdir $dest_dir
-mkdir $certs_dir
-
-# create the java command for executing the program
-java_cmd="java -jar /app/schema-pusher-jar-with-dependencies.jar \
---bootstrap-url=$bootstrap --registry-url=$registry --naming-strategy=$strategy"
-
-# iterate over the topics and schemas lists and create the arguments for the app
-for i in "${!topics[@]}"; do
-  # decode the schema based on the current index and save file based on topic name
-  echo "${schemas[$i]}" | base64 --decode - > $dest_dir/"${topics[$i]}".avsc
-  # incorporate topic and schema file into the java command
-  java_cmd+=" --topic=${topics[$i]} --schema-path=$dest_dir/${topics[$i]}.avsc"
-done
-
-for i in "${!propkeys[@]}"; do
-  java_cmd+=" --property-key=${propkeys[$i]} --property-value=${propvalues[$i]}"
-done
-
-# if provided truststore and truststore password
-if [[ -v truststore ]] && [[ -v truststorePassword ]]; then
-  # decode truststore to p12 type file
-  echo "$truststore" | base64 --decode - > $certs_dir/truststore.p12
-  # append the related arguments to the java command
-  java_cmd+=" --truststore-file=$certs_dir/truststore.p12 --truststore-password=$truststorePassword"
-fi
-
-# if provided keystore and keystore password
-if [[ -v keystore ]] && [[ -v keystorePassword ]]; then
-  # decode keystore to p12 type file
-  echo "$keystore" | base64 --decode - > $certs_dir/keystore.p12
-  # append the related arguments to the java command
-  java_cmd+=" --keystore-file=$certs_dir/keystore.p12 --keystore-password=$keystorePassword"
-fi
-
-# execute the java command
-ret_code=$(eval "$java_cmd")
-
-# clean up the destination directory
-rm -r $dest_dir
-
-# exit with the java app's return code
-exit $ret_code
+# replace the shell with the java app, validating the options and exiting with its return code
+exec java "${java_opts[@]}" -jar /app/schema-pusher-jar-with-dependencies.jar "${java_args[@]}"
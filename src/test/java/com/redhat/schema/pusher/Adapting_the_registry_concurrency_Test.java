@@ -0,0 +1,156 @@
+package com.redhat.schema.pusher;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.*;
+import java.util.stream.IntStream;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.*;
+
+/** Test cases for the AIMD limiter adapting the number of registrations in flight. */
+class Adapting_the_registry_concurrency_Test {
+  private static final long LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+  @BeforeAll
+  static void silenceLogger() {
+    // turn off the sut's logger to avoid polluting the build log
+    Logger.getLogger(AdaptiveLimiter.class.getName()).setLevel(Level.OFF);
+  }
+
+  @Test
+  void the_limit_should_grow_additively_while_the_latency_is_stable() throws InterruptedException {
+    // given a limiter starting at 1 capped at 10
+    var sut = new AdaptiveLimiter(1, 10);
+    // when completing 20 calls with a stable latency
+    completeCalls(sut, 20);
+    // then the limit should grow by about one per limit's worth of calls
+    assertThat(sut.getLimit()).isBetween(5, 7);
+    // and should stop growing at the cap
+    completeCalls(sut, 200);
+    assertThat(sut.getLimit()).isEqualTo(10);
+  }
+
+  @Test
+  void a_burst_of_overloads_should_halve_the_limit_once() throws InterruptedException {
+    // given a limiter at its cap of 16, with a latency window long enough to span the burst
+    var sut = new AdaptiveLimiter(16, 16);
+    completeCalls(sut, 10, TimeUnit.SECONDS.toNanos(1));
+    // when 3 calls in flight are rejected for overload together
+    for (var i = 0; i < 3; i++) {
+      sut.acquire();
+    }
+    for (var i = 0; i < 3; i++) {
+      sut.onOverload(Duration.ZERO);
+    }
+    // then the limit should be halved once
+    assertThat(sut.getLimit()).isEqualTo(8);
+    assertThat(sut.getOverloads()).isEqualTo(3);
+    assertThat(sut.getInFlight()).isZero();
+  }
+
+  @Test
+  void a_rising_latency_should_trim_the_limit() throws InterruptedException {
+    // given a limiter at 10 with a stable latency baseline
+    var sut = new AdaptiveLimiter(10, 10);
+    completeCalls(sut, 10);
+    // when the latency climbs well above the baseline
+    for (var i = 0; i < 50; i++) {
+      sut.acquire();
+      sut.onSuccess(LATENCY_NANOS * 10);
+    }
+    // then the limit should be trimmed
+    assertThat(sut.getLimit()).isLessThan(10);
+  }
+
+  @Test
+  void the_calls_in_flight_should_be_capped_by_the_limit() throws Exception {
+    // given a limiter at 2
+    var sut = new AdaptiveLimiter(2, 2);
+    var inFlight = new AtomicInteger();
+    var maxInFlight = new AtomicInteger();
+    // when pushing 20 items through a wrapped registering stage with 8 workers
+    try (var pipeline =
+        new StagedPipeline<>(
+            sut.wrap(
+                List.of(
+                    new PushExecutor.Stage<Integer>(
+                        PipelineStage.REGISTER,
+                        8,
+                        i -> {
+                          maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                          TimeUnit.MILLISECONDS.sleep(5);
+                          inFlight.decrementAndGet();
+                        })),
+                exc -> Optional.empty()),
+            32,
+            (i, e) -> fail("no failures expected", e))) {
+      IntStream.range(0, 20).forEach(pipeline::submit);
+    }
+    // then no more than 2 calls should be in flight at once
+    assertThat(maxInFlight).hasValueLessThanOrEqualTo(2);
+  }
+
+  @Test
+  void an_overload_with_a_retry_after_should_pause_the_calls() throws InterruptedException {
+    // given a limiter with a call rejected asking to retry after 100 ms
+    var sut = new AdaptiveLimiter(4, 4);
+    sut.acquire();
+    sut.onOverload(Duration.ofMillis(100));
+    // when acquiring a permit, then it should wait for the pause to elapse
+    var begin = System.nanoTime();
+    sut.acquire();
+    assertThat(Duration.ofNanos(System.nanoTime() - begin)).isGreaterThan(Duration.ofMillis(80));
+  }
+
+  @Test
+  void trying_to_acquire_should_not_wait_for_a_permit() throws InterruptedException {
+    // given a limiter at 1 with its permit taken
+    var sut = new AdaptiveLimiter(1, 1);
+    assertThat(sut.tryAcquire()).isTrue();
+    // when trying again, then no permit should be taken
+    assertThat(sut.tryAcquire()).isFalse();
+    // and when the call is rejected asking to retry after 100 ms
+    sut.onOverload(Duration.ofMillis(100));
+    // then no permit should be taken until the pause elapses
+    assertThat(sut.tryAcquire()).isFalse();
+    assertThat(sut.remainingPause()).isPositive();
+    TimeUnit.MILLISECONDS.sleep(120);
+    assertThat(sut.remainingPause()).isZero();
+    assertThat(sut.tryAcquire()).isTrue();
+  }
+
+  @Test
+  void the_current_limit_should_be_exposed_as_a_metric() throws Exception {
+    // given a registered limiter
+    var sut = new AdaptiveLimiter(3, 10);
+    sut.registerMBean("test");
+    try {
+      // when reading the limit attribute, then it should be the current limit
+      var name = new ObjectName("com.redhat.schema.pusher:type=AdaptiveLimiter,name=test");
+      assertThat(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Limit"))
+          .isEqualTo(3);
+    } finally {
+      sut.unregisterMBean();
+    }
+  }
+
+  private static void completeCalls(final AdaptiveLimiter limiter, final int calls)
+      throws InterruptedException {
+    completeCalls(limiter, calls, LATENCY_NANOS);
+  }
+
+  private static void completeCalls(
+      final AdaptiveLimiter limiter, final int calls, final long latencyNanos)
+      throws InterruptedException {
+    for (var i = 0; i < calls; i++) {
+      limiter.acquire();
+      limiter.onSuccess(latencyNanos);
+    }
+  }
+}
@@ -16,6 +16,8 @@ class Cli_options_and_utility_methods_Test {
   private static final String FAKE_REGISTRY = "http://fake-redhat-service-registry";
   private static final String FAKE_TOPIC = "faketopic";
   private static final String FAKE_SCHEMA_FILE = "/path/to/schema/file.json";
+  private static final String FAKE_SCHEMA_DIR = "/path/to/schemas";
+  private static final String FAKE_OTHER_SCHEMA_DIR = "/path/to/other/schemas";
   private static final String FAKE_TRUSTSTORE_FILE = "/path/to/truststore.p12";
   private static final String FAKE_TRUSTSTORE_PASSWORD = "hideme123#@!";
   private static final String FAKE_KEYSTORE_FILE = "/path/to/keystore.p12";
@@ -127,15 +129,20 @@ static Stream<Arguments> parsing_all_possible_arguments_combined_should_not_thro
                     "-s=" + FAKE_SCHEMA_FILE));
     // and the default used naming strategy should be TOPIC_RECORD
     assertThat(sut.getNamingStrategy()).isEqualByComparingTo(NamingStrategy.TOPIC_RECORD);
+    // and the default execution mode should be PIPELINE
+    assertThat(sut.getExecutionMode()).isEqualByComparingTo(ExecutionMode.PIPELINE);
   }
 
   @Test
-  void parsing_without_specifying_the_kafka_bootstrap_url_should_throw_an_exception() {
-    assertThatExceptionOfType(CommandLine.MissingParameterException.class)
+  void parsing_without_specifying_the_kafka_bootstrap_url_should_leave_it_unset() {
+    // when parsing without specifying the kafka bootstrap url
+    // then no exceptions should be thrown
+    assertThatNoException()
         .isThrownBy(
             () ->
-                cmd.parseArgs("-r=" + FAKE_REGISTRY, "-t=" + FAKE_TOPIC, "-s=" + FAKE_SCHEMA_FILE))
-        .withMessage("Missing required option: '--bootstrap-url=<kafkaBootstrap>'");
+                cmd.parseArgs("-r=" + FAKE_REGISTRY, "-t=" + FAKE_TOPIC, "-s=" + FAKE_SCHEMA_FILE));
+    // and the kafka bootstrap url should not be set
+    assertThat(sut.getKafkaBootstrap()).isNull();
   }
 
   @Test
@@ -151,7 +158,229 @@ void parsing_without_specifying_the_registry_url_should_throw_an_exception() {
   void parsing_without_specifying_a_topic_and_a_schema_path_should_throw_an_exception() {
     assertThatExceptionOfType(CommandLine.MissingParameterException.class)
         .isThrownBy(() -> cmd.parseArgs("-b=" + FAKE_BOOTSTRAP, "-r=" + FAKE_REGISTRY))
-        .withMessage("Error: Missing required argument(s): (-t=<topic> -s=<schemaPath>)");
+        .withMessage(
+            "Error: Missing required argument (specify one of these): ((-t=<topic> (-s=<schemaPath>"
+                + " | --sb=<schemaBase64>))... | (-d=<schemaDirs> [-d=<schemaDirs>]..."
+                + " [--include=<includeGlobs>]... [--exclude=<excludeGlobs>]..."
+                + " [--topic-template=<topicTemplate>] [--watch]"
+                + " [--watch-debounce=<watchDebounce>]) | (-m=<manifest>"
+                + " [--manifest-format=<manifestFormat>]) | (-a=<archive>"
+                + " [--archive-include=<includeGlobs>]..."
+                + " [--archive-topic-template=<topicTemplate>]) | (--serve-port=<servePort>"
+                + " [--serve-address=<serveAddress>] [--max-jobs=<maxJobs>]))");
+  }
+
+  @Test
+  void parsing_with_base64_encoded_schemas_and_stores_should_aggregate_them() {
+    // when parsing the command line args with encoded inputs instead of files
+    cmd.parseArgs(
+        "-r=" + FAKE_REGISTRY,
+        "-t=" + FAKE_TOPIC,
+        "--schema-base64=e30=",
+        "-t=othertopic",
+        "-s=" + FAKE_SCHEMA_FILE,
+        "--truststore-base64=env:TRUSTSTORE",
+        "--tp=" + FAKE_TRUSTSTORE_PASSWORD,
+        "--kb=file:/path/to/keystore.b64",
+        "--kp=" + FAKE_KEYSTORE_PASSWORD);
+    // then the encoded schema and the schema path should be aggregated per topic
+    assertThat(sut.getTopicSchemaAggregators())
+        .extracting("topic", "schemaPath", "schemaBase64")
+        .containsExactly(
+            tuple(FAKE_TOPIC, null, "e30="),
+            tuple("othertopic", Paths.get(FAKE_SCHEMA_FILE), null));
+    // and the encoded stores should be aggregated instead of the files
+    assertThat(sut.getTruststoreInfo().getTruststoreBase64()).isEqualTo("env:TRUSTSTORE");
+    assertThat(sut.getTruststoreInfo().getTruststoreFile()).isNull();
+    assertThat(sut.getKeystoreInfo().getKeystoreBase64()).isEqualTo("file:/path/to/keystore.b64");
+    assertThat(sut.getKeystoreInfo().getKeystoreFile()).isNull();
+  }
+
+  @Test
+  void parsing_with_an_archive_should_aggregate_the_archive_info() {
+    // when parsing the command line args with an archive read from the standard input
+    cmd.parseArgs(
+        "-r=" + FAKE_REGISTRY,
+        "-a=-",
+        "--archive-include=schemas/**.avsc",
+        "--archive-include=*.avsc");
+    // then the archive info should be aggregated and no other source should be specified
+    var archiveInfo = sut.getArchiveInfo();
+    assertThat(archiveInfo).isNotNull();
+    assertThat(archiveInfo.getArchive()).isEqualTo("-");
+    assertThat(archiveInfo.getIncludeGlobs()).containsExactly("schemas/**.avsc", "*.avsc");
+    assertThat(archiveInfo.getTopicTemplate()).isEqualTo("{name}");
+    assertThat(sut.getDirectoryInfo()).isNull();
+    assertThat(sut.getManifestInfo()).isNull();
+  }
+
+  @Test
+  void parsing_with_a_serve_port_should_aggregate_the_serve_info() {
+    // when parsing the command line args with a serve port instead of schemas
+    cmd.parseArgs("-r=" + FAKE_REGISTRY, "--serve-port=8080", "--max-jobs=4");
+    // then the serve info should be aggregated and no schemas should be specified
+    assertThat(sut.getServeInfo()).isNotNull();
+    assertThat(sut.getServeInfo().getServePort()).isEqualTo(8080);
+    assertThat(sut.getServeInfo().getMaxJobs()).isEqualTo(4);
+    // and the jobs should be served on the loopback only by default
+    assertThat(sut.getServeInfo().getServeAddress()).isEqualTo("127.0.0.1");
+    assertThat(sut.getTopicSchemaAggregators()).isNull();
+    assertThat(sut.getManifestInfo()).isNull();
+  }
+
+  @Test
+  void parsing_with_both_a_serve_port_and_a_topic_should_throw_an_exception() {
+    assertThatExceptionOfType(CommandLine.MutuallyExclusiveArgsException.class)
+        .isThrownBy(
+            () ->
+                cmd.parseArgs(
+                    "-r=" + FAKE_REGISTRY,
+                    "--serve-port=8080",
+                    "-t=" + FAKE_TOPIC,
+                    "-s=" + FAKE_SCHEMA_FILE));
+  }
+
+  @Test
+  void parsing_with_schema_directories_should_aggregate_the_directory_info() {
+    // when parsing with two schema directories and an exclude glob
+    assertThatNoException()
+        .isThrownBy(
+            () ->
+                cmd.parseArgs(
+                    "-b=" + FAKE_BOOTSTRAP,
+                    "-r=" + FAKE_REGISTRY,
+                    "-d=" + FAKE_SCHEMA_DIR,
+                    "--schema-dir=" + FAKE_OTHER_SCHEMA_DIR,
+                    "--exclude=legacy/**"));
+    // then the directory info should be aggregated with the default include glob and template
+    assertThat(sut.getTopicSchemaAggregators()).isNull();
+    var directoryInfo = sut.getDirectoryInfo();
+    assertThat(directoryInfo.getSchemaDirs())
+        .containsExactly(Paths.get(FAKE_SCHEMA_DIR), Paths.get(FAKE_OTHER_SCHEMA_DIR));
+    assertThat(directoryInfo.getIncludeGlobs()).containsExactly("**.avsc");
+    assertThat(directoryInfo.getExcludeGlobs()).containsExactly("legacy/**");
+    assertThat(directoryInfo.getTopicTemplate()).isEqualTo("{name}");
+    assertThat(directoryInfo.isWatch()).isFalse();
+  }
+
+  @Test
+  void parsing_with_the_watch_option_should_aggregate_it_with_the_directory_info() {
+    // when parsing with a schema directory to watch
+    cmd.parseArgs(
+        "-r=" + FAKE_REGISTRY, "-d=" + FAKE_SCHEMA_DIR, "--watch", "--watch-debounce=250");
+    // then the directory info should specify watching
+    var directoryInfo = sut.getDirectoryInfo();
+    assertThat(directoryInfo.isWatch()).isTrue();
+    assertThat(directoryInfo.getWatchDebounce()).isEqualTo(250);
+  }
+
+  @Test
+  void parsing_with_a_manifest_should_aggregate_the_manifest_info() {
+    // when parsing with the standard input as a csv manifest
+    assertThatNoException()
+        .isThrownBy(
+            () ->
+                cmd.parseArgs(
+                    "-b=" + FAKE_BOOTSTRAP,
+                    "-r=" + FAKE_REGISTRY,
+                    "--manifest=-",
+                    "--manifest-format=CSV"));
+    // then the manifest info should be aggregated
+    assertThat(sut.getTopicSchemaAggregators()).isNull();
+    assertThat(sut.getDirectoryInfo()).isNull();
+    assertThat(sut.getManifestInfo().getManifest()).isEqualTo("-");
+    assertThat(sut.getManifestInfo().getManifestFormat()).isEqualTo(ManifestFormat.CSV);
+  }
+
+  @Test
+  void parsing_with_execution_options_should_aggregate_them() {
+    // when parsing with two stage widths and the execution mode options
+    assertThatNoException()
+        .isThrownBy(
+            () ->
+                cmd.parseArgs(
+                    "-b=" + FAKE_BOOTSTRAP,
+                    "-r=" + FAKE_REGISTRY,
+                    "-t=" + FAKE_TOPIC,
+                    "-s=" + FAKE_SCHEMA_FILE,
+                    "-w=REGISTER=64",
+                    "--stage-width=PARSE=2",
+                    "--stage-queue-size=16",
+                    "--execution-mode=VIRTUAL_THREADS",
+                    "--max-in-flight=1000",
+                    "--resolve-references",
+                    "--state-file=state.bin",
+                    "--reconcile",
+                    "--prune",
+                    "--max-open-files=8",
+                    "--mmap-threshold=1024",
+                    "--registry-api=NATIVE",
+                    "--bulk-threshold=10",
+                    "--async-registry",
+                    "--gzip-threshold=4096",
+                    "--registry-stripes=4",
+                    "--max-retries=5",
+                    "--retry-backoff=50",
+                    "--breaker-threshold=3",
+                    "--adaptive-concurrency",
+                    "--metrics-json=metrics.json",
+                    "--metrics-prometheus=metrics.prom",
+                    "--metrics-port=9404",
+                    "--report-json=report.json",
+                    "--report-junit=report.xml",
+                    "--report-top=20"));
+    // then the widths should be aggregated per stage
+    assertThat(sut.getStageWidths())
+        .containsOnly(entry(PipelineStage.REGISTER, 64), entry(PipelineStage.PARSE, 2));
+    assertThat(sut.getStageQueueSize()).isEqualTo(16);
+    // and the execution mode options should be aggregated
+    assertThat(sut.getExecutionMode()).isEqualTo(ExecutionMode.VIRTUAL_THREADS);
+    assertThat(sut.getMaxInFlight()).isEqualTo(1000);
+    // and the shared named types should be resolved
+    assertThat(sut.isResolveReferences()).isTrue();
+    // and the state file should be set
+    assertThat(sut.getStateFile()).isEqualTo(Paths.get("state.bin"));
+    // and the reconcile options should be set
+    assertThat(sut.isReconcile()).isTrue();
+    assertThat(sut.isPrune()).isTrue();
+    // and the schema loading options should be set
+    assertThat(sut.getMaxOpenFiles()).isEqualTo(8);
+    assertThat(sut.getMmapThreshold()).isEqualTo(1024);
+    // and the native registry api options should be set
+    assertThat(sut.getRegistryApi()).isEqualTo(RegistryApi.NATIVE);
+    assertThat(sut.getBulkThreshold()).isEqualTo(10);
+    // and the non-blocking registry options should be set
+    assertThat(sut.isAsyncRegistry()).isTrue();
+    assertThat(sut.getGzipThreshold()).isEqualTo(4096);
+    // and the registry stripes should be set
+    assertThat(sut.getRegistryStripes()).isEqualTo(4);
+    // and the retry options should be set
+    assertThat(sut.getMaxRetries()).isEqualTo(5);
+    assertThat(sut.getRetryBackoff()).isEqualTo(50);
+    assertThat(sut.getBreakerThreshold()).isEqualTo(3);
+    // and the adaptive concurrency should be set
+    assertThat(sut.isAdaptiveConcurrency()).isTrue();
+    // and the metrics options should be set
+    assertThat(sut.getMetricsJson()).isEqualTo(Paths.get("metrics.json"));
+    assertThat(sut.getMetricsPrometheus()).isEqualTo(Paths.get("metrics.prom"));
+    assertThat(sut.getMetricsPort()).isEqualTo(9404);
+    // and the report options should be set
+    assertThat(sut.getReportJson()).isEqualTo(Paths.get("report.json"));
+    assertThat(sut.getReportJunit()).isEqualTo(Paths.get("report.xml"));
+    assertThat(sut.getReportTop()).isEqualTo(20);
+  }
+
+  @Test
+  void parsing_with_both_a_schema_directory_and_a_topic_should_throw_an_exception() {
+    assertThatExceptionOfType(CommandLine.MutuallyExclusiveArgsException.class)
+        .isThrownBy(
+            () ->
+                cmd.parseArgs(
+                    "-b=" + FAKE_BOOTSTRAP,
+                    "-r=" + FAKE_REGISTRY,
+                    "-t=" + FAKE_TOPIC,
+                    "-s=" + FAKE_SCHEMA_FILE,
+                    "-d=" + FAKE_SCHEMA_DIR));
   }
 
   @Test
@@ -159,7 +388,8 @@ void parsing_with_a_topic_without_specifying_a_schema_path_should_throw_an_excep
     assertThatExceptionOfType(CommandLine.MissingParameterException.class)
         .isThrownBy(
             () -> cmd.parseArgs("-b=" + FAKE_BOOTSTRAP, "-r=" + FAKE_REGISTRY, "-t=" + FAKE_TOPIC))
-        .withMessage("Error: Missing required argument(s): --schema-path=<schemaPath>");
+        .withMessage(
+            "Error: Missing required argument(s): (-s=<schemaPath> | --sb=<schemaBase64>)");
   }
 
   @Test
@@ -183,7 +413,8 @@ void parsing_with_two_topics_and_one_a_schema_path_should_throw_an_exception() {
                     "-t=" + FAKE_TOPIC,
                     "-s=" + FAKE_SCHEMA_FILE,
                     "-t=anothertopic"))
-        .withMessage("Error: Missing required argument(s): --schema-path=<schemaPath>");
+        .withMessage(
+            "Error: Missing required argument(s): (-s=<schemaPath> | --sb=<schemaBase64>)");
   }
 
   @Test
@@ -228,7 +459,9 @@ void parsing_with_two_schema_paths_and_one_topic_should_throw_an_exception() {
                     "-t=" + FAKE_TOPIC,
                     "-s=" + FAKE_SCHEMA_FILE,
                     "--tp=" + FAKE_TRUSTSTORE_PASSWORD))
-        .withMessage("Error: Missing required argument(s): --truststore-file=<truststoreFile>");
+        .withMessage(
+            "Error: Missing required argument(s): (--tf=<truststoreFile> |"
+                + " --tb=<truststoreBase64>)");
   }
 
   @Test
@@ -256,7 +489,8 @@ void parsing_while_specifying_the_keystore_password_but_not_the_file_should_thro
                     "-t=" + FAKE_TOPIC,
                     "-s=" + FAKE_SCHEMA_FILE,
                     "--kp=" + FAKE_KEYSTORE_PASSWORD))
-        .withMessage("Error: Missing required argument(s): --keystore-file=<keystoreFile>");
+        .withMessage(
+            "Error: Missing required argument(s): (--kf=<keystoreFile> | --kb=<keystoreBase64>)");
   }
 
   @Test
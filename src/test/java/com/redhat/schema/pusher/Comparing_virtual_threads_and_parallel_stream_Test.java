@@ -0,0 +1,90 @@
+package com.redhat.schema.pusher;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.*;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.*;
+
+/**
+ * Test cases for the virtual thread executor, comparing the registrations in flight against the
+ * parallel stream previously used for pushing, using a fake registration waiting on the network.
+ */
+class Comparing_virtual_threads_and_parallel_stream_Test {
+  private static final int RECORDS = 200;
+  private static final int MAX_IN_FLIGHT = 100;
+  private static final long FAKE_LATENCY_MILLIS = 10;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+
+  @BeforeAll
+  static void silenceLogger() {
+    // turn off the sut's logger to avoid polluting the build log
+    Logger.getLogger(VirtualThreadExecutor.class.getName()).setLevel(Level.OFF);
+  }
+
+  @Test
+  void the_virtual_threads_mode_should_keep_more_registrations_in_flight_than_a_parallel_stream() {
+    // when registering with a parallel stream on the common pool
+    IntStream.range(0, RECORDS).parallel().forEach(this::fakeRegister);
+    var parallelStreamMax = maxInFlight.getAndSet(0);
+    // and when registering with the virtual threads executor
+    try (var sut =
+        new VirtualThreadExecutor<Integer>(
+            List.of(new PushExecutor.Stage<>(PipelineStage.REGISTER, 1, this::fakeRegister)),
+            MAX_IN_FLIGHT,
+            (i, e) -> fail("no failures expected", e))) {
+      IntStream.range(0, RECORDS).forEach(sut::submit);
+    }
+    var virtualThreadsMax = maxInFlight.get();
+    // then the parallel stream is capped by the common pool size
+    assertThat(parallelStreamMax).isLessThanOrEqualTo(ForkJoinPool.getCommonPoolParallelism() + 1);
+    // and the virtual threads are capped only by the max in flight
+    assertThat(virtualThreadsMax)
+        .isGreaterThan(parallelStreamMax)
+        .isLessThanOrEqualTo(MAX_IN_FLIGHT);
+  }
+
+  @Test
+  void a_failing_stage_should_be_reported_and_skip_the_following_stages() {
+    // given the collections for the failures and the completed items
+    var failures = new ConcurrentHashMap<Integer, Exception>();
+    var completed = new ConcurrentLinkedQueue<Integer>();
+    // when submitting 10 items, failing the even ones in the first stage
+    try (var sut =
+        new VirtualThreadExecutor<Integer>(
+            List.of(
+                new PushExecutor.Stage<>(
+                    PipelineStage.READ,
+                    1,
+                    i -> {
+                      if (i % 2 == 0) {
+                        throw new IOException("fake exception");
+                      }
+                    }),
+                new PushExecutor.Stage<>(PipelineStage.REGISTER, 1, completed::add)),
+            4,
+            failures::put)) {
+      IntStream.range(0, 10).forEach(sut::submit);
+    }
+    // then the even items should be reported as failures and the odd ones completed
+    assertThat(failures).containsOnlyKeys(0, 2, 4, 6, 8);
+    assertThat(completed).containsExactlyInAnyOrder(1, 3, 5, 7, 9);
+  }
+
+  private void fakeRegister(final int item) {
+    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+    try {
+      TimeUnit.MILLISECONDS.sleep(FAKE_LATENCY_MILLIS);
+    } catch (final InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    } finally {
+      inFlight.decrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package com.redhat.schema.pusher;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.*;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Test cases for collecting the push metrics and exporting them. */
+class Exporting_push_metrics_Test {
+  @BeforeAll
+  static void silenceLogger() {
+    // turn off the sut's logger to avoid polluting the build log
+    Logger.getLogger(MetricsExporter.class.getName()).setLevel(Level.OFF);
+  }
+
+  @BeforeEach
+  void resetMetrics() {
+    PushMetrics.reset();
+  }
+
+  @Test
+  void the_time_spent_in_each_stage_should_be_recorded_per_phase() {
+    // given stages wrapped for timing, the registering one failing for odd items
+    var stages =
+        PushMetrics.wrap(
+            List.of(
+                new PushExecutor.Stage<Integer>(PipelineStage.PARSE, 2, i -> {}),
+                new PushExecutor.Stage<Integer>(
+                    PipelineStage.REGISTER,
+                    2,
+                    i -> {
+                      if (i % 2 == 1) {
+                        throw new IOException("fake exception");
+                      }
+                    })));
+    // when pushing 10 items
+    try (var pipeline = new StagedPipeline<>(stages, 16, (i, e) -> {})) {
+      IntStream.range(0, 10).forEach(pipeline::submit);
+    }
+    // then each phase should be timed for every item reaching it, failing ones included
+    assertThat(PushMetrics.registry().getTimers())
+        .hasEntrySatisfying("phase.parse", t -> assertThat(t.getCount()).isEqualTo(10))
+        .hasEntrySatisfying("phase.register", t -> assertThat(t.getCount()).isEqualTo(10));
+  }
+
+  @Test
+  void the_metrics_should_be_rendered_as_prometheus_text_with_labels() {
+    // given registry calls, schema outcomes, and a limiter
+    PushMetrics.recordRegistryCall("register", 200, TimeUnit.MILLISECONDS.toNanos(20));
+    PushMetrics.recordRegistryCall("register", 503, TimeUnit.MILLISECONDS.toNanos(5));
+    PushMetrics.schemaRegistered();
+    PushMetrics.schemasRegistered(2);
+    PushMetrics.schemaFailed();
+    PushMetrics.registerLimiter("registry", new AdaptiveLimiter(4, 16));
+    // when rendering the metrics as prometheus text
+    var text = new MetricsExporter(PushMetrics.registry(), null, null, 0).toPrometheus();
+    // then the registry calls should be summaries labeled by endpoint and status
+    assertThat(text)
+        .contains("# TYPE schema_pusher_registry_seconds summary\n")
+        .contains(
+            "schema_pusher_registry_seconds{endpoint=\"register\",status=\"200\",quantile=\"0.5\"}"
+                + " 0.02\n")
+        .contains("schema_pusher_registry_seconds_count{endpoint=\"register\",status=\"503\"} 1\n");
+    // and the outcomes should be counters labeled by outcome
+    assertThat(text)
+        .contains("# TYPE schema_pusher_schemas_total counter\n")
+        .contains("schema_pusher_schemas_total{outcome=\"registered\"} 3\n")
+        .contains("schema_pusher_schemas_total{outcome=\"failed\"} 1\n");
+    // and the limiter attributes should be gauges labeled by limiter
+    assertThat(text)
+        .contains("# TYPE schema_pusher_limiter_limit gauge\n")
+        .contains("schema_pusher_limiter_limit{limiter=\"registry\"} 4\n");
+  }
+
+  @Test
+  void the_metrics_should_be_written_at_the_end_of_the_run(@TempDir final Path tempDir)
+      throws IOException {
+    // given an exporter writing both formats
+    var jsonFile = tempDir.resolve("metrics.json");
+    var prometheusFile = tempDir.resolve("metrics.prom");
+    var sut = new MetricsExporter(PushMetrics.registry(), jsonFile, prometheusFile, 0);
+    // when the run ends
+    PushMetrics.phase("push").update(1500, TimeUnit.MILLISECONDS);
+    PushMetrics.schemaSkipped();
+    sut.close();
+    // then the json file should hold the timers in milliseconds and the counters
+    var json = new ObjectMapper().readTree(jsonFile.toFile());
+    assertThat(json.at("/timers/phase.push/count").asLong()).isOne();
+    assertThat(json.at("/timers/phase.push/max_ms").asDouble()).isEqualTo(1500);
+    assertThat(json.at("/counters/schemas.skipped").asLong()).isOne();
+    // and the prometheus file should hold the same metrics
+    assertThat(Files.readString(prometheusFile))
+        .contains("schema_pusher_phase_seconds_count{phase=\"push\"} 1\n")
+        .contains("schema_pusher_schemas_total{outcome=\"skipped\"} 1\n");
+  }
+
+  @Test
+  void the_metrics_should_be_served_while_running() throws Exception {
+    // given an exporter serving the metrics on a free port
+    int port;
+    try (var socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+    PushMetrics.schemaRegistered();
+    var client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    try (var sut = new MetricsExporter(PushMetrics.registry(), null, null, port)) {
+      // when scraping the prometheus endpoint, then it should serve the current metrics
+      var prometheus =
+          client.send(
+              HttpRequest.newBuilder(URI.create(String.format("http://localhost:%d/metrics", port)))
+                  .build(),
+              HttpResponse.BodyHandlers.ofString());
+      assertThat(prometheus.statusCode()).isEqualTo(200);
+      assertThat(prometheus.headers().firstValue("Content-Type"))
+          .hasValueSatisfying(v -> assertThat(v).startsWith("text/plain; version=0.0.4"));
+      assertThat(prometheus.body())
+          .contains("schema_pusher_schemas_total{outcome=\"registered\"} 1");
+      // and the json endpoint should serve them as well
+      var json =
+          client.send(
+              HttpRequest.newBuilder(
+                      URI.create(String.format("http://localhost:%d/metrics.json", port)))
+                  .build(),
+              HttpResponse.BodyHandlers.ofString());
+      assertThat(
+              new ObjectMapper().readTree(json.body()).at("/counters/schemas.registered").asLong())
+          .isOne();
+    }
+  }
+}
@@ -0,0 +1,150 @@
+package com.redhat.schema.pusher;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.logging.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Test cases for the fingerprint state helper. */
+class Keeping_a_fingerprint_state_file_Test {
+  @TempDir Path tempDir;
+
+  @BeforeAll
+  static void silenceLogger() {
+    // turn off the sut's logger to avoid polluting the build log
+    Logger.getLogger(FingerprintState.class.getName()).setLevel(Level.OFF);
+  }
+
+  @Test
+  void loading_a_non_existing_state_file_should_result_in_an_empty_state() throws IOException {
+    var sut = FingerprintState.load(tempDir.resolve("state.bin"));
+    assertThat(sut.size()).isZero();
+    assertThat(sut.contains("subject", 1L)).isFalse();
+  }
+
+  @Test
+  void saving_and_loading_a_state_should_keep_the_recorded_entries() throws IOException {
+    // given a state with two recorded entries
+    var stateFile = tempDir.resolve("state.bin");
+    var sut = FingerprintState.load(stateFile);
+    sut.record("topic-com.example.Order", 0x1234_5678_9abc_def0L, 7);
+    sut.record("topic-com.example.\u00dcber", -1L, 8);
+    // when saving and reloading it
+    sut.save();
+    var loaded = FingerprintState.load(stateFile);
+    // then the entries should be kept
+    assertThat(loaded.size()).isEqualTo(2);
+    assertThat(loaded.contains("topic-com.example.Order", 0x1234_5678_9abc_def0L)).isTrue();
+    assertThat(loaded.contains("topic-com.example.\u00dcber", -1L)).isTrue();
+    // and a different fingerprint for a recorded subject should not be found
+    assertThat(loaded.contains("topic-com.example.Order", 0L)).isFalse();
+    // and no temporary files should be left behind
+    try (var files = Files.list(tempDir)) {
+      assertThat(files).containsExactly(stateFile);
+    }
+  }
+
+  @Test
+  void saving_a_global_id_should_keep_it_whole() throws IOException {
+    // given a state with an id beyond the int range, as the native API's global ids can be
+    var stateFile = tempDir.resolve("state.bin");
+    var sut = FingerprintState.load(stateFile);
+    sut.record("subject", 1L, 1L << 40);
+    // when saving it
+    sut.save();
+    // then the id should be written whole
+    try (var in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(stateFile)))) {
+      assertThat(in.readInt()).isEqualTo(0x53505332);
+      assertThat(in.readInt()).isEqualTo(1);
+      assertThat(in.readLong()).isEqualTo(1L);
+      assertThat(in.readLong()).isEqualTo(1L << 40);
+    }
+  }
+
+  @Test
+  void loading_a_state_file_with_int_ids_should_keep_the_recorded_entries() throws IOException {
+    // given a state file of the previous version, holding int ids
+    var stateFile = tempDir.resolve("state.bin");
+    try (var out = new DataOutputStream(Files.newOutputStream(stateFile))) {
+      var subject = "subject".getBytes(StandardCharsets.UTF_8);
+      out.writeInt(0x53505331);
+      out.writeInt(1);
+      out.writeLong(1L);
+      out.writeInt(7);
+      out.writeShort(subject.length);
+      out.write(subject);
+    }
+    // when loading it, then the entry should be kept
+    var loaded = FingerprintState.load(stateFile);
+    assertThat(loaded.size()).isEqualTo(1);
+    assertThat(loaded.contains("subject", 1L)).isTrue();
+  }
+
+  @Test
+  void saving_a_subject_too_long_for_the_file_should_leave_it_out() throws IOException {
+    // given a state with a subject longer than 65535 bytes, and a regular one
+    var stateFile = tempDir.resolve("state.bin");
+    var sut = FingerprintState.load(stateFile);
+    var longSubject = "s".repeat(70_000);
+    sut.record(longSubject, 1L, 1);
+    sut.record("subject", 2L, 2);
+    // when saving and reloading it
+    sut.save();
+    var loaded = FingerprintState.load(stateFile);
+    // then only the regular subject should be kept, and the file not corrupted
+    assertThat(loaded.size()).isEqualTo(1);
+    assertThat(loaded.contains("subject", 2L)).isTrue();
+    assertThat(loaded.contains(longSubject, 1L)).isFalse();
+  }
+
+  @Test
+  void forgetting_a_subject_should_drop_all_its_entries() throws IOException {
+    // given a state with two schemas of a subject, and another subject
+    var stateFile = tempDir.resolve("state.bin");
+    var sut = FingerprintState.load(stateFile);
+    sut.record("pruned", 1L, 1);
+    sut.record("pruned", 2L, 2);
+    sut.record("kept", 3L, 3);
+    sut.save();
+    // when forgetting the subject, as pruning it does, and saving again
+    var loaded = FingerprintState.load(stateFile);
+    loaded.forget("pruned");
+    loaded.save();
+    // then only the other subject should be kept
+    var reloaded = FingerprintState.load(stateFile);
+    assertThat(reloaded.size()).isEqualTo(1);
+    assertThat(reloaded.contains("kept", 3L)).isTrue();
+    assertThat(reloaded.contains("pruned", 1L)).isFalse();
+  }
+
+  @Test
+  void saving_an_unmodified_state_should_not_write_the_file() throws IOException {
+    var stateFile = tempDir.resolve("state.bin");
+    FingerprintState.load(stateFile).save();
+    assertThat(stateFile).doesNotExist();
+  }
+
+  @Test
+  void loading_a_corrupted_state_file_should_result_in_an_empty_state() throws IOException {
+    // given a state file truncated in the middle of an entry
+    var stateFile = tempDir.resolve("state.bin");
+    var sut = FingerprintState.load(stateFile);
+    sut.record("subject", 1L, 1);
+    sut.save();
+    var content = Files.readAllBytes(stateFile);
+    Files.write(stateFile, Arrays.copyOf(content, content.length - 2));
+    // then loading it should result in an empty state
+    assertThat(FingerprintState.load(stateFile).size()).isZero();
+    // and an unrecognized file should result in an empty state as well
+    Files.writeString(stateFile, "not a state file");
+    assertThat(FingerprintState.load(stateFile).size()).isZero();
+  }
+}
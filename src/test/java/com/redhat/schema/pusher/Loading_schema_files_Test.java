@@ -0,0 +1,141 @@
+package com.redhat.schema.pusher;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.concurrent.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Test cases for the schema file loader helper. */
+class Loading_schema_files_Test {
+  private static final String SMALL = "{\"type\": \"string\"}";
+
+  @TempDir Path tempDir;
+
+  @Test
+  void loading_a_file_smaller_than_the_buffer_should_read_it_into_a_pooled_buffer()
+      throws IOException {
+    // given a small file and a loader
+    var file = Files.writeString(tempDir.resolve("small.avsc"), SMALL);
+    var sut = new SchemaFileLoader(1024, 4);
+    // when loading it
+    try (var loaded = sut.load(file)) {
+      // then the content should be read
+      assertThat(asString(loaded.content())).isEqualTo(SMALL);
+      assertThat(loaded.content().isDirect()).isTrue();
+    }
+    // and the stats should count it as read and not mapped
+    var stats = sut.stats();
+    assertThat(stats.filesRead()).isEqualTo(1);
+    assertThat(stats.filesMapped()).isZero();
+    assertThat(stats.bytesRead()).isEqualTo(SMALL.length());
+    assertThat(stats.ioNanos()).isPositive();
+  }
+
+  @Test
+  void loading_a_file_larger_than_the_buffer_should_memory_map_it() throws IOException {
+    // given a file larger than the buffer size
+    var large = "x".repeat(4096);
+    var file = Files.writeString(tempDir.resolve("large.avsc"), large);
+    var sut = new SchemaFileLoader(1024, 4);
+    // when loading it
+    try (var loaded = sut.load(file)) {
+      // then the content should be mapped in full
+      assertThat(asString(loaded.content())).isEqualTo(large);
+    }
+    // and the stats should count it as mapped
+    assertThat(sut.stats().filesMapped()).isEqualTo(1);
+    assertThat(sut.stats().bytesRead()).isEqualTo(4096);
+  }
+
+  @Test
+  void loading_a_file_between_the_buffer_and_the_threshold_should_read_it_on_the_heap()
+      throws IOException {
+    // given a file larger than the buffer size, and smaller than the mapping threshold
+    var medium = "x".repeat(4096);
+    var file = Files.writeString(tempDir.resolve("medium.avsc"), medium);
+    var sut = new SchemaFileLoader(1024, 8192, 4);
+    // when loading it
+    try (var loaded = sut.load(file)) {
+      // then the content should be read in full into a heap buffer
+      assertThat(asString(loaded.content())).isEqualTo(medium);
+      assertThat(loaded.content().isDirect()).isFalse();
+    }
+    // and the stats should count it as read and not mapped
+    assertThat(sut.stats().filesRead()).isEqualTo(1);
+    assertThat(sut.stats().filesMapped()).isZero();
+  }
+
+  @Test
+  void loading_when_all_the_buffers_are_held_should_wait_for_a_release() throws Exception {
+    // given a loader with a pool of two buffers, both held
+    var file = Files.writeString(tempDir.resolve("small.avsc"), SMALL);
+    var sut = new SchemaFileLoader(1024, 1);
+    var first = sut.load(file);
+    var second = sut.load(file);
+    var executor = Executors.newSingleThreadExecutor();
+    try {
+      // when loading another file
+      var third = executor.submit(() -> sut.load(file));
+      // then it should wait until a buffer is released
+      assertThatExceptionOfType(TimeoutException.class)
+          .isThrownBy(() -> third.get(200, TimeUnit.MILLISECONDS));
+      first.close();
+      first.close(); // releasing twice should not return the buffer twice
+      try (var loaded = third.get(5, TimeUnit.SECONDS)) {
+        assertThat(asString(loaded.content())).isEqualTo(SMALL);
+      }
+    } finally {
+      second.close();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void reading_all_bytes_should_count_in_the_stats() throws IOException {
+    var file = Files.writeString(tempDir.resolve("small.avsc"), SMALL);
+    var sut = new SchemaFileLoader(1024, 4);
+    assertThat(new String(sut.readAllBytes(file), StandardCharsets.UTF_8)).isEqualTo(SMALL);
+    assertThat(sut.stats().filesRead()).isEqualTo(1);
+    assertThat(sut.stats().bytesRead()).isEqualTo(SMALL.length());
+  }
+
+  @Test
+  void loading_a_record_carrying_its_content_should_not_open_its_path() throws IOException {
+    // given a record streamed with its content, its path not existing
+    var content = ByteBuffer.wrap(SMALL.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+    var record = new TopicAndSchema("topic", tempDir.resolve("missing.avsc"), content);
+    var sut = new SchemaFileLoader(1024, 1);
+    // when loading it twice, then the content should be read each time
+    try (var loaded = sut.load(record)) {
+      assertThat(asString(loaded.content())).isEqualTo(SMALL);
+    }
+    assertThat(new String(sut.readAllBytes(record), StandardCharsets.UTF_8)).isEqualTo(SMALL);
+    // and the stats should count it as read
+    assertThat(sut.stats().filesRead()).isEqualTo(2);
+    assertThat(sut.stats().bytesRead()).isEqualTo(SMALL.length() * 2);
+  }
+
+  @Test
+  void loading_a_missing_file_should_throw_and_free_the_open_file_slot() throws IOException {
+    // given a loader allowing one open file
+    var file = Files.writeString(tempDir.resolve("small.avsc"), SMALL);
+    var sut = new SchemaFileLoader(1024, 1);
+    // when loading a missing file, then it should throw
+    assertThatExceptionOfType(NoSuchFileException.class)
+        .isThrownBy(() -> sut.load(tempDir.resolve("missing.avsc")));
+    // and the slot should be freed for the next files
+    assertThat(sut.readAllBytes(file)).hasSize(SMALL.length());
+    assertThat(sut.stats().filesRead()).isEqualTo(1);
+  }
+
+  private static String asString(final ByteBuffer buffer) {
+    var bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,216 @@
+package com.redhat.schema.pusher;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.*;
+import java.util.zip.CRC32;
+import org.apache.commons.compress.archivers.ArchiveOutputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/** Test cases for the schema archive reader helper. */
+class Reading_schema_archives_Test {
+  private static final Map<String, String> ENTRIES = new LinkedHashMap<>();
+
+  @TempDir Path archiveDir;
+
+  enum Format {
+    TAR,
+    TAR_GZ,
+    ZIP
+  }
+
+  @BeforeAll
+  static void initialize() {
+    // turn off the sut's logger to avoid polluting the build log
+    Logger.getLogger(SchemaArchiveReader.class.getName()).setLevel(Level.OFF);
+    // given the following archive entries
+    ENTRIES.put("customers.avsc", "{\"name\": \"customers\"}");
+    ENTRIES.put("orders/", "");
+    ENTRIES.put("orders/created.avsc", "{\"name\": \"created\"}");
+    ENTRIES.put("orders/readme.md", "not a schema");
+    ENTRIES.put("/payments/paid.avsc", "{\"name\": \"paid\"}");
+  }
+
+  @ParameterizedTest
+  @EnumSource(Format.class)
+  void reading_an_archive_should_stream_the_matching_entries_with_their_content(final Format format)
+      throws IOException {
+    // given the following archive file
+    var archive = Files.write(archiveDir.resolve("schemas.archive"), createArchive(format));
+    var sut = new SchemaArchiveReader(archive.toString(), List.of("**.avsc"), "{path}");
+    // then the matching entries should be streamed in order with topics from their names
+    try (var records = sut.read()) {
+      assertThat(records)
+          .containsExactly(
+              createRecord("customers", "customers.avsc"),
+              createRecord("orders.created", "orders/created.avsc"),
+              createRecord("payments.paid", "payments/paid.avsc"));
+    }
+  }
+
+  @Test
+  void reading_an_archive_from_a_stream_should_match_the_entries_relative_to_the_root()
+      throws IOException {
+    // given a zip archive read from a stream, and only the top level schemas included
+    var sut = new SchemaArchiveReader(SchemaArchiveReader.STDIN, List.of("*.avsc"), "{name}");
+    // then only the top level entry should be streamed
+    try (var records = sut.read(new ByteArrayInputStream(createArchive(Format.ZIP)))) {
+      assertThat(records).containsExactly(createRecord("customers", "customers.avsc"));
+    }
+  }
+
+  @Test
+  void reading_an_archive_with_an_unreadable_entry_should_skip_it_with_a_warning()
+      throws IOException {
+    // given a zip archive with an encrypted schema entry, and a readable one
+    var bytes = new ByteArrayOutputStream();
+    try (var archive = new ZipArchiveOutputStream(bytes)) {
+      var content = "not readable".getBytes(UTF_8);
+      var crc = new CRC32();
+      crc.update(content);
+      var encrypted = new ZipArchiveEntry("encrypted.avsc");
+      encrypted.setMethod(ZipArchiveEntry.STORED);
+      encrypted.setSize(content.length);
+      encrypted.setCrc(crc.getValue());
+      archive.putArchiveEntry(encrypted);
+      archive.write(content);
+      archive.closeArchiveEntry();
+      archive.putArchiveEntry(new ZipArchiveEntry("customers.avsc"));
+      archive.write(ENTRIES.get("customers.avsc").getBytes(UTF_8));
+      archive.closeArchiveEntry();
+    }
+    // the writer refuses encryption, the flag is set in the first entry's local header instead
+    var zip = bytes.toByteArray();
+    zip[6] |= 1;
+    // when reading it
+    var warnings = new ArrayList<String>();
+    var sut = new SchemaArchiveReader(SchemaArchiveReader.STDIN, List.of("*.avsc"), "{name}");
+    var records = readCapturingWarnings(sut, zip, warnings);
+    // then only the readable entry should be streamed
+    assertThat(records).containsExactly(createRecord("customers", "customers.avsc"));
+    // and the skipped entry should be warned about
+    assertThat(warnings).singleElement().asString().contains("'encrypted.avsc'");
+  }
+
+  @Test
+  void reading_an_archive_with_an_oversized_entry_should_skip_it_with_a_warning()
+      throws IOException {
+    // given a tar archive with an entry larger than the entry size limit, and a small one
+    var bytes = new ByteArrayOutputStream();
+    try (var archive = new TarArchiveOutputStream(bytes)) {
+      var large = "x".repeat(128).getBytes(UTF_8);
+      var largeEntry = new TarArchiveEntry("large.avsc", true);
+      largeEntry.setSize(large.length);
+      archive.putArchiveEntry(largeEntry);
+      archive.write(large);
+      archive.closeArchiveEntry();
+      var small = ENTRIES.get("customers.avsc").getBytes(UTF_8);
+      var smallEntry = new TarArchiveEntry("customers.avsc", true);
+      smallEntry.setSize(small.length);
+      archive.putArchiveEntry(smallEntry);
+      archive.write(small);
+      archive.closeArchiveEntry();
+    }
+    // when reading it with entries limited to 64 bytes
+    var warnings = new ArrayList<String>();
+    var sut = new SchemaArchiveReader(SchemaArchiveReader.STDIN, List.of("*.avsc"), "{name}", 64);
+    var records = readCapturingWarnings(sut, bytes.toByteArray(), warnings);
+    // then only the small entry should be streamed
+    assertThat(records).containsExactly(createRecord("customers", "customers.avsc"));
+    // and the skipped entry should be warned about
+    assertThat(warnings).singleElement().asString().contains("'large.avsc'");
+  }
+
+  @Test
+  void reading_an_unsupported_or_a_non_existing_archive_should_throw_an_exception() {
+    var sut = new SchemaArchiveReader(SchemaArchiveReader.STDIN, List.of("**.avsc"), "{name}");
+    assertThatIOException()
+        .isThrownBy(() -> sut.read(new ByteArrayInputStream("{\"name\": \"x\"}".getBytes(UTF_8))))
+        .withMessage("not a tar, tar.gz, or zip archive");
+    var missing =
+        new SchemaArchiveReader(
+            archiveDir.resolve("missing.tar").toString(), List.of("**.avsc"), "{name}");
+    assertThatExceptionOfType(NoSuchFileException.class).isThrownBy(missing::read);
+  }
+
+  private static List<TopicAndSchema> readCapturingWarnings(
+      final SchemaArchiveReader sut, final byte[] archive, final List<String> warnings)
+      throws IOException {
+    var logger = Logger.getLogger(SchemaArchiveReader.class.getName());
+    var handler =
+        new Handler() {
+          @Override
+          public void publish(final LogRecord record) {
+            warnings.add(record.getMessage());
+          }
+
+          @Override
+          public void flush() {}
+
+          @Override
+          public void close() {}
+        };
+    logger.setLevel(Level.WARNING);
+    logger.setUseParentHandlers(false);
+    logger.addHandler(handler);
+    try (var records = sut.read(new ByteArrayInputStream(archive))) {
+      return records.toList();
+    } finally {
+      logger.removeHandler(handler);
+      logger.setUseParentHandlers(true);
+      logger.setLevel(Level.OFF);
+    }
+  }
+
+  private static TopicAndSchema createRecord(final String topic, final String name) {
+    var content = ENTRIES.getOrDefault(name, ENTRIES.get("/" + name));
+    return new TopicAndSchema(topic, Paths.get(name), ByteBuffer.wrap(content.getBytes(UTF_8)));
+  }
+
+  private static byte[] createArchive(final Format format) throws IOException {
+    var bytes = new ByteArrayOutputStream();
+    try (var archive = openArchive(format, bytes)) {
+      for (var entry : ENTRIES.entrySet()) {
+        var content = entry.getValue().getBytes(UTF_8);
+        if (format == Format.ZIP) {
+          archive.putArchiveEntry(new ZipArchiveEntry(entry.getKey()));
+        } else {
+          var tarEntry = new TarArchiveEntry(entry.getKey(), true);
+          tarEntry.setSize(content.length);
+          archive.putArchiveEntry(tarEntry);
+        }
+        archive.write(content);
+        archive.closeArchiveEntry();
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+  private static ArchiveOutputStream openArchive(final Format format, final OutputStream output)
+      throws IOException {
+    return switch (format) {
+      case TAR -> new TarArchiveOutputStream(output);
+      case TAR_GZ -> new TarArchiveOutputStream(new GzipCompressorOutputStream(output));
+      case ZIP -> new ZipArchiveOutputStream(output);
+    };
+  }
+}
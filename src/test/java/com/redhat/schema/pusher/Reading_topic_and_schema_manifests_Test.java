@@ -0,0 +1,81 @@
+package com.redhat.schema.pusher;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.List;
+import java.util.logging.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.*;
+
+/** Test cases for the topic and schema manifest reader helper. */
+class Reading_topic_and_schema_manifests_Test {
+  @TempDir Path manifestDir;
+
+  @BeforeAll
+  static void silenceLogger() {
+    // turn off the sut's logger to avoid polluting the build log
+    Logger.getLogger(ManifestReader.class.getName()).setLevel(Level.OFF);
+  }
+
+  @ParameterizedTest
+  @MethodSource
+  void reading_a_manifest_should_stream_its_records_skipping_comments_and_malformed_lines(
+      final String fileName,
+      final String content,
+      final ManifestFormat expectedFormat,
+      final long expectedMalformed)
+      throws IOException {
+    // given the following manifest file
+    var manifest = Files.writeString(manifestDir.resolve(fileName), content);
+    var sut = new ManifestReader(manifest.toString(), null);
+    // then the format should be detected by the extension
+    assertThat(sut.getFormat()).isEqualTo(expectedFormat);
+    // and the records should be streamed in order with relative paths resolved
+    try (var records = sut.read()) {
+      assertThat(records)
+          .containsExactly(
+              new TopicAndSchema("sometopic", manifestDir.resolve("schemas/a.avsc")),
+              new TopicAndSchema("othertopic", Paths.get("/abs/b.avsc")));
+    }
+    // and the malformed lines should be counted
+    assertThat(sut.getMalformedLines()).isEqualTo(expectedMalformed);
+  }
+
+  static List<Arguments>
+      reading_a_manifest_should_stream_its_records_skipping_comments_and_malformed_lines() {
+    return List.of(
+        arguments(
+            "manifest.jsonl",
+            String.join(
+                "\n",
+                "# generated manifest",
+                "{\"topic\": \"sometopic\", \"schema\": \"schemas/a.avsc\"}",
+                "",
+                "{\"topic\": \"missingschema\"}",
+                "not a json line",
+                "{\"topic\": \"othertopic\", \"schema\": \"/abs/b.avsc\"}"),
+            ManifestFormat.JSONL,
+            2L),
+        arguments(
+            "manifest.csv",
+            String.join(
+                "\n",
+                "topic,schema",
+                "sometopic, schemas/a.avsc",
+                "no separator line",
+                "\"othertopic\",\"/abs/b.avsc\""),
+            ManifestFormat.CSV,
+            1L));
+  }
+
+  @Test
+  void reading_a_non_existing_manifest_should_throw_an_exception() {
+    var sut = new ManifestReader(manifestDir.resolve("missing.jsonl").toString(), null);
+    assertThatExceptionOfType(NoSuchFileException.class).isThrownBy(sut::read);
+  }
+}
@@ -0,0 +1,242 @@
+package com.redhat.schema.pusher;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.*;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.*;
+
+/** Test cases for the retry policy, the circuit breaker, and the retry queue. */
+class Retrying_failed_records_Test {
+  private static final RetryPolicy FAST_POLICY =
+      new RetryPolicy(3, Duration.ofMillis(5), Duration.ofMillis(20));
+
+  private final ConcurrentHashMap<Integer, Exception> failures = new ConcurrentHashMap<>();
+  private final ConcurrentLinkedQueue<Integer> completed = new ConcurrentLinkedQueue<>();
+
+  @BeforeAll
+  static void silenceLogger() {
+    // turn off the sut's logger to avoid polluting the build log
+    Logger.getLogger(RetryQueue.class.getName()).setLevel(Level.OFF);
+  }
+
+  @Test
+  void the_retry_delays_should_be_jittered_and_capped_by_the_max_backoff() {
+    // given a policy starting at 100 ms capped at 400 ms
+    var sut = new RetryPolicy(10, Duration.ofMillis(100), Duration.ofMillis(400));
+    // when computing the delays, then each should be within the exponential backoff
+    for (var i = 0; i < 100; i++) {
+      assertThat(sut.delay(1)).isBetween(Duration.ZERO, Duration.ofMillis(100));
+      assertThat(sut.delay(2)).isBetween(Duration.ZERO, Duration.ofMillis(200));
+      assertThat(sut.delay(9)).isBetween(Duration.ZERO, Duration.ofMillis(400));
+    }
+    // and the delays should be spread
+    assertThat(IntStream.range(0, 100).mapToObj(i -> sut.delay(3)).distinct().count())
+        .isGreaterThan(1);
+  }
+
+  @Test
+  void the_circuit_should_open_after_consecutive_failures_and_close_after_a_probe()
+      throws InterruptedException {
+    // given a breaker opening after 2 consecutive failures for 50 ms
+    var sut = new CircuitBreaker(2, Duration.ofMillis(50));
+    // when two calls fail
+    assertThat(sut.tryAcquire()).isTrue();
+    sut.recordFailure();
+    assertThat(sut.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    assertThat(sut.tryAcquire()).isTrue();
+    sut.recordFailure();
+    // then the circuit should be open and reject calls
+    assertThat(sut.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    assertThat(sut.tryAcquire()).isFalse();
+    assertThat(sut.remainingOpen()).isPositive();
+    // and once the open duration elapses, only one probing call should go through
+    TimeUnit.MILLISECONDS.sleep(60);
+    assertThat(sut.tryAcquire()).isTrue();
+    assertThat(sut.tryAcquire()).isFalse();
+    // and a successful probe should close the circuit
+    sut.recordSuccess();
+    assertThat(sut.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    assertThat(sut.tryAcquire()).isTrue();
+    assertThat(sut.timesOpened()).isEqualTo(1);
+  }
+
+  @Test
+  void a_transiently_failing_item_should_be_retried_without_holding_up_the_healthy_ones() {
+    // given item 0 failing its first two attempts
+    var attempts = new AtomicInteger();
+    var sut = createSut(new CircuitBreaker(100, Duration.ofSeconds(1)));
+    // when pushing 10 items through a single worker
+    try (var pipeline =
+        new StagedPipeline<>(
+            sut.wrap(
+                List.of(
+                    new PushExecutor.Stage<Integer>(
+                        PipelineStage.REGISTER,
+                        1,
+                        i -> {
+                          if (i == 0 && attempts.incrementAndGet() < 3) {
+                            throw new IOException("fake transient exception");
+                          }
+                          completed.add(i);
+                        }))),
+            16,
+            failures::put)) {
+      IntStream.range(0, 10).forEach(pipeline::submit);
+    }
+    sut.close();
+    // then all the items should complete, the healthy ones before the retried one
+    assertThat(failures).isEmpty();
+    assertThat(completed).hasSize(10).endsWith(0);
+    assertThat(attempts).hasValue(3);
+    assertThat(sut.retriedCount()).isEqualTo(1);
+    assertThat(sut.recoveredCount()).isEqualTo(1);
+  }
+
+  @Test
+  void permanent_failures_should_not_be_retried_and_transient_ones_should_run_out_of_attempts() {
+    // given item 0 always failing transiently and item 1 failing for good
+    var attempts = new AtomicInteger();
+    var sut = createSut(new CircuitBreaker(100, Duration.ofSeconds(1)));
+    // when pushing them
+    try (var pipeline =
+        new StagedPipeline<>(
+            sut.wrap(
+                List.of(
+                    new PushExecutor.Stage<Integer>(
+                        PipelineStage.REGISTER,
+                        1,
+                        i -> {
+                          attempts.incrementAndGet();
+                          if (i == 0) {
+                            throw new IOException("fake transient exception");
+                          }
+                          throw new IllegalArgumentException("fake permanent exception");
+                        }))),
+            16,
+            failures::put)) {
+      IntStream.range(0, 2).forEach(pipeline::submit);
+    }
+    sut.close();
+    // then both should be reported once, after the 3 attempts and the first one respectively
+    assertThat(failures).containsOnlyKeys(0, 1);
+    assertThat(failures.get(0)).isInstanceOf(IOException.class);
+    assertThat(failures.get(1)).isInstanceOf(IllegalArgumentException.class);
+    assertThat(attempts).hasValue(4);
+  }
+
+  @Test
+  void an_open_circuit_should_fail_the_items_without_calling_the_registry() {
+    // given a breaker opening after 2 failures, longer than the retries backoff
+    var calls = new AtomicInteger();
+    var breaker = new CircuitBreaker(2, Duration.ofMillis(10));
+    var sut = createSut(breaker);
+    // when pushing 10 items through a registry that is down
+    try (var pipeline =
+        new StagedPipeline<>(
+            sut.wrap(
+                List.of(
+                    new PushExecutor.Stage<Integer>(
+                        PipelineStage.REGISTER,
+                        1,
+                        i -> {
+                          calls.incrementAndGet();
+                          throw new IOException("fake transient exception");
+                        }))),
+            16,
+            failures::put)) {
+      IntStream.range(0, 10).forEach(pipeline::submit);
+    }
+    sut.close();
+    // then all the items should fail
+    assertThat(failures).hasSize(10);
+    // and most of the attempts should be rejected by the open circuit
+    assertThat(calls).hasValueLessThan(30);
+    assertThat(breaker.timesOpened()).isPositive();
+  }
+
+  @Test
+  void an_interrupted_probe_should_open_the_circuit_again() throws Exception {
+    // given a breaker opened by a failure, and a queue making a single attempt
+    var breaker = new CircuitBreaker(1, Duration.ofMillis(10));
+    var sut =
+        new RetryQueue<Integer>(
+            new RetryPolicy(1, Duration.ofMillis(5), Duration.ofMillis(20)),
+            breaker,
+            IOException.class::isInstance,
+            failures::put,
+            1);
+    var action =
+        sut.wrap(
+                List.of(
+                    new PushExecutor.Stage<Integer>(
+                        PipelineStage.REGISTER,
+                        1,
+                        i -> {
+                          if (i == 0) {
+                            throw new IOException("fake transient exception");
+                          }
+                          if (i == 1) {
+                            throw new InterruptedException("fake interruption");
+                          }
+                        })))
+            .get(0)
+            .action();
+    assertThatIOException().isThrownBy(() -> action.apply(0));
+    // when the probe is interrupted once the open duration elapses
+    TimeUnit.MILLISECONDS.sleep(20);
+    assertThatExceptionOfType(InterruptedException.class).isThrownBy(() -> action.apply(1));
+    // then the circuit should be open again, not left probing
+    assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    // and the next probe should go through and close it
+    TimeUnit.MILLISECONDS.sleep(20);
+    action.apply(2);
+    assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    sut.close();
+  }
+
+  @Test
+  void the_retry_listener_should_be_invoked_with_the_item_for_each_retry() {
+    // given a queue with a retry listener, and item 0 failing its first two attempts
+    var attempts = new AtomicInteger();
+    var retries = new ConcurrentLinkedQueue<Integer>();
+    var sut =
+        new RetryQueue<Integer>(
+            FAST_POLICY,
+            new CircuitBreaker(100, Duration.ofSeconds(1)),
+            IOException.class::isInstance,
+            failures::put,
+            retries::add,
+            2);
+    // when pushing 3 items
+    try (var pipeline =
+        new StagedPipeline<>(
+            sut.wrap(
+                List.of(
+                    new PushExecutor.Stage<Integer>(
+                        PipelineStage.REGISTER,
+                        1,
+                        i -> {
+                          if (i == 0 && attempts.incrementAndGet() < 3) {
+                            throw new IOException("fake transient exception");
+                          }
+                        }))),
+            16,
+            failures::put)) {
+      IntStream.range(0, 3).forEach(pipeline::submit);
+    }
+    sut.close();
+    // then the listener should be invoked twice with item 0
+    assertThat(failures).isEmpty();
+    assertThat(retries).containsExactly(0, 0);
+  }
+
+  private RetryQueue<Integer> createSut(final CircuitBreaker breaker) {
+    return new RetryQueue<>(FAST_POLICY, breaker, IOException.class::isInstance, failures::put, 2);
+  }
+}
@@ -0,0 +1,234 @@
+package com.redhat.schema.pusher;
+
+import static java.util.Objects.nonNull;
+import static org.assertj.core.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.*;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.*;
+
+/** Test cases for serving push jobs over HTTP with a warm pusher. */
+class Serving_push_jobs_Test {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final String MANIFEST =
+      "{\"topic\": \"topic1\", \"schema\": \"/schemas/a.avsc\"}\n"
+          + "{\"topic\": \"topic2\", \"schema\": \"/schemas/b.avsc\"}\n";
+  private static final InetSocketAddress LOOPBACK =
+      new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+
+  private final HttpClient client = HttpClient.newHttpClient();
+  private final List<List<TopicAndSchema>> pushed = new CopyOnWriteArrayList<>();
+  private final AtomicBoolean closed = new AtomicBoolean();
+  private volatile CountDownLatch started = new CountDownLatch(0);
+  private volatile CountDownLatch proceed = new CountDownLatch(0);
+  private volatile ReturnCode outcome = ReturnCode.SUCCESS;
+  private volatile RuntimeException failure;
+  private PushServer sut;
+
+  @BeforeAll
+  static void silenceLogger() {
+    // turn off the sut's logger to avoid polluting the build log
+    Logger.getLogger(PushServer.class.getName()).setLevel(Level.OFF);
+    Logger.getLogger(ManifestReader.class.getName()).setLevel(Level.OFF);
+  }
+
+  @AfterEach
+  void cleanup() {
+    sut.close();
+  }
+
+  @Test
+  void posting_jobs_should_push_each_manifest_with_the_same_pusher() throws Exception {
+    // given a server with a fake pusher
+    sut = new PushServer(new FakePusher(), LOOPBACK, 2);
+    // when posting two jobs
+    var first = post("/jobs", MANIFEST);
+    var second = post("/jobs?format=csv", "topic3,/schemas/c.avsc\n");
+    // then both should succeed with their outcome
+    assertThat(first.statusCode()).isEqualTo(200);
+    var body = MAPPER.readTree(first.body());
+    assertThat(body.get("job").asLong()).isEqualTo(1);
+    assertThat(body.get("status").asText()).isEqualTo("SUCCESS");
+    assertThat(body.get("schemas").asLong()).isEqualTo(2);
+    assertThat(second.statusCode()).isEqualTo(200);
+    assertThat(MAPPER.readTree(second.body()).get("job").asLong()).isEqualTo(2);
+    // and the same pusher should push the records of each job
+    assertThat(pushed)
+        .containsExactly(
+            List.of(
+                new TopicAndSchema("topic1", Paths.get("/schemas/a.avsc")),
+                new TopicAndSchema("topic2", Paths.get("/schemas/b.avsc"))),
+            List.of(new TopicAndSchema("topic3", Paths.get("/schemas/c.avsc"))));
+  }
+
+  @Test
+  void a_failed_push_should_respond_with_its_return_code() throws Exception {
+    // given a server with a pusher failing to register
+    outcome = ReturnCode.REGISTRY_ERROR;
+    sut = new PushServer(new FakePusher(), LOOPBACK, 1);
+    // when posting a job
+    var response = post("/jobs", MANIFEST);
+    // then the failure should be relayed
+    assertThat(response.statusCode()).isEqualTo(500);
+    var body = MAPPER.readTree(response.body());
+    assertThat(body.get("status").asText()).isEqualTo("REGISTRY_ERROR");
+    assertThat(body.get("code").asInt()).isEqualTo(ReturnCode.REGISTRY_ERROR.code());
+  }
+
+  @Test
+  void a_push_failing_unexpectedly_should_respond_with_a_server_error() throws Exception {
+    // given a server with a pusher throwing
+    failure = new IllegalStateException("fake unexpected failure");
+    sut = new PushServer(new FakePusher(), LOOPBACK, 1);
+    // when posting a job
+    var response = post("/jobs", MANIFEST);
+    // then the job should fail with its json body
+    assertThat(response.statusCode()).isEqualTo(500);
+    var body = MAPPER.readTree(response.body());
+    assertThat(body.get("status").asText()).isEqualTo("SERVER_ERROR");
+    assertThat(body.get("code").asInt()).isEqualTo(ReturnCode.SERVER_ERROR.code());
+    assertThat(body.get("schemas").asLong()).isEqualTo(2);
+  }
+
+  @Test
+  void a_manifest_with_malformed_lines_should_fail_the_job_after_pushing_the_rest()
+      throws Exception {
+    // given a server with a fake pusher
+    sut = new PushServer(new FakePusher(), LOOPBACK, 1);
+    // when posting a job with a malformed line
+    var response = post("/jobs", MANIFEST + "not a json line\n");
+    // then the valid records should be pushed
+    assertThat(pushed)
+        .singleElement()
+        .asList()
+        .containsExactly(
+            new TopicAndSchema("topic1", Paths.get("/schemas/a.avsc")),
+            new TopicAndSchema("topic2", Paths.get("/schemas/b.avsc")));
+    // and the job should fail with a manifest error
+    assertThat(response.statusCode()).isEqualTo(500);
+    assertThat(json(response).get("status").asText()).isEqualTo("MANIFEST_ERROR");
+  }
+
+  @Test
+  void jobs_beyond_the_maximum_should_be_rejected_and_the_server_not_ready() throws Exception {
+    // given a server running one job at a time, with a pusher held until released
+    started = new CountDownLatch(1);
+    proceed = new CountDownLatch(1);
+    sut = new PushServer(new FakePusher(), LOOPBACK, 1);
+    assertThat(get("/health/ready").statusCode()).isEqualTo(200);
+    // when a job is running
+    var running =
+        client.sendAsync(
+            request("/jobs").POST(HttpRequest.BodyPublishers.ofString(MANIFEST)).build(),
+            HttpResponse.BodyHandlers.ofString());
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    // then another job should be rejected right away
+    var rejected = post("/jobs", MANIFEST);
+    assertThat(rejected.statusCode()).isEqualTo(429);
+    assertThat(rejected.headers().firstValue("Retry-After")).hasValue("1");
+    // and the server should not be ready while still alive
+    var ready = get("/health/ready");
+    assertThat(ready.statusCode()).isEqualTo(503);
+    assertThat(json(ready).get("status").asText()).isEqualTo("BUSY");
+    assertThat(json(ready).get("running_jobs").asInt()).isOne();
+    assertThat(get("/health/live").statusCode()).isEqualTo(200);
+    // when the running job ends
+    proceed.countDown();
+    assertThat(running.get(5, TimeUnit.SECONDS).statusCode()).isEqualTo(200);
+    // then the server should be ready again
+    assertThat(get("/health/ready").statusCode()).isEqualTo(200);
+    assertThat(pushed).hasSize(1);
+  }
+
+  @Test
+  void closing_should_wait_for_the_running_jobs_and_close_the_pusher() throws Exception {
+    // given a server with a running job
+    started = new CountDownLatch(1);
+    proceed = new CountDownLatch(1);
+    sut = new PushServer(new FakePusher(), LOOPBACK, 2);
+    var running =
+        client.sendAsync(
+            request("/jobs").POST(HttpRequest.BodyPublishers.ofString(MANIFEST)).build(),
+            HttpResponse.BodyHandlers.ofString());
+    assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+    // when closing the server while the job runs
+    var closing = new Thread(sut::close);
+    closing.start();
+    // then the job should end before the pusher is closed
+    proceed.countDown();
+    assertThat(running.get(5, TimeUnit.SECONDS).statusCode()).isEqualTo(200);
+    closing.join(TimeUnit.SECONDS.toMillis(5));
+    assertThat(closed).isTrue();
+    assertThatNoException().isThrownBy(sut::await);
+  }
+
+  @Test
+  void bad_job_requests_should_be_refused() throws Exception {
+    // given a server
+    sut = new PushServer(new FakePusher(), LOOPBACK, 1);
+    // then getting jobs or posting them in an unknown format should be refused
+    assertThat(get("/jobs").statusCode()).isEqualTo(405);
+    assertThat(post("/jobs?format=xml", MANIFEST).statusCode()).isEqualTo(400);
+    assertThat(pushed).isEmpty();
+  }
+
+  private HttpResponse<String> post(final String path, final String body) throws Exception {
+    return client.send(
+        request(path).POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+        HttpResponse.BodyHandlers.ofString());
+  }
+
+  private HttpResponse<String> get(final String path) throws Exception {
+    return client.send(request(path).GET().build(), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private HttpRequest.Builder request(final String path) {
+    return HttpRequest.newBuilder(
+        URI.create(
+            String.format(
+                "http://%s:%d%s",
+                InetAddress.getLoopbackAddress().getHostAddress(), sut.getPort(), path)));
+  }
+
+  private static JsonNode json(final HttpResponse<String> response) throws Exception {
+    return MAPPER.readTree(response.body());
+  }
+
+  /* A pusher collecting the records of each push, held until released when asked to. */
+  private final class FakePusher implements SchemaPusher {
+    @Override
+    public ReturnCode push(final Stream<TopicAndSchema> topicSchemaRecords) {
+      var records = topicSchemaRecords.toList();
+      started.countDown();
+      try {
+        proceed.await();
+      } catch (final InterruptedException exc) {
+        Thread.currentThread().interrupt();
+      }
+      if (nonNull(failure)) {
+        throw failure;
+      }
+      pushed.add(records);
+      return outcome;
+    }
+
+    @Override
+    public void close() {
+      closed.set(true);
+    }
+  }
+}
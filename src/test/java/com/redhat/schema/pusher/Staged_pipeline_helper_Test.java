@@ -0,0 +1,96 @@
+package com.redhat.schema.pusher;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/** Test cases for the staged pipeline helper. */
+class Staged_pipeline_helper_Test {
+  @Test
+  void submitted_items_should_go_through_all_the_stages_in_order() {
+    // given a concurrent collection for the completed items
+    var completed = new ConcurrentLinkedQueue<List<PipelineStage>>();
+    // when submitting 100 items to a three stages pipeline
+    try (var sut =
+        new StagedPipeline<List<PipelineStage>>(
+            List.of(
+                new PushExecutor.Stage<>(PipelineStage.READ, 2, i -> i.add(PipelineStage.READ)),
+                new PushExecutor.Stage<>(PipelineStage.PARSE, 3, i -> i.add(PipelineStage.PARSE)),
+                new PushExecutor.Stage<>(
+                    PipelineStage.REGISTER,
+                    4,
+                    i -> {
+                      i.add(PipelineStage.REGISTER);
+                      completed.add(i);
+                    })),
+            8,
+            (i, e) -> fail("no failures expected", e))) {
+      IntStream.range(0, 100)
+          .forEach(n -> sut.submit(Collections.synchronizedList(new ArrayList<>())));
+    }
+    // then closing the pipeline should wait for all the items to complete all the stages in order
+    assertThat(completed)
+        .hasSize(100)
+        .allMatch(
+            i ->
+                i.equals(List.of(PipelineStage.READ, PipelineStage.PARSE, PipelineStage.REGISTER)));
+  }
+
+  @Test
+  void an_item_failing_a_stage_should_be_reported_and_not_proceed_to_the_next_stage() {
+    // given the collections for the failures and the completed items
+    var failures = new ConcurrentHashMap<Integer, Exception>();
+    var completed = new ConcurrentLinkedQueue<Integer>();
+    // when submitting 10 items, failing the even ones in the first stage
+    try (var sut =
+        new StagedPipeline<Integer>(
+            List.of(
+                new PushExecutor.Stage<>(
+                    PipelineStage.READ,
+                    2,
+                    i -> {
+                      if (i % 2 == 0) {
+                        throw new IOException("fake exception");
+                      }
+                    }),
+                new PushExecutor.Stage<>(PipelineStage.REGISTER, 2, completed::add)),
+            4,
+            failures::put)) {
+      IntStream.range(0, 10).forEach(sut::submit);
+    }
+    // then the even items should be reported as failures and the odd ones completed
+    assertThat(failures).containsOnlyKeys(0, 2, 4, 6, 8);
+    assertThat(failures.values()).allMatch(IOException.class::isInstance);
+    assertThat(completed).containsExactlyInAnyOrder(1, 3, 5, 7, 9);
+  }
+
+  @Test
+  void a_stage_should_never_run_more_items_concurrently_than_its_width() {
+    // given counters for the concurrently running and the maximum running items
+    var running = new AtomicInteger();
+    var maxRunning = new AtomicInteger();
+    // when submitting 50 items to a stage with a width of 3
+    try (var sut =
+        new StagedPipeline<Integer>(
+            List.of(
+                new PushExecutor.Stage<>(
+                    PipelineStage.REGISTER,
+                    3,
+                    i -> {
+                      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                      TimeUnit.MILLISECONDS.sleep(2);
+                      running.decrementAndGet();
+                    })),
+            2,
+            (i, e) -> fail("no failures expected", e))) {
+      IntStream.range(0, 50).forEach(sut::submit);
+    }
+    // then the stage should have used its full width without exceeding it
+    assertThat(maxRunning.get()).isEqualTo(3);
+  }
+}
@@ -0,0 +1,89 @@
+package com.redhat.schema.pusher;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.List;
+import java.util.logging.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Test cases for the schema directory walker helper. */
+class Walking_schema_directories_Test {
+  @TempDir Path rootDir;
+  @TempDir Path otherRootDir;
+
+  @BeforeAll
+  static void silenceLogger() {
+    // turn off the sut's logger to avoid polluting the build log
+    Logger.getLogger(SchemaDirectoryWalker.class.getName()).setLevel(Level.OFF);
+  }
+
+  @BeforeEach
+  void initialize() throws IOException {
+    // given the following directory tree in the first root
+    Files.createDirectories(rootDir.resolve("orders/legacy"));
+    Files.writeString(rootDir.resolve("customers.avsc"), "{}");
+    Files.writeString(rootDir.resolve("orders/created.avsc"), "{}");
+    Files.writeString(rootDir.resolve("orders/legacy/old.avsc"), "{}");
+    Files.writeString(rootDir.resolve("orders/readme.md"), "not a schema");
+    // and the following file in the second root
+    Files.writeString(otherRootDir.resolve("payments.avsc"), "{}");
+  }
+
+  @Test
+  void walking_with_the_default_include_glob_should_find_all_the_avsc_files() throws IOException {
+    var sut = new SchemaDirectoryWalker(List.of(rootDir), List.of("**.avsc"), null, "{name}");
+    try (var records = sut.walk()) {
+      assertThat(records)
+          .containsExactlyInAnyOrder(
+              new TopicAndSchema("customers", rootDir.resolve("customers.avsc")),
+              new TopicAndSchema("created", rootDir.resolve("orders/created.avsc")),
+              new TopicAndSchema("old", rootDir.resolve("orders/legacy/old.avsc")));
+    }
+  }
+
+  @Test
+  void walking_with_an_exclude_glob_should_skip_the_excluded_directories() throws IOException {
+    var sut =
+        new SchemaDirectoryWalker(
+            List.of(rootDir), List.of("**.avsc"), List.of("orders/legacy"), "{parent}-{name}");
+    try (var records = sut.walk()) {
+      assertThat(records)
+          .extracting(TopicAndSchema::topic)
+          .containsExactlyInAnyOrder(rootDir.getFileName() + "-customers", "orders-created");
+    }
+  }
+
+  @Test
+  void walking_two_roots_with_the_path_template_should_find_the_files_of_both_roots()
+      throws IOException {
+    var sut =
+        new SchemaDirectoryWalker(
+            List.of(rootDir, otherRootDir), List.of("**.avsc"), null, "topic.{path}");
+    try (var records = sut.walk()) {
+      assertThat(records)
+          .extracting(TopicAndSchema::topic)
+          .containsExactlyInAnyOrder(
+              "topic.customers",
+              "topic.orders.created",
+              "topic.orders.legacy.old",
+              "topic.payments");
+    }
+  }
+
+  @Test
+  void walking_a_non_existing_root_should_throw_an_exception() {
+    var sut =
+        new SchemaDirectoryWalker(
+            List.of(rootDir.resolve("nonexisting")), List.of("**.avsc"), null, "{name}");
+    assertThatExceptionOfType(NotDirectoryException.class).isThrownBy(sut::walk);
+  }
+
+  @Test
+  void walking_with_an_invalid_glob_should_throw_an_exception_before_walking() {
+    var sut = new SchemaDirectoryWalker(List.of(rootDir), List.of("{bad"), null, "{name}");
+    assertThatIOException().isThrownBy(sut::walk).withMessageStartingWith("invalid glob pattern");
+  }
+}
@@ -0,0 +1,95 @@
+package com.redhat.schema.pusher;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Test cases for the schema directory watcher helper. */
+class Watching_schema_directories_Test {
+  private static final Duration DEBOUNCE = Duration.ofMillis(200);
+
+  @TempDir Path rootDir;
+
+  private final BlockingQueue<List<TopicAndSchema>> batches = new LinkedBlockingQueue<>();
+  private SchemaDirectoryWatcher sut;
+  private Thread watching;
+
+  @BeforeAll
+  static void silenceLogger() {
+    // turn off the sut's logger to avoid polluting the build log
+    Logger.getLogger(SchemaDirectoryWatcher.class.getName()).setLevel(Level.OFF);
+  }
+
+  @BeforeEach
+  void initialize() throws IOException {
+    // given the following directory tree watched in the background
+    Files.createDirectories(rootDir.resolve("orders/legacy"));
+    Files.writeString(rootDir.resolve("customers.avsc"), "{}");
+    var walker =
+        new SchemaDirectoryWalker(
+            List.of(rootDir), List.of("**.avsc"), List.of("orders/legacy"), "{name}");
+    sut = new SchemaDirectoryWatcher(walker, DEBOUNCE);
+    watching =
+        new Thread(
+            () -> {
+              try {
+                sut.watch(batches::add);
+              } catch (final IOException exc) {
+                throw new UncheckedIOException(exc);
+              }
+            });
+    watching.start();
+  }
+
+  @AfterEach
+  void cleanup() throws InterruptedException {
+    sut.close();
+    watching.join(TimeUnit.SECONDS.toMillis(5));
+  }
+
+  @Test
+  void a_burst_of_edits_should_be_handed_over_once_per_file() throws Exception {
+    // when editing a schema file repeatedly, and writing a file not included
+    for (var i = 0; i < 5; i++) {
+      Files.writeString(rootDir.resolve("customers.avsc"), String.format("{\"v\": %d}", i));
+    }
+    Files.writeString(rootDir.resolve("readme.md"), "not a schema");
+    // then the schema file should be handed over once
+    assertThat(batches.poll(5, TimeUnit.SECONDS))
+        .containsExactly(new TopicAndSchema("customers", rootDir.resolve("customers.avsc")));
+    assertThat(batches.poll(DEBOUNCE.toMillis() * 2, TimeUnit.MILLISECONDS)).isNull();
+  }
+
+  @Test
+  void files_of_created_directories_should_be_handed_over_and_excluded_ones_ignored()
+      throws Exception {
+    // when creating a schema file in an excluded directory
+    Files.writeString(rootDir.resolve("orders/legacy/old.avsc"), "{}");
+    // and a schema file in a new directory
+    var newDir = Files.createDirectories(rootDir.resolve("payments"));
+    Files.writeString(newDir.resolve("paid.avsc"), "{}");
+    // then only the file of the new directory should be handed over, once
+    assertThat(batches.poll(5, TimeUnit.SECONDS))
+        .containsExactly(new TopicAndSchema("paid", newDir.resolve("paid.avsc")));
+    assertThat(batches.poll(DEBOUNCE.toMillis() * 2, TimeUnit.MILLISECONDS)).isNull();
+  }
+
+  @Test
+  void closing_should_end_the_watch() throws Exception {
+    // when closing the watcher
+    sut.close();
+    // then the watch should end
+    watching.join(TimeUnit.SECONDS.toMillis(5));
+    assertThat(watching.isAlive()).isFalse();
+  }
+}
@@ -0,0 +1,134 @@
+package com.redhat.schema.pusher;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.*;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.w3c.dom.Element;
+
+/** Test cases for rendering and writing the run report. */
+class Writing_the_run_report_Test {
+  private static final RunReport.Entry FAST =
+      entry("fast", RunReport.Outcome.REGISTERED, 0, 5, null);
+  private static final RunReport.Entry SLOW =
+      entry("slow", RunReport.Outcome.REGISTERED, 2, 900, null);
+  private static final RunReport.Entry SKIPPED =
+      entry("skipped", RunReport.Outcome.SKIPPED, 0, 1, null);
+  private static final RunReport.Entry FAILED =
+      entry("failed", RunReport.Outcome.FAILED, 1, 300, "java.io.IOException: fake exception");
+
+  private final RunReport sut = new RunReport(List.of(FAST, SLOW, SKIPPED, FAILED), 2);
+
+  @BeforeAll
+  static void silenceLogger() {
+    // turn off the sut's logger to avoid polluting the build log
+    Logger.getLogger(RunReport.class.getName()).setLevel(Level.OFF);
+  }
+
+  @Test
+  void the_slowest_entries_should_be_listed_slowest_first_up_to_the_top_count() {
+    assertThat(sut.slowest()).containsExactly(SLOW, FAILED);
+  }
+
+  @Test
+  void the_json_report_should_hold_an_entry_per_schema_and_end_with_the_slowest() throws Exception {
+    // when rendering the report as json
+    var json = new ObjectMapper().readTree(sut.toJson());
+    // then it should count the outcomes
+    assertThat(json.get("schemas").asInt()).isEqualTo(4);
+    assertThat(json.get("registered").asInt()).isEqualTo(2);
+    assertThat(json.get("skipped").asInt()).isEqualTo(1);
+    assertThat(json.get("failed").asInt()).isEqualTo(1);
+    // and hold the entries in the order of the run, with their phases in milliseconds
+    assertThat(json.get("entries")).hasSize(4);
+    var slow = json.at("/entries/1");
+    assertThat(slow.get("subject").asText()).isEqualTo("slow-value");
+    assertThat(slow.get("id").asInt()).isEqualTo(7);
+    assertThat(slow.get("outcome").asText()).isEqualTo("registered");
+    assertThat(slow.get("retries").asInt()).isEqualTo(2);
+    assertThat(slow.at("/phases_ms/parse").asDouble()).isEqualTo(100);
+    assertThat(slow.at("/phases_ms/register").asDouble()).isEqualTo(800);
+    assertThat(slow.get("total_ms").asDouble()).isEqualTo(900);
+    assertThat(json.at("/entries/3/error").asText()).contains("fake exception");
+    // and end with the slowest entries
+    assertThat(json.get("slowest")).hasSize(2);
+    assertThat(json.at("/slowest/0/subject").asText()).isEqualTo("slow-value");
+    assertThat(json.at("/slowest/1/subject").asText()).isEqualTo("failed-value");
+  }
+
+  @Test
+  void the_junit_report_should_hold_a_testcase_per_schema() throws Exception {
+    // when rendering the report as junit xml
+    var document =
+        DocumentBuilderFactory.newInstance()
+            .newDocumentBuilder()
+            .parse(new ByteArrayInputStream(sut.toJunit().getBytes(StandardCharsets.UTF_8)));
+    // then the suite should count the schemas, the failed ones, and the skipped ones
+    var suite = document.getDocumentElement();
+    assertThat(suite.getTagName()).isEqualTo("testsuite");
+    assertThat(suite.getAttribute("tests")).isEqualTo("4");
+    assertThat(suite.getAttribute("failures")).isEqualTo("1");
+    assertThat(suite.getAttribute("skipped")).isEqualTo("1");
+    // and each schema should be a testcase named after its subject, timed in seconds
+    var testcases = suite.getElementsByTagName("testcase");
+    assertThat(testcases.getLength()).isEqualTo(4);
+    var slow = (Element) testcases.item(1);
+    assertThat(slow.getAttribute("classname")).isEqualTo("slow");
+    assertThat(slow.getAttribute("name")).isEqualTo("slow-value");
+    assertThat(slow.getAttribute("time")).isEqualTo("0.900");
+    // and the failed and skipped schemas should be marked as such
+    assertThat(((Element) testcases.item(2)).getElementsByTagName("skipped").getLength()).isOne();
+    var failure = (Element) ((Element) testcases.item(3)).getElementsByTagName("failure").item(0);
+    assertThat(failure.getAttribute("message")).contains("fake exception");
+    // and the suite output should list the slowest schemas
+    var suiteOut = suite.getLastChild();
+    assertThat(suiteOut.getNodeName()).isEqualTo("system-out");
+    assertThat(suiteOut.getTextContent())
+        .startsWith("slowest 2 schemas:\n")
+        .contains("slow-value 900.0 ms\nfailed-value 300.0 ms");
+  }
+
+  @Test
+  void the_report_should_be_written_to_the_specified_files(@TempDir final Path tempDir) {
+    // given report files
+    var jsonFile = tempDir.resolve("report.json");
+    var junitFile = tempDir.resolve("report.xml");
+    // when writing the report
+    sut.write(jsonFile, junitFile);
+    // then both files should be written
+    assertThat(jsonFile).content().contains("\"slowest\"");
+    assertThat(junitFile).content().contains("<testsuite");
+  }
+
+  private static RunReport.Entry entry(
+      final String topic,
+      final RunReport.Outcome outcome,
+      final int retries,
+      final long millis,
+      final String error) {
+    return new RunReport.Entry(
+        topic,
+        Path.of(String.format("%s.avsc", topic)),
+        String.format("%s-value", topic),
+        7,
+        outcome,
+        retries,
+        millis > 100
+            ? Map.of(
+                PipelineStage.PARSE,
+                TimeUnit.MILLISECONDS.toNanos(100),
+                PipelineStage.REGISTER,
+                TimeUnit.MILLISECONDS.toNanos(millis - 100))
+            : Map.of(PipelineStage.PARSE, TimeUnit.MILLISECONDS.toNanos(millis)),
+        error);
+  }
+}
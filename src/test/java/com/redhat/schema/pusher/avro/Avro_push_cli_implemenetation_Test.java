@@ -3,19 +3,25 @@
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
 import static org.springframework.test.util.ReflectionTestUtils.getField;
 
 import com.redhat.schema.pusher.*;
+import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.*;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.context.ApplicationContext;
 import picocli.CommandLine;
 
 /** Test cases for the AVRO push cli implementation. */
@@ -26,9 +32,10 @@ class Avro_push_cli_implemenetation_Test {
   private static final String FAKE_TOPIC = "faketopic";
   private static final String TESTING_SCHEMA =
       "com/redhat/schema/pusher/avro/schemas/test_schema2.avsc";
+  private static final String TESTING_SCHEMAS_DIR = "com/redhat/schema/pusher/avro/schemas";
   private static final NamingStrategy FAKE_NAMING_STRATEGY = NamingStrategy.TOPIC_RECORD;
 
-  @Mock private ApplicationContext mockContext;
+  @Mock private AvroComponents mockComponents;
   @InjectMocks private AvroPushCli sut;
 
   @BeforeEach
@@ -50,13 +57,119 @@ void executing_the_cli_implementation_should_invoke_the_schmea_pusher_implementa
     ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
     // the expected TopicAndSchema record
     var expectedRecord = new TopicAndSchema(FAKE_TOPIC, Paths.get(TESTING_SCHEMA));
-    // given the mocked di context will return  the mock schema pusher per the arguments
-    given(mockContext.getBean(eq(SchemaPusher.class), any(PushCli.class)))
-        .willReturn(mockSchemaPusher);
+    // given the mocked components will create the mock schema pusher per the arguments
+    given(mockComponents.createSchemaPusher(any(PushCli.class))).willReturn(mockSchemaPusher);
     // given the mocked schema pusher will return a success code for the fake topic and testing
     // schema file path
     given(mockSchemaPusher.push(List.of(expectedRecord))).willReturn(ReturnCode.SUCCESS);
     // when the sut executes, then the stubbed return success code should be success
     assertThat(sut.call()).isEqualTo(ReturnCode.SUCCESS.code());
   }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void executing_the_cli_implementation_with_a_schema_dir_should_stream_the_discovered_schemas(
+      @Mock final SchemaPusher mockSchemaPusher) throws URISyntaxException {
+    // given a cli parsed with the directory containing the testing schemas
+    var schemasDir =
+        Paths.get(getClass().getClassLoader().getResource(TESTING_SCHEMAS_DIR).toURI());
+    var dirSut = new AvroPushCli(mockComponents);
+    new CommandLine(dirSut)
+        .parseArgs("-b=" + FAKE_BOOTSTRAP, "-r=" + FAKE_REGISTRY, "-d=" + schemasDir);
+    // turn off the sut's logger to avoid polluting the build log
+    ((Logger) getField(dirSut, "LOGGER")).setLevel(Level.OFF);
+    // given the mocked components will create the mock schema pusher per the arguments
+    given(mockComponents.createSchemaPusher(any(PushCli.class))).willReturn(mockSchemaPusher);
+    // given the mocked schema pusher will collect the streamed records and return a success code
+    var pushedRecords = new ArrayList<TopicAndSchema>();
+    given(mockSchemaPusher.push(any(Stream.class)))
+        .willAnswer(
+            inv -> {
+              ((Stream<TopicAndSchema>) inv.getArgument(0)).forEach(pushedRecords::add);
+              return ReturnCode.SUCCESS;
+            });
+    // when the sut executes, then the stubbed return success code should be success
+    assertThat(dirSut.call()).isEqualTo(ReturnCode.SUCCESS.code());
+    // and both testing schemas should be pushed using their file names as topics
+    assertThat(pushedRecords)
+        .containsExactlyInAnyOrder(
+            new TopicAndSchema("test_schema1", schemasDir.resolve("test_schema1.avsc")),
+            new TopicAndSchema("test_schema2", schemasDir.resolve("test_schema2.avsc")));
+  }
+
+  @Test
+  void executing_the_cli_implementation_with_a_missing_schema_dir_should_return_a_dir_error(
+      @Mock final SchemaPusher mockSchemaPusher) {
+    // given a cli parsed with a non existing directory
+    var dirSut = new AvroPushCli(mockComponents);
+    new CommandLine(dirSut)
+        .parseArgs("-b=" + FAKE_BOOTSTRAP, "-r=" + FAKE_REGISTRY, "-d=/non/existing/dir");
+    // turn off the sut's logger to avoid polluting the build log
+    ((Logger) getField(dirSut, "LOGGER")).setLevel(Level.OFF);
+    // given the mocked components will create the mock schema pusher per the arguments
+    given(mockComponents.createSchemaPusher(any(PushCli.class))).willReturn(mockSchemaPusher);
+    // when the sut executes, then the return code should be a directory error
+    assertThat(dirSut.call()).isEqualTo(ReturnCode.DIRECTORY_ERROR.code());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void
+      executing_the_cli_implementation_with_a_malformed_manifest_should_return_a_manifest_error(
+          @Mock final SchemaPusher mockSchemaPusher, @TempDir final Path manifestDir)
+          throws IOException {
+    // given a cli parsed with a manifest having a malformed line
+    var manifest =
+        Files.writeString(
+            manifestDir.resolve("manifest.csv"), "sometopic,/abs/a.avsc\nno separator line\n");
+    var manifestSut = new AvroPushCli(mockComponents);
+    new CommandLine(manifestSut).parseArgs("-r=" + FAKE_REGISTRY, "-m=" + manifest);
+    // turn off the sut's and the reader's loggers to avoid polluting the build log
+    ((Logger) getField(manifestSut, "LOGGER")).setLevel(Level.OFF);
+    Logger.getLogger(ManifestReader.class.getName()).setLevel(Level.OFF);
+    // given the mocked components will create the mock schema pusher per the arguments
+    given(mockComponents.createSchemaPusher(any(PushCli.class))).willReturn(mockSchemaPusher);
+    // given the mocked schema pusher will collect the streamed records and return a success code
+    var pushedRecords = new ArrayList<TopicAndSchema>();
+    given(mockSchemaPusher.push(any(Stream.class)))
+        .willAnswer(
+            inv -> {
+              ((Stream<TopicAndSchema>) inv.getArgument(0)).forEach(pushedRecords::add);
+              return ReturnCode.SUCCESS;
+            });
+    // when the sut executes, then the return code should be a manifest error
+    assertThat(manifestSut.call()).isEqualTo(ReturnCode.MANIFEST_ERROR.code());
+    // and the valid record should still be pushed
+    assertThat(pushedRecords)
+        .containsExactly(new TopicAndSchema("sometopic", Paths.get("/abs/a.avsc")));
+  }
+
+  @Test
+  void executing_the_cli_implementation_watching_with_pruning_should_return_a_dir_error() {
+    // given a cli parsed with watching a directory and pruning the registry
+    var dirSut = new AvroPushCli(mockComponents);
+    new CommandLine(dirSut)
+        .parseArgs(
+            "-r=" + FAKE_REGISTRY, "-d=/non/existing/dir", "--watch", "--reconcile", "--prune");
+    // turn off the sut's logger to avoid polluting the build log
+    ((Logger) getField(dirSut, "LOGGER")).setLevel(Level.OFF);
+    // when the sut executes, then the return code should be a directory error
+    assertThat(dirSut.call()).isEqualTo(ReturnCode.DIRECTORY_ERROR.code());
+    // and no schema pusher should be created
+    then(mockComponents).shouldHaveNoInteractions();
+  }
+
+  @Test
+  void executing_the_cli_implementation_serving_with_pruning_should_return_a_server_error() {
+    // given a cli parsed with serving push jobs and pruning the registry
+    var serveSut = new AvroPushCli(mockComponents);
+    new CommandLine(serveSut)
+        .parseArgs("-r=" + FAKE_REGISTRY, "--serve-port=0", "--reconcile", "--prune");
+    // turn off the sut's logger to avoid polluting the build log
+    ((Logger) getField(serveSut, "LOGGER")).setLevel(Level.OFF);
+    // when the sut executes, then the return code should be a server error
+    assertThat(serveSut.call()).isEqualTo(ReturnCode.SERVER_ERROR.code());
+    // and no schema pusher should be created
+    then(mockComponents).shouldHaveNoInteractions();
+  }
 }
@@ -5,21 +5,33 @@
 import static org.mockito.BDDMockito.*;
 import static org.springframework.test.util.ReflectionTestUtils.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.redhat.schema.pusher.*;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.*;
+import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
 import java.io.*;
 import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
 import java.util.logging.*;
 import org.apache.avro.generic.IndexedRecord;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.config.types.Password;
+import org.apache.kafka.common.errors.SerializationException;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.context.ApplicationContext;
 
 /** Test cases for the AVRO schema pusher impelementation. */
 @ExtendWith(MockitoExtension.class)
@@ -40,7 +52,7 @@ class Avro_schema_pusher_implementation_Test {
 
   @Captor private ArgumentCaptor<ProducerRecord<String, IndexedRecord>> prodRecCaptore;
   @Mock private SchemaProducer<String, IndexedRecord> mockProducer;
-  @Mock private ApplicationContext mockContext;
+  @Mock private AvroComponents mockComponents;
   @Mock private PushCli mockCli;
   private AvroSchemaPusher sut;
 
@@ -52,17 +64,15 @@ void a_failed_push_with_the_producer_should_not_throw_an_exception() throws URIS
     when(mockCli.getServiceRegistry()).thenReturn(FAKE_REGISTRY);
     when(mockCli.getNamingStrategy()).thenReturn(FAKE_NAMING_STRATEGY);
     // instantiate the sut with the fake info
-    sut = new AvroSchemaPusher(mockCli);
-    // stub the private di context
-    setField(sut, "context", mockContext);
+    sut = new AvroSchemaPusher(mockCli, mockComponents);
     // turn off the sut's logger to avoid polluting the build log
     ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
     // short-circuit the producer to throw an exception
     willThrow(new UncheckedIOException(new IOException("fake exception")))
         .given(mockProducer)
         .send(any(ProducerRecord.class));
-    // given the di context will return the mocked producer as bean per the properties match
-    given(mockContext.getBean(eq(SchemaProducer.class), argThat(securedPropertiesMatcher)))
+    // given the components will create the mocked producer per the properties match
+    given(mockComponents.createProducer(argThat(securedPropertiesMatcher)))
         .willReturn(mockProducer);
     // given the following test schema
     var testSchema = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema1.avsc");
@@ -91,13 +101,11 @@ void pushing_one_file_and_one_topic_should_result_in_one_producer_records_sent(
     given(mockCli.getTruststoreInfo()).willReturn(mockTruststoreInfo);
     given(mockCli.getKeystoreInfo()).willReturn(mockKeystoreInfo);
     // instantiate the sut with the fake info
-    sut = new AvroSchemaPusher(mockCli);
+    sut = new AvroSchemaPusher(mockCli, mockComponents);
     // turn off the sut's logger to avoid polluting the build log
     ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
-    // stub the private di context
-    setField(sut, "context", mockContext);
-    // given the di context will return the mocked producer as bean per the properties match
-    given(mockContext.getBean(eq(SchemaProducer.class), argThat(selfSingedPropertiesMatcher)))
+    // given the components will create the mocked producer per the properties match
+    given(mockComponents.createProducer(argThat(selfSingedPropertiesMatcher)))
         .willReturn(mockProducer);
     // given the following two schema test files
     var testSchema1 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema1.avsc");
@@ -109,6 +117,39 @@ void pushing_one_file_and_one_topic_should_result_in_one_producer_records_sent(
         .send(argThat(prodRecMatcher(FAKE_TOPIC1, "TestingSchema1Name")::test));
   }
 
+  @Test
+  void pushing_with_base64_encoded_stores_should_set_them_inline_as_pem(
+      @Mock final PushCli.TruststoreInfo mockTruststoreInfo,
+      @Mock final PushCli.KeystoreInfo mockKeystoreInfo)
+      throws URISyntaxException {
+    // given an encoded pkcs12 store used both as the truststore and the keystore
+    var storeB64 = "file:" + getResourceAbsPath("com/redhat/schema/pusher/keystore.p12.b64");
+    given(mockTruststoreInfo.getTruststoreBase64()).willReturn(storeB64);
+    given(mockTruststoreInfo.getTruststorePassword()).willReturn("changeit");
+    given(mockKeystoreInfo.getKeystoreBase64()).willReturn(storeB64);
+    given(mockKeystoreInfo.getKeystorePassword()).willReturn("changeit");
+    // stub the cli
+    given(mockCli.getKafkaBootstrap()).willReturn(FAKE_SECURED_BOOTSTRAP);
+    given(mockCli.getServiceRegistry()).willReturn(FAKE_REGISTRY);
+    given(mockCli.getNamingStrategy()).willReturn(FAKE_NAMING_STRATEGY);
+    given(mockCli.getTruststoreInfo()).willReturn(mockTruststoreInfo);
+    given(mockCli.getKeystoreInfo()).willReturn(mockKeystoreInfo);
+    // instantiate the sut with the fake info
+    sut = new AvroSchemaPusher(mockCli, mockComponents);
+    // turn off the sut's logger to avoid polluting the build log
+    ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
+    // given the components will create the mocked producer per the properties match
+    given(mockComponents.createProducer(argThat(inlineStoresPropertiesMatcher)))
+        .willReturn(mockProducer);
+    var testSchema1 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema1.avsc");
+    // when invoking the push method
+    sut.push(List.of(new TopicAndSchema(FAKE_TOPIC1, testSchema1)));
+    // then the producer created with the inline stores should send the record
+    then(mockProducer)
+        .should()
+        .send(argThat(prodRecMatcher(FAKE_TOPIC1, "TestingSchema1Name")::test));
+  }
+
   @Test
   void pushing_two_files_and_two_topics_should_result_in_two_producer_records_sent()
       throws URISyntaxException {
@@ -117,13 +158,11 @@ void pushing_two_files_and_two_topics_should_result_in_two_producer_records_sent
     when(mockCli.getServiceRegistry()).thenReturn(FAKE_REGISTRY);
     when(mockCli.getNamingStrategy()).thenReturn(FAKE_NAMING_STRATEGY);
     // instantiate the sut with the fake info
-    sut = new AvroSchemaPusher(mockCli);
+    sut = new AvroSchemaPusher(mockCli, mockComponents);
     // turn off the sut's logger to avoid polluting the build log
     ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
-    // stub the private di context
-    setField(sut, "context", mockContext);
-    // given the di context will return the mocked producer as bean per the properties match
-    given(mockContext.getBean(eq(SchemaProducer.class), argThat(notSecuredPropertiesMatcher)))
+    // given the components will create the mocked producer per the properties match
+    given(mockComponents.createProducer(argThat(notSecuredPropertiesMatcher)))
         .willReturn(mockProducer);
     // given the following two schema test files
     var testSchema1 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema1.avsc");
@@ -146,6 +185,535 @@ void pushing_two_files_and_two_topics_should_result_in_two_producer_records_sent
         .hasSize(1);
   }
 
+  @Test
+  void pushing_two_files_with_the_virtual_threads_mode_should_result_in_two_producer_records_sent()
+      throws URISyntaxException {
+    // stub the cli
+    given(mockCli.getKafkaBootstrap()).willReturn(FAKE_NOT_SECURED_BOOTSTRAP);
+    given(mockCli.getServiceRegistry()).willReturn(FAKE_REGISTRY);
+    given(mockCli.getNamingStrategy()).willReturn(FAKE_NAMING_STRATEGY);
+    given(mockCli.getExecutionMode()).willReturn(ExecutionMode.VIRTUAL_THREADS);
+    given(mockCli.getMaxInFlight()).willReturn(1);
+    // instantiate the sut with the fake info
+    sut = new AvroSchemaPusher(mockCli, mockComponents);
+    // turn off the sut's logger to avoid polluting the build log
+    ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
+    // given the components will create the mocked producer per the properties match
+    given(mockComponents.createProducer(argThat(notSecuredPropertiesMatcher)))
+        .willReturn(mockProducer);
+    // given the following two schema test files
+    var testSchema1 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema1.avsc");
+    var testSchema2 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema2.avsc");
+    // when invoking the push method with two topics and two schema files
+    var retCode =
+        sut.push(
+            List.of(
+                new TopicAndSchema(FAKE_TOPIC1, testSchema1),
+                new TopicAndSchema(FAKE_TOPIC2, testSchema2)));
+    // then the push should succeed with two invocations of the send method
+    assertThat(retCode).isEqualTo(ReturnCode.SUCCESS);
+    then(mockProducer).should(times(2)).send(prodRecCaptore.capture());
+    assertThat(prodRecCaptore.getAllValues())
+        .filteredOn(prodRecMatcher(FAKE_TOPIC1, "TestingSchema1Name"))
+        .hasSize(1);
+    assertThat(prodRecCaptore.getAllValues())
+        .filteredOn(prodRecMatcher(FAKE_TOPIC2, "TestingSchema2Name"))
+        .hasSize(1);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void a_record_failing_transiently_should_be_retried_and_a_permanent_failure_fail_the_push()
+      throws URISyntaxException {
+    // stub the cli
+    given(mockCli.getKafkaBootstrap()).willReturn(FAKE_NOT_SECURED_BOOTSTRAP);
+    given(mockCli.getServiceRegistry()).willReturn(FAKE_REGISTRY);
+    given(mockCli.getNamingStrategy()).willReturn(FAKE_NAMING_STRATEGY);
+    given(mockCli.getMaxRetries()).willReturn(2);
+    given(mockCli.getRetryBackoff()).willReturn(1);
+    // instantiate the sut with the fake info
+    sut = new AvroSchemaPusher(mockCli, mockComponents);
+    // turn off the loggers to avoid polluting the build log
+    ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
+    Logger.getLogger(AvroPushSupport.class.getName()).setLevel(Level.OFF);
+    Logger.getLogger(RetryQueue.class.getName()).setLevel(Level.OFF);
+    // given the producer will fail once with an unavailable registry
+    given(mockProducer.send(any(ProducerRecord.class)))
+        .willThrow(
+            new SerializationException(
+                "fake exception", new RestClientException("unavailable", 503, 50301)))
+        .willReturn(null);
+    given(mockComponents.createProducer(argThat(notSecuredPropertiesMatcher)))
+        .willReturn(mockProducer);
+    var records =
+        List.of(
+            new TopicAndSchema(
+                FAKE_TOPIC1,
+                getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema1.avsc")));
+    // when pushing, then the record should be retried and the push succeed
+    assertThat(sut.push(records)).isEqualTo(ReturnCode.SUCCESS);
+    then(mockProducer).should(times(2)).send(any(ProducerRecord.class));
+    // and given the producer will fail with an incompatible schema
+    given(mockProducer.send(any(ProducerRecord.class)))
+        .willThrow(
+            new SerializationException(
+                "fake exception", new RestClientException("incompatible", 409, 40901)));
+    // when pushing, then the record should not be retried and the push fail
+    assertThat(sut.push(records)).isEqualTo(ReturnCode.PRODUCER_ERROR);
+    then(mockProducer).should(times(3)).send(any(ProducerRecord.class));
+  }
+
+  @Test
+  void pushing_one_file_to_many_topics_should_produce_the_same_parsed_record_to_each_topic()
+      throws URISyntaxException {
+    // stub the cli
+    given(mockCli.getKafkaBootstrap()).willReturn(FAKE_NOT_SECURED_BOOTSTRAP);
+    given(mockCli.getServiceRegistry()).willReturn(FAKE_REGISTRY);
+    given(mockCli.getNamingStrategy()).willReturn(FAKE_NAMING_STRATEGY);
+    // instantiate the sut with the fake info
+    sut = new AvroSchemaPusher(mockCli, mockComponents);
+    // turn off the sut's logger to avoid polluting the build log
+    ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
+    // given the components will create the mocked producer per the properties match
+    given(mockComponents.createProducer(argThat(notSecuredPropertiesMatcher)))
+        .willReturn(mockProducer);
+    // given the following schema test file
+    var testSchema1 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema1.avsc");
+    // when pushing it to three topics
+    sut.push(
+        List.of(
+            new TopicAndSchema("topic1", testSchema1),
+            new TopicAndSchema("topic2", testSchema1),
+            new TopicAndSchema("topic3", testSchema1)));
+    // then three records should be sent, one per topic
+    then(mockProducer).should(times(3)).send(prodRecCaptore.capture());
+    assertThat(prodRecCaptore.getAllValues())
+        .extracting(ProducerRecord::topic)
+        .containsExactlyInAnyOrder("topic1", "topic2", "topic3");
+    // and all the records should share the same parsed value
+    var first = prodRecCaptore.getAllValues().get(0).value();
+    assertThat(prodRecCaptore.getAllValues())
+        .allSatisfy(pr -> assertThat(pr.value()).isSameAs(first));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void pushing_with_the_async_registry_should_register_ahead_and_hand_the_client_to_the_serializer(
+      @Mock final HttpClient mockHttpClient) throws URISyntaxException {
+    // stub the cli
+    given(mockCli.getKafkaBootstrap()).willReturn(FAKE_NOT_SECURED_BOOTSTRAP);
+    given(mockCli.getServiceRegistry()).willReturn(FAKE_REGISTRY);
+    given(mockCli.getNamingStrategy()).willReturn(FAKE_NAMING_STRATEGY);
+    given(mockCli.isAsyncRegistry()).willReturn(true);
+    // instantiate the sut with the fake info
+    sut = new AvroSchemaPusher(mockCli, mockComponents);
+    // turn off the sut's logger to avoid polluting the build log
+    ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
+    // given the http client will keep the registrations in flight
+    given(mockHttpClient.sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class)))
+        .willReturn(new CompletableFuture<>());
+    given(mockComponents.createRegistryHttpClient()).willReturn(mockHttpClient);
+    // given the components will create the mocked producer for properties holding the client
+    given(
+            mockComponents.createProducer(
+                argThat(
+                    (Properties props) ->
+                        props.get(AvroCustomSerializer.SCHEMA_REGISTRY_CLIENT_CONFIG)
+                            instanceof AsyncRegistryClient)))
+        .willReturn(mockProducer);
+    // given the following schema test file
+    var testSchema1 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema1.avsc");
+    // when pushing it
+    sut.push(List.of(new TopicAndSchema(FAKE_TOPIC1, testSchema1)));
+    // then the registration should be started ahead of producing the record
+    then(mockHttpClient)
+        .should()
+        .sendAsync(any(HttpRequest.class), any(HttpResponse.BodyHandler.class));
+    then(mockProducer).should().send(any(ProducerRecord.class));
+  }
+
+  @Test
+  void pushing_twice_with_a_state_file_should_skip_the_unchanged_schemas_on_the_second_push(
+      @TempDir final Path tempDir) throws URISyntaxException {
+    // stub the cli
+    var stateFile = tempDir.resolve("state.bin");
+    given(mockCli.getKafkaBootstrap()).willReturn(FAKE_NOT_SECURED_BOOTSTRAP);
+    given(mockCli.getServiceRegistry()).willReturn(FAKE_REGISTRY);
+    given(mockCli.getNamingStrategy()).willReturn(FAKE_NAMING_STRATEGY);
+    given(mockCli.getStateFile()).willReturn(stateFile);
+    // instantiate the sut with the fake info
+    sut = new AvroSchemaPusher(mockCli, mockComponents);
+    // turn off the sut's logger to avoid polluting the build log
+    ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
+    Logger.getLogger(FingerprintState.class.getName()).setLevel(Level.OFF);
+    // given the components will create the mocked producer per the properties match
+    given(mockComponents.createProducer(argThat(notSecuredPropertiesMatcher)))
+        .willReturn(mockProducer);
+    // given the mocked producer will return the serialized value framing the schema id
+    given(mockProducer.send(any())).willReturn(new byte[] {0, 0, 0, 0, 42});
+    // given the following schema test file
+    var testSchema1 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema1.avsc");
+    var records = List.of(new TopicAndSchema(FAKE_TOPIC1, testSchema1));
+    // when pushing it twice
+    assertThat(sut.push(records)).isEqualTo(ReturnCode.SUCCESS);
+    assertThat(sut.push(records)).isEqualTo(ReturnCode.SUCCESS);
+    // then the producer should be invoked only for the first push
+    then(mockProducer).should(times(1)).send(any());
+    // and the state file should be created
+    assertThat(stateFile).exists();
+  }
+
+  @Test
+  void pushing_with_a_report_should_write_an_entry_per_schema_with_its_outcome(
+      @TempDir final Path tempDir) throws Exception {
+    // stub the cli
+    var reportFile = tempDir.resolve("report.json");
+    given(mockCli.getKafkaBootstrap()).willReturn(FAKE_NOT_SECURED_BOOTSTRAP);
+    given(mockCli.getServiceRegistry()).willReturn(FAKE_REGISTRY);
+    given(mockCli.getNamingStrategy()).willReturn(FAKE_NAMING_STRATEGY);
+    given(mockCli.getReportJson()).willReturn(reportFile);
+    given(mockCli.getReportTop()).willReturn(1);
+    // instantiate the sut with the fake info
+    sut = new AvroSchemaPusher(mockCli, mockComponents);
+    // turn off the sut's logger to avoid polluting the build log
+    ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
+    Logger.getLogger(AvroPushSupport.class.getName()).setLevel(Level.OFF);
+    Logger.getLogger(RunReport.class.getName()).setLevel(Level.OFF);
+    // given the components will create the mocked producer per the properties match
+    given(mockComponents.createProducer(argThat(notSecuredPropertiesMatcher)))
+        .willReturn(mockProducer);
+    // given the mocked producer will frame the schema id for the first topic and fail the second
+    willReturn(new byte[] {0, 0, 0, 0, 42})
+        .given(mockProducer)
+        .send(argThat(r -> r.topic().equals(FAKE_TOPIC1)));
+    willThrow(new IllegalArgumentException("fake exception"))
+        .given(mockProducer)
+        .send(argThat(r -> r.topic().equals(FAKE_TOPIC2)));
+    // given the following schema test files
+    var testSchema1 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema1.avsc");
+    var testSchema2 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema2.avsc");
+    // when pushing them
+    assertThat(
+            sut.push(
+                List.of(
+                    new TopicAndSchema(FAKE_TOPIC1, testSchema1),
+                    new TopicAndSchema(FAKE_TOPIC2, testSchema2))))
+        .isEqualTo(ReturnCode.PRODUCER_ERROR);
+    // then the report should hold the registered schema with its id and phases
+    var report = new ObjectMapper().readTree(reportFile.toFile());
+    assertThat(report.get("schemas").asInt()).isEqualTo(2);
+    var registered = report.at("/entries/0");
+    assertThat(registered.get("topic").asText()).isEqualTo(FAKE_TOPIC1);
+    assertThat(registered.get("subject").asText())
+        .startsWith(FAKE_TOPIC1 + "-")
+        .endsWith("TestingSchema1Name");
+    assertThat(registered.get("id").asInt()).isEqualTo(42);
+    assertThat(registered.get("outcome").asText()).isEqualTo("registered");
+    assertThat(registered.get("phases_ms").fieldNames())
+        .toIterable()
+        .containsExactly("read", "parse", "resolve", "register");
+    // and the failed schema with its error
+    var failed = report.at("/entries/1");
+    assertThat(failed.get("outcome").asText()).isEqualTo("failed");
+    assertThat(failed.get("error").asText()).contains("fake exception");
+    // and end with the slowest schema
+    assertThat(report.get("slowest")).hasSize(1);
+  }
+
+  @Test
+  void reconciling_and_pruning_should_register_only_the_delta_and_delete_the_missing_subjects()
+      throws Exception {
+    // stub the cli
+    given(mockCli.getKafkaBootstrap()).willReturn(FAKE_NOT_SECURED_BOOTSTRAP);
+    given(mockCli.getServiceRegistry()).willReturn(FAKE_REGISTRY);
+    given(mockCli.getNamingStrategy()).willReturn(FAKE_NAMING_STRATEGY);
+    given(mockCli.isReconcile()).willReturn(true);
+    given(mockCli.isPrune()).willReturn(true);
+    // instantiate the sut with the fake info
+    sut = new AvroSchemaPusher(mockCli, mockComponents);
+    // turn off the sut's logger to avoid polluting the build log
+    ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
+    // given the following two schema test files
+    var testSchema1 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema1.avsc");
+    var testSchema2 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema2.avsc");
+    // given a registry with the first schema already registered, and an obsolete subject
+    var subject1 = FAKE_TOPIC1 + "-com.redhat.schema.pusher.avro.schemas.TestingSchema1Name";
+    var subject2 = FAKE_TOPIC2 + "-com.redhat.schema.pusher.avro.schemas.TestingSchema2Name";
+    var seededRegistry = new MockSchemaRegistryClient();
+    seededRegistry.register(subject1, new AvroSchema(Files.readString(testSchema1)));
+    seededRegistry.register("obsolete-subject", new AvroSchema(Files.readString(testSchema1)));
+    var registry = spy(seededRegistry);
+    given(mockComponents.createRegistryClient(argThat(registryPropertiesMatcher)))
+        .willReturn(registry);
+    // when invoking the push method with both schema files
+    var retCode =
+        sut.push(
+            List.of(
+                new TopicAndSchema(FAKE_TOPIC1, testSchema1),
+                new TopicAndSchema(FAKE_TOPIC2, testSchema2)));
+    // then the push should succeed
+    assertThat(retCode).isEqualTo(ReturnCode.SUCCESS);
+    // and only the second schema should be registered
+    then(registry).should().register(eq(subject2), any(ParsedSchema.class));
+    then(registry).should(never()).register(eq(subject1), any(ParsedSchema.class));
+    // and the obsolete subject should be deleted
+    then(registry).should().deleteSubject("obsolete-subject", false);
+    assertThat(registry.getAllSubjects()).containsExactlyInAnyOrder(subject1, subject2);
+    // and the producer should not be used
+    then(mockComponents).should(never()).createProducer(any());
+  }
+
+  @Test
+  void reconciling_with_a_state_file_should_register_again_a_subject_gone_from_the_registry(
+      @TempDir final Path tempDir) throws Exception {
+    // stub the cli without a kafka bootstrap url, keeping a state file
+    given(mockCli.getServiceRegistry()).willReturn(FAKE_REGISTRY);
+    given(mockCli.getNamingStrategy()).willReturn(FAKE_NAMING_STRATEGY);
+    given(mockCli.isReconcile()).willReturn(true);
+    given(mockCli.getStateFile()).willReturn(tempDir.resolve("state.bin"));
+    // instantiate the sut with the fake info
+    sut = new AvroSchemaPusher(mockCli, mockComponents);
+    // turn off the sut's logger to avoid polluting the build log
+    ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
+    Logger.getLogger(FingerprintState.class.getName()).setLevel(Level.OFF);
+    // given the following schema test file, pushed once and recorded in the state file
+    var testSchema1 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema1.avsc");
+    var subject1 = FAKE_TOPIC1 + "-com.redhat.schema.pusher.avro.schemas.TestingSchema1Name";
+    var registry = spy(new MockSchemaRegistryClient());
+    given(mockComponents.createRegistryClient(argThat(registryPropertiesMatcher)))
+        .willReturn(registry);
+    var records = List.of(new TopicAndSchema(FAKE_TOPIC1, testSchema1));
+    assertThat(sut.push(records)).isEqualTo(ReturnCode.SUCCESS);
+    // when its subject is deleted from the registry, and it is pushed again
+    registry.deleteSubject(subject1, false);
+    assertThat(sut.push(records)).isEqualTo(ReturnCode.SUCCESS);
+    // then it should be registered again, despite the state file
+    then(registry).should(times(2)).register(eq(subject1), any(ParsedSchema.class));
+    assertThat(registry.getAllSubjects()).containsExactly(subject1);
+  }
+
+  @Test
+  void reconciling_and_pruning_with_a_failing_schema_file_should_not_prune_any_subject()
+      throws Exception {
+    // stub the cli without a kafka bootstrap url
+    given(mockCli.getServiceRegistry()).willReturn(FAKE_REGISTRY);
+    given(mockCli.getNamingStrategy()).willReturn(FAKE_NAMING_STRATEGY);
+    given(mockCli.isReconcile()).willReturn(true);
+    given(mockCli.isPrune()).willReturn(true);
+    // instantiate the sut with the fake info
+    sut = new AvroSchemaPusher(mockCli, mockComponents);
+    // turn off the sut's logger to avoid polluting the build log
+    ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
+    // given the following schema test file, and a registry with the subject of a second file
+    var testSchema1 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema1.avsc");
+    var testSchema2 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema2.avsc");
+    var subject2 = FAKE_TOPIC2 + "-com.redhat.schema.pusher.avro.schemas.TestingSchema2Name";
+    var seededRegistry = new MockSchemaRegistryClient();
+    seededRegistry.register(subject2, new AvroSchema(Files.readString(testSchema2)));
+    var registry = spy(seededRegistry);
+    given(mockComponents.createRegistryClient(argThat(registryPropertiesMatcher)))
+        .willReturn(registry);
+    // when invoking the push method with the first file and the second file failing to read
+    var retCode =
+        sut.push(
+            List.of(
+                new TopicAndSchema(FAKE_TOPIC1, testSchema1),
+                new TopicAndSchema(FAKE_TOPIC2, testSchema2.resolveSibling("missing.avsc"))));
+    // then the push should fail
+    assertThat(retCode).isEqualTo(ReturnCode.REGISTRY_ERROR);
+    // and the subject of the failing file should not be pruned
+    then(registry).should(never()).deleteSubject(anyString(), anyBoolean());
+    assertThat(registry.getAllSubjects()).contains(subject2);
+  }
+
+  @Test
+  void checking_compatibility_with_an_incompatible_schema_should_register_none_of_the_schemas()
+      throws Exception {
+    // stub the cli without a kafka bootstrap url and with the compatibility check
+    given(mockCli.getServiceRegistry()).willReturn(FAKE_REGISTRY);
+    given(mockCli.getNamingStrategy()).willReturn(FAKE_NAMING_STRATEGY);
+    given(mockCli.isCheckCompatibility()).willReturn(true);
+    // instantiate the sut with the fake info
+    sut = new AvroSchemaPusher(mockCli, mockComponents);
+    // turn off the sut's logger to avoid polluting the build log
+    ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
+    // given the following two schema test files
+    var testSchema1 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema1.avsc");
+    var testSchema2 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema2.avsc");
+    // given a registry with a version of the first schema lacking a field the file requires
+    var subject1 = FAKE_TOPIC1 + "-com.redhat.schema.pusher.avro.schemas.TestingSchema1Name";
+    var seededRegistry = new MockSchemaRegistryClient();
+    seededRegistry.register(
+        subject1,
+        new AvroSchema(
+            "{\"namespace\": \"com.redhat.schema.pusher.avro.schemas\", \"type\": \"record\","
+                + " \"name\": \"TestingSchema1Name\", \"fields\": [{\"name\": \"id\","
+                + " \"type\": \"double\"}]}"));
+    var registry = spy(seededRegistry);
+    given(mockComponents.createRegistryClient(argThat(registryPropertiesMatcher)))
+        .willReturn(registry);
+    // when invoking the push method with both schema files
+    var retCode =
+        sut.push(
+            List.of(
+                new TopicAndSchema(FAKE_TOPIC1, testSchema1),
+                new TopicAndSchema(FAKE_TOPIC2, testSchema2)));
+    // then the push should fail
+    assertThat(retCode).isEqualTo(ReturnCode.REGISTRY_ERROR);
+    // and none of the schemas should be registered, not even the compatible one
+    then(registry).should(never()).register(anyString(), any(ParsedSchema.class), anyBoolean());
+    assertThat(registry.getAllSubjects()).containsExactly(subject1);
+  }
+
+  @Test
+  void pushing_files_sharing_named_types_should_register_them_in_order_as_references()
+      throws Exception {
+    // stub the cli
+    given(mockCli.getKafkaBootstrap()).willReturn(FAKE_NOT_SECURED_BOOTSTRAP);
+    given(mockCli.getServiceRegistry()).willReturn(FAKE_REGISTRY);
+    given(mockCli.getNamingStrategy()).willReturn(FAKE_NAMING_STRATEGY);
+    given(mockCli.isResolveReferences()).willReturn(true);
+    // instantiate the sut with the fake info
+    sut = new AvroSchemaPusher(mockCli, mockComponents);
+    // turn off the sut's logger to avoid polluting the build log
+    ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
+    // given the components will create a spied mock registry client per the properties match
+    var registry = spy(new MockSchemaRegistryClient());
+    given(mockComponents.createRegistryClient(argThat(registryPropertiesMatcher)))
+        .willReturn(registry);
+    // given the following schema files, the customer uses the address, both use the status
+    var refsDir = "com/redhat/schema/pusher/avro/references/";
+    var customer = getResourceAbsPath(refsDir + "customer.avsc");
+    var address = getResourceAbsPath(refsDir + "address.avsc");
+    var status = getResourceAbsPath(refsDir + "status.avsc");
+    // when invoking the push method with the dependent files first
+    var retCode =
+        sut.push(
+            List.of(
+                new TopicAndSchema("customers", customer),
+                new TopicAndSchema("addresses", address),
+                new TopicAndSchema("statuses", status)));
+    // then the push should succeed
+    assertThat(retCode).isEqualTo(ReturnCode.SUCCESS);
+    // and the schemas should be registered in dependency order
+    var ns = "com.redhat.schema.pusher.avro.schemas.";
+    var statusSubject = "statuses-" + ns + "TestingStatus";
+    var addressSubject = "addresses-" + ns + "TestingAddress";
+    var customerSubject = "customers-" + ns + "TestingCustomer";
+    var registryOrder = inOrder(registry);
+    then(registry)
+        .should(registryOrder)
+        .register(eq(statusSubject), argThat(s -> s.references().isEmpty()));
+    then(registry)
+        .should(registryOrder)
+        .register(
+            eq(addressSubject),
+            argThat(
+                s ->
+                    s.references()
+                        .equals(
+                            List.of(new SchemaReference(ns + "TestingStatus", statusSubject, 1)))));
+    then(registry)
+        .should(registryOrder)
+        .register(
+            eq(customerSubject),
+            argThat(
+                s ->
+                    s.references()
+                        .equals(
+                            List.of(
+                                new SchemaReference(ns + "TestingAddress", addressSubject, 1),
+                                new SchemaReference(ns + "TestingStatus", statusSubject, 1)))));
+    // and the producer should not be used
+    then(mockComponents).should(never()).createProducer(any());
+  }
+
+  @Test
+  void pushing_files_sharing_named_types_with_a_missing_dependency_should_fail_the_registry()
+      throws Exception {
+    // stub the cli
+    given(mockCli.getServiceRegistry()).willReturn(FAKE_REGISTRY);
+    given(mockCli.getNamingStrategy()).willReturn(FAKE_NAMING_STRATEGY);
+    given(mockCli.isResolveReferences()).willReturn(true);
+    // instantiate the sut with the fake info
+    sut = new AvroSchemaPusher(mockCli, mockComponents);
+    // turn off the sut's logger to avoid polluting the build log
+    ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
+    // given the components will create a mock registry client per the properties match
+    given(mockComponents.createRegistryClient(argThat(registryPropertiesMatcher)))
+        .willReturn(new MockSchemaRegistryClient());
+    // given the status schema file, used by the address schema file, is not pushed
+    var address = getResourceAbsPath("com/redhat/schema/pusher/avro/references/address.avsc");
+    // when invoking the push method with the dependent file only
+    var retCode = sut.push(List.of(new TopicAndSchema("addresses", address)));
+    // then the push should fail with a registry error, as no producer is involved
+    assertThat(retCode).isEqualTo(ReturnCode.REGISTRY_ERROR);
+  }
+
+  @Test
+  void pushing_without_a_bootstrap_url_should_register_directly_without_the_producer()
+      throws Exception {
+    // stub the cli without a kafka bootstrap url
+    given(mockCli.getServiceRegistry()).willReturn(FAKE_REGISTRY);
+    given(mockCli.getNamingStrategy()).willReturn(FAKE_NAMING_STRATEGY);
+    // instantiate the sut with the fake info
+    sut = new AvroSchemaPusher(mockCli, mockComponents);
+    // turn off the sut's logger to avoid polluting the build log
+    ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
+    // given the components will create a spied mock registry client per the properties match
+    var registry = spy(new MockSchemaRegistryClient());
+    given(mockComponents.createRegistryClient(argThat(registryPropertiesMatcher)))
+        .willReturn(registry);
+    // given the following two schema test files
+    var testSchema1 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema1.avsc");
+    var testSchema2 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema2.avsc");
+    // when invoking the push method with both schema files
+    var retCode =
+        sut.push(
+            List.of(
+                new TopicAndSchema(FAKE_TOPIC1, testSchema1),
+                new TopicAndSchema(FAKE_TOPIC2, testSchema2)));
+    // then the push should succeed
+    assertThat(retCode).isEqualTo(ReturnCode.SUCCESS);
+    // and both schemas should be registered with the registry client
+    assertThat(registry.getAllSubjects())
+        .containsExactlyInAnyOrder(
+            FAKE_TOPIC1 + "-com.redhat.schema.pusher.avro.schemas.TestingSchema1Name",
+            FAKE_TOPIC2 + "-com.redhat.schema.pusher.avro.schemas.TestingSchema2Name");
+    // and the producer should not be used
+    then(mockComponents).should(never()).createProducer(any());
+  }
+
+  @Test
+  void pushing_many_times_should_keep_the_clients_and_the_parsed_schemas_warm() throws Exception {
+    // stub the cli
+    given(mockCli.getKafkaBootstrap()).willReturn(FAKE_NOT_SECURED_BOOTSTRAP);
+    given(mockCli.getServiceRegistry()).willReturn(FAKE_REGISTRY);
+    given(mockCli.getNamingStrategy()).willReturn(FAKE_NAMING_STRATEGY);
+    // instantiate the sut with the fake info
+    sut = new AvroSchemaPusher(mockCli, mockComponents);
+    // turn off the sut's logger to avoid polluting the build log
+    ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
+    // given the components will create the mocked producer per the properties match
+    given(mockComponents.createProducer(argThat(notSecuredPropertiesMatcher)))
+        .willReturn(mockProducer);
+    // given the following schema test file
+    var testSchema1 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema1.avsc");
+    // when pushing it twice, for different topics
+    sut.push(List.of(new TopicAndSchema(FAKE_TOPIC1, testSchema1)));
+    sut.push(List.of(new TopicAndSchema(FAKE_TOPIC2, testSchema1)));
+    // then the producer should be created once and produce both records
+    then(mockComponents).should().createProducer(any());
+    then(mockProducer).should(times(2)).send(prodRecCaptore.capture());
+    // and the second push should reuse the schema parsed by the first
+    var records = prodRecCaptore.getAllValues();
+    assertThat(records.get(1).value()).isSameAs(records.get(0).value());
+    // when closing the sut
+    sut.close();
+    // then the producer should be closed
+    then(mockProducer).should().close();
+  }
+
   @Test
   void
       pushing_one_file_and_one_topic_with_custom_properties_should_result_in_one_producer_records_sent(
@@ -166,14 +734,11 @@ void pushing_two_files_and_two_topics_should_result_in_two_producer_records_sent
     given(mockCli.getPropertyAggregators())
         .willReturn(List.of(mockPropertyAggregator1, mockPropertyAggregator2));
     // instantiate the sut with the fake info
-    sut = new AvroSchemaPusher(mockCli);
+    sut = new AvroSchemaPusher(mockCli, mockComponents);
     // turn off the sut's logger to avoid polluting the build log
     ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
-    // stub the private di context
-    setField(sut, "context", mockContext);
-    // given the di context will return the mocked producer as bean per the properties match
-    given(mockContext.getBean(eq(SchemaProducer.class), argThat(customPropertiesMatcher)))
-        .willReturn(mockProducer);
+    // given the components will create the mocked producer per the properties match
+    given(mockComponents.createProducer(argThat(customPropertiesMatcher))).willReturn(mockProducer);
     // given the following two schema test files
     var testSchema1 = getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema1.avsc");
     // when invoking the push method with two topics and two schema files
@@ -198,11 +763,20 @@ void pushing_two_files_and_two_topics_should_result_in_two_producer_records_sent
       p ->
           FAKE_NOT_SECURED_BOOTSTRAP_CLEAN.equals(p.getProperty("bootstrap.servers"))
               && (FAKE_REGISTRY + "apis/ccompat/v6").equals(p.getProperty("schema.registry.url"))
+              && 16 == (int) p.get("schema.pusher.registry.stripes")
               && "all".equals(p.getProperty("acks"))
               && 0 == (int) p.get("retries")
               && StringSerializer.class.equals(p.get("key.serializer"))
               && FAKE_NAMING_STRATEGY.getStrategy().equals(p.get("value.subject.name.strategy"));
 
+  private ArgumentMatcher<Properties> registryPropertiesMatcher =
+      p ->
+          (FAKE_REGISTRY + "apis/ccompat/v6").equals(p.getProperty("schema.registry.url"))
+              && 16 == (int) p.get("schema.pusher.registry.stripes")
+              && FAKE_NAMING_STRATEGY.getStrategy().equals(p.get("value.subject.name.strategy"))
+              && !p.containsKey("bootstrap.servers")
+              && !p.containsKey("key.serializer");
+
   private ArgumentMatcher<Properties> selfSingedPropertiesMatcher =
       p ->
           FAKE_SECURED_BOOTSTRAP.equals(p.getProperty("bootstrap.servers"))
@@ -219,6 +793,18 @@ void pushing_two_files_and_two_topics_should_result_in_two_producer_records_sent
               && FAKE_KEYSTORE_PASSWORD.equals(p.getProperty("ssl.keystore.password"))
               && "PKCS12".equals(p.getProperty("ssl.keystore.type"));
 
+  private ArgumentMatcher<Properties> inlineStoresPropertiesMatcher =
+      p ->
+          FAKE_SECURED_BOOTSTRAP.equals(p.getProperty("bootstrap.servers"))
+              && "SSL".equals(p.getProperty("security.protocol"))
+              && "PEM".equals(p.getProperty("ssl.truststore.type"))
+              && ((Password) p.get("ssl.truststore.certificates"))
+                  .equals(p.get("ssl.keystore.certificate.chain"))
+              && "PEM".equals(p.getProperty("ssl.keystore.type"))
+              && ((Password) p.get("ssl.keystore.key")).value().contains("BEGIN PRIVATE KEY")
+              && !p.containsKey("ssl.truststore.location")
+              && !p.containsKey("ssl.keystore.location");
+
   private ArgumentMatcher<Properties> customPropertiesMatcher =
       p ->
           FAKE_NOT_SECURED_BOOTSTRAP_CLEAN.equals(p.getProperty("bootstrap.servers"))
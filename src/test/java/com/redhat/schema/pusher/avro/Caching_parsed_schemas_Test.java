@@ -0,0 +1,77 @@
+package com.redhat.schema.pusher.avro;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.redhat.schema.pusher.SchemaFileLoader;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.concurrent.*;
+import org.apache.avro.SchemaParseException;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Test cases for the AVRO parsed schemas cache. */
+class Caching_parsed_schemas_Test {
+  private static final String SCHEMA =
+      "{\"type\": \"record\", \"name\": \"Envelope\", \"fields\": [{\"name\": \"id\", \"type\":"
+          + " \"long\"}]}";
+
+  @TempDir Path tempDir;
+  private AvroSchemaCache sut;
+
+  @BeforeEach
+  void initialize() {
+    sut = new AvroSchemaCache(new SchemaFileLoader(SchemaFileLoader.DEFAULT_BUFFER_SIZE, 2));
+  }
+
+  @Test
+  void loading_the_same_path_many_times_should_read_and_parse_it_once() throws Exception {
+    // given a schema file
+    var schemaFile = Files.writeString(tempDir.resolve("envelope.avsc"), SCHEMA);
+    // when loading it concurrently many times
+    var executor = Executors.newFixedThreadPool(8);
+    try {
+      var futures = new ArrayList<Future<AvroSchemaCache.Parsed>>();
+      for (var i = 0; i < 400; i++) {
+        futures.add(executor.submit(() -> sut.parse(sut.read(schemaFile))));
+      }
+      var first = futures.get(0).get();
+      // then all the loads should share the same parsed schema
+      for (var future : futures) {
+        assertThat(future.get()).isSameAs(first);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertThat(sut.pathsCount()).isEqualTo(1);
+    assertThat(sut.contentsCount()).isEqualTo(1);
+  }
+
+  @Test
+  void loading_identical_files_at_different_paths_should_parse_them_once() throws Exception {
+    // given two identical schema files at different paths
+    var schemaFile1 = Files.writeString(tempDir.resolve("envelope1.avsc"), SCHEMA);
+    var schemaFile2 = Files.writeString(tempDir.resolve("envelope2.avsc"), SCHEMA);
+    // when loading both
+    var parsed1 = sut.parse(sut.read(schemaFile1));
+    var parsed2 = sut.parse(sut.read(schemaFile2));
+    // then both paths should be read and share the same parsed schema
+    assertThat(sut.pathsCount()).isEqualTo(2);
+    assertThat(sut.contentsCount()).isEqualTo(1);
+    assertThat(parsed2).isSameAs(parsed1);
+    // and the record should carry the schema with its canonical string
+    assertThat(parsed1.record().getAvroSchema()).isSameAs(parsed1.avroSchema());
+    assertThat(parsed1.record().getSchema()).isSameAs(parsed1.schema());
+  }
+
+  @Test
+  void loading_a_missing_or_an_invalid_file_should_throw_the_original_exception()
+      throws IOException {
+    var invalidFile = Files.writeString(tempDir.resolve("invalid.avsc"), "{\"type\": \"nope\"}");
+    assertThatExceptionOfType(NoSuchFileException.class)
+        .isThrownBy(() -> sut.read(tempDir.resolve("missing.avsc")));
+    assertThatExceptionOfType(SchemaParseException.class)
+        .isThrownBy(() -> sut.parse(sut.read(invalidFile)));
+  }
+}
@@ -0,0 +1,80 @@
+package com.redhat.schema.pusher.avro;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.*;
+import org.junit.jupiter.api.*;
+
+/** Test cases for the native registry API client, against a stub server. */
+class Calling_the_native_registry_api_Test {
+  private HttpServer server;
+  private ExecutorService serverExecutor;
+  private final CountDownLatch answer = new CountDownLatch(1);
+  private ApicurioRegistryClient sut;
+
+  @BeforeEach
+  void initialize() throws IOException {
+    serverExecutor = Executors.newCachedThreadPool();
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.setExecutor(serverExecutor);
+    server.createContext("/apis/registry/v2", this::respondWhenAllowed);
+    server.start();
+    sut =
+        new ApicurioRegistryClient(
+            HttpClient.newHttpClient(),
+            String.format("http://localhost:%d", server.getAddress().getPort()),
+            Duration.ofMillis(100),
+            Duration.ofMillis(300));
+  }
+
+  @AfterEach
+  void cleanup() {
+    answer.countDown();
+    server.stop(0);
+    serverExecutor.shutdownNow();
+  }
+
+  @Test
+  void a_request_left_unanswered_should_time_out() {
+    // given a registry holding the requests, and a client timing out after 100 ms
+    // when listing the artifacts, then the timeout should be thrown as a transport failure
+    assertThatExceptionOfType(UncheckedIOException.class)
+        .isThrownBy(sut::listArtifactIds)
+        .withCauseInstanceOf(HttpTimeoutException.class);
+  }
+
+  @Test
+  void an_import_left_unanswered_should_time_out_after_its_own_timeout() {
+    // given a registry holding the requests, and a client timing out the import after 300 ms
+    var begin = System.nanoTime();
+    // when importing an archive, then the timeout should be thrown as a transport failure
+    assertThatExceptionOfType(UncheckedIOException.class)
+        .isThrownBy(() -> sut.importArchive(new byte[] {1, 2, 3}))
+        .withCauseInstanceOf(HttpTimeoutException.class);
+    // and only once the import timeout elapsed
+    assertThat(Duration.ofNanos(System.nanoTime() - begin)).isGreaterThan(Duration.ofMillis(250));
+  }
+
+  private void respondWhenAllowed(final HttpExchange exchange) throws IOException {
+    exchange.getRequestBody().readAllBytes();
+    try {
+      answer.await(10, TimeUnit.SECONDS);
+    } catch (final InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    }
+    var bytes = "{}".getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(200, bytes.length);
+    try (var out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package com.redhat.schema.pusher.avro;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.redhat.schema.pusher.TopicAndSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import java.nio.file.Paths;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Test cases for the AVRO compatibility checker helper. */
+class Checking_schema_compatibility_Test {
+  private static final String ORDER_V1 =
+      "{\"type\": \"record\", \"name\": \"Order\", \"fields\": [{\"name\": \"id\", \"type\":"
+          + " \"long\"}]}";
+  private static final String ORDER_V2 =
+      "{\"type\": \"record\", \"name\": \"Order\", \"fields\": [{\"name\": \"id\", \"type\":"
+          + " \"long\"}, {\"name\": \"note\", \"type\": \"string\", \"default\": \"\"}]}";
+  private static final String ORDER_V3 =
+      "{\"type\": \"record\", \"name\": \"Order\", \"fields\": [{\"name\": \"id\", \"type\":"
+          + " \"long\"}, {\"name\": \"note\", \"type\": \"string\"}]}";
+  private static final String ORDER_STRING_ID =
+      "{\"type\": \"record\", \"name\": \"Order\", \"fields\": [{\"name\": \"id\", \"type\":"
+          + " \"string\"}]}";
+
+  private MockSchemaRegistryClient registry;
+  private AvroCompatibilityChecker sut;
+
+  @BeforeAll
+  static void silenceLogger() {
+    // turn off the sut's logger to avoid polluting the build log
+    Logger.getLogger(AvroCompatibilityChecker.class.getName()).setLevel(Level.OFF);
+  }
+
+  @BeforeEach
+  void initialize() throws Exception {
+    // given a registry with the first two versions of the order schema
+    registry = new MockSchemaRegistryClient();
+    registry.register("orders-Order", new AvroSchema(ORDER_V1));
+    registry.register("orders-Order", new AvroSchema(ORDER_V2));
+    sut = new AvroCompatibilityChecker(registry);
+  }
+
+  @Test
+  void checking_a_schema_for_a_non_existing_subject_should_pass() throws Exception {
+    sut.fetchSubjects();
+    assertThatNoException().isThrownBy(() -> sut.check(createTask("payments-Order", ORDER_V3)));
+  }
+
+  @Test
+  void checking_an_incompatible_schema_should_throw_a_conflict_naming_the_level() throws Exception {
+    // given the subject configured with the backward level
+    registry.updateCompatibility("orders-Order", "BACKWARD");
+    sut.fetchSubjects();
+    // when checking a schema changing the type of a field, then it should be rejected
+    assertThatExceptionOfType(RestClientException.class)
+        .isThrownBy(() -> sut.check(createTask("orders-Order", ORDER_STRING_ID)))
+        .withMessageContaining("'orders-Order'")
+        .withMessageContaining("BACKWARD")
+        .satisfies(exc -> assertThat(exc.getStatus()).isEqualTo(409));
+  }
+
+  @Test
+  void checking_against_the_latest_version_only_should_pass_unless_the_level_is_transitive()
+      throws Exception {
+    // given a schema requiring a field the first version lacks, but the latest version has
+    var task = createTask("orders-Order", ORDER_V3);
+    // when the subject is configured with the backward level, then it should pass
+    registry.updateCompatibility("orders-Order", "BACKWARD");
+    sut.fetchSubjects();
+    assertThatNoException().isThrownBy(() -> sut.check(task));
+    // when the subject is configured with the backward transitive level, then it should fail
+    registry.updateCompatibility("orders-Order", "BACKWARD_TRANSITIVE");
+    assertThatExceptionOfType(RestClientException.class)
+        .isThrownBy(() -> sut.check(task))
+        .withMessageContaining("BACKWARD_TRANSITIVE");
+  }
+
+  @Test
+  void checking_with_the_none_level_or_an_already_registered_schema_should_pass() throws Exception {
+    // given the subject configured with the forward level
+    registry.updateCompatibility("orders-Order", "FORWARD");
+    sut.fetchSubjects();
+    // then the latest version registered again should pass
+    assertThatNoException().isThrownBy(() -> sut.check(createTask("orders-Order", ORDER_V2)));
+    // and an incompatible schema should fail
+    assertThatExceptionOfType(RestClientException.class)
+        .isThrownBy(() -> sut.check(createTask("orders-Order", ORDER_STRING_ID)));
+    // when the subject is configured with the none level, then it should pass
+    registry.updateCompatibility("orders-Order", "NONE");
+    assertThatNoException()
+        .isThrownBy(() -> sut.check(createTask("orders-Order", ORDER_STRING_ID)));
+  }
+
+  private static AvroPushTask createTask(final String subject, final String schema) {
+    var task = new AvroPushTask(new TopicAndSchema("topic", Paths.get("schema.avsc")));
+    task.subject = subject;
+    task.avroSchema = new AvroSchema(schema);
+    return task;
+  }
+}
@@ -0,0 +1,217 @@
+package com.redhat.schema.pusher.avro;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.BDDMockito.*;
+import static org.springframework.test.util.ReflectionTestUtils.*;
+
+import com.redhat.schema.pusher.*;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.*;
+import java.util.zip.ZipInputStream;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/** Test cases for the AVRO schema pusher using the native registry API, against a stub server. */
+@ExtendWith(MockitoExtension.class)
+class Pushing_with_the_native_registry_api_Test {
+  private static final String FAKE_TOPIC1 = "faketopic";
+  private static final String FAKE_TOPIC2 = "anotherfaketopic";
+  private static final String SUBJECT1 =
+      FAKE_TOPIC1 + "-com.redhat.schema.pusher.avro.schemas.TestingSchema1Name";
+  private static final String SUBJECT2 =
+      FAKE_TOPIC2 + "-com.redhat.schema.pusher.avro.schemas.TestingSchema2Name";
+  private static final String API = "/apis/registry/v2";
+
+  @Mock private AvroComponents mockComponents;
+  @Mock private PushCli mockCli;
+  private HttpServer server;
+  private final Queue<String> createdArtifacts = new ConcurrentLinkedQueue<>();
+  private final Queue<List<String>> imports = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger searches = new AtomicInteger();
+  private volatile int createStatus = 200;
+  private final AtomicInteger throttled = new AtomicInteger();
+  private List<TopicAndSchema> records;
+
+  @BeforeAll
+  static void silenceLoggers() {
+    // turn off the helpers loggers to avoid polluting the build log
+    Logger.getLogger(AvroPushSupport.class.getName()).setLevel(Level.OFF);
+  }
+
+  @BeforeEach
+  void initialize() throws IOException, URISyntaxException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext(API + "/groups/default/artifacts", this::createArtifact);
+    server.createContext(API + "/search/artifacts", this::searchArtifacts);
+    server.createContext(API + "/admin/import", this::importArchive);
+    server.start();
+    records =
+        List.of(
+            new TopicAndSchema(
+                FAKE_TOPIC1,
+                getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema1.avsc")),
+            new TopicAndSchema(
+                FAKE_TOPIC2,
+                getResourceAbsPath("com/redhat/schema/pusher/avro/schemas/test_schema2.avsc")));
+    given(mockCli.getServiceRegistry())
+        .willReturn(String.format("http://localhost:%d/", server.getAddress().getPort()));
+    given(mockCli.getNamingStrategy()).willReturn(NamingStrategy.TOPIC_RECORD);
+    given(mockComponents.createRegistryHttpClient()).willReturn(HttpClient.newHttpClient());
+  }
+
+  @AfterEach
+  void cleanup() {
+    server.stop(0);
+  }
+
+  @Test
+  void pushing_a_small_batch_should_create_the_artifacts_one_by_one() {
+    // given a pusher with the default bulk threshold
+    var sut = createSut();
+    // when pushing two schemas
+    var retCode = sut.push(records);
+    // then each artifact should be created with its own request
+    assertThat(retCode).isEqualTo(ReturnCode.SUCCESS);
+    assertThat(createdArtifacts).containsExactlyInAnyOrder(SUBJECT1, SUBJECT2);
+    // and the registry should not be listed nor imported to
+    assertThat(searches).hasValue(0);
+    assertThat(imports).isEmpty();
+  }
+
+  @Test
+  void pushing_a_batch_reaching_the_threshold_should_import_it_in_one_request() {
+    // given a pusher with a bulk threshold of two artifacts
+    given(mockCli.getBulkThreshold()).willReturn(2);
+    var sut = createSut();
+    // when pushing two new schemas
+    var retCode = sut.push(records);
+    // then the registry should be listed once and the artifacts imported in one request
+    assertThat(retCode).isEqualTo(ReturnCode.SUCCESS);
+    assertThat(searches).hasValue(1);
+    assertThat(createdArtifacts).isEmpty();
+    assertThat(imports).hasSize(1);
+    // and the archive should hold the manifest, the contents, and the versions
+    assertThat(imports.peek())
+        .containsExactly(
+            "manifest.Manifest.json",
+            "content/1.Content.json",
+            "content/1.Content.data",
+            "content/2.Content.json",
+            "content/2.Content.data",
+            "groups/default/artifacts/" + SUBJECT1 + "/versions/1.ArtifactVersion.json",
+            "groups/default/artifacts/" + SUBJECT2 + "/versions/1.ArtifactVersion.json");
+  }
+
+  @Test
+  void a_rejected_artifact_should_fail_the_push_with_a_registry_error() {
+    // given a registry rejecting the artifacts
+    createStatus = 409;
+    var sut = createSut();
+    // when pushing, then the push should fail with a registry error
+    assertThat(sut.push(records)).isEqualTo(ReturnCode.REGISTRY_ERROR);
+  }
+
+  @Test
+  void a_throttled_artifact_should_be_retried() {
+    // given a registry throttling the first request, and a pusher retrying once
+    throttled.set(1);
+    given(mockCli.getMaxRetries()).willReturn(1);
+    given(mockCli.getRetryBackoff()).willReturn(1);
+    var sut = createSut();
+    // when pushing two schemas
+    var retCode = sut.push(records);
+    // then both artifacts should be created, the throttled one once retried
+    assertThat(retCode).isEqualTo(ReturnCode.SUCCESS);
+    assertThat(createdArtifacts).containsExactlyInAnyOrder(SUBJECT1, SUBJECT2);
+    assertThat(throttled).hasValue(0);
+  }
+
+  @Test
+  void imported_artifacts_should_be_left_out_of_the_state_file(@TempDir final Path tempDir) {
+    // given a pusher keeping a state file, with a bulk threshold of two artifacts
+    var stateFile = tempDir.resolve("state.bin");
+    given(mockCli.getBulkThreshold()).willReturn(2);
+    given(mockCli.getStateFile()).willReturn(stateFile);
+    var sut = createSut();
+    // when importing two new schemas
+    var retCode = sut.push(records);
+    // then the import should succeed, with no state recorded as the registry assigned the ids
+    assertThat(retCode).isEqualTo(ReturnCode.SUCCESS);
+    assertThat(imports).hasSize(1);
+    assertThat(stateFile).doesNotExist();
+  }
+
+  private ApicurioSchemaPusher createSut() {
+    var sut = new ApicurioSchemaPusher(mockCli, mockComponents);
+    // turn off the sut's logger to avoid polluting the build log
+    ((Logger) getField(sut, "LOGGER")).setLevel(Level.OFF);
+    return sut;
+  }
+
+  private void createArtifact(final HttpExchange exchange) throws IOException {
+    exchange.getRequestBody().readAllBytes();
+    var artifactId = exchange.getRequestHeaders().getFirst("X-Registry-ArtifactId");
+    if (throttled.getAndUpdate(n -> Math.max(n - 1, 0)) > 0) {
+      exchange.getResponseHeaders().add("Retry-After", "0");
+      respond(exchange, 429, "{\"message\": \"too many requests\", \"error_code\": 429}");
+      return;
+    }
+    if (createStatus != 200) {
+      respond(exchange, createStatus, "{\"message\": \"conflict\"}");
+      return;
+    }
+    createdArtifacts.add(artifactId);
+    respond(
+        exchange,
+        200,
+        String.format(
+            "{\"id\": \"%s\", \"version\": \"1\", \"globalId\": %d}",
+            artifactId, createdArtifacts.size()));
+  }
+
+  private void searchArtifacts(final HttpExchange exchange) throws IOException {
+    searches.incrementAndGet();
+    respond(exchange, 200, "{\"artifacts\": [{\"id\": \"unrelated\"}], \"count\": 1}");
+  }
+
+  private void importArchive(final HttpExchange exchange) throws IOException {
+    var entries = new ArrayList<String>();
+    try (var zip =
+        new ZipInputStream(new ByteArrayInputStream(exchange.getRequestBody().readAllBytes()))) {
+      for (var entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+        entries.add(entry.getName());
+      }
+    }
+    imports.add(entries);
+    exchange.sendResponseHeaders(204, -1);
+    exchange.close();
+  }
+
+  private static void respond(final HttpExchange exchange, final int status, final String body)
+      throws IOException {
+    var bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (var out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  private Path getResourceAbsPath(final String resourceName) throws URISyntaxException {
+    return Paths.get(getClass().getClassLoader().getResource(resourceName).toURI());
+  }
+}
@@ -0,0 +1,77 @@
+package com.redhat.schema.pusher.avro;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.redhat.schema.pusher.ReconcileAction;
+import com.redhat.schema.pusher.TopicAndSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import java.nio.file.Paths;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/** Test cases for the AVRO registry reconciler helper. */
+class Reconciling_with_the_registry_Test {
+  private static final String ORDER_V1 =
+      "{\"type\": \"record\", \"name\": \"Order\", \"fields\": [{\"name\": \"id\", \"type\":"
+          + " \"long\"}]}";
+  private static final String ORDER_V2 =
+      "{\"type\": \"record\", \"name\": \"Order\", \"fields\": [{\"name\": \"id\", \"type\":"
+          + " \"long\"}, {\"name\": \"note\", \"type\": \"string\", \"default\": \"\"}]}";
+
+  private MockSchemaRegistryClient registry;
+  private AvroRegistryReconciler sut;
+
+  @BeforeEach
+  void initialize() throws Exception {
+    // given a registry with the first version of the order schema and an obsolete subject
+    registry = new MockSchemaRegistryClient();
+    registry.register("orders-Order", new AvroSchema(ORDER_V1));
+    registry.register("obsolete-Order", new AvroSchema(ORDER_V1));
+    sut = new AvroRegistryReconciler(registry);
+    sut.fetchSubjects();
+  }
+
+  @Test
+  void planning_a_non_existing_subject_should_result_in_a_new_action() throws Exception {
+    var task = createTask("payments-Order", ORDER_V1);
+    sut.plan(task);
+    assertThat(task.action).isEqualTo(ReconcileAction.NEW);
+  }
+
+  @Test
+  void planning_the_latest_schema_of_a_subject_should_result_in_an_unchanged_action()
+      throws Exception {
+    var task = createTask("orders-Order", ORDER_V1);
+    sut.plan(task);
+    assertThat(task.action).isEqualTo(ReconcileAction.UNCHANGED);
+    assertThat(task.id).isEqualTo(registry.getLatestSchemaMetadata("orders-Order").getId());
+  }
+
+  @Test
+  void planning_a_modified_schema_of_a_subject_should_result_in_a_new_version_action()
+      throws Exception {
+    // given a modified schema planned for an existing subject
+    var task = createTask("orders-Order", ORDER_V2);
+    sut.plan(task);
+    assertThat(task.action).isEqualTo(ReconcileAction.NEW_VERSION);
+    // when registering it
+    sut.register(task);
+    // then the subject should have a second version
+    assertThat(registry.getAllVersions("orders-Order")).containsExactly(1, 2);
+  }
+
+  @Test
+  void getting_the_prunable_subjects_should_return_the_subjects_not_in_the_input() {
+    assertThat(sut.prunable(List.of("orders-Order", "payments-Order")))
+        .containsExactly("obsolete-Order");
+  }
+
+  private static AvroPushTask createTask(final String subject, final String schema) {
+    var task = new AvroPushTask(new TopicAndSchema("topic", Paths.get("schema.avsc")));
+    task.subject = subject;
+    task.avroSchema = new AvroSchema(schema);
+    return task;
+  }
+}
@@ -0,0 +1,201 @@
+package com.redhat.schema.pusher.avro;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.redhat.schema.pusher.PushMetrics;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.AbstractKafkaSchemaSerDeConfig;
+import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.*;
+
+/**
+ * Test cases for the striped registry client, the registrations throughput is compared with a
+ * single client by the {@code StripingRegistrationsBenchmark}.
+ */
+class Registering_concurrently_with_a_striped_client_Test {
+  private static final String SCHEMA_FMT =
+      "{\"type\": \"record\", \"name\": \"Record%d\", \"fields\": [{\"name\": \"id\", \"type\":"
+          + " \"long\"}]}";
+  private static final int STRIPES = 16;
+  private static final long FAKE_LATENCY_MILLIS = 5;
+
+  private final AtomicInteger sent = new AtomicInteger();
+
+  @Test
+  void identical_registrations_in_flight_should_be_coalesced_into_one_request() throws Exception {
+    // given a striped client
+    var sut = createSut(STRIPES);
+    var start = new CountDownLatch(1);
+    // when registering the same schema from 16 threads at once
+    var pool = Executors.newFixedThreadPool(16);
+    try {
+      var futures = new ArrayList<Future<Integer>>();
+      for (var i = 0; i < 16; i++) {
+        futures.add(
+            pool.submit(
+                () -> {
+                  start.await();
+                  return sut.register("subject", schema(1));
+                }));
+      }
+      start.countDown();
+      // then all the threads should get the same id
+      var ids = new HashSet<Integer>();
+      for (var future : futures) {
+        ids.add(future.get(10, TimeUnit.SECONDS));
+      }
+      assertThat(ids).hasSize(1);
+    } finally {
+      pool.shutdownNow();
+    }
+    // and only one request should be sent
+    assertThat(sent).hasValue(1);
+    // and the following lookups should be served from the cache
+    sut.register("subject", schema(1));
+    assertThat(sent).hasValue(1);
+  }
+
+  @Test
+  void a_failed_registration_should_not_be_cached() throws Exception {
+    // given a striped client over stripes failing the first registration
+    var failures = new AtomicInteger(1);
+    var stripe =
+        new MockSchemaRegistryClient() {
+          @Override
+          public synchronized int register(
+              final String subject, final ParsedSchema schema, final boolean normalize)
+              throws IOException, RestClientException {
+            if (failures.getAndDecrement() > 0) {
+              throw new RestClientException("fake exception", 500, 50001);
+            }
+            return super.register(subject, schema, normalize);
+          }
+        };
+    var sut = new StripedRegistryClient(config(), List.of(stripe));
+    PushMetrics.reset();
+    // when registering, then the registry exception should be thrown
+    assertThatExceptionOfType(RestClientException.class)
+        .isThrownBy(() -> sut.register("subject", schema(1)));
+    // and registering again should reach the registry
+    assertThat(sut.register("subject", schema(1))).isPositive();
+    // and both calls should be recorded with their status, and the cached one not
+    sut.register("subject", schema(1));
+    assertThat(PushMetrics.registry().getTimers())
+        .hasEntrySatisfying("registry.register.500", t -> assertThat(t.getCount()).isOne())
+        .hasEntrySatisfying("registry.register.200", t -> assertThat(t.getCount()).isOne());
+  }
+
+  @Test
+  void the_stripes_should_be_configured_from_the_producer_properties() {
+    // given the producer properties asking for 4 stripes
+    var props = new HashMap<String, Object>();
+    props.put(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, "http://localhost:0");
+    props.put(StripedRegistryClient.STRIPES_CONFIG, 4);
+    // when creating the client, then it should spread the subjects over 4 stripes
+    assertThat(new StripedRegistryClient(new KafkaAvroSerializerConfig(props)).stripesCount())
+        .isEqualTo(4);
+    // and the default should be used when not specified
+    props.remove(StripedRegistryClient.STRIPES_CONFIG);
+    assertThat(new StripedRegistryClient(new KafkaAvroSerializerConfig(props)).stripesCount())
+        .isEqualTo(StripedRegistryClient.DEFAULT_STRIPES);
+  }
+
+  @Test
+  void unrelated_subjects_should_register_in_parallel() throws Exception {
+    // given a striped client over stripes holding each registration until two are in flight
+    var inFlight = new CountDownLatch(2);
+    var stripes =
+        IntStream.range(0, 2)
+            .mapToObj(
+                i ->
+                    new MockSchemaRegistryClient() {
+                      @Override
+                      public synchronized int register(
+                          final String subject, final ParsedSchema schema, final boolean normalize)
+                          throws IOException, RestClientException {
+                        inFlight.countDown();
+                        try {
+                          inFlight.await(10, TimeUnit.SECONDS);
+                        } catch (final InterruptedException ie) {
+                          Thread.currentThread().interrupt();
+                        }
+                        return super.register(subject, schema, normalize);
+                      }
+                    })
+            .toList();
+    var sut = new StripedRegistryClient(config(), stripes);
+    // and two subjects bound to different stripes
+    var first = subjectOnStripe(0, 2);
+    var second = subjectOnStripe(1, 2);
+    // when registering them from two threads
+    var pool = Executors.newFixedThreadPool(2);
+    try {
+      var one = pool.submit(() -> sut.register(first, schema(1)));
+      var two = pool.submit(() -> sut.register(second, schema(2)));
+      // then both should be in flight at once and register
+      assertThat(one.get(10, TimeUnit.SECONDS)).isPositive();
+      assertThat(two.get(10, TimeUnit.SECONDS)).isPositive();
+      assertThat(inFlight.getCount()).isZero();
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  void deleting_a_subject_should_forget_its_cached_registrations() throws Exception {
+    // given a schema registered with a striped client
+    var sut = createSut(STRIPES);
+    sut.register("subject", schema(1));
+    // when deleting its subject with the one-arg form, as pruning did
+    sut.deleteSubject("subject");
+    // then registering it again should reach the registry
+    sut.register("subject", schema(1));
+    assertThat(sent).hasValue(2);
+  }
+
+  private StripedRegistryClient createSut(final int stripes) {
+    return new StripedRegistryClient(
+        config(), IntStream.range(0, stripes).mapToObj(i -> new SlowRegistryClient()).toList());
+  }
+
+  private static String subjectOnStripe(final int stripe, final int stripes) {
+    return IntStream.range(0, 100)
+        .mapToObj(i -> "subject-" + i)
+        .filter(s -> Math.floorMod(s.hashCode(), stripes) == stripe)
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private static KafkaAvroSerializerConfig config() {
+    return new KafkaAvroSerializerConfig(
+        Map.of(AbstractKafkaSchemaSerDeConfig.SCHEMA_REGISTRY_URL_CONFIG, "http://localhost:0"));
+  }
+
+  private static AvroSchema schema(final int index) {
+    return new AvroSchema(String.format(SCHEMA_FMT, index));
+  }
+
+  /* Fake registry client waiting on the network while holding its monitor. */
+  private final class SlowRegistryClient extends MockSchemaRegistryClient {
+    @Override
+    public synchronized int register(
+        final String subject, final ParsedSchema schema, final boolean normalize)
+        throws IOException, RestClientException {
+      sent.incrementAndGet();
+      try {
+        TimeUnit.MILLISECONDS.sleep(FAKE_LATENCY_MILLIS);
+      } catch (final InterruptedException ie) {
+        Thread.currentThread().interrupt();
+      }
+      return super.register(subject, schema, normalize);
+    }
+  }
+}
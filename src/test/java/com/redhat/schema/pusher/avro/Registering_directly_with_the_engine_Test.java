@@ -0,0 +1,72 @@
+package com.redhat.schema.pusher.avro;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.redhat.schema.pusher.NamingStrategy;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/** Test cases for the direct registration engine. */
+class Registering_directly_with_the_engine_Test {
+  private static final String TOPIC = "orders";
+  private static final String SCHEMA_V1 =
+      "{\"type\": \"record\", \"name\": \"Order\", \"namespace\": \"com.example\", \"fields\":"
+          + " [{\"name\": \"id\", \"type\": \"long\"}]}";
+  private static final String SCHEMA_V2 =
+      "{\"type\": \"record\", \"name\": \"Order\", \"namespace\": \"com.example\", \"fields\":"
+          + " [{\"name\": \"id\", \"type\": \"long\"}, {\"name\": \"note\", \"type\": \"string\","
+          + " \"default\": \"\"}]}";
+
+  @ParameterizedTest
+  @EnumSource(NamingStrategy.class)
+  void computing_subjects_should_match_the_relayed_strategy(final NamingStrategy strategy) {
+    // given an engine with the strategy
+    var sut = new AvroRegistrationEngine(strategy, false);
+    var schema = new AvroSchema(SCHEMA_V1);
+    // when computing the subject twice
+    var subject = sut.subjectOf(TOPIC, schema.rawSchema());
+    // then it should be the one the strategy class names, memoized
+    assertThat(subject).isEqualTo(strategy.createStrategy().subjectName(TOPIC, false, schema));
+    assertThat(sut.subjectOf(TOPIC, schema.rawSchema())).isSameAs(subject);
+  }
+
+  @Test
+  void registering_a_registered_schema_again_should_not_call_the_registry() throws Exception {
+    // given an engine and a registry client
+    var registry = spy(new MockSchemaRegistryClient());
+    var sut = new AvroRegistrationEngine(NamingStrategy.TOPIC_RECORD, true);
+    // when registering the same schema content twice, parsed twice, and a new version of it
+    var id = sut.register(registry, "orders-com.example.Order", new AvroSchema(SCHEMA_V1));
+    var again = sut.register(registry, "orders-com.example.Order", new AvroSchema(SCHEMA_V1));
+    var newId = sut.register(registry, "orders-com.example.Order", new AvroSchema(SCHEMA_V2));
+    // then the registry should be called once per content, and the memoized id returned
+    assertThat(again).isEqualTo(id);
+    assertThat(newId).isNotEqualTo(id);
+    assertThat(sut.register(registry, "orders-com.example.Order", new AvroSchema(SCHEMA_V1)))
+        .isEqualTo(id);
+    verify(registry, times(2)).register(anyString(), any(AvroSchema.class), anyBoolean());
+  }
+
+  @Test
+  void registering_after_forgetting_a_subject_should_call_the_registry_again() throws Exception {
+    // given a schema registered with the engine
+    var registry = spy(new MockSchemaRegistryClient());
+    var sut = new AvroRegistrationEngine(NamingStrategy.TOPIC, false);
+    var schema = new AvroSchema(SCHEMA_V1);
+    sut.register(registry, "orders-value", schema);
+    // when forgetting its subject, as pruning it does, and registering it again
+    sut.forget("orders-value");
+    sut.register(registry, "orders-value", schema);
+    // then the registry should be called again
+    verify(registry, times(2)).register("orders-value", schema, false);
+  }
+}
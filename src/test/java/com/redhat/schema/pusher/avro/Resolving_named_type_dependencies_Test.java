@@ -0,0 +1,111 @@
+package com.redhat.schema.pusher.avro;
+
+import static org.assertj.core.api.Assertions.*;
+
+import com.redhat.schema.pusher.TopicAndSchema;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.List;
+import org.apache.avro.SchemaParseException;
+import org.junit.jupiter.api.Test;
+
+/** Test cases for the AVRO named types dependency graph. */
+class Resolving_named_type_dependencies_Test {
+  @Test
+  void scanning_a_schema_should_resolve_the_defined_and_used_names_per_their_namespace() {
+    // given a record defining a nested enum and using types from two namespaces
+    var task =
+        createTask(
+            "{\"type\": \"record\", \"name\": \"Order\", \"namespace\": \"shop\", \"fields\": ["
+                + "{\"name\": \"state\", \"type\": {\"type\": \"enum\", \"name\": \"State\","
+                + " \"symbols\": [\"NEW\"]}},"
+                + "{\"name\": \"items\", \"type\": {\"type\": \"array\", \"items\": \"Item\"}},"
+                + "{\"name\": \"buyer\", \"type\": [\"null\", \"people.Customer\"]},"
+                + "{\"name\": \"tags\", \"type\": {\"type\": \"map\", \"values\": \"string\"}}]}");
+    // when scanning it
+    AvroReferenceGraph.scan(task);
+    // then the top level name should be the first defined one
+    assertThat(task.definedNames).containsExactly("shop.Order", "shop.State");
+    // and the used names should be fully qualified, leaving out the primitives
+    assertThat(task.usedNames).containsExactlyInAnyOrder("shop.Item", "people.Customer");
+  }
+
+  @Test
+  void scanning_an_invalid_json_should_throw_a_schema_parse_exception() {
+    var task = createTask("{not json");
+    assertThatExceptionOfType(SchemaParseException.class)
+        .isThrownBy(() -> AvroReferenceGraph.scan(task));
+  }
+
+  @Test
+  void building_the_graph_should_layer_the_files_in_dependency_waves() {
+    // given an enum, a record using it, and a record using both
+    var status = createTask(record("Status", "string"));
+    var address = createTask(record("Address", "Status"));
+    var customer = createTask(record("Customer", "Address", "Status"));
+    var tasks = List.of(customer, address, status);
+    tasks.forEach(AvroReferenceGraph::scan);
+    // when building the graph
+    var sut = new AvroReferenceGraph(tasks);
+    // then each file should be in the wave following its last dependency
+    assertThat(sut.waves()).containsExactly(List.of(status), List.of(address), List.of(customer));
+    assertThat(sut.unresolved()).isEmpty();
+    // and the direct dependencies should be linked
+    assertThat(customer.dependencies).containsExactly(address, status);
+    assertThat(AvroReferenceGraph.transitive(customer.dependencies))
+        .containsExactly(status, address);
+    assertThat(status.referenced).isTrue();
+    assertThat(customer.referenced).isFalse();
+  }
+
+  @Test
+  void building_the_graph_with_an_inlined_shared_type_should_not_add_a_dependency() {
+    // given a shared record, and a record inlining its own copy of it
+    var shared = createTask(record("Money", "double"));
+    var inlining =
+        createTask(
+            "{\"type\": \"record\", \"name\": \"Invoice\", \"fields\": [{\"name\": \"f0\","
+                + " \"type\": "
+                + record("Money", "double")
+                + "}]}");
+    var tasks = List.of(shared, inlining);
+    tasks.forEach(AvroReferenceGraph::scan);
+    // when building the graph
+    var sut = new AvroReferenceGraph(tasks);
+    // then both files should be in the first wave
+    assertThat(sut.waves()).containsExactly(List.of(shared, inlining));
+    assertThat(inlining.dependencies).isEmpty();
+  }
+
+  @Test
+  void building_the_graph_with_cyclic_files_should_leave_them_unresolved() {
+    // given two records using each other, and a record using one of them
+    var first = createTask(record("First", "Second"));
+    var second = createTask(record("Second", "First"));
+    var third = createTask(record("Third", "First"));
+    var independent = createTask(record("Independent", "string"));
+    var tasks = List.of(first, second, third, independent);
+    tasks.forEach(AvroReferenceGraph::scan);
+    // when building the graph
+    var sut = new AvroReferenceGraph(tasks);
+    // then only the independent record should be layered
+    assertThat(sut.waves()).containsExactly(List.of(independent));
+    assertThat(sut.unresolved()).containsExactlyInAnyOrder(first, second, third);
+  }
+
+  private static String record(final String name, final String... fieldTypes) {
+    var fields = new StringBuilder();
+    for (var i = 0; i < fieldTypes.length; i++) {
+      fields.append(i > 0 ? ", " : "");
+      fields.append(String.format("{\"name\": \"f%d\", \"type\": \"%s\"}", i, fieldTypes[i]));
+    }
+    return String.format(
+        "{\"type\": \"record\", \"name\": \"%s\", \"fields\": [%s]}", name, fields);
+  }
+
+  private static AvroPushTask createTask(final String content) {
+    var task = new AvroPushTask(new TopicAndSchema("topic", Paths.get("schema.avsc")));
+    task.content = content.getBytes(StandardCharsets.UTF_8);
+    return task;
+  }
+}